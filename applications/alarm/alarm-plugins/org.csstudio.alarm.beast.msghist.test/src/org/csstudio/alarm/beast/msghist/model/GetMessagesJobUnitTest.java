@@ -0,0 +1,188 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.alarm.beast.msghist.model;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.List;
+
+import org.csstudio.alarm.beast.msghist.rdb.FakeMessageDatabase;
+import org.csstudio.alarm.beast.msghist.rdb.MessageRDB;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.junit.Test;
+
+/** JUnit test of the incremental update in {@link GetMessagesJob},
+ *  using the {@link FakeMessageDatabase}
+ */
+@SuppressWarnings("nls")
+public class GetMessagesJobUnitTest
+{
+    private static final long START = System.currentTimeMillis() - 24*60*60*1000L;
+
+    private final FakeMessageDatabase db = new FakeMessageDatabase();
+
+    /** Messages of the last job */
+    private final List<Message> messages = new ArrayList<>();
+
+    /** Add messages with given IDs, one per second */
+    private void addMessages(final int first, final int last)
+    {
+        for (int id=first; id<=last; ++id)
+            db.add(id, new Date(START + id*1000L), "log", "Message " + id, "INFO", "Text " + id);
+    }
+
+    /** Run job
+     *  @param start_id ID of oldest message that is within the time range
+     *  @param max_messages Message limit
+     *  @param previous Previous messages or <code>null</code>
+     *  @return Messages
+     */
+    private Message[] read(final int start_id, final int max_messages, final Message[] previous)
+    {
+        final Calendar start = Calendar.getInstance();
+        start.setTimeInMillis(START + start_id*1000L);
+        final Calendar end = Calendar.getInstance();
+        messages.clear();
+        final GetMessagesJob job = new GetMessagesJob("url", "user", "password", "", start, end,
+                new MessagePropertyFilter[0], max_messages, DateTimeFormatter.ISO_INSTANT, previous)
+        {
+            @Override
+            MessageRDB connect() throws Exception
+            {
+                return db.createRDB();
+            }
+
+            @Override
+            void handleError(final String message, final Exception ex)
+            {
+                throw new AssertionError(message, ex);
+            }
+
+            @Override
+            void gotMessages(final Message[] received, final boolean complete)
+            {
+                messages.clear();
+                messages.addAll(Arrays.asList(received));
+            }
+
+            @Override
+            void addMessages(final Message[] added, final boolean at_start, final boolean complete)
+            {
+                messages.addAll(at_start ? 0 : messages.size(), Arrays.asList(added));
+            }
+        };
+        job.run(new NullProgressMonitor());
+        return messages.toArray(new Message[messages.size()]);
+    }
+
+    /** Check that messages have the expected IDs and sequence numbers */
+    private static void checkIDs(final Message[] messages, final int... ids)
+    {
+        final int[] actual = new int[messages.length];
+        for (int i=0; i<messages.length; ++i)
+        {
+            actual[i] = messages[i].getId();
+            assertThat(messages[i].getSequence(), equalTo(i));
+        }
+        assertThat(Arrays.toString(actual), equalTo(Arrays.toString(ids)));
+    }
+
+    /** @return IDs from newest to oldest */
+    private static int[] range(final int newest, final int oldest)
+    {
+        final int[] ids = new int[newest - oldest + 1];
+        for (int i=0; i<ids.length; ++i)
+            ids[i] = newest - i;
+        return ids;
+    }
+
+    @Test
+    public void testMerge() throws Exception
+    {
+        addMessages(1, 10);
+        final Message[] previous = read(0, 100, null);
+        assertThat(previous.length, equalTo(10));
+        assertThat(db.getQueries(), equalTo(1));
+
+        // Only the new messages are read, and merged with the previous ones
+        addMessages(11, 15);
+        final Message[] merged = read(0, 100, previous);
+        assertThat(db.getQueries(), equalTo(2));
+        for (int i=0; i<merged.length; ++i)
+        {
+            assertThat(merged[i].getId(), equalTo(15 - i));
+            assertThat(merged[i].getSequence(), equalTo(i + 1));
+        }
+        assertThat(merged.length, equalTo(15));
+        // Oldest new message has 'delta' to newest previous message
+        assertThat(merged[4].getProperty(Message.DELTA) != null, equalTo(true));
+        // Previous messages are re-used
+        assertThat(merged[5].getPropertyMap(), equalTo(previous[0].getPropertyMap()));
+
+        // Nothing new
+        final Message[] same = read(0, 100, merged);
+        assertThat(same.length, equalTo(15));
+        assertThat(same[0].getId(), equalTo(15));
+    }
+
+    @Test
+    public void testDropOld() throws Exception
+    {
+        addMessages(1, 10);
+        final Message[] previous = read(0, 100, null);
+
+        // Start time moved past message 5
+        addMessages(11, 12);
+        final Message[] merged = read(6, 100, previous);
+        assertThat(merged.length, equalTo(7));
+        assertThat(merged[0].getId(), equalTo(12));
+        assertThat(merged[6].getId(), equalTo(6));
+        assertThat(merged[6].getSequence(), equalTo(7));
+    }
+
+    @Test
+    public void testLimit() throws Exception
+    {
+        addMessages(1, 10);
+        final Message[] previous = read(0, 12, null);
+        assertThat(previous.length, equalTo(10));
+
+        // New and previous messages exceed the limit:
+        // Oldest previous messages are dropped, 'limit' message at start and end
+        addMessages(11, 15);
+        final Message[] merged = read(0, 12, previous);
+        final int[] ids = new int[14];
+        ids[0] = -1;
+        System.arraycopy(range(15, 4), 0, ids, 1, 12);
+        ids[13] = -1;
+        checkIDs(merged, ids);
+
+        // Update of a limited result keeps the limit
+        addMessages(16, 16);
+        final Message[] again = read(0, 12, merged);
+        ids[0] = -1;
+        System.arraycopy(range(16, 5), 0, ids, 1, 12);
+        ids[13] = -1;
+        checkIDs(again, ids);
+
+        // New messages alone exceed the limit
+        addMessages(17, 30);
+        final Message[] only_new = read(0, 12, again);
+        assertThat(only_new[0].getId(), equalTo(-1));
+        assertThat(only_new[1].getId(), equalTo(30));
+        assertThat(only_new[12].getId(), equalTo(19));
+        assertThat(only_new[only_new.length-1].getId(), equalTo(-1));
+        assertThat(only_new.length, equalTo(14));
+    }
+}
@@ -0,0 +1,87 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.alarm.beast.msghist.model;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+/** JUnit test of the {@link MessageProperties}
+ */
+@SuppressWarnings("nls")
+public class MessagePropertiesUnitTest
+{
+    private final MessageProperties.Layout layout = new MessageProperties.Layout("TIME", "TYPE", "TEXT", "DELTA");
+
+    @Test
+    public void testGetPut() throws Exception
+    {
+        assertThat(layout.size(), equalTo(4));
+        assertThat(layout.indexOf("TEXT"), equalTo(2));
+
+        final MessageProperties props = new MessageProperties(layout);
+        assertThat(props.isEmpty(), equalTo(true));
+        assertThat(props.get("TYPE"), nullValue());
+
+        props.set(layout.indexOf("TYPE"), "log");
+        assertThat(props.get("TYPE"), equalTo("log"));
+        assertThat(props.put("TYPE", "alarm"), equalTo("log"));
+        assertThat(props.put("TEXT", "Hello"), nullValue());
+        assertThat(props.get("TYPE"), equalTo("alarm"));
+        assertThat(props.containsKey("TEXT"), equalTo(true));
+        assertThat(props.containsKey("DELTA"), equalTo(false));
+        assertThat(props.size(), equalTo(2));
+    }
+
+    @Test
+    public void testEntrySet() throws Exception
+    {
+        final MessageProperties props = new MessageProperties(layout);
+        props.put("TIME", "now");
+        props.put("DELTA", "1.0");
+
+        // Entries in layout order, null properties skipped
+        final Map<String, String> expected = new HashMap<>();
+        expected.put("TIME", "now");
+        expected.put("DELTA", "1.0");
+        assertThat(props.entrySet().size(), equalTo(2));
+        assertThat(props.keySet().iterator().next(), equalTo("TIME"));
+        assertThat(props.equals(expected), equalTo(true));
+        assertThat(new HashMap<>(props), equalTo(expected));
+
+        // Setting a property to null removes it from the entries
+        props.put("TIME", null);
+        assertThat(props.keySet().iterator().next(), equalTo("DELTA"));
+        assertThat(props.size(), equalTo(1));
+    }
+
+    @Test
+    public void testUnknownProperty() throws Exception
+    {
+        final MessageProperties props = new MessageProperties(layout);
+        assertThat(layout.indexOf("HOST"), equalTo(-1));
+        assertThat(props.get("HOST"), nullValue());
+        assertThat(props.containsKey("HOST"), equalTo(false));
+        try
+        {
+            props.put("HOST", "host");
+            fail("Put property that is not in layout");
+        }
+        catch (IllegalArgumentException ex)
+        {
+            // Expected
+        }
+        assertThat(props.isEmpty(), equalTo(true));
+    }
+}
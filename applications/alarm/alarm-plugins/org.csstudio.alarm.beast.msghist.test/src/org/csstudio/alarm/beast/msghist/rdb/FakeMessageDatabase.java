@@ -0,0 +1,230 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.alarm.beast.msghist.rdb;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.csstudio.platform.utility.rdb.RDBUtil.Dialect;
+
+/** In-memory message database for tests
+ *
+ *  <p>Provides a JDBC connection that handles the queries of {@link SQL}
+ *  for a MESSAGE table with TYPE, NAME and SEVERITY columns
+ *  and TEXT and HOST properties in MESSAGE_CONTENT.
+ *  Filters are not supported.
+ */
+@SuppressWarnings("nls")
+public class FakeMessageDatabase
+{
+    /** MESSAGE_CONTENT property IDs */
+    private static final int TEXT = 1, HOST = 2;
+
+    /** Row of the MESSAGE table with its MESSAGE_CONTENT */
+    private static class Row
+    {
+        final int id;
+        final Timestamp datum;
+        final String type, name, severity, text;
+
+        Row(final int id, final Date datum, final String type, final String name,
+            final String severity, final String text)
+        {
+            this.id = id;
+            this.datum = new Timestamp(datum.getTime());
+            this.type = type;
+            this.name = name;
+            this.severity = severity;
+            this.text = text;
+        }
+    }
+
+    private final List<Row> messages = new ArrayList<>();
+
+    private final AtomicInteger queries = new AtomicInteger();
+
+    /** Add message
+     *  @param id Message ID
+     *  @param datum Time of message
+     *  @param type Message type
+     *  @param name Message name
+     *  @param severity Severity
+     *  @param text Text, <code>null</code> for a message without MESSAGE_CONTENT
+     */
+    public synchronized void add(final int id, final Date datum, final String type,
+            final String name, final String severity, final String text)
+    {
+        messages.add(new Row(id, datum, type, name, severity, text));
+    }
+
+    /** @return Number of message queries executed */
+    public int getQueries()
+    {
+        return queries.get();
+    }
+
+    /** @return {@link MessageRDB} that reads from this database */
+    public MessageRDB createRDB() throws Exception
+    {
+        return new MessageRDB(getConnection(), Dialect.MySQL, "");
+    }
+
+    /** @return Connection to this database */
+    public Connection getConnection()
+    {
+        return proxy(Connection.class, (method, args) ->
+        {
+            switch (method)
+            {
+            case "getMetaData":
+                return proxy(DatabaseMetaData.class, (meta_method, meta_args) ->
+                {
+                    if (meta_method.equals("getColumns"))
+                        return resultSet(rows(new Object[] { null, null, null, "ID" },
+                                              new Object[] { null, null, null, "DATUM" },
+                                              new Object[] { null, null, null, "TYPE" },
+                                              new Object[] { null, null, null, "NAME" },
+                                              new Object[] { null, null, null, "SEVERITY" }));
+                    return null;
+                });
+            case "createStatement":
+                return proxy(Statement.class, (stmt_method, stmt_args) ->
+                {
+                    if (stmt_method.equals("executeQuery"))
+                        return resultSet(rows(new Object[] { TEXT, "TEXT" },
+                                              new Object[] { HOST, "HOST" }));
+                    return null;
+                });
+            case "prepareStatement":
+                return prepareStatement();
+            default:
+                return null;
+            }
+        });
+    }
+
+    /** @return Statement for the message query */
+    private PreparedStatement prepareStatement()
+    {
+        final Map<Integer, Object> parameters = new HashMap<>();
+        return proxy(PreparedStatement.class, (method, args) ->
+        {
+            if (method.startsWith("set")  &&  args.length == 2  &&  args[0] instanceof Integer)
+                parameters.put((Integer) args[0], args[1]);
+            else if (method.equals("executeQuery"))
+            {
+                queries.incrementAndGet();
+                return resultSet(query((Timestamp) parameters.get(1), (Timestamp) parameters.get(2),
+                                       (Integer) parameters.get(3), (Integer) parameters.get(4),
+                                       (Integer) parameters.get(5)));
+            }
+            return null;
+        });
+    }
+
+    /** @return Rows of messages in time range and ID range, newest first, with their properties */
+    private synchronized List<Object[]> query(final Timestamp start, final Timestamp end,
+            final int since_id, final int before_id, final int limit)
+    {
+        final List<Row> selected = new ArrayList<>();
+        for (Row message : messages)
+            if (! message.datum.before(start)  &&  ! message.datum.after(end)  &&
+                message.id >= since_id  &&  message.id < before_id)
+                selected.add(message);
+        selected.sort((a, b) -> Integer.compare(b.id, a.id));
+        final List<Object[]> result = new ArrayList<>();
+        for (Row message : selected.subList(0, Math.min(limit, selected.size())))
+        {
+            if (message.text == null)
+                result.add(new Object[] { message.id, message.datum, message.type, message.name, message.severity, null, null });
+            else
+            {
+                result.add(new Object[] { message.id, message.datum, message.type, message.name, message.severity, TEXT, message.text });
+                result.add(new Object[] { message.id, message.datum, message.type, message.name, message.severity, HOST, "host" });
+            }
+        }
+        return result;
+    }
+
+    private static List<Object[]> rows(final Object[]... rows)
+    {
+        final List<Object[]> result = new ArrayList<>();
+        for (Object[] row : rows)
+            result.add(row);
+        return result;
+    }
+
+    /** @param rows Rows, accessed with 1-based column index
+     *  @return {@link ResultSet} for the rows
+     */
+    private static ResultSet resultSet(final List<Object[]> rows)
+    {
+        final int[] row = { -1 };
+        final boolean[] was_null = { false };
+        return proxy(ResultSet.class, (method, args) ->
+        {
+            if (method.equals("next"))
+                return ++row[0] < rows.size();
+            if (method.equals("wasNull"))
+                return was_null[0];
+            if (! method.startsWith("get")  ||  args == null  ||  ! (args[0] instanceof Integer))
+                return null;
+            final Object value = rows.get(row[0])[(Integer) args[0] - 1];
+            was_null[0] = value == null;
+            switch (method)
+            {
+            case "getInt":
+                return value == null ? 0 : ((Number) value).intValue();
+            case "getString":
+                return value == null ? null : value.toString();
+            default:
+                return value;
+            }
+        });
+    }
+
+    /** Handler for a proxy method call */
+    @FunctionalInterface
+    private interface Handler
+    {
+        Object invoke(String method, Object[] args) throws Exception;
+    }
+
+    /** @param type Interface to implement
+     *  @param handler Handles calls, may return <code>null</code> for the default value
+     *  @return Proxy
+     */
+    private static <T> T proxy(final Class<T> type, final Handler handler)
+    {
+        return type.cast(Proxy.newProxyInstance(FakeMessageDatabase.class.getClassLoader(),
+                new Class<?>[] { type }, (proxy, method, args) ->
+        {
+            final Object result = handler.invoke(method.getName(), args);
+            if (result != null  ||  ! method.getReturnType().isPrimitive())
+                return result;
+            if (method.getReturnType() == boolean.class)
+                return false;
+            if (method.getReturnType() == void.class)
+                return null;
+            if (method.getReturnType() == long.class)
+                return 0L;
+            return 0;
+        }));
+    }
+}
@@ -0,0 +1,159 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.alarm.beast.msghist.rdb;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.List;
+
+import org.csstudio.alarm.beast.msghist.model.Message;
+import org.csstudio.alarm.beast.msghist.model.MessagePropertyFilter;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.junit.Test;
+
+/** JUnit test of the {@link MessageRDB} paging,
+ *  using the {@link FakeMessageDatabase}
+ */
+@SuppressWarnings("nls")
+public class MessageRDBUnitTest
+{
+    private static final DateTimeFormatter FORMAT = DateTimeFormatter.ISO_INSTANT;
+
+    private static final long START = System.currentTimeMillis() - 24*60*60*1000L;
+
+    /** @param count Number of messages, IDs 1 to count, one per second.
+     *               Every third message has no MESSAGE_CONTENT.
+     */
+    private static FakeMessageDatabase createDatabase(final int count)
+    {
+        final FakeMessageDatabase db = new FakeMessageDatabase();
+        for (int id=1; id<=count; ++id)
+            db.add(id, new Date(START + id*1000L), "log", "Message " + id, "INFO",
+                   id % 3 == 0 ? null : "Text " + id);
+        return db;
+    }
+
+    private static Calendar calendar(final long millis)
+    {
+        final Calendar calendar = Calendar.getInstance();
+        calendar.setTimeInMillis(millis);
+        return calendar;
+    }
+
+    /** Read messages
+     *  @param pages Receives the pages
+     *  @return <code>true</code> if limit was reached
+     */
+    private static boolean read(final FakeMessageDatabase db, final int max_messages,
+            final int since_id, final List<List<Message>> pages) throws Exception
+    {
+        final MessageRDB rdb = db.createRDB();
+        try
+        {
+            return rdb.readMessages(new NullProgressMonitor(),
+                    calendar(START), calendar(System.currentTimeMillis()),
+                    new MessagePropertyFilter[0], max_messages, FORMAT, since_id, pages::add);
+        }
+        finally
+        {
+            rdb.close();
+        }
+    }
+
+    private static List<Message> combine(final List<List<Message>> pages)
+    {
+        final List<Message> messages = new ArrayList<>();
+        for (List<Message> page : pages)
+            messages.addAll(page);
+        return messages;
+    }
+
+    /** Check that messages have the expected IDs, newest first, with their properties */
+    private static void checkMessages(final List<Message> messages, final int newest, final int oldest)
+    {
+        assertThat(messages.size(), equalTo(newest - oldest + 1));
+        for (int i=0; i<messages.size(); ++i)
+        {
+            final Message message = messages.get(i);
+            final int id = newest - i;
+            assertThat(message.getId(), equalTo(id));
+            assertThat(message.getSequence(), equalTo(i + 1));
+            assertThat(message.getProperty(Message.NAME), equalTo("Message " + id));
+            if (id % 3 == 0)
+                assertThat(message.getProperty("TEXT"), nullValue());
+            else
+            {
+                assertThat(message.getProperty("TEXT"), equalTo("Text " + id));
+                assertThat(message.getProperty("HOST"), equalTo("host"));
+            }
+            // Delta is set for all but the oldest message, also across pages
+            if (i < messages.size() - 1)
+                assertThat(message.getProperty(Message.DELTA) != null, equalTo(true));
+        }
+    }
+
+    @Test
+    public void testPages() throws Exception
+    {
+        final FakeMessageDatabase db = createDatabase(2500);
+        final List<List<Message>> pages = new ArrayList<>();
+        assertThat(read(db, 10000, 0, pages), equalTo(false));
+
+        assertThat(db.getQueries(), equalTo(3));
+        assertThat(pages.size(), equalTo(3));
+        checkMessages(combine(pages), 2500, 1);
+    }
+
+    @Test
+    public void testFullLastPage() throws Exception
+    {
+        // Messages 501 to 2500 fill exactly two pages,
+        // third query finds nothing
+        final FakeMessageDatabase db = createDatabase(2500);
+        final List<List<Message>> pages = new ArrayList<>();
+        assertThat(read(db, 10000, 501, pages), equalTo(false));
+
+        assertThat(db.getQueries(), equalTo(3));
+        checkMessages(combine(pages), 2500, 501);
+        // Last page only holds the message that was kept for its 'delta'
+        assertThat(pages.get(pages.size() - 1).size(), equalTo(1));
+    }
+
+    @Test
+    public void testLimit() throws Exception
+    {
+        final FakeMessageDatabase db = createDatabase(2500);
+        final List<List<Message>> pages = new ArrayList<>();
+        assertThat(read(db, 1500, 0, pages), equalTo(true));
+
+        final List<Message> messages = combine(pages);
+        // Limit message at the end
+        final Message limit = messages.remove(messages.size() - 1);
+        assertThat(limit.getId(), equalTo(-1));
+        assertThat(limit.getProperty(Message.TYPE), equalTo("internal"));
+        checkMessages(messages, 2500, 1001);
+    }
+
+    @Test
+    public void testEmpty() throws Exception
+    {
+        final FakeMessageDatabase db = createDatabase(10);
+        final List<List<Message>> pages = new ArrayList<>();
+        assertThat(read(db, 100, 11, pages), equalTo(false));
+        // Handler is called once with empty page
+        assertThat(pages.size(), equalTo(1));
+        assertTrue(pages.get(0).isEmpty());
+    }
+}
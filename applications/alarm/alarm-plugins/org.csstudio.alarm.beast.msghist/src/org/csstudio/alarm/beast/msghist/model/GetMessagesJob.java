@@ -8,7 +8,11 @@
 package org.csstudio.alarm.beast.msghist.model;
 
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.Calendar;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.csstudio.alarm.beast.msghist.rdb.MessageRDB;
 import org.eclipse.core.runtime.IProgressMonitor;
@@ -20,6 +24,12 @@ import org.eclipse.core.runtime.jobs.Job;
  * Background job for getting messages from RDB.
  * <p>
  * The job actually connects to the RDB each time and disconnects when done to avoid timeouts with a long running RDB connection.
+ * <p>
+ * Messages are read in pages. The first page is passed to {@link #gotMessages(Message[], boolean)},
+ * the following pages to {@link #addMessages(Message[], boolean, boolean)}.
+ * <p>
+ * When given the messages of a previous query, only messages newer than those are read and merged with the previous messages,
+ * dropping those that are now before the start time.
  *
  * @author Kay Kasemir
  * @author Borut Terpinc
@@ -35,6 +45,7 @@ abstract public class GetMessagesJob extends Job {
     final private MessagePropertyFilter[] filters;
     final private int max_messages;
     final private DateTimeFormatter date_format;
+    final private Message[] previous;
 
     /**
      * Initialize message job
@@ -55,12 +66,15 @@ abstract public class GetMessagesJob extends Job {
      *            Message filters
      * @param max_messages
      *            Max. messages count
-     * @param shell
-     *            UI shell to display error dialog
+     * @param date_format
+     *            Format for message time
+     * @param previous
+     *            Complete result of a previous query with the same filters to update, or <code>null</code> to read all
+     *            messages
      */
     public GetMessagesJob(final String url, final String user, final String password, final String schema,
             final Calendar start, final Calendar end, final MessagePropertyFilter filters[], final int max_messages,
-            final DateTimeFormatter date_format) {
+            final DateTimeFormatter date_format, final Message[] previous) {
         super("Get Messages from RDB");
         this.url = url;
         this.user = user;
@@ -71,16 +85,18 @@ abstract public class GetMessagesJob extends Job {
         this.filters = filters;
         this.max_messages = max_messages;
         this.date_format = date_format;
+        this.previous = previous;
     }
 
     @Override
     protected IStatus run(final IProgressMonitor monitor) {
         MessageRDB rdb = null;
         try {
-            rdb = new MessageRDB(url, user, password, schema);
-            final Message[] messages = rdb.getMessages(monitor, start, end, filters, max_messages, date_format);
-            if (!monitor.isCanceled())
-                gotMessages(messages);
+            rdb = connect();
+            if (previous == null)
+                readAll(rdb, monitor);
+            else
+                readNewer(rdb, monitor);
         } catch (final Exception ex) {
             handleError("Message Database Error", ex);
         }
@@ -89,6 +105,85 @@ abstract public class GetMessagesJob extends Job {
         return Status.OK_STATUS;
     }
 
+    /**
+     * Connect to the message RDB
+     *
+     * @return Connection
+     * @throws Exception
+     *             on error
+     */
+    MessageRDB connect() throws Exception {
+        return new MessageRDB(url, user, password, schema);
+    }
+
+    /** Read all messages, handing out each page as it arrives */
+    private void readAll(final MessageRDB rdb, final IProgressMonitor monitor) throws Exception {
+        final AtomicBoolean first = new AtomicBoolean(true);
+        final boolean reached_limit = rdb.readMessages(monitor, start, end, filters, max_messages, date_format, 0,
+                page -> {
+                    if (monitor.isCanceled())
+                        return;
+                    final Message[] messages = page.toArray(new Message[page.size()]);
+                    if (first.getAndSet(false))
+                        gotMessages(messages, false);
+                    else
+                        addMessages(messages, false, false);
+                });
+        if (monitor.isCanceled())
+            return;
+        // Also show the 'limit' message at the start
+        if (reached_limit)
+            addMessages(new Message[] { rdb.createLimitMessage(0, max_messages) }, true, true);
+        else
+            addMessages(new Message[0], false, true);
+    }
+
+    /** Read messages added since the previous query, merge with previous messages */
+    private void readNewer(final MessageRDB rdb, final IProgressMonitor monitor) throws Exception {
+        // Previous messages are ordered by ID, newest first.
+        // Re-read the newest previous message as well,
+        // which allows setting the 'delta' of the oldest new message.
+        int since_id = 0;
+        for (Message message : previous)
+            if (message.getId() >= 0) {
+                since_id = message.getId();
+                break;
+            }
+        final List<Message> received = new ArrayList<>();
+        final boolean reached_limit = rdb.readMessages(monitor, start, end, filters, max_messages, date_format,
+                since_id, received::addAll);
+        if (monitor.isCanceled())
+            return;
+        if (reached_limit) {
+            // New messages alone exhaust the limit, none of the previous messages remain
+            received.add(0, rdb.createLimitMessage(0, max_messages));
+            gotMessages(received.toArray(new Message[received.size()]), true);
+            return;
+        }
+
+        final List<Message> messages = new ArrayList<>(received.size() + previous.length);
+        for (Message message : received)
+            if (message.getId() != since_id)
+                messages.add(message.withSequence(messages.size() + 1));
+        final Date start_date = start.getTime();
+        boolean limited = false;
+        for (Message message : previous) {
+            // Skip 'internal' messages, drop messages that are now before the start time
+            if (message.getId() < 0 || (message.getDatum() != null && message.getDatum().before(start_date)))
+                continue;
+            if (messages.size() >= max_messages) {
+                limited = true;
+                break;
+            }
+            messages.add(message.withSequence(messages.size() + 1));
+        }
+        if (limited) {
+            messages.add(rdb.createLimitMessage(messages.size() + 1, max_messages));
+            messages.add(0, rdb.createLimitMessage(0, max_messages));
+        }
+        gotMessages(messages.toArray(new Message[messages.size()]), true);
+    }
+
     /**
      * Display error.
      *
@@ -99,6 +194,28 @@ abstract public class GetMessagesJob extends Job {
      */
     abstract void handleError(final String message, final Exception ex);
 
-    /** Derived class must implement to handle received messages */
-    abstract void gotMessages(final Message[] messages);
+    /**
+     * Derived class must implement to handle received messages.
+     * Called with the first page of messages that has been read,
+     * or with the merged result when only reading newer messages.
+     * Replaces the messages of earlier queries.
+     *
+     * @param messages
+     *            Messages
+     * @param complete
+     *            <code>true</code> when all messages of the query have been read
+     */
+    abstract void gotMessages(final Message[] messages, final boolean complete);
+
+    /**
+     * Derived class must implement to handle further pages of received messages.
+     *
+     * @param messages
+     *            Messages to add to those received so far, maybe empty
+     * @param at_start
+     *            <code>true</code> to insert before the messages received so far, otherwise append
+     * @param complete
+     *            <code>true</code> when all messages of the query have been read
+     */
+    abstract void addMessages(final Message[] messages, final boolean at_start, final boolean complete);
 }
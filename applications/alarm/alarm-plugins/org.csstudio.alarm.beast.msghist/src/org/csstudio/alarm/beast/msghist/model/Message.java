@@ -51,6 +51,9 @@ public class Message implements IPropertySource
 
     final private int sequence, id;
 
+    /** Time of the message or <code>null</code> */
+    final private Date datum;
+
     /** Map of property names and values */
     final private Map<String, String> properties;
 
@@ -61,12 +64,35 @@ public class Message implements IPropertySource
      */
     public Message(final int sequence,
             final int id, final Map<String, String> properties)
+    {
+        this(sequence, id, null, properties);
+    }
+
+    /** Constructor
+     *  @param sequence Sequence number
+     *  @param id ID from RDB
+     *  @param datum Time of the message or <code>null</code>
+     *  @param properties Map of message properties
+     */
+    public Message(final int sequence,
+            final int id, final Date datum, final Map<String, String> properties)
     {
         this.sequence = sequence;
         this.id = id;
+        this.datum = datum;
         this.properties = properties;
     }
 
+    /** @param sequence New sequence number
+     *  @return Message with same ID, time and properties but given sequence number
+     */
+    Message withSequence(final int sequence)
+    {
+        if (sequence == this.sequence)
+            return this;
+        return new Message(sequence, id, datum, properties);
+    }
+
     /** Set 'delta'.
      *  Public, but really only meant to be called by code that
      *  constructs the message to overcome the problem that
@@ -93,12 +119,24 @@ public class Message implements IPropertySource
         return id;
     }
 
+    /** @return Time of the message or <code>null</code> */
+    public Date getDatum()
+    {
+        return datum;
+    }
+
     /** @return Iterator over all properties in this message */
     public Iterator<String> getProperties()
     {
         return properties.keySet().iterator();
     }
 
+    /** @return Map of message properties */
+    Map<String, String> getPropertyMap()
+    {
+        return properties;
+    }
+
     /** Get a property.
      *  @param property Which property to get
      *  @return Value of requested property or <code>null</code>
@@ -0,0 +1,157 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.alarm.beast.msghist.model;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/** Compact map of message properties
+ *
+ *  <p>The property names are shared by all messages read with the same
+ *  {@link Layout}, each message only holds an array of values.
+ *  Properties that are <code>null</code> are not in the map.
+ */
+public class MessageProperties extends AbstractMap<String, String>
+{
+    /** Property names and their index in the values */
+    public static class Layout
+    {
+        final private String[] names;
+        final private Map<String, Integer> index = new HashMap<>();
+
+        /** @param names Property names */
+        public Layout(final String... names)
+        {
+            this.names = names;
+            for (int i=0; i<names.length; ++i)
+                index.put(names[i], i);
+        }
+
+        /** @param name Property name
+         *  @return Index of property, -1 if not in layout
+         */
+        public int indexOf(final String name)
+        {
+            final Integer i = index.get(name);
+            return i == null ? -1 : i.intValue();
+        }
+
+        /** @return Number of properties */
+        public int size()
+        {
+            return names.length;
+        }
+    }
+
+    final private Layout layout;
+    final private String[] values;
+
+    /** @param layout Layout that lists all properties that may be set */
+    public MessageProperties(final Layout layout)
+    {
+        this.layout = layout;
+        values = new String[layout.names.length];
+    }
+
+    /** @param index Index of property in layout
+     *  @param value Value or <code>null</code>
+     */
+    public void set(final int index, final String value)
+    {
+        values[index] = value;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String get(final Object key)
+    {
+        final int i = layout.indexOf((String) key);
+        return i < 0 ? null : values[i];
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean containsKey(final Object key)
+    {
+        return get(key) != null;
+    }
+
+    /** Set property
+     *  @param key Property name, must be in the layout
+     *  @param value Value
+     *  @return Previous value
+     *  @throws IllegalArgumentException if property is not in layout
+     */
+    @SuppressWarnings("nls")
+    @Override
+    public String put(final String key, final String value)
+    {
+        final int i = layout.indexOf(key);
+        if (i < 0)
+            throw new IllegalArgumentException("Unknown message property " + key);
+        final String previous = values[i];
+        values[i] = value;
+        return previous;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Set<Map.Entry<String, String>> entrySet()
+    {
+        return new AbstractSet<Map.Entry<String, String>>()
+        {
+            @Override
+            public Iterator<Map.Entry<String, String>> iterator()
+            {
+                return new Iterator<Map.Entry<String, String>>()
+                {
+                    private int next = skipNull(0);
+
+                    private int skipNull(int i)
+                    {
+                        while (i < values.length  &&  values[i] == null)
+                            ++i;
+                        return i;
+                    }
+
+                    @Override
+                    public boolean hasNext()
+                    {
+                        return next < values.length;
+                    }
+
+                    @Override
+                    public Map.Entry<String, String> next()
+                    {
+                        if (next >= values.length)
+                            throw new NoSuchElementException();
+                        final Map.Entry<String, String> entry =
+                            new SimpleImmutableEntry<>(layout.names[next], values[next]);
+                        next = skipNull(next + 1);
+                        return entry;
+                    }
+                };
+            }
+
+            @Override
+            public int size()
+            {
+                int count = 0;
+                for (String value : values)
+                    if (value != null)
+                        ++count;
+                return count;
+            }
+        };
+    }
+}
@@ -32,13 +32,15 @@ public class Model {
     final private String password;
     final private String schema;
     private volatile Message messages[] = new Message[0];
+    /** Are 'messages' the complete result for the current settings? */
+    private volatile boolean messages_complete = false;
     private CopyOnWriteArrayList<ModelListener> listeners = new CopyOnWriteArrayList<ModelListener>();
     private String start_spec = Preferences.getDefaultStart();
     private String end_spec = Preferences.getDefaultEnd();
     private MessagePropertyFilter filters[] = new MessagePropertyFilter[0];
     private int max_messages;
     private DateTimeFormatter date_format;
-    private GetMessagesJob message_job;
+    private volatile GetMessagesJob message_job;
     private Shell shell;
     private boolean errorCase;
 
@@ -113,7 +115,7 @@ public class Model {
     public void setTimerange(final String start_spec, final String end_spec) throws Exception {
         this.start_spec = start_spec;
         this.end_spec = end_spec;
-        launchQuery();
+        launchQuery(false);
     }
 
     /** @return Current filter settings or <code>null</code> */
@@ -132,7 +134,7 @@ public class Model {
      */
     public void setFilters(final MessagePropertyFilter filters[]) throws Exception {
         this.filters = filters;
-        launchQuery();
+        launchQuery(false);
     }
 
     /**
@@ -151,37 +153,75 @@ public class Model {
      */
     public void setMaxMessages(final int max_messages) throws Exception {
         this.max_messages = max_messages;
-        launchQuery();
+        launchQuery(false);
     }
 
     /**
      * Refresh.
+     * <p>
+     * When the current messages are complete, only newer messages are read
+     * and merged with the current messages, dropping those before the start time.
      *
      * @throws Exception
      *             the exception
      */
     public void refresh() throws Exception {
-        launchQuery();
+        launchQuery(true);
     }
 
-    /** Launch RDB query with current settings. */
-    private synchronized void launchQuery() throws Exception {
+    /**
+     * Launch RDB query with current settings.
+     *
+     * @param incremental
+     *            Only read messages newer than the current messages, if possible?
+     */
+    private synchronized void launchQuery(final boolean incremental) throws Exception {
         // Cancel a job that might already be running
         if (message_job != null)
             message_job.cancel();
 
         // Start new job
+        final Message[] previous;
+        if (incremental && messages_complete)
+            previous = messages;
+        else {
+            previous = null;
+            messages_complete = false;
+        }
         final StartEndTimeParser times = new StartEndTimeParser(start_spec, end_spec);
         message_job = new GetMessagesJob(url, user, password, schema, times.getStart(), times.getEnd(), filters,
-                max_messages, date_format) {
+                max_messages, date_format, previous) {
             @Override
-            void gotMessages(final Message[] messages) {
-                if (messages == null)
+            void gotMessages(final Message[] messages, final boolean complete) {
+                // Ignore late result of a replaced job
+                if (messages == null || message_job != this)
                     return;
                 Model.this.messages = messages;
+                messages_complete = complete;
                 fireModelChanged();
             }
 
+            @Override
+            void addMessages(final Message[] added, final boolean at_start, final boolean complete) {
+                if (message_job != this)
+                    return;
+                if (added.length > 0) {
+                    final Message[] current = Model.this.messages;
+                    final Message[] combined = new Message[current.length + added.length];
+                    if (at_start) {
+                        System.arraycopy(added, 0, combined, 0, added.length);
+                        System.arraycopy(current, 0, combined, added.length, current.length);
+                    } else {
+                        System.arraycopy(current, 0, combined, 0, current.length);
+                        System.arraycopy(added, 0, combined, current.length, added.length);
+                    }
+                    Model.this.messages = combined;
+                }
+                messages_complete = complete;
+                if (added.length > 0)
+                    fireModelChanged();
+            }
+
             @Override
             void handleError(final String message, final Exception ex) {
                 Activator.getLogger().log(Level.WARNING, message, ex);
@@ -16,13 +16,19 @@ import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
 
 import org.csstudio.alarm.beast.msghist.Messages;
 import org.csstudio.alarm.beast.msghist.model.Message;
+import org.csstudio.alarm.beast.msghist.model.MessageProperties;
 import org.csstudio.alarm.beast.msghist.model.MessagePropertyFilter;
 import org.csstudio.alarm.beast.msghist.model.PVMessage;
 import org.csstudio.platform.utility.rdb.RDBUtil;
+import org.csstudio.platform.utility.rdb.RDBUtil.Dialect;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.osgi.util.NLS;
 
@@ -33,12 +39,32 @@ import org.eclipse.osgi.util.NLS;
 @SuppressWarnings("nls")
 public class MessageRDB
 {
-    /** Util. for connection to RDB */
+    /** Util. for connection to RDB, <code>null</code> when using a given connection */
     final private RDBUtil rdb_util;
 
+    /** Given connection to RDB, <code>null</code> when using the rdb_util */
+    final private Connection connection;
+
     /** SQL statements */
     final private SQL sql;
 
+    /** Number of messages to read per query */
+    final private static int PAGE_SIZE = 1000;
+
+    /** Number of rows to fetch per round-trip.
+     *  Each message has one row per property in MESSAGE_CONTENT.
+     */
+    final private static int FETCH_SIZE = 5000;
+
+    /** Layout of message properties: Datum, MESSAGE columns, MESSAGE_CONTENT properties, Delta */
+    final private MessageProperties.Layout layout;
+
+    /** Index in layout of each MESSAGE column */
+    final private int[] message_property_index;
+
+    /** Index in layout of MESSAGE_CONTENT properties by property ID */
+    final private Map<Integer, Integer> content_property_index = new HashMap<>();
+
     /** Connect to RDB
      *  @param url Database URL
      *  @param user
@@ -51,14 +77,61 @@ public class MessageRDB
     public MessageRDB(final String url, final String user,
             final String password, final String schema ) throws Exception
     {
-        rdb_util = RDBUtil.connect(url, user, password, true);
-        sql = new SQL(rdb_util, schema);
+        this(RDBUtil.connect(url, user, password, true), schema);
+    }
+
+    /** Use an existing connection
+     *
+     *  <p>The connection remains open on {@link #close()}.
+     *
+     *  @param connection Connection to RDB
+     *  @param dialect RDB dialect
+     *  @param schema Database schema ending in "." or "" if not used
+     *  @throws Exception on error
+     */
+    public MessageRDB(final Connection connection, final Dialect dialect,
+            final String schema) throws Exception
+    {
+        this(null, connection, new SQL(connection, dialect, schema));
+    }
+
+    private MessageRDB(final RDBUtil rdb_util, final String schema) throws Exception
+    {
+        this(rdb_util, null, new SQL(rdb_util, schema));
+    }
+
+    private MessageRDB(final RDBUtil rdb_util, final Connection connection,
+            final SQL sql) throws Exception
+    {
+        this.rdb_util = rdb_util;
+        this.connection = connection;
+        this.sql = sql;
+
+        final Set<String> names = new LinkedHashSet<>();
+        names.add(Message.DATUM);
+        for (int i=0; i<sql.messagePropertyCount(); ++i)
+            names.add(sql.getMessageProperty(i));
+        names.addAll(sql.getContentProperties().values());
+        names.add(Message.DELTA);
+        layout = new MessageProperties.Layout(names.toArray(new String[names.size()]));
+        message_property_index = new int[sql.messagePropertyCount()];
+        for (int i=0; i<message_property_index.length; ++i)
+            message_property_index[i] = layout.indexOf(sql.getMessageProperty(i));
+        for (Map.Entry<Integer, String> entry : sql.getContentProperties().entrySet())
+            content_property_index.put(entry.getKey(), layout.indexOf(entry.getValue()));
     }
 
     /** Close RDB, release resources */
     public void close()
     {
-        rdb_util.close();
+        if (rdb_util != null)
+            rdb_util.close();
+    }
+
+    /** @return Connection to RDB */
+    private Connection getConnection() throws Exception
+    {
+        return rdb_util == null ? connection : rdb_util.getConnection();
     }
 
     /** Read messages from start to end time, maybe including filters.
@@ -69,114 +142,174 @@ public class MessageRDB
      *  @param filters Filters to use (not <code>null</code>).
      *  @param max_messages Limit on the number of messages retrieved.
      *  @return Array of Messages or <code>null</code>
+     *  @see #readMessages(IProgressMonitor, Calendar, Calendar, MessagePropertyFilter[], int, DateTimeFormatter, int, Consumer)
      */
     public Message[] getMessages(
             final IProgressMonitor monitor,
             final Calendar start, final Calendar end,
             final MessagePropertyFilter filters[],
             final int max_messages, final DateTimeFormatter date_format) throws Exception
+    {
+        final List<Message> messages = new ArrayList<>();
+        if (readMessages(monitor, start, end, filters, max_messages, date_format, 0, messages::addAll))
+        {
+            // Add the 'limit' message both as the first and last messages,
+            // so user is more likely to see it.
+            // A dialog box is even harder to miss,
+            // but auto-refresh mode would result in either
+            // blocked updates or a profusion of message boxes.
+            messages.add(0, createLimitMessage(0, max_messages));
+        }
+        return messages.toArray(new Message[messages.size()]);
+    }
+
+    /** Read messages from start to end time, maybe including filters.
+     *
+     *  <p>Messages are read newest first in 'pages' of {@link #PAGE_SIZE} messages.
+     *  Each page is read with a separate query that starts below the ID
+     *  of the last message in the previous page,
+     *  and handed to the <code>handler</code> as soon as it has been read.
+     *
+     *  @param monitor Used to display progress, also checked for cancellation
+     *  @param start Start time
+     *  @param end End time
+     *  @param filters Filters to use (not <code>null</code>).
+     *  @param max_messages Limit on the number of messages retrieved.
+     *  @param date_format Format for the message time
+     *  @param since_id Only read messages with this or a larger ID, 0 to read all
+     *  @param handler Called with each page of messages, at least once (maybe with empty list).
+     *                 When the <code>max_messages</code> limit is reached,
+     *                 the last page ends in an 'internal' message that indicates this
+     *  @return <code>true</code> if readout stopped because <code>max_messages</code> was reached
+     *  @throws Exception on error
+     */
+    public boolean readMessages(
+            final IProgressMonitor monitor,
+            final Calendar start, final Calendar end,
+            final MessagePropertyFilter filters[],
+            final int max_messages, final DateTimeFormatter date_format,
+            final int since_id,
+            final Consumer<List<Message>> handler) throws Exception
     {
         monitor.beginTask("Reading Messages", IProgressMonitor.UNKNOWN);
-        final ArrayList<Message> messages = new ArrayList<Message>();
         // Create new select statement
-        final String sql_txt = sql.createSelect(rdb_util, filters);
-        final Connection connection = rdb_util.getConnection();
+        final String sql_txt = sql.createSelect(filters);
+        final Connection connection = getConnection();
         connection.setReadOnly(true);
         final PreparedStatement statement =
                 connection.prepareStatement(sql_txt);
+        // Messages of current page
+        List<Message> messages = new ArrayList<Message>();
+        boolean delivered = false;
+        boolean reached_limit = false;
         try
         {
-            int parm = 1;
-            // Set start/end
-            statement.setTimestamp(parm++, new Timestamp(start.getTimeInMillis()));
-            statement.setTimestamp(parm++, new Timestamp(end.getTimeInMillis()));
-            // Set filter parameters
-            for (MessagePropertyFilter filter : filters)
-                statement.setString(parm++, filter.getPattern());
-            // Set query limit a bit higher than max_messages.
-            // This still limits the number of messages on the RDB side,
-            // but allows the following code to detect exhausting the limit.
-            statement.setInt(parm++, max_messages+1);
-
             // One benchmark example:
-            // Query took <<1 second, but reading all the messages took ~30.
-            // Same result when only calling 'next',
-            // i.e. commenting the 'next' loop body.
-            // So the local lookup of properties and packing
-            // into a HashMap adds almost nothing to the overall time.
-            final ResultSet result = statement.executeQuery();
+            // Query took <<1 second, but reading all the messages took ~30,
+            // with the default fetch size (Oracle: 10 rows per round-trip).
+            statement.setFetchSize(FETCH_SIZE);
+
             int sequence = 0;
-            // Initialize id and datum as "no current message"
-            int id = -1;
-            Date datum = null;
             Date last_datum = null;
             Message last_message = null;
-            Map<String, String> props = null;
-            int msg_count = 0;
-            while (!monitor.isCanceled()  &&  result.next())
+            // Only read messages below this ID
+            int before_id = Integer.MAX_VALUE;
+            boolean more = true;
+            while (more  &&  !monitor.isCanceled())
             {
-                // Fixed ID and DATUM
-                final int next_id = result.getInt(1);
-                final Date next_datum = result.getTimestamp(2);
-                // New message?
-                if (next_id != id)
-                {   // Does this conclude a previous message?
+                // Request one more than max_messages to detect exhausting the limit
+                final int page_limit = Math.min(PAGE_SIZE, max_messages + 1 - sequence);
+                int parm = 1;
+                // Set start/end, page
+                statement.setTimestamp(parm++, new Timestamp(start.getTimeInMillis()));
+                statement.setTimestamp(parm++, new Timestamp(end.getTimeInMillis()));
+                statement.setInt(parm++, since_id);
+                statement.setInt(parm++, before_id);
+                // Set filter parameters
+                for (MessagePropertyFilter filter : filters)
+                    statement.setString(parm++, filter.getPattern());
+                statement.setInt(parm++, page_limit);
+
+                int page_count = 0;
+                try
+                (
+                    final ResultSet result = statement.executeQuery();
+                )
+                {
+                    // Initialize id and datum as "no current message"
+                    int id = -1;
+                    Date datum = null;
+                    MessageProperties props = null;
+                    while (!monitor.isCanceled()  &&  result.next())
+                    {
+                        // Fixed ID and DATUM
+                        final int next_id = result.getInt(1);
+                        // New message?
+                        if (next_id != id)
+                        {
+                            ++page_count;
+                            // Does this conclude a previous message?
+                            if (props != null)
+                            {
+                                final Message message = createMessage(++sequence, id, datum, props);
+                                messages.add(message);
+                                // Maybe set the 'delta' of previous message
+                                if (last_message != null  &&  last_datum != null)
+                                    last_message.setDelta(last_datum, datum);
+                                last_datum = datum;
+                                last_message = message;
+                            }
+                            if (sequence >= max_messages)
+                            {   // Got one more than max_messages. Ignore that one, done.
+                                reached_limit = true;
+                                props = null;
+                                break;
+                            }
+                            // Construct new message and values
+                            props = new MessageProperties(layout);
+                            id = next_id;
+                            datum = result.getTimestamp(2);
+                            props.set(0, date_format.format(datum.toInstant()));
+                        }
+                        // Get Prop/Value from MESSAGE table
+                        int res_idx = 3;
+                        for (int i=0; i<sql.messagePropertyCount(); ++i)
+                            props.set(message_property_index[i], result.getString(res_idx++));
+                        // Prop/Value from MESSAGE_CONTENT table, if there is one
+                        final int prop_id = result.getInt(res_idx++);
+                        final Integer prop = result.wasNull() ? null : content_property_index.get(prop_id);
+                        if (prop != null)
+                            props.set(prop, result.getString(res_idx));
+                    }
+                    // Conclude last message of this page
                     if (props != null)
                     {
-                        final Message message = createMessage(++sequence, id, props);
+                        final Message message = createMessage(++sequence, id, datum, props);
                         messages.add(message);
-                        // Maybe set the 'delta' of previous message
                         if (last_message != null  &&  last_datum != null)
                             last_message.setDelta(last_datum, datum);
                         last_datum = datum;
                         last_message = message;
-                        // Update monitor every 50 messages
-                        final int count = messages.size();
-                        if (count % 50 == 0)
-                            monitor.subTask(count + " messages...");
-                        ++msg_count;
+                        before_id = id;
                     }
-                    // Construct new message and values
-                    props = new HashMap<String, String>();
-                    id = next_id;
-                    datum = next_datum;
-                    props.put(Message.DATUM, date_format.format(datum.toInstant()));
                 }
-                // Get Prop/Value from MESSAGE table
-                int res_idx = 3;
-                for (int i=0; i<sql.messagePropertyCount(); ++i)
-                    props.put(sql.getMessageProperty(i), result.getString(res_idx++));
-                // Prop/Value from MESSAGE_CONTENT table
-                final String prop = sql.getPropertyNameById(result.getInt(res_idx++));
-                final String value = result.getString(res_idx);
-                props.put(prop, value);
-            }
-            // No more results.
-            // Was another (partial) message assembled?
-            // This message may miss some properties because the RDB retrieval
-            // is limited by property max_properties...
-            if (props != null  &&  props.isEmpty() == false)
-            {
-                messages.add(createMessage(++sequence, id, props));
-                if (last_message != null  &&  last_datum != null)
-                    last_message.setDelta(last_datum, datum);
-            }
+                // Last page if it contained fewer messages than requested.
+                // The query returns every message of the page from the MESSAGE table,
+                // including those without MESSAGE_CONTENT, so a short page is the end.
+                more = !reached_limit  &&  page_count >= page_limit;
 
-            // Was readout stopped because we reached max. number of messages?
-            if (msg_count >= max_messages)
-            {
-                props = new HashMap<String, String>();
-                props.put(Message.TYPE, "internal");
-                props.put(Message.SEVERITY, "FATAL");
-                props.put("TEXT",
-                        NLS.bind(Messages.ReachedMaxMessagesFmt, max_messages));
-                // Add this message both as the first and last messages,
-                // so user is more likely to see it.
-                // A dialog box is even harder to miss,
-                // but auto-refresh mode would result in either
-                // blocked updates or a profusion of message boxes.
-                messages.add(0, createMessage(0, -1, props));
-                messages.add(createMessage(++sequence, -1, props));
+                if (reached_limit)
+                    messages.add(createLimitMessage(++sequence, max_messages));
+                else if (more  &&  messages.size() > 0)
+                {   // Hand out page, but keep the last message until its 'delta'
+                    // is set by the first message of the next page
+                    final List<Message> page = new ArrayList<>(messages.subList(0, messages.size() - 1));
+                    messages = new ArrayList<>();
+                    messages.add(last_message);
+                    handler.accept(page);
+                    delivered = true;
+                }
+                monitor.subTask(sequence + " messages...");
             }
         }
         finally
@@ -184,25 +317,40 @@ public class MessageRDB
             statement.close();
             monitor.done();
         }
+        if (!monitor.isCanceled()  &&  (messages.size() > 0  ||  !delivered))
+            handler.accept(messages);
+        return reached_limit;
+    }
 
-        // Convert to plain array
-        final Message[] ret_val = new Message[messages.size()];
-        return messages.toArray(ret_val);
+    /** @param sequence Sequence number
+     *  @param max_messages Limit on the number of messages
+     *  @return 'internal' message that indicates reaching the limit
+     */
+    public Message createLimitMessage(final int sequence, final int max_messages)
+    {
+        final Map<String, String> props = new HashMap<String, String>();
+        props.put(Message.TYPE, "internal");
+        props.put(Message.SEVERITY, "FATAL");
+        props.put("TEXT",
+                NLS.bind(Messages.ReachedMaxMessagesFmt, max_messages));
+        return createMessage(sequence, -1, null, props);
     }
 
     /** Create Message or PVMessage
      *  @param sequence Sequence number
      *  @param id RDB ID
+     *  @param datum Time of message or <code>null</code>
      *  @param props Remaining properties
      *  @return Message or PVMessage
      */
     private Message createMessage(final int sequence, final int id,
+                                  final Date datum,
                                   final Map<String, String> props)
     {
         // Is there a better way to determine which messages
         // have PVs and which don't??
         if ("alarm".equalsIgnoreCase(props.get(Message.TYPE)))
-            return new PVMessage(sequence, id, props);
-        return new Message(sequence, id, props);
+            return new PVMessage(sequence, id, datum, props);
+        return new Message(sequence, id, datum, props);
     }
 }
@@ -12,7 +12,9 @@ import java.sql.DatabaseMetaData;
 import java.sql.ResultSet;
 import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.Map;
 
 import org.csstudio.alarm.beast.msghist.model.MessagePropertyFilter;
 import org.csstudio.platform.utility.rdb.RDBUtil;
@@ -35,6 +37,9 @@ public class SQL
     /** RDB schema */
     final String schema;
 
+    /** RDB dialect */
+    final private Dialect dialect;
+
     /** Array of property names which are handled as MESSAGE columns. */
     final private String message_properties[];
 
@@ -55,10 +60,21 @@ public class SQL
      *  @param schema Database schema ending in "." or "" if not used
      */
     public SQL(final RDBUtil rdb_util, final String schema) throws Exception
+    {
+        this(rdb_util.getConnection(), rdb_util.getDialect(), schema);
+    }
+
+    /** Construct SQL Statements for RDB
+     *  @param connection Connection to RDB
+     *  @param dialect RDB dialect
+     *  @param schema Database schema ending in "." or "" if not used
+     */
+    public SQL(final Connection connection, final Dialect dialect, final String schema) throws Exception
     {
         this.schema = schema;
-        message_properties = determineMessageProperties(rdb_util);
-        readPropertyTypes(rdb_util);
+        this.dialect = dialect;
+        message_properties = determineMessageProperties(connection);
+        readPropertyTypes(connection);
     }
 
     /** @return Prefix to table name.
@@ -71,21 +87,20 @@ public class SQL
 
     /** Determine which extra columns are found in the MESSAGE table
      *  beyond ID and DATUM.
-     *  @param rdb_util RDB Utility
+     *  @param connection RDB connection
      *  @return Array of properties kept MESSAGE table
      */
-    private String[] determineMessageProperties(final RDBUtil rdb_util)
+    private String[] determineMessageProperties(final Connection connection)
             throws Exception
     {
         final ArrayList<String> properties = new ArrayList<String>();
-        final Connection connection = rdb_util.getConnection();
         final DatabaseMetaData meta = connection.getMetaData();
 
         // Catalog seems to be null
         final String catalog = connection.getCatalog();
         // Oracle uses upper-case table name
         String table = "message";
-        if (rdb_util.getDialect() == Dialect.Oracle)
+        if (dialect == Dialect.Oracle)
             table = table.toUpperCase();
         ResultSet columns = meta.getColumns(catalog, schema, table, null);
         while (columns.next())
@@ -101,14 +116,14 @@ public class SQL
     }
 
     /** Get all properties that are kept in MESSAGE_CONTENT
-     *  @param rdb_util RDB Utility
+     *  @param connection RDB connection
      *  @return Map of Property ID/Name
      */
-    private void readPropertyTypes(final RDBUtil rdb_util) throws Exception
+    private void readPropertyTypes(final Connection connection) throws Exception
     {
         final String select_property_types =
             "SELECT id, name FROM " + getSchemaPrefix() + "msg_property_type";
-        final Statement statement = rdb_util.getConnection().createStatement();
+        final Statement statement = connection.createStatement();
         try
         {
             final ResultSet result =
@@ -163,6 +178,12 @@ public class SQL
         return content_properties_by_id.get(Integer.valueOf(id));
     }
 
+    /** @return Names of properties in MESSAGE_CONTENT by ID */
+    public Map<Integer, String> getContentProperties()
+    {
+        return Collections.unmodifiableMap(content_properties_by_id);
+    }
+
     /** For properties in MESSAGE_CONTENT, obtain their ID by name
      *  @param property Name of the property
      *  @return RDB ID for the property
@@ -180,12 +201,19 @@ public class SQL
      *  <ol>
      *  <li>Start time
      *  <li>End time
+     *  <li>Lower message ID limit: Only messages with this or a larger ID are returned
+     *  <li>Upper message ID limit: Only messages with smaller ID are returned
      *  <li>Value pattern for property filter 1
      *  <li>Value pattern for property filter 2
      *  <li>...
-     *  <li value=99>overall property count limit
+     *  <li value=99>Message count limit
      *  </ol>
-     *  and returns the message
+     *  and returns the newest messages, ordered by ID, newest first,
+     *  so that the following 'page' of messages can be read by
+     *  setting the upper message ID limit to the last ID that was received.
+     *  Setting the lower message ID limit to the newest ID that was received
+     *  earlier fetches only messages that were added since.
+     *  <p>Rows of the result are
      *  <ol>
      *  <li>ID
      *  <li>Datum
@@ -195,13 +223,11 @@ public class SQL
      *  <li value=98>MESSAGE_CONTENT property ID
      *  <li>MESSAGE_CONTENT property value
      *  </ol>
-     *  @param rdb_util RDBUtil
-     *  @param schema Database schema ending in "." or "" if not used
+     *  A message without MESSAGE_CONTENT has one row with <code>null</code> property ID and value.
      *  @param filters Filters to use (not <code>null</code>)
      *  @return SQL string
      */
-    String createSelect(final RDBUtil rdb_util,
-            final MessagePropertyFilter filters[]) throws Exception
+    String createSelect(final MessagePropertyFilter filters[]) throws Exception
     {
         final StringBuffer sel = new StringBuffer();
         sel.append("SELECT");
@@ -211,9 +237,13 @@ public class SQL
             sel.append(" m." + msg_prop + ",");
         // .. and the properties from MESSAGE_CONTENT
         sel.append(" c.msg_property_type_id p, c.value");
-        sel.append(" FROM (SELECT * FROM " + getSchemaPrefix() + "message msg");
-        // Set time range
+        sel.append(" FROM (");
+        if (dialect == Dialect.Oracle)
+            sel.append("SELECT * FROM (");
+        sel.append("SELECT * FROM " + getSchemaPrefix() + "message msg");
+        // Set time range and start of 'page'
         sel.append(" WHERE msg.datum BETWEEN ? AND ?");
+        sel.append(" AND msg.id >= ? AND msg.id < ?");
         // Some filters may be MESSAGE columns, rest is MESSAGE_CONTENT
         for (MessagePropertyFilter filter : filters)
         {
@@ -232,17 +262,21 @@ public class SQL
             }
         }
 
-        // Oracle limits result count via ROWNUM check within WHERE clause...
-        if (rdb_util.getDialect() == Dialect.Oracle)
-            sel.append(" AND ROWNUM < ?");
         sel.append(" ORDER BY msg.id DESC");
+        // Oracle limits result count via ROWNUM check within WHERE clause,
+        // which must be applied to the sorted messages
+        if (dialect == Dialect.Oracle)
+            sel.append(") WHERE ROWNUM <= ?");
         // MySQL uses designated LIMIT statement instead.
-        if (rdb_util.getDialect() == Dialect.MySQL || rdb_util.getDialect() == Dialect.PostgreSQL)
+        if (dialect == Dialect.MySQL || dialect == Dialect.PostgreSQL)
             sel.append(" LIMIT ?");
-        sel.append(") m, " + getSchemaPrefix() + "message_content c");
+        sel.append(") m LEFT OUTER JOIN " + getSchemaPrefix() + "message_content c");
 
-        // Join MESSAGE and ..CONTENT
-        sel.append(" WHERE m.id=c.message_id");
+        // Join MESSAGE and ..CONTENT, keeping the properties of each message together.
+        // Outer join keeps messages without MESSAGE_CONTENT, so the result
+        // has all the messages of the 'page'
+        sel.append(" ON m.id=c.message_id");
+        sel.append(" ORDER BY m.id DESC");
 
        return sel.toString();
     }
@@ -7,7 +7,6 @@ import gov.bnl.channelfinder.api.Channel;
 import gov.bnl.channelfinder.api.ChannelQuery;
 import gov.bnl.channelfinder.api.ChannelQuery.Result;
 import gov.bnl.channelfinder.api.ChannelQueryListener;
-import gov.bnl.channelfinder.api.ChannelUtil;
 
 import java.util.ArrayList;
 import java.util.Collection;
@@ -18,6 +17,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.function.Consumer;
 
+import org.csstudio.utility.channelfinder.ChannelIndex;
 import org.diirt.service.ServiceDescription;
 import org.diirt.service.ServiceMethod;
 import org.diirt.service.ServiceMethodDescription;
@@ -53,8 +53,11 @@ public class QueryServiceMethod extends ServiceMethod {
             errorCallback.accept(result.exception);
         } else {
 
+            // Index the result once, instead of scanning all channels
+            // for the property and tag names
+            ChannelIndex index = new ChannelIndex(result.channels);
             List<Channel> channels = new ArrayList<Channel>(
-                result.channels);
+                index.getChannels());
             Collections.sort(channels, new Comparator<Channel>() {
 
             @Override
@@ -80,8 +83,7 @@ public class QueryServiceMethod extends ServiceMethod {
                 }));
 
             // Add Property Columns
-            Collection<String> propertyNames = ChannelUtil
-                .getPropertyNames(channels);
+            Collection<String> propertyNames = index.getPropertyNames();
             for (final String propertyName : propertyNames) {
             names.add(propertyName);
             types.add(String.class);
@@ -97,8 +99,7 @@ public class QueryServiceMethod extends ServiceMethod {
             }
 
             // Add Tag Columns
-            Collection<String> tagNames = ChannelUtil
-                .getAllTagNames(channels);
+            Collection<String> tagNames = index.getTagNames();
             for (final String tagName : tagNames) {
             names.add(tagName);
             types.add(String.class);
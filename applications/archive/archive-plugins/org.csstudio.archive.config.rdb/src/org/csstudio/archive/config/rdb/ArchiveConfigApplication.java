@@ -18,7 +18,9 @@ import org.csstudio.apputil.args.ArgParser;
 import org.csstudio.apputil.args.BooleanOption;
 import org.csstudio.apputil.args.IntegerOption;
 import org.csstudio.apputil.args.StringOption;
+import org.csstudio.archive.config.ConfigChanges;
 import org.csstudio.archive.config.EngineConfig;
+import org.csstudio.archive.config.XMLDiffImport;
 import org.csstudio.archive.config.XMLExport;
 import org.csstudio.archive.config.XMLImport;
 import org.csstudio.archive.config.XMLImportException;
@@ -57,6 +59,10 @@ public class ArchiveConfigApplication implements IApplication
                 "-export", "export configuration as XML");
         final BooleanOption do_import = new BooleanOption(parser,
                 "-import", "import configuration from XML");
+        final BooleanOption do_import_changes = new BooleanOption(parser,
+                "-import_changes", "import only the changes between XML and existing configuration");
+        final BooleanOption dry_run = new BooleanOption(parser,
+                "-dry_run", "with -import_changes, list the changes without applying them");
         final BooleanOption do_delete = new BooleanOption(parser,
                 "-delete_config", "Delete existing engine config");
         final StringOption  engine_description = new StringOption(parser,
@@ -182,7 +188,7 @@ public class ArchiveConfigApplication implements IApplication
                 }
                 return IApplication.EXIT_OK;
             }
-            else if (do_import.get())
+            else if (do_import.get()  ||  do_import_changes.get())
             {
                 if (filename.get().isEmpty())
                 {
@@ -207,6 +213,29 @@ public class ArchiveConfigApplication implements IApplication
                 System.out.println("URL           : " + engine_url);
                 System.out.println("Replace engine: " + replace_engine.get());
                 System.out.println("Steal channels: " + steal_channels.get());
+                if (do_import_changes.get())
+                {
+                    System.out.println("Dry run       : " + dry_run.get());
+                    final XMLDiffImport importer = new XMLDiffImport(
+                            new RDBArchiveConfig(rdb_url.get(), rdb_user.get(), rdb_password.get(), rdb_schema.get()),
+                            steal_channels.get());
+                    try
+                    {
+                        final ConfigChanges changes = importer.importChanges(stream, engine_name.get(),
+                                engine_description.get(), engine_url, dry_run.get());
+                        changes.print(System.out);
+                    }
+                    catch (XMLImportException ex)
+                    {    // Print message
+                        System.out.println(ex.getMessage());
+                        return Integer.valueOf(-1);
+                    }
+                    finally
+                    {
+                        importer.close();
+                    }
+                    return IApplication.EXIT_OK;
+                }
                 final XMLImport importer = new XMLImport(
                         new RDBArchiveConfig(rdb_url.get(), rdb_user.get(), rdb_password.get(), rdb_schema.get()),
                         replace_engine.get(), steal_channels.get());
@@ -16,11 +16,16 @@ import java.sql.Types;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
 
 import org.csstudio.archive.config.ArchiveConfig;
 import org.csstudio.archive.config.ChannelConfig;
+import org.csstudio.archive.config.ConfigChanges;
 import org.csstudio.archive.config.EngineConfig;
 import org.csstudio.archive.config.GroupConfig;
 import org.csstudio.archive.config.ImportableArchiveConfig;
@@ -54,8 +59,13 @@ public class RDBArchiveConfig implements ImportableArchiveConfig
     /** Numeric ID of 'scan' mode stored in RDB */
     private int scan_mode_id = -1;
 
-    /** Re-used statement for selecting time of last archived sample of a channel */
-    private PreparedStatement last_sample_time_statement;
+    /** Max. number of names in one 'IN (...)' query.
+     *  Oracle supports at most 1000 list elements.
+     */
+    final private static int QUERY_CHUNK = 500;
+
+    /** Is a transaction active, so updates must not commit on their own? */
+    private boolean in_transaction = false;
 
     /** Initialize.
      *  This constructor will be invoked when an {@link ArchiveConfig}
@@ -174,13 +184,59 @@ public class RDBArchiveConfig implements ImportableArchiveConfig
     @Override
     public EngineConfig createEngine(final String engine_name, final String description,
             final String engine_url) throws Exception
+    {
+        return runTransaction(() -> insertEngine(rdb.getConnection(), engine_name, description, engine_url));
+    }
+
+    /** Perform updates in one transaction
+     *
+     *  <p>Other updates called from within the transaction
+     *  do not commit on their own but become part of it.
+     *  @param updates Updates to perform
+     *  @return Result of the updates
+     *  @throws Exception on error, after rolling the transaction back
+     */
+    @Override
+    public <T> T runTransaction(final Callable<T> updates) throws Exception
+    {
+        if (in_transaction)
+            return updates.call();
+        final Connection connection = rdb.getConnection();
+        connection.setAutoCommit(false);
+        in_transaction = true;
+        try
+        {
+            final T result = updates.call();
+            connection.commit();
+            return result;
+        }
+        catch (Exception ex)
+        {
+            connection.rollback();
+            throw ex;
+        }
+        finally
+        {
+            in_transaction = false;
+            connection.setAutoCommit(true);
+        }
+    }
+
+    /** Insert an engine without committing
+     *  @param connection Connection
+     *  @param engine_name
+     *  @param description
+     *  @param engine_url
+     *  @return {@link RDBEngineConfig}
+     *  @throws Exception on error
+     */
+    private RDBEngineConfig insertEngine(final Connection connection, final String engine_name,
+            final String description, final String engine_url) throws Exception
     {
         final int id = getNextEngineId();
-        rdb.getConnection().setAutoCommit(false);
         try
         (
-            final PreparedStatement statement =
-                rdb.getConnection().prepareStatement(sql.smpl_eng_insert);
+            final PreparedStatement statement = connection.prepareStatement(sql.smpl_eng_insert);
         )
         {
             statement.setInt(1, id);
@@ -188,16 +244,6 @@ public class RDBArchiveConfig implements ImportableArchiveConfig
             statement.setString(3, description);
             statement.setString(4, engine_url);
             statement.executeUpdate();
-            rdb.getConnection().commit();
-        }
-        catch (Exception ex)
-        {
-            rdb.getConnection().rollback();
-            throw ex;
-        }
-        finally
-        {
-            rdb.getConnection().setAutoCommit(true);
         }
         return new RDBEngineConfig(id, engine_name, description, engine_url);
     }
@@ -257,10 +303,9 @@ public class RDBArchiveConfig implements ImportableArchiveConfig
     {
         // Unlink all channels from engine's groups
         final int engine_id = ((RDBEngineConfig)engine).getId();
-        final Connection connection = rdb.getConnection();
-        connection.setAutoCommit(false);
-        try
+        runTransaction(() ->
         {
+            final Connection connection = rdb.getConnection();
             try
             (
                 final PreparedStatement statement = connection.prepareStatement(
@@ -290,17 +335,8 @@ public class RDBArchiveConfig implements ImportableArchiveConfig
                 statement.setInt(1, engine_id);
                 statement.executeUpdate();
             }
-            connection.commit();
-        }
-        catch (Exception ex)
-        {
-            connection.rollback();
-            throw ex;
-        }
-        finally
-        {
-            connection.setAutoCommit(true);
-        }
+            return null;
+        });
     }
 
     /** @return Next available group ID
@@ -328,9 +364,19 @@ public class RDBArchiveConfig implements ImportableArchiveConfig
     @Override
     public RDBGroupConfig addGroup(final EngineConfig engine, final String name) throws Exception
     {
-        final Connection connection = rdb.getConnection();
+        return runTransaction(() -> insertGroup(rdb.getConnection(), engine, name));
+    }
+
+    /** Insert a group without committing
+     *  @param connection Connection
+     *  @param engine Engine to which to add group
+     *  @param name Name of new group
+     *  @return {@link RDBGroupConfig}
+     *  @throws Exception on error
+     */
+    private RDBGroupConfig insertGroup(final Connection connection, final EngineConfig engine, final String name) throws Exception
+    {
         final int group_id = getNextGroupId();
-        connection.setAutoCommit(false);
         try
         (
             final PreparedStatement statement = connection.prepareStatement(sql.chan_grp_insert);
@@ -340,16 +386,6 @@ public class RDBArchiveConfig implements ImportableArchiveConfig
             statement.setString(2, name);
             statement.setInt(3, ((RDBEngineConfig)engine).getId());
             statement.executeUpdate();
-            connection.commit();
-        }
-        catch (Exception ex)
-        {
-            connection.rollback();
-            throw ex;
-        }
-        finally
-        {
-            connection.setAutoCommit(true);
         }
         return new RDBGroupConfig(group_id, name, null);
     }
@@ -425,6 +461,47 @@ public class RDBArchiveConfig implements ImportableArchiveConfig
         }
     }
 
+    /** {@inheritDoc} */
+    @Override
+    public Map<String, GroupConfig> getChannelGroups(final Collection<String> names) throws Exception
+    {
+        final Map<String, GroupConfig> groups = new HashMap<>();
+        final List<String> all = new ArrayList<>(names);
+        for (int start = 0;  start < all.size();  start += QUERY_CHUNK)
+        {
+            final List<String> chunk = all.subList(start, Math.min(all.size(), start + QUERY_CHUNK));
+            try
+            (
+                final PreparedStatement statement = rdb.getConnection().prepareStatement(
+                    sql.chan_grp_sel_by_channels + getPlaceholders(chunk.size()));
+            )
+            {
+                for (int i=0; i<chunk.size(); ++i)
+                    statement.setString(i+1, chunk.get(i));
+                final ResultSet result = statement.executeQuery();
+                while (result.next())
+                    groups.put(result.getString(1), new RDBGroupConfig(result.getInt(2), result.getString(3), null));
+                result.close();
+            }
+        }
+        return groups;
+    }
+
+    /** @param count Number of parameters
+     *  @return "(?, ?, ?)" list for <code>count</code> parameters
+     */
+    private static String getPlaceholders(final int count)
+    {
+        final StringBuilder buf = new StringBuilder("(");
+        for (int i=0; i<count; ++i)
+        {
+            if (i > 0)
+                buf.append(", ");
+            buf.append('?');
+        }
+        return buf.append(')').toString();
+    }
+
     /** Set a group's enabling channel
      *  @param group Group that should enable based on a channel
      *  @param channel Channel or <code>null</code> to 'always' activate the group
@@ -436,33 +513,25 @@ public class RDBArchiveConfig implements ImportableArchiveConfig
         RDBGroupConfig group = (RDBGroupConfig) the_group;
         RDBChannelConfig channel = (RDBChannelConfig) the_channel;
 
-        final Connection connection = rdb.getConnection();
-        connection.setAutoCommit(false);
-        try
-        (
-            final PreparedStatement statement = connection.prepareStatement(sql.chan_grp_set_enable_channel);
-        )
-        {
-            if (channel == null)
-                statement.setNull(1, Types.INTEGER);
-            else
-                statement.setInt(1, channel.getId());
-            statement.setInt(2, group.getId());
-            final int rows = statement.executeUpdate();
-            if (rows != 1)
-                throw new Exception("Setting enabling channel of " + group + " to " + channel +
-                        " changed " + rows + " rows instead of 1");
-            connection.commit();
-        }
-        catch (Exception ex)
-        {
-            connection.rollback();
-            throw ex;
-        }
-        finally
+        runTransaction(() ->
         {
-            connection.setAutoCommit(true);
-        }
+            try
+            (
+                final PreparedStatement statement = rdb.getConnection().prepareStatement(sql.chan_grp_set_enable_channel);
+            )
+            {
+                if (channel == null)
+                    statement.setNull(1, Types.INTEGER);
+                else
+                    statement.setInt(1, channel.getId());
+                statement.setInt(2, group.getId());
+                final int rows = statement.executeUpdate();
+                if (rows != 1)
+                    throw new Exception("Setting enabling channel of " + group + " to " + channel +
+                            " changed " + rows + " rows instead of 1");
+            }
+            return null;
+        });
     }
 
     /** @return Next available channel ID
@@ -500,13 +569,12 @@ public class RDBArchiveConfig implements ImportableArchiveConfig
         RDBGroupConfig group = (RDBGroupConfig) the_group;
         RDBSampleMode mode = (RDBSampleMode) the_mode;
 
-        boolean new_channel = true;
-        int channel_id = -1;
-
-        final Connection connection = rdb.getConnection();
-        connection.setAutoCommit(false);
-        try
+        return runTransaction(() ->
         {
+            final Connection connection = rdb.getConnection();
+            boolean new_channel = true;
+            int channel_id = -1;
+
             // Check for existing channel
             try
             (
@@ -540,19 +608,242 @@ public class RDBArchiveConfig implements ImportableArchiveConfig
                 final int rows = statement.executeUpdate();
                 if (rows != 1)
                     throw new Exception("Insert of " + group.getName() + " - " + name + " updated " + rows + " rows");
-                connection.commit();
             }
-            catch (Exception ex)
+            return new RDBChannelConfig(channel_id, name, mode, null);
+        });
+    }
+
+    /** Add several channels in one transaction.
+     *
+     *  <p>Channels might already exist in the RDB, in which case they are
+     *  moved to the group and their sample mode is updated.
+     *  Existing channels are located with a few queries,
+     *  new channels and updates are then written in batches.
+     *
+     *  @param group {@link RDBGroupConfig} to which to add the channels
+     *  @param channels Channel names and their sample modes
+     *  @return {@link RDBChannelConfig}s, in the order of the channels
+     *  @throws Exception on error
+     */
+    @Override
+    public List<ChannelConfig> addChannels(final GroupConfig the_group, final Map<String, SampleMode> channels)
+            throws Exception
+    {
+        final RDBGroupConfig group = (RDBGroupConfig) the_group;
+        final List<ChannelConfig> added = new ArrayList<>(channels.size());
+        if (channels.isEmpty())
+            return added;
+
+        return runTransaction(() ->
+        {
+            writeChannels(rdb.getConnection(), group, channels, added);
+            return added;
+        });
+    }
+
+    /** Insert or update channels without committing
+     *  @param connection Connection
+     *  @param group {@link RDBGroupConfig} to which to add the channels
+     *  @param channels Channel names and their sample modes
+     *  @param added {@link RDBChannelConfig}s are added to this list, in the order of the channels
+     *  @throws Exception on error
+     */
+    private void writeChannels(final Connection connection, final RDBGroupConfig group,
+            final Map<String, SampleMode> channels, final List<ChannelConfig> added) throws Exception
+    {
+        if (channels.isEmpty())
+            return;
+        final Map<String, Integer> existing = getChannelIds(connection, channels.keySet());
+
+        int next_id = existing.size() < channels.size() ? getNextChannelId() : -1;
+        try
+        (
+            final PreparedStatement insert = connection.prepareStatement(sql.channel_insert);
+            final PreparedStatement update = connection.prepareStatement(sql.channel_update);
+        )
+        {
+            for (Map.Entry<String, SampleMode> channel : channels.entrySet())
             {
-                connection.rollback();
-                throw ex;
+                final String name = channel.getKey();
+                final RDBSampleMode mode = (RDBSampleMode) channel.getValue();
+                final Integer id = existing.get(name);
+                final int channel_id = id != null ? id : next_id++;
+                final PreparedStatement statement = id != null ? update : insert;
+                // grp_id, name, smpl_mode_id, smpl_val, smpl_per, channel_id
+                statement.setInt(1, group.getId());
+                statement.setString(2, name);
+                statement.setInt(3, mode.getId());
+                statement.setDouble(4, mode.getDelta());
+                statement.setDouble(5, mode.getPeriod());
+                statement.setInt(6, channel_id);
+                statement.addBatch();
+                added.add(new RDBChannelConfig(channel_id, name, mode, null));
             }
+            if (existing.size() < channels.size())
+                checkBatch(insert.executeBatch(), "Insert", group);
+            if (existing.size() > 0)
+                checkBatch(update.executeBatch(), "Update", group);
         }
-        finally
+    }
+
+    /** Locate existing channels
+     *  @param connection Connection
+     *  @param names Channel names
+     *  @return Map of channel names to IDs. Channels that do not exist are not listed
+     *  @throws Exception on error
+     */
+    private Map<String, Integer> getChannelIds(final Connection connection, final Collection<String> names) throws Exception
+    {
+        final Map<String, Integer> ids = new HashMap<>();
+        final List<String> all = new ArrayList<>(names);
+        for (int start = 0;  start < all.size();  start += QUERY_CHUNK)
         {
-            connection.setAutoCommit(true);
+            final List<String> chunk = all.subList(start, Math.min(all.size(), start + QUERY_CHUNK));
+            try
+            (
+                final PreparedStatement statement = connection.prepareStatement(
+                    sql.channel_sel_by_names + getPlaceholders(chunk.size()));
+            )
+            {
+                for (int i=0; i<chunk.size(); ++i)
+                    statement.setString(i+1, chunk.get(i));
+                final ResultSet result = statement.executeQuery();
+                while (result.next())
+                    ids.put(result.getString(2), result.getInt(1));
+                result.close();
+            }
         }
-        return new RDBChannelConfig(channel_id, name, mode, null);
+        return ids;
+    }
+
+    /** Apply changes to an engine configuration in one transaction
+     *
+     *  <p>Creates the engine if it does not exist.
+     *  Channels that are removed from the engine are only unlinked
+     *  from their group, keeping their samples.
+     *
+     *  @param changes Groups and channels to add, modify and remove
+     *  @param description Engine description, used if the engine does not exist
+     *  @param engine_url Engine URL, used if the engine does not exist
+     *  @return Updated engine
+     *  @throws Exception on error
+     */
+    @Override
+    public EngineConfig applyChanges(final ConfigChanges changes, final String description,
+            final String engine_url) throws Exception
+    {
+        final EngineConfig stored = findEngine(changes.getEngineName());
+        final Map<String, RDBGroupConfig> groups = new HashMap<>();
+        if (stored != null)
+            for (GroupConfig group : getGroups(stored))
+                groups.put(group.getName(), (RDBGroupConfig) group);
+
+        return runTransaction(() ->
+        {
+            final Connection connection = rdb.getConnection();
+            final EngineConfig engine = stored != null
+                ? stored
+                : insertEngine(connection, changes.getEngineName(), description, engine_url);
+
+            // Unlink removed channels
+            final List<String> removed = changes.getRemovedChannels();
+            for (int start = 0;  start < removed.size();  start += QUERY_CHUNK)
+            {
+                final List<String> chunk = removed.subList(start, Math.min(removed.size(), start + QUERY_CHUNK));
+                try
+                (
+                    final PreparedStatement statement = connection.prepareStatement(
+                        sql.channel_clear_grp_by_names + getPlaceholders(chunk.size()));
+                )
+                {
+                    for (int i=0; i<chunk.size(); ++i)
+                        statement.setString(i+1, chunk.get(i));
+                    statement.executeUpdate();
+                }
+            }
+
+            // Add groups, insert, move or update channels
+            final Map<String, Integer> channel_ids = new HashMap<>();
+            final List<String> enabling_names = new ArrayList<>();
+            for (ConfigChanges.GroupChanges group_changes : changes.getGroups())
+            {
+                RDBGroupConfig group = groups.get(group_changes.getName());
+                if (group == null)
+                {
+                    group = insertGroup(connection, engine, group_changes.getName());
+                    groups.put(group.getName(), group);
+                }
+                final List<ChannelConfig> written = new ArrayList<>();
+                writeChannels(connection, group, group_changes.getWrittenChannels(), written);
+                for (ChannelConfig channel : written)
+                    channel_ids.put(channel.getName(), ((RDBChannelConfig) channel).getId());
+                if (group_changes.getEnablingChannel() != null)
+                    enabling_names.add(group_changes.getEnablingChannel());
+            }
+
+            // Enabling channels, which might not have been written
+            enabling_names.removeAll(channel_ids.keySet());
+            channel_ids.putAll(getChannelIds(connection, enabling_names));
+            try
+            (
+                final PreparedStatement statement = connection.prepareStatement(sql.chan_grp_set_enable_channel);
+            )
+            {
+                for (ConfigChanges.GroupChanges group_changes : changes.getGroups())
+                {
+                    if (! group_changes.isEnablingChanged())
+                        continue;
+                    final RDBGroupConfig group = groups.get(group_changes.getName());
+                    final String channel = group_changes.getEnablingChannel();
+                    if (channel == null)
+                        statement.setNull(1, Types.INTEGER);
+                    else
+                    {
+                        final Integer id = channel_ids.get(channel);
+                        if (id == null)
+                            throw new Exception("Unknown enabling channel " + channel + " for " + group);
+                        statement.setInt(1, id);
+                    }
+                    statement.setInt(2, group.getId());
+                    final int rows = statement.executeUpdate();
+                    if (rows != 1)
+                        throw new Exception("Setting enabling channel of " + group + " to " + channel +
+                                " changed " + rows + " rows instead of 1");
+                }
+            }
+
+            // Delete removed groups after their channels moved elsewhere or were unlinked
+            try
+            (
+                final PreparedStatement clear = connection.prepareStatement(sql.channel_clear_grp_for_group);
+                final PreparedStatement delete = connection.prepareStatement(sql.chan_grp_delete);
+            )
+            {
+                for (String name : changes.getRemovedGroups())
+                {
+                    final RDBGroupConfig group = groups.get(name);
+                    if (group == null)
+                        continue;
+                    clear.setInt(1, group.getId());
+                    clear.executeUpdate();
+                    delete.setInt(1, group.getId());
+                    delete.executeUpdate();
+                }
+            }
+            return engine;
+        });
+    }
+
+    /** @param rows Update counts of a batch
+     *  @param what "Insert" or "Update"
+     *  @param group Group for error message
+     *  @throws Exception if a statement of the batch did not change exactly one row
+     */
+    private static void checkBatch(final int[] rows, final String what, final RDBGroupConfig group) throws Exception
+    {
+        for (int count : rows)
+            if (count != 1  &&  count != Statement.SUCCESS_NO_INFO)
+                throw new Exception(what + " of channels in " + group.getName() + " updated " + count + " rows");
     }
 
     /** {@inheritDoc} */
@@ -561,22 +852,23 @@ public class RDBArchiveConfig implements ImportableArchiveConfig
     {
         final RDBGroupConfig rdb_group = (RDBGroupConfig) group;
         final List<ChannelConfig> channels = new ArrayList<ChannelConfig>();
+        // Time of last sample is read in the same query, not one query per channel
         try
         (
-            final PreparedStatement statement =
-                rdb.getConnection().prepareStatement(sql.channel_sel_by_group_id);
+            final PreparedStatement statement = rdb.getConnection().prepareStatement(
+                skip_last ? sql.channel_sel_by_group_id : sql.channel_sel_with_last_time_by_group_id);
         )
         {
             statement.setInt(1, rdb_group.getId());
             final ResultSet result = statement.executeQuery();
             while (result.next())
-            {   // channel_id, name, smpl_mode_id, smpl_val, smpl_per
+            {   // channel_id, name, smpl_mode_id, smpl_val, smpl_per [, last smpl_time]
                 final int id = result.getInt(1);
                 final SampleMode sample_mode =
                     getSampleMode(result.getInt(3), result.getDouble(4), result.getDouble(5));
                 Instant last_sample_time = null;
                 if (!skip_last)
-                     last_sample_time = getLastSampleTime(id);
+                     last_sample_time = getLastSampleTime(result.getTimestamp(6));
                 channels.add(new RDBChannelConfig(id, result.getString(2),
                                                   sample_mode, last_sample_time));
             }
@@ -621,59 +913,30 @@ public class RDBArchiveConfig implements ImportableArchiveConfig
         }
     }
 
-    /** Obtain time stamp of last sample in archive
-     *  @param channel_id Channel's RDB ID
+    /** Convert time stamp of last sample in archive
+     *  @param stamp Result of MAX(smpl_time), <code>null</code> if not in archive, yet
      *  @return Time stamp or <code>null</code> if not in archive, yet
-     *  @throws Exception on RDB error
      */
-    private Instant getLastSampleTime(final int channel_id) throws Exception
+    private Instant getLastSampleTime(final Timestamp stamp)
     {
-        // This statement has a surprisingly complex execution plan for partitioned
-        // Oracle setups, so re-use it
-        if (last_sample_time_statement == null)
-            last_sample_time_statement = rdb.getConnection().prepareStatement(sql.sel_last_sample_time_by_id);
-        last_sample_time_statement.setInt(1, channel_id);
-        try
-        (
-            final ResultSet result = last_sample_time_statement.executeQuery();
-        )
-        {
-            if (result.next())
-            {
-                final Timestamp stamp = result.getTimestamp(1);
-                if (stamp == null)
-                    return null;
+        if (stamp == null)
+            return null;
 
-                if (rdb.getDialect() != Dialect.Oracle)
-                {
-                    // For Oracle, the time stamp is indeed the last time.
-                    // For others, it's only the seconds, not the nanoseconds.
-                    // Since this time stamp is only used to avoid going back in time,
-                    // add a second to assert that we are _after_ the last sample
-                    stamp.setTime(stamp.getTime() + 1000);
-                }
-                return TimestampHelper.fromSQLTimestamp(stamp);
-            }
+        if (rdb.getDialect() != Dialect.Oracle)
+        {
+            // For Oracle, the time stamp is indeed the last time.
+            // For others, it's only the seconds, not the nanoseconds.
+            // Since this time stamp is only used to avoid going back in time,
+            // add a second to assert that we are _after_ the last sample
+            stamp.setTime(stamp.getTime() + 1000);
         }
-        return null;
+        return TimestampHelper.fromSQLTimestamp(stamp);
     }
 
     /** {@inheritDoc} */
     @Override
     public void close()
     {
-        if (last_sample_time_statement != null)
-        {
-            try
-            {
-                last_sample_time_statement.close();
-            }
-            catch (Exception ex)
-            {
-                // Ignore, closing down anyway
-            }
-            last_sample_time_statement = null;
-        }
         rdb.close();
     }
 }
@@ -27,16 +27,22 @@ public class SQL
     // 'chan_grp' table
     final public String chan_grp_sel_by_eng_id;
     final public String chan_grp_delete_by_engine_id;
+    final public String chan_grp_delete;
     final public String chan_grp_insert;
     final public String chan_grp_next_id;
     final public String chan_grp_sel_by_channel;
+    final public String chan_grp_sel_by_channels;
     final public String chan_grp_set_enable_channel;
 
     // 'channel' table
     final public String channel_sel_by_group_id;
+    final public String channel_sel_with_last_time_by_group_id;
     final public String channel_sel_by_id;
     final public String channel_sel_by_name;
+    final public String channel_sel_by_names;
     final public String channel_clear_grp_for_engine;
+    final public String channel_clear_grp_for_group;
+    final public String channel_clear_grp_by_names;
     final public String channel_next_id;
     final public String channel_insert;
     final public String channel_update;
@@ -44,8 +50,6 @@ public class SQL
     // 'sample mode' table
     final public String sample_mode_sel;
 
-    // 'sample' table
-    final public String sel_last_sample_time_by_id;
 
     /** Initialize
      *  @param dialect RDB dialect
@@ -68,28 +72,40 @@ public class SQL
         // 'chan_grp' table
         chan_grp_sel_by_eng_id = "SELECT grp_id, name, enabling_chan_id FROM " + schema + "chan_grp WHERE eng_id=? ORDER BY name";
         chan_grp_delete_by_engine_id = "DELETE FROM " + schema + "chan_grp WHERE eng_id=?";
+        chan_grp_delete = "DELETE FROM " + schema + "chan_grp WHERE grp_id=?";
         chan_grp_insert = "INSERT INTO " + schema + "chan_grp (grp_id, name, eng_id, enabling_chan_id) VALUES (?,?,?,null)";
         chan_grp_next_id = "SELECT MAX(grp_id) FROM " + schema + "chan_grp";
         chan_grp_sel_by_channel = "SELECT g.grp_id, g.name FROM " + schema + "chan_grp g " +
                                   "JOIN " + schema + "channel c ON g.grp_id = c.grp_id " +
                                   "WHERE c.name=?";
+        // Followed by "(?, ?, ?)" list of channel names
+        chan_grp_sel_by_channels = "SELECT c.name, g.grp_id, g.name FROM " + schema + "chan_grp g " +
+                                   "JOIN " + schema + "channel c ON g.grp_id = c.grp_id " +
+                                   "WHERE c.name IN ";
         chan_grp_set_enable_channel = "UPDATE " + schema + "chan_grp SET enabling_chan_id=? WHERE grp_id=?";
 
         // 'channel' table
         channel_sel_by_group_id = "SELECT channel_id, name, smpl_mode_id, smpl_val, smpl_per FROM " + schema + "channel WHERE grp_id=? ORDER BY name";
+        // Correlated sub-query, not 'GROUP BY', so that the MAX() for each channel can use the index
+        channel_sel_with_last_time_by_group_id =
+            "SELECT c.channel_id, c.name, c.smpl_mode_id, c.smpl_val, c.smpl_per, " +
+            "(SELECT MAX(s.smpl_time) FROM " + schema + "sample s WHERE s.channel_id=c.channel_id) " +
+            "FROM " + schema + "channel c WHERE c.grp_id=? ORDER BY c.name";
         channel_sel_by_id = "SELECT name FROM " + schema + "channel WHERE channel_id=?";
         channel_sel_by_name = "SELECT channel_id FROM " + schema + "channel WHERE name=?";
+        // Followed by "(?, ?, ?)" list of channel names
+        channel_sel_by_names = "SELECT channel_id, name FROM " + schema + "channel WHERE name IN ";
         channel_clear_grp_for_engine =
             "UPDATE " + schema + "channel SET grp_id=null WHERE grp_id IN " +
                 "(SELECT grp_id FROM " + schema + "chan_grp WHERE eng_id=?)";
+        channel_clear_grp_for_group = "UPDATE " + schema + "channel SET grp_id=null WHERE grp_id=?";
+        // Followed by "(?, ?, ?)" list of channel names
+        channel_clear_grp_by_names = "UPDATE " + schema + "channel SET grp_id=null WHERE name IN ";
         channel_next_id = "SELECT MAX(channel_id) FROM " + schema + "channel";
         channel_insert = "INSERT INTO " + schema + "channel(grp_id, name, smpl_mode_id, smpl_val, smpl_per, channel_id) VALUES (?,?,?,?,?,?)";
         channel_update = "UPDATE " + schema + "channel SET grp_id=?, name=?, smpl_mode_id=?, smpl_val=?, smpl_per=? WHERE channel_id=?";
 
         // 'sample mode' table
         sample_mode_sel = "SELECT smpl_mode_id, name FROM " + schema + "smpl_mode";
-
-        // 'sample' table
-        sel_last_sample_time_by_id = "SELECT MAX(smpl_time) FROM " + schema + "sample WHERE channel_id=?";
     }
 }
@@ -9,11 +9,14 @@ package org.csstudio.archive.config.test;
 
 import static org.junit.Assert.*;
 
+import java.io.ByteArrayInputStream;
+
 import org.csstudio.apputil.test.TestProperties;
-import org.csstudio.archive.config.ArchiveConfig;
 import org.csstudio.archive.config.ChannelConfig;
+import org.csstudio.archive.config.ConfigChanges;
 import org.csstudio.archive.config.EngineConfig;
 import org.csstudio.archive.config.GroupConfig;
+import org.csstudio.archive.config.XMLDiffImport;
 import org.csstudio.archive.config.rdb.RDBArchiveConfig;
 import org.junit.After;
 import org.junit.Before;
@@ -26,7 +29,7 @@ import org.junit.Test;
 public class RDBArchiveConfigIT
 {
     private String engine_name;
-    private ArchiveConfig config;
+    private RDBArchiveConfig config;
 
     @Before
     public void connect() throws Exception
@@ -76,4 +79,57 @@ public class RDBArchiveConfigIT
                         ", last sample time: " + channel.getLastSampleTime());
         }
     }
+
+    @Test
+    public void testApplyChanges() throws Exception
+    {
+        if (config == null)
+            return;
+        final String name = "apply_changes_test";
+        EngineConfig engine = config.findEngine(name);
+        if (engine != null)
+            config.deleteEngine(engine);
+
+        final XMLDiffImport importer = new XMLDiffImport(config, false);
+        // Creates the engine as part of applying the changes
+        ConfigChanges changes = importer.importChanges(new ByteArrayInputStream((
+                "<engineconfig><group><name>A</name>" +
+                "<channel><name>apply_test:1</name><period>1.0</period><monitor/></channel>" +
+                "<channel><name>apply_test:2</name><period>1.0</period><scan/><enable/></channel>" +
+                "</group></engineconfig>").getBytes()),
+                name, "Test", "http://localhost:4812", false);
+        assertEquals(2, changes.getGroups().get(0).getInsertedChannels().size());
+        engine = config.findEngine(name);
+        assertNotNull(engine);
+        GroupConfig[] groups = config.getGroups(engine);
+        assertEquals(1, groups.length);
+        assertEquals("apply_test:2", groups[0].getEnablingChannel());
+        assertEquals(2, config.getChannels(groups[0], false).length);
+
+        // Move one channel into a new group, remove the other, drop group A
+        changes = importer.importChanges(new ByteArrayInputStream((
+                "<engineconfig><group><name>B</name>" +
+                "<channel><name>apply_test:1</name><period>5.0</period><monitor/></channel>" +
+                "</group></engineconfig>").getBytes()),
+                name, "Test", "http://localhost:4812", false);
+        assertEquals(1, changes.getRemovedChannels().size());
+        groups = config.getGroups(engine);
+        assertEquals(1, groups.length);
+        assertEquals("B", groups[0].getName());
+        assertNull(groups[0].getEnablingChannel());
+        final ChannelConfig[] channels = config.getChannels(groups[0], false);
+        assertEquals(1, channels.length);
+        assertEquals("apply_test:1", channels[0].getName());
+        assertEquals(5.0, channels[0].getSampleMode().getPeriod(), 0.001);
+        assertNull(config.getChannelGroup("apply_test:2"));
+
+        // Nothing left to change
+        assertTrue(importer.importChanges(new ByteArrayInputStream((
+                "<engineconfig><group><name>B</name>" +
+                "<channel><name>apply_test:1</name><period>5.0</period><monitor/></channel>" +
+                "</group></engineconfig>").getBytes()),
+                name, "Test", "http://localhost:4812", false).isEmpty());
+
+        config.deleteEngine(engine);
+    }
 }
@@ -0,0 +1,153 @@
+/*******************************************************************************
+ * Copyright (c) 2011 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.archive.config.xml.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.util.Arrays;
+
+import org.csstudio.archive.config.ChannelConfig;
+import org.csstudio.archive.config.ConfigChanges;
+import org.csstudio.archive.config.ConfigChanges.GroupChanges;
+import org.csstudio.archive.config.EngineConfig;
+import org.csstudio.archive.config.GroupConfig;
+import org.csstudio.archive.config.XMLDiffImport;
+import org.csstudio.archive.config.xml.XMLArchiveConfig;
+import org.junit.Test;
+
+/** JUnit demo of {@link XMLDiffImport}
+ *
+ *  <p>Compares modified XML with the demo configuration.
+ */
+@SuppressWarnings("nls")
+public class XMLDiffImportTest
+{
+    private static String base_config_path = "../org.csstudio.archive.config.xml/xml";
+    private static String engine_url = "http://localhost.test.1";
+
+    private static final String MODIFIED =
+        "<engineconfig>" +
+        "  <group>" +
+        "    <name>NorthSectorVacuum</name>" +
+        "    <channel><name>NSV:P1</name><period>5.0</period><monitor/></channel>" +
+        "    <channel><name>NSV:P3</name><period>1.0</period><monitor/></channel>" +
+        "    <channel><name>NSV:Enable</name><period>10.0</period><monitor/><enable/></channel>" +
+        "  </group>" +
+        "  <group>" +
+        "    <name>Extra</name>" +
+        "    <channel><name>SSV:P1</name><period>1.0</period><monitor/></channel>" +
+        "  </group>" +
+        "</engineconfig>";
+
+    /** Demo configuration with NSV:P1 and the new NSV:P4 also listed in a later group */
+    private static final String DUPLICATE =
+        "<engineconfig>" +
+        "  <group>" +
+        "    <name>NorthSectorVacuum</name>" +
+        "    <channel><name>NSV:P1</name><period>1.0</period><monitor/></channel>" +
+        "    <channel><name>NSV:P2</name><period>0.1</period><monitor>2.5</monitor></channel>" +
+        "    <channel><name>NSV:Enable</name><period>10.0</period><monitor/><enable/></channel>" +
+        "    <channel><name>NSV:P4</name><period>1.0</period><monitor/></channel>" +
+        "  </group>" +
+        "  <group>" +
+        "    <name>SouthSectorVacuum</name>" +
+        "    <channel><name>SSV:P1</name><period>1.0</period><monitor/></channel>" +
+        "    <channel><name>NSV:P1</name><period>5.0</period><monitor/></channel>" +
+        "    <channel><name>NSV:P4</name><period>1.0</period><monitor/></channel>" +
+        "  </group>" +
+        "</engineconfig>";
+
+    private ConfigChanges compare(final InputStream stream) throws Exception
+    {
+        final XMLArchiveConfig config = new XMLArchiveConfig(base_config_path, engine_url);
+        // Loads demo.xml as the stored configuration
+        assertFalse(config.findEngine("demo") == null);
+        final ConfigChanges changes = new XMLDiffImport(config, false)
+            .importChanges(stream, "demo", "Demo", engine_url, true);
+        return changes;
+    }
+
+    @Test
+    public void testUnchanged() throws Exception
+    {
+        final ConfigChanges changes = compare(new FileInputStream(base_config_path + "/demo.xml"));
+        assertTrue(changes.isEmpty());
+        assertEquals(4, changes.getUnchangedChannels());
+    }
+
+    @Test
+    public void testChanges() throws Exception
+    {
+        final ConfigChanges changes = compare(new ByteArrayInputStream(MODIFIED.getBytes()));
+        assertFalse(changes.isEmpty());
+        assertEquals(1, changes.getUnchangedChannels());
+        assertEquals(Arrays.asList("SouthSectorVacuum"), changes.getRemovedGroups());
+        assertEquals(Arrays.asList("NSV:P2"), changes.getRemovedChannels());
+
+        assertEquals(2, changes.getGroups().size());
+        final GroupChanges north = changes.getGroups().get(0);
+        assertEquals("NorthSectorVacuum", north.getName());
+        assertFalse(north.isAdded());
+        assertEquals(Arrays.asList("NSV:P3"), Arrays.asList(north.getInsertedChannels().keySet().toArray()));
+        assertEquals(Arrays.asList("NSV:P1"), Arrays.asList(north.getModifiedChannels().keySet().toArray()));
+        assertEquals(5.0, north.getModifiedChannels().get("NSV:P1").getPeriod(), 0.001);
+        assertFalse(north.isEnablingChanged());
+
+        final GroupChanges extra = changes.getGroups().get(1);
+        assertEquals("Extra", extra.getName());
+        assertTrue(extra.isAdded());
+        assertEquals("demo/SouthSectorVacuum", extra.getMovedChannels().get("SSV:P1"));
+    }
+
+    @Test
+    public void testDuplicateChannel() throws Exception
+    {
+        final ConfigChanges changes = compare(new ByteArrayInputStream(DUPLICATE.getBytes()));
+        assertEquals(4, changes.getUnchangedChannels());
+        assertEquals(0, changes.getRemovedGroups().size());
+        assertEquals(0, changes.getRemovedChannels().size());
+
+        // Channels are only added to the first group that lists them
+        assertEquals(1, changes.getGroups().size());
+        final GroupChanges north = changes.getGroups().get(0);
+        assertEquals("NorthSectorVacuum", north.getName());
+        assertEquals(Arrays.asList("NSV:P4"), Arrays.asList(north.getInsertedChannels().keySet().toArray()));
+        assertTrue(north.getMovedChannels().isEmpty());
+        assertTrue(north.getModifiedChannels().isEmpty());
+    }
+
+    @Test
+    public void testApply() throws Exception
+    {
+        final XMLArchiveConfig config = new XMLArchiveConfig(base_config_path, engine_url);
+        final XMLDiffImport importer = new XMLDiffImport(config, false);
+        final EngineConfig engine = config.findEngine("demo");
+        assertFalse(importer.importChanges(new ByteArrayInputStream(MODIFIED.getBytes()),
+                                           "demo", "Demo", engine_url, false).isEmpty());
+
+        final GroupConfig north = config.getChannelGroup("NSV:P1");
+        assertEquals("NorthSectorVacuum", north.getName());
+        assertEquals(3, config.getChannels(north, false).length);
+        for (ChannelConfig channel : config.getChannels(north, false))
+            if (channel.getName().equals("NSV:P1"))
+                assertEquals(5.0, channel.getSampleMode().getPeriod(), 0.001);
+        assertEquals("NSV:Enable", north.getEnablingChannel());
+        assertEquals("Extra", config.getChannelGroup("SSV:P1").getName());
+        assertEquals(null, config.getChannelGroup("NSV:P2"));
+        assertEquals(2, config.getGroups(engine).length);
+
+        // Applied changes leave nothing to change
+        assertTrue(importer.importChanges(new ByteArrayInputStream(MODIFIED.getBytes()),
+                                          "demo", "Demo", engine_url, false).isEmpty());
+    }
+}
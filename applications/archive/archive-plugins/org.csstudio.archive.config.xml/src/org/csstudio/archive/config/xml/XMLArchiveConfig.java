@@ -11,12 +11,14 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.InputStream;
 import java.io.PrintStream;
+import java.time.Instant;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.logging.Level;
 
 import org.csstudio.archive.config.ArchiveConfig;
 import org.csstudio.archive.config.ChannelConfig;
+import org.csstudio.archive.config.ConfigChanges;
 import org.csstudio.archive.config.EngineConfig;
 import org.csstudio.archive.config.GroupConfig;
 import org.csstudio.archive.config.ImportableArchiveConfig;
@@ -358,6 +360,63 @@ public class XMLArchiveConfig implements ImportableArchiveConfig
         return influxdb_group.getChannelArray();
     }
 
+    /** Apply changes to the in-memory configuration
+     *
+     *  <p>Moved and modified channels keep their id and last sample time.
+     *
+     *  @param changes Groups and channels to add, modify and remove
+     *  @param description Engine description, used if the engine does not exist
+     *  @param engine_url Engine URL, used if the engine does not exist
+     *  @return Updated engine
+     *  @throws Exception on error
+     */
+    @Override
+    public EngineConfig applyChanges(final ConfigChanges changes, final String description,
+            final String engine_url) throws Exception
+    {
+        final Integer engine_id = engines_name2id.get(changes.getEngineName());
+        final XMLEngineConfig engine = (XMLEngineConfig) (engine_id == null
+            ? createEngine(changes.getEngineName(), description, engine_url)
+            : engines_id2obj.get(engine_id));
+
+        for (String name : changes.getRemovedChannels())
+            for (GroupConfig group : engine.getGroupObjs())
+                if (((XMLGroupConfig) group).removeChannel(name) != null)
+                    break;
+
+        for (ConfigChanges.GroupChanges group_changes : changes.getGroups())
+        {
+            XMLGroupConfig group = engine.getGroup(group_changes.getName());
+            if (group == null)
+                group = addGroup(engine, group_changes.getName());
+            for (Map.Entry<String, SampleMode> channel : group_changes.getWrittenChannels().entrySet())
+            {
+                final String name = channel.getKey();
+                final XMLGroupConfig old_group = getChannelGroup(name);
+                final XMLChannelConfig old = old_group == null ? null : old_group.removeChannel(name);
+                final int channel_id;
+                final Instant last_sample_time;
+                if (old == null)
+                {
+                    channel_id = next_channel_id++;
+                    last_sample_time = null;
+                }
+                else
+                {
+                    channel_id = old.getChannelId();
+                    last_sample_time = old.getLastSampleTime();
+                }
+                group.addChannel(channel_id, name, channel.getValue(), last_sample_time);
+            }
+            if (group_changes.isEnablingChanged())
+                group.setEnablingChannelName(group_changes.getEnablingChannel());
+        }
+
+        for (String name : changes.getRemovedGroups())
+            engine.removeGroup(name);
+        return engine;
+    }
+
     /** {@inheritDoc} */
     @Override
     public void close()
@@ -66,6 +66,24 @@ public class XMLEngineConfig extends EngineConfig
         return group_id2obj.values();
     }
 
+    /** @param group_name Name of group
+     *  @return Group or <code>null</code> if not in this engine
+     */
+    public XMLGroupConfig getGroup(final String group_name)
+    {
+        final Integer group_id = group_name2id.get(group_name);
+        return group_id == null ? null : (XMLGroupConfig) group_id2obj.get(group_id);
+    }
+
+    /** @param group_name Name of group to remove from this engine
+     *  @return Removed group or <code>null</code> if not in this engine
+     */
+    public XMLGroupConfig removeGroup(final String group_name)
+    {
+        final Integer group_id = group_name2id.remove(group_name);
+        return group_id == null ? null : (XMLGroupConfig) group_id2obj.remove(group_id);
+    }
+
     public XMLGroupConfig addGroup(int group_id, String group_name, String enabling_channel) throws Exception
     {
         if (group_name2id.containsKey(group_name))
@@ -95,6 +95,23 @@ public class XMLGroupConfig extends GroupConfig
         enabling_channel = channel.getName();
     }
 
+    /** @param channel_name Name of channel that enables this group, or <code>null</code> */
+    void setEnablingChannelName(final String channel_name)
+    {
+        enabling_channel = channel_name;
+    }
+
+    /** @param channel_name Name of channel to remove from this group
+     *  @return Removed channel or <code>null</code> if not in this group
+     */
+    public XMLChannelConfig removeChannel(final String channel_name)
+    {
+        final Integer channel_id = channel_name2id.remove(channel_name);
+        if (channel_id == null)
+            return null;
+        return (XMLChannelConfig) channel_id2obj.remove(channel_id);
+    }
+
     public void updateChannelLastTime(final String channel_name, Instant new_last_sample_time) throws Exception
     {
         Integer channel_id = channel_name2id.get(channel_name);
@@ -0,0 +1,236 @@
+/*******************************************************************************
+ * Copyright (c) 2011 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.archive.config;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/** Differences between an XML engine configuration and the stored configuration
+ *
+ *  <p>Determined by {@link XMLDiffImport}, applied by
+ *  {@link ImportableArchiveConfig#applyChanges(ConfigChanges, String, String)}.
+ */
+@SuppressWarnings("nls")
+public class ConfigChanges
+{
+    /** Changes within one group */
+    public static class GroupChanges
+    {
+        final private String name;
+        final private boolean added;
+        final private Map<String, SampleMode> inserted = new LinkedHashMap<>();
+        final private Map<String, String> moved_from = new LinkedHashMap<>();
+        final private Map<String, SampleMode> modified = new LinkedHashMap<>();
+        private boolean enabling_changed = false;
+        private String enabling_channel = null;
+
+        GroupChanges(final String name, final boolean added)
+        {
+            this.name = name;
+            this.added = added;
+        }
+
+        /** @return Group name */
+        public String getName()
+        {
+            return name;
+        }
+
+        /** @return <code>true</code> if the group needs to be created */
+        public boolean isAdded()
+        {
+            return added;
+        }
+
+        /** @return Channels to add to this group, including those moved from another group */
+        public Map<String, SampleMode> getInsertedChannels()
+        {
+            return Collections.unmodifiableMap(inserted);
+        }
+
+        /** @return Channels moved into this group, with 'engine/group' where they were before */
+        public Map<String, String> getMovedChannels()
+        {
+            return Collections.unmodifiableMap(moved_from);
+        }
+
+        /** @return Channels that remain in this group with a new sample mode */
+        public Map<String, SampleMode> getModifiedChannels()
+        {
+            return Collections.unmodifiableMap(modified);
+        }
+
+        /** @return Channels to write, i.e. inserted and modified ones */
+        public Map<String, SampleMode> getWrittenChannels()
+        {
+            final Map<String, SampleMode> written = new LinkedHashMap<>(inserted);
+            written.putAll(modified);
+            return written;
+        }
+
+        /** @return <code>true</code> if the enabling channel needs to be updated */
+        public boolean isEnablingChanged()
+        {
+            return enabling_changed;
+        }
+
+        /** @return Name of the new enabling channel, or <code>null</code> */
+        public String getEnablingChannel()
+        {
+            return enabling_channel;
+        }
+
+        void insertChannel(final String channel, final SampleMode mode, final String from)
+        {
+            inserted.put(channel, mode);
+            if (from != null)
+                moved_from.put(channel, from);
+        }
+
+        void modifyChannel(final String channel, final SampleMode mode)
+        {
+            modified.put(channel, mode);
+        }
+
+        void setEnablingChannel(final String channel)
+        {
+            enabling_changed = true;
+            enabling_channel = channel;
+        }
+
+        /** @return <code>true</code> if there is anything to change for this group */
+        public boolean hasChanges()
+        {
+            return added  ||  enabling_changed  ||
+                   !inserted.isEmpty()  ||  !modified.isEmpty();
+        }
+    }
+
+    final private String engine_name;
+    final private List<GroupChanges> groups = new ArrayList<>();
+    final private List<String> removed_groups = new ArrayList<>();
+    final private List<String> removed_channels = new ArrayList<>();
+    private int unchanged_channels = 0;
+
+    /** Initialize
+     *  @param engine_name Name of the engine
+     */
+    ConfigChanges(final String engine_name)
+    {
+        this.engine_name = engine_name;
+    }
+
+    /** @return Name of the engine */
+    public String getEngineName()
+    {
+        return engine_name;
+    }
+
+    /** @return Groups that are added or have changes, in the order of the XML configuration */
+    public List<GroupChanges> getGroups()
+    {
+        return Collections.unmodifiableList(groups);
+    }
+
+    /** @return Groups that are no longer in the XML configuration */
+    public List<String> getRemovedGroups()
+    {
+        return Collections.unmodifiableList(removed_groups);
+    }
+
+    /** @return Channels that are no longer in any group of the XML configuration */
+    public List<String> getRemovedChannels()
+    {
+        return Collections.unmodifiableList(removed_channels);
+    }
+
+    /** @return Number of channels that remain as they are */
+    public int getUnchangedChannels()
+    {
+        return unchanged_channels;
+    }
+
+    void addGroup(final GroupChanges group)
+    {
+        groups.add(group);
+    }
+
+    void removeGroup(final String group)
+    {
+        removed_groups.add(group);
+    }
+
+    void removeChannel(final String channel)
+    {
+        removed_channels.add(channel);
+    }
+
+    void addUnchangedChannel()
+    {
+        ++unchanged_channels;
+    }
+
+    /** @return <code>true</code> if the stored configuration already matches the XML configuration */
+    public boolean isEmpty()
+    {
+        return groups.isEmpty()  &&  removed_groups.isEmpty()  &&  removed_channels.isEmpty();
+    }
+
+    /** List the changes
+     *  @param out Where to print
+     */
+    public void print(final PrintStream out)
+    {
+        out.println("Changes for engine '" + engine_name + "':");
+        for (GroupChanges group : groups)
+        {
+            out.println((group.isAdded() ? "  New group " : "  Group ") + group.getName());
+            for (Map.Entry<String, SampleMode> channel : group.inserted.entrySet())
+            {
+                final String from = group.moved_from.get(channel.getKey());
+                if (from == null)
+                    out.println("    + " + channel.getKey() + " " + channel.getValue());
+                else
+                    out.println("    > " + channel.getKey() + " " + channel.getValue() + " (from " + from + ")");
+            }
+            for (Map.Entry<String, SampleMode> channel : group.modified.entrySet())
+                out.println("    * " + channel.getKey() + " " + channel.getValue());
+            if (group.isEnablingChanged())
+                out.println("    Enabling channel: " +
+                        (group.getEnablingChannel() == null ? "none" : group.getEnablingChannel()));
+        }
+        for (String group : removed_groups)
+            out.println("  Removed group " + group);
+        for (String channel : removed_channels)
+            out.println("  - " + channel);
+        out.println(toString());
+    }
+
+    /** @return Summary of the changes */
+    @Override
+    public String toString()
+    {
+        int added_groups = 0, inserted = 0, moved = 0, modified = 0;
+        for (GroupChanges group : groups)
+        {
+            if (group.isAdded())
+                ++added_groups;
+            inserted += group.inserted.size() - group.moved_from.size();
+            moved += group.moved_from.size();
+            modified += group.modified.size();
+        }
+        return "Engine '" + engine_name + "': " +
+               added_groups + " groups added, " + removed_groups.size() + " groups removed, " +
+               inserted + " channels added, " + moved + " moved, " + modified + " modified, " +
+               removed_channels.size() + " removed, " + unchanged_channels + " unchanged";
+    }
+}
@@ -7,6 +7,13 @@
  ******************************************************************************/
 package org.csstudio.archive.config;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
 /** Archive configuration info
  *  @author Megan Grodowitz
  */
@@ -44,12 +51,52 @@ public interface ImportableArchiveConfig extends ArchiveConfig
     /** Create a new channel under this group */
     public ChannelConfig addChannel(GroupConfig group, String name, SampleMode mode) throws Exception;
 
+    /** Create or update several channels under this group
+     *
+     *  <p>Default implementation calls {@link #addChannel(GroupConfig, String, SampleMode)}
+     *  for each channel.
+     *  Implementations may add all channels in one transaction.
+     *
+     *  @param group Group to which to add the channels
+     *  @param channels Channel names and their sample modes, added in iteration order
+     *  @return Channels, in the same order
+     *  @throws Exception on error
+     */
+    public default List<ChannelConfig> addChannels(final GroupConfig group, final Map<String, SampleMode> channels) throws Exception
+    {
+        final List<ChannelConfig> added = new ArrayList<>(channels.size());
+        for (Map.Entry<String, SampleMode> channel : channels.entrySet())
+            added.add(addChannel(group, channel.getKey(), channel.getValue()));
+        return added;
+    }
+
     /** Return the engine to which this group belongs */
     public EngineConfig getEngine(GroupConfig other_group) throws Exception;
 
     /** Return the group to which this channel belongs */
     public GroupConfig getChannelGroup(String name) throws Exception;
 
+    /** Determine the groups of several channels
+     *
+     *  <p>Default implementation calls {@link #getChannelGroup(String)}
+     *  for each channel.
+     *
+     *  @param names Channel names
+     *  @return Map of channel names to their groups. Channels that are not in any group are not listed
+     *  @throws Exception on error
+     */
+    public default Map<String, GroupConfig> getChannelGroups(final Collection<String> names) throws Exception
+    {
+        final Map<String, GroupConfig> groups = new HashMap<>();
+        for (String name : names)
+        {
+            final GroupConfig group = getChannelGroup(name);
+            if (group != null)
+                groups.put(name, group);
+        }
+        return groups;
+    }
+
     /**
      * Get the sample mode indicated by the monitor, sample value, and period
      */
@@ -58,4 +105,34 @@ public interface ImportableArchiveConfig extends ArchiveConfig
     /** Set the enabling channel for this group configuration */
     public void setEnablingChannel(GroupConfig group, ChannelConfig channel) throws Exception;
 
+    /** Perform several updates as one transaction
+     *
+     *  <p>Default implementation simply calls the updates.
+     *  Implementations may perform all updates called from within,
+     *  for example by the {@link XMLImport} of an engine,
+     *  in one transaction that is rolled back on error.
+     *
+     *  @param updates Updates to perform
+     *  @return Result of the updates
+     *  @throws Exception on error
+     */
+    public default <T> T runTransaction(final Callable<T> updates) throws Exception
+    {
+        return updates.call();
+    }
+
+    /** Apply the changes determined by {@link XMLDiffImport}
+     *
+     *  <p>Creates the engine if it does not exist.
+     *  Implementations should apply all changes, including the creation
+     *  of the engine, in one transaction.
+     *
+     *  @param changes Groups and channels to add, modify and remove
+     *  @param description Engine description, used if the engine does not exist
+     *  @param engine_url Engine URL, used if the engine does not exist
+     *  @return Updated engine
+     *  @throws Exception on error
+     */
+    public EngineConfig applyChanges(ConfigChanges changes, String description, String engine_url) throws Exception;
+
 }
@@ -0,0 +1,203 @@
+/*******************************************************************************
+ * Copyright (c) 2011 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.archive.config;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/** Import of an XML engine configuration that only applies the changes
+ *
+ *  <p>Compares the XML configuration with the stored configuration
+ *  of the engine and determines the added, modified and removed groups and channels.
+ *  These changes are then applied to the config,
+ *  for example in one RDB transaction, instead of re-creating the complete engine
+ *  as {@link XMLImport} does.
+ */
+@SuppressWarnings("nls")
+public class XMLDiffImport
+{
+    /** Sample periods and deltas closer than this are considered the same */
+    final private static double EPSILON = 1e-6;
+
+    /** Config to compare with and update */
+    final private ImportableArchiveConfig config;
+
+    /** Steal channels that currently belong to a different engine? */
+    final private boolean steal_channels;
+
+    /** Initialize
+     *  @param config Config to compare with and update
+     *  @param steal_channels Steal channels that currently belong to a different engine?
+     */
+    public XMLDiffImport(final ImportableArchiveConfig config, final boolean steal_channels)
+    {
+        this.config = config;
+        this.steal_channels = steal_channels;
+    }
+
+    /** Compare an XML engine configuration with the stored configuration
+     *
+     *  @param stream XML configuration
+     *  @param engine_name Engine name
+     *  @param description Engine description, used if the engine does not exist
+     *  @param engine_url Engine URL, used if the engine does not exist
+     *  @return Changes that would update the stored configuration to match the XML configuration
+     *  @throws Exception on error
+     */
+    public ConfigChanges compare(final InputStream stream, final String engine_name,
+            final String description, final String engine_url) throws Exception
+    {
+        final EngineConfig engine = config.findEngine(engine_name);
+        final Map<GroupConfig, List<ChannelConfig>> xml = new XMLImport(config, false, steal_channels)
+            .read(stream, engine != null ? engine : new EngineConfig(engine_name, description, engine_url));
+
+        // Stored groups and channels of the engine
+        final Map<String, GroupConfig> stored_groups = new LinkedHashMap<>();
+        final Map<String, ChannelConfig> stored_channels = new LinkedHashMap<>();
+        final Map<String, String> stored_channel_groups = new HashMap<>();
+        if (engine != null)
+            for (GroupConfig group : config.getGroups(engine))
+            {
+                stored_groups.put(group.getName(), group);
+                for (ChannelConfig channel : config.getChannels(group, true))
+                {
+                    stored_channels.put(channel.getName(), channel);
+                    stored_channel_groups.put(channel.getName(), group.getName());
+                }
+            }
+
+        // Locate channels that are new to this engine in one query
+        final Set<String> xml_channels = new HashSet<>();
+        final List<String> new_channels = new ArrayList<>();
+        for (List<ChannelConfig> channels : xml.values())
+            for (ChannelConfig channel : channels)
+                if (xml_channels.add(channel.getName())  &&  !stored_channels.containsKey(channel.getName()))
+                    new_channels.add(channel.getName());
+        final Map<String, GroupConfig> other_groups = config.getChannelGroups(new_channels);
+
+        final ConfigChanges changes = new ConfigChanges(engine_name);
+        // Group of each channel that was added to an XML group
+        final Map<String, String> xml_channel_groups = new HashMap<>();
+        for (Map.Entry<GroupConfig, List<ChannelConfig>> entry : xml.entrySet())
+        {
+            final GroupConfig group = entry.getKey();
+            final GroupConfig stored_group = stored_groups.get(group.getName());
+            final ConfigChanges.GroupChanges group_changes =
+                new ConfigChanges.GroupChanges(group.getName(), stored_group == null);
+            final Set<String> group_channels = new HashSet<>();
+            for (ChannelConfig channel : entry.getValue())
+            {
+                final String name = channel.getName();
+                final String earlier_group = xml_channel_groups.get(name);
+                if (earlier_group != null)
+                {   // Channel listed in more than one group, keep it in the first one
+                    System.out.format("WARNING: Channel '%s/%s - %s' already found in '%s/%s', not added again to this engine\n",
+                            engine_name, group.getName(), name, engine_name, earlier_group);
+                    continue;
+                }
+                final ChannelConfig stored = stored_channels.get(name);
+                if (stored == null)
+                {
+                    final GroupConfig other_group = other_groups.get(name);
+                    if (other_group == null)
+                        group_changes.insertChannel(name, channel.getSampleMode(), null);
+                    else
+                    {
+                        final EngineConfig other_engine = config.getEngine(other_group);
+                        final String from = other_engine.getName() + "/" + other_group.getName();
+                        if (! steal_channels)
+                        {
+                            System.out.println("WARNING: Group " + group.getName() + ": Channel '" + name + "' already in " + from +
+                                    ". Skipping channel");
+                            continue;
+                        }
+                        group_changes.insertChannel(name, channel.getSampleMode(), from);
+                    }
+                }
+                else if (! stored_channel_groups.get(name).equals(group.getName()))
+                    group_changes.insertChannel(name, channel.getSampleMode(),
+                            engine_name + "/" + stored_channel_groups.get(name));
+                else if (! isSameMode(stored.getSampleMode(), channel.getSampleMode()))
+                    group_changes.modifyChannel(name, channel.getSampleMode());
+                else
+                    changes.addUnchangedChannel();
+                group_channels.add(name);
+                xml_channel_groups.put(name, group.getName());
+            }
+
+            // Enabling channel that was skipped cannot enable the group
+            String enabling = group.getEnablingChannel();
+            if (enabling != null  &&  ! group_channels.contains(enabling))
+                enabling = null;
+            final String stored_enabling = stored_group == null ? null : stored_group.getEnablingChannel();
+            if (! Objects.equals(enabling, stored_enabling))
+                group_changes.setEnablingChannel(enabling);
+
+            if (group_changes.hasChanges())
+                changes.addGroup(group_changes);
+        }
+
+        final Set<String> xml_groups = new HashSet<>();
+        for (GroupConfig group : xml.keySet())
+            xml_groups.add(group.getName());
+        for (String group : stored_groups.keySet())
+            if (! xml_groups.contains(group))
+                changes.removeGroup(group);
+        for (String channel : stored_channels.keySet())
+            if (! xml_channels.contains(channel))
+                changes.removeChannel(channel);
+        return changes;
+    }
+
+    /** Update the stored configuration to match an XML engine configuration
+     *
+     *  <p>Creates the engine if it does not exist.
+     *
+     *  @param stream XML configuration
+     *  @param engine_name Engine name
+     *  @param description Engine description, used if the engine does not exist
+     *  @param engine_url Engine URL, used if the engine does not exist
+     *  @param dry_run Only determine the changes, do not apply them?
+     *  @return Changes that were, or in a dry run would be, applied
+     *  @throws Exception on error
+     */
+    public ConfigChanges importChanges(final InputStream stream, final String engine_name,
+            final String description, final String engine_url, final boolean dry_run) throws Exception
+    {
+        final ConfigChanges changes = compare(stream, engine_name, description, engine_url);
+        if (dry_run)
+            return changes;
+        if (! changes.isEmpty()  ||  config.findEngine(engine_name) == null)
+            config.applyChanges(changes, description, engine_url);
+        return changes;
+    }
+
+    /** Close the config */
+    public void close()
+    {
+        config.close();
+    }
+
+    /** @param stored Stored sample mode
+     *  @param mode Sample mode from XML
+     *  @return <code>true</code> if sample modes are the same
+     */
+    private static boolean isSameMode(final SampleMode stored, final SampleMode mode)
+    {
+        return stored.isMonitor() == mode.isMonitor()  &&
+               Math.abs(stored.getDelta() - mode.getDelta()) < EPSILON  &&
+               Math.abs(stored.getPeriod() - mode.getPeriod()) < EPSILON;
+    }
+}
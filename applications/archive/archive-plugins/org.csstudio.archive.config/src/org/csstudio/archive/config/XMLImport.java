@@ -8,6 +8,10 @@
 package org.csstudio.archive.config;
 
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 import javax.xml.parsers.SAXParser;
 import javax.xml.parsers.SAXParserFactory;
@@ -110,6 +114,30 @@ public class XMLImport extends DefaultHandler
     /** Most recent 'retain' tag (contents) */
     private String retain = null;
 
+    /** Channel of the current group, added when the group is complete */
+    private static class PendingChannel
+    {
+        final SampleMode mode;
+        final String retain;
+
+        PendingChannel(final SampleMode mode, final String retain)
+        {
+            this.mode = mode;
+            this.retain = retain;
+        }
+    }
+
+    /** Channels of the current group by name, in order of appearance */
+    final private Map<String, PendingChannel> pending = new LinkedHashMap<>();
+
+    /** Name of the channel that enables the current group, or <code>null</code> */
+    private String enabling_name;
+
+    /** Groups and their channels by name when only reading the configuration,
+     *  <code>null</code> when importing into the config
+     */
+    private Map<GroupConfig, Map<String, ChannelConfig>> parsed = null;
+
     /**
      * Initialize
      *
@@ -131,10 +159,14 @@ public class XMLImport extends DefaultHandler
 
     public void import_engine(final InputStream stream, final String engine_name, final String description,
             final String engine_url) throws Exception, XMLImportException {
-        engine = config.createEngine(engine_name, description, engine_url);
+        config.runTransaction(() ->
+        {
+            engine = config.createEngine(engine_name, description, engine_url);
 
-        final SAXParser parser = SAXParserFactory.newInstance().newSAXParser();
-        parser.parse(stream, this);
+            final SAXParser parser = SAXParserFactory.newInstance().newSAXParser();
+            parser.parse(stream, this);
+            return null;
+        });
     }
 
     /**
@@ -149,20 +181,54 @@ public class XMLImport extends DefaultHandler
     public void parse(final InputStream stream, final String engine_name, final String description,
             final String engine_url) throws Exception
     {
-        engine = config.findEngine(engine_name);
-        if (engine != null)
+        // Replace the engine in one transaction, keeping the old config on error
+        config.runTransaction(() ->
         {
-            if (replace)
+            engine = config.findEngine(engine_name);
+            if (engine != null)
             {
-                System.out.println("Replacing existing engine config " + engine_name);
-                config.deleteEngine(engine);
+                if (replace)
+                {
+                    System.out.println("Replacing existing engine config " + engine_name);
+                    config.deleteEngine(engine);
+                }
+                else
+                    throw new XMLImportException("Error: Engine config '" + engine_name +
+                    "' already exists");
             }
-            else
-                throw new XMLImportException("Error: Engine config '" + engine_name +
-                "' already exists");
-        }
 
-        import_engine(stream, engine_name, description, engine_url);
+            import_engine(stream, engine_name, description, engine_url);
+            return null;
+        });
+    }
+
+    /** Read an XML configuration without changing the config
+     *
+     *  <p>The config is only used to determine sample modes.
+     *
+     *  @param stream
+     *  @param engine Engine used in messages. Need not exist in the config
+     *  @return Groups with their channels, in order of appearance.
+     *          Groups that are listed more than once are merged.
+     *  @throws Exception on error
+     */
+    public Map<GroupConfig, List<ChannelConfig>> read(final InputStream stream, final EngineConfig engine) throws Exception
+    {
+        this.engine = engine;
+        parsed = new LinkedHashMap<>();
+        try
+        {
+            final SAXParser parser = SAXParserFactory.newInstance().newSAXParser();
+            parser.parse(stream, this);
+            final Map<GroupConfig, List<ChannelConfig>> result = new LinkedHashMap<>();
+            for (Map.Entry<GroupConfig, Map<String, ChannelConfig>> entry : parsed.entrySet())
+                result.put(entry.getKey(), new ArrayList<>(entry.getValue().values()));
+            return result;
+        }
+        finally
+        {
+            parsed = null;
+        }
     }
 
     /** Reset the accumulator at the start of each element */
@@ -185,6 +251,8 @@ public class XMLImport extends DefaultHandler
             // Wait for group stuff, reset values
             state = State.GROUP;
             name = null;
+            pending.clear();
+            enabling_name = null;
         }
         else if (element.equals(TAG_CHANNEL))
         {
@@ -236,7 +304,10 @@ public class XMLImport extends DefaultHandler
             {   // Fetch the group for the following channels
                 try
                 {
-                    group = config.addGroup(engine, name);
+                    if (parsed != null)
+                        group = getParsedGroup(name);
+                    else
+                        group = config.addGroup(engine, name);
                     // System.out.println("Import '" + engine.getName()
                     // + "', Group '" + name + "'");
                 }
@@ -294,9 +365,9 @@ public class XMLImport extends DefaultHandler
         else if (element.equals(TAG_ENABLE))
         {
             checkStateForTag(State.CHANNEL, element);
-            if (group.getEnablingChannel() != null)
+            if (enabling_name != null)
             {
-                System.out.println("WARNING: Group " + group.getName() + " is already enabled by " + group.getEnablingChannel() +
+                System.out.println("WARNING: Group " + group.getName() + " is already enabled by " + enabling_name +
                         ". Ignoring additional enabling channels for the same group");
             }
             else
@@ -311,66 +382,148 @@ public class XMLImport extends DefaultHandler
         {
             checkStateForTag(State.CHANNEL, element);
             state = State.GROUP;
+            final SampleMode mode;
             try
             {
-                // System.out.println(group.getName() + " - " + name);
-                // Check if channel is already in another group
-                final GroupConfig other_group = config.getChannelGroup(name);
+                mode = config.getSampleMode(monitor, sample_value, period);
+            }
+            catch (Exception ex)
+            {
+                throw new SAXException("Cannot determine sample mode of channel '" + name + "': " + ex.getMessage(), ex);
+            }
+            if (pending.containsKey(name))
+            {
+                if (steal_channels)
+                    System.out.format("Channel '%s/%s - %s' already listed in this group, using last entry\n",
+                                      engine.getName(), group.getName(), name);
+                else
+                {
+                    System.out.format("WARNING: Channel '%s/%s - %s' already listed in this group, not added again\n",
+                                      engine.getName(), group.getName(), name);
+                    retain = null;
+                    return;
+                }
+            }
+            pending.put(name, new PendingChannel(mode, retain));
+            retain = null;
+            if (is_enabling)
+                enabling_name = name;
+        }
+        else if (element.equals(TAG_GROUP))
+        {
+            if (parsed != null)
+                addParsedChannels();
+            else
+                addPendingChannels();
+            group = null;
+            state = State.PREAMBLE;
+        }
+        else if (element.equals(TAG_RETAIN))
+        {
+            retain = accumulator.toString().trim();
+        }
+        // else: Ignore the unknown element
+    }
+
+    /** @param name Group name
+     *  @return Group that was already read with that name, or new group
+     */
+    private GroupConfig getParsedGroup(final String name)
+    {
+        for (GroupConfig group : parsed.keySet())
+            if (group.getName().equals(name))
+                return group;
+        final GroupConfig group = new GroupConfig(name, null);
+        parsed.put(group, new LinkedHashMap<>());
+        return group;
+    }
+
+    /** Remember the channels of the current group when only reading the configuration */
+    private void addParsedChannels()
+    {
+        final Map<String, ChannelConfig> channels = parsed.get(group);
+        for (Map.Entry<String, PendingChannel> entry : pending.entrySet())
+        {
+            final ChannelConfig channel = new ChannelConfig(entry.getKey(), entry.getValue().mode, null);
+            // Later entry of a repeated group replaces the earlier one
+            channels.remove(channel.getName());
+            channels.put(channel.getName(), channel);
+            if (channel.getName().equals(enabling_name))
+                group.setEnablingChannel(channel);
+        }
+        pending.clear();
+    }
+
+    /** Add the channels of the current group
+     *
+     *  <p>Existing channels are located and added in one call to the config,
+     *  which may handle them in one transaction.
+     *
+     *  @throws SAXException on error
+     */
+    private void addPendingChannels() throws SAXException
+    {
+        if (pending.isEmpty())
+            return;
+        try
+        {
+            // Check which channels are already in another group.
+            // Don't add those unless stealing, but run on with the remaining channels
+            // so that we get all the errors once instead of having
+            // to run the tool error by error
+            final Map<String, GroupConfig> other_groups = config.getChannelGroups(new ArrayList<>(pending.keySet()));
+            final Map<String, SampleMode> channels = new LinkedHashMap<>();
+            for (Map.Entry<String, PendingChannel> entry : pending.entrySet())
+            {
+                final String channel_name = entry.getKey();
+                final GroupConfig other_group = other_groups.get(channel_name);
                 if (other_group != null)
                 {
                     final EngineConfig other_engine = config.getEngine(other_group);
-                    // Don't proceed with this channel,
-                    // but run on with the next channel so that we
-                    // get all the errors once instead of having
-                    // to run the tool error by error
                     if (steal_channels)
                         System.out.format("Channel '%s/%s - %s' already found in '%s/%s', moved to this engine\n",
-                                engine.getName(), group.getName(), name,
+                                engine.getName(), group.getName(), channel_name,
                                 other_engine.getName(), other_group.getName());
                     else
                     {
                         System.out.format("WARNING: Channel '%s/%s - %s' already found in '%s/%s', not added again to this engine\n",
-                                engine.getName(), group.getName(), name,
+                                engine.getName(), group.getName(), channel_name,
                                 other_engine.getName(), other_group.getName());
-                        return;
+                        continue;
                     }
                 }
+                channels.put(channel_name, entry.getValue().mode);
+            }
 
-                final SampleMode mode = config.getSampleMode(monitor, sample_value, period);
-                final ChannelConfig channel = config.addChannel(group, name, mode);
-                if (is_enabling)
+            final List<ChannelConfig> added = config.addChannels(group, channels);
+            for (ChannelConfig channel : added)
+            {
+                if (channel == null)
+                    continue;
+                if (channel.getName().equals(enabling_name))
                 {
                     config.setEnablingChannel(group, channel);
                     group.setEnablingChannel(channel);
                 }
-                if (retain != null && !retain.isEmpty())
-                {
-                    channel.setRetention(retain);
-                    retain = null;
-                }
-            }
-            catch (Exception ex)
-            {    // Must convert to SAXException
-                final StackTraceElement[] trace = ex.getStackTrace();
-                throw new SAXException("Cannot add channel '" + name
-                                + "' to group '" + group.getName()
-                                + "', Engine '" + engine.getName()
-                                + "':\n" + ex.getMessage()
-                                + " (" + trace[0].getFileName()
-                                + ", " + trace[0].getLineNumber() + ")",
-                                ex);
+                final String channel_retain = pending.get(channel.getName()).retain;
+                if (channel_retain != null && !channel_retain.isEmpty())
+                    channel.setRetention(channel_retain);
             }
         }
-        else if (element.equals(TAG_GROUP))
-        {
-            group = null;
-            state = State.PREAMBLE;
+        catch (Exception ex)
+        {    // Must convert to SAXException
+            final StackTraceElement[] trace = ex.getStackTrace();
+            throw new SAXException("Cannot add channels to group '" + group.getName()
+                            + "', Engine '" + engine.getName()
+                            + "':\n" + ex.getMessage()
+                            + " (" + trace[0].getFileName()
+                            + ", " + trace[0].getLineNumber() + ")",
+                            ex);
         }
-        else if (element.equals(TAG_RETAIN))
+        finally
         {
-            retain = accumulator.toString().trim();
+            pending.clear();
         }
-        // else: Ignore the unknown element
     }
 
     /** Check if we are in the correct state
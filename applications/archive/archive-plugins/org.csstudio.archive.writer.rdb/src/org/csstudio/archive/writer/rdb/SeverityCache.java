@@ -12,7 +12,7 @@ import java.util.Map;
 
 import org.csstudio.platform.utility.rdb.RDBUtil;
 import org.csstudio.platform.utility.rdb.StringID;
-import org.csstudio.platform.utility.rdb.StringIDHelper;
+import org.csstudio.platform.utility.rdb.StringIDCache;
 import org.diirt.vtype.AlarmSeverity;
 
 /** Caching RDB interface to severity info.
@@ -20,8 +20,8 @@ import org.diirt.vtype.AlarmSeverity;
  */
 public class SeverityCache
 {
-    /** RDB Helper. */
-    final private StringIDHelper helper;
+    /** Cached RDB ID mapping */
+    final private StringIDCache helper;
 
     /** Cache that maps names to severities */
     final private Map<AlarmSeverity, Integer> cache_by_name =
@@ -30,7 +30,7 @@ public class SeverityCache
     /** Constructor */
     public SeverityCache(final RDBUtil rdb, final SQL sql)
     {
-        helper = new StringIDHelper(rdb,
+        helper = new StringIDCache(rdb,
             sql.severity_table, sql.severity_id_column, sql.severity_name_column);
     }
 
@@ -12,7 +12,7 @@ import java.util.HashMap;
 import org.csstudio.archive.vtype.ArchiveVType;
 import org.csstudio.platform.utility.rdb.RDBUtil;
 import org.csstudio.platform.utility.rdb.StringID;
-import org.csstudio.platform.utility.rdb.StringIDHelper;
+import org.csstudio.platform.utility.rdb.StringIDCache;
 
 /** Caching RDB interface to status info.
  *  @author Kay Kasemir
@@ -20,7 +20,7 @@ import org.csstudio.platform.utility.rdb.StringIDHelper;
 public class StatusCache
 {
     /** Helper. */
-    final private StringIDHelper helper;
+    final private StringIDCache helper;
 
     /** Cache that maps names to stati */
     final private HashMap<String, Status> cache_by_name =
@@ -29,7 +29,7 @@ public class StatusCache
     /** Constructor */
     public StatusCache(final RDBUtil rdb, final SQL sql)
     {
-        helper = new StringIDHelper(rdb,
+        helper = new StringIDCache(rdb,
             sql.status_table, sql.status_id_column, sql.status_name_column);
     }
 
@@ -2,7 +2,6 @@ package org.csstudio.channel.widgets;
 
 import gov.bnl.channelfinder.api.Channel;
 import gov.bnl.channelfinder.api.ChannelQuery;
-import gov.bnl.channelfinder.api.ChannelUtil;
 
 import java.util.ArrayList;
 import java.util.Collection;
@@ -12,6 +11,7 @@ import java.util.List;
 import java.util.Map;
 
 import org.csstudio.csdata.ProcessVariable;
+import org.csstudio.utility.channelfinder.ChannelIndex;
 import org.csstudio.utility.pvmanager.widgets.ConfigurableWidget;
 import org.csstudio.utility.pvmanager.widgets.ConfigurableWidgetAdaptable;
 
@@ -33,6 +33,9 @@ public class ChannelTreeByPropertyNode implements ConfigurableWidgetAdaptable, C
     // to last node,
     // null for leaf
     private final List<String> childrenNames;
+    // Channels of each child, by child name, sorted. Computed once
+    // so that creating each child does not scan all the channels of this node
+    private final Map<String, List<Channel>> childrenChannels;
     // Parent of the node, or null if root
     private final ChannelTreeByPropertyNode parentNode;
 
@@ -53,40 +56,30 @@ public class ChannelTreeByPropertyNode implements ConfigurableWidgetAdaptable, C
         if (parentNode == null) {
             // Node is root, get all channels
             nodeChannels = model.allChannels;
-        } else if (getPropertyName() == null) {
-            // leaf node, channels that match the name
-            nodeChannels = new ArrayList<Channel>();
-            for (Channel channel : parentNode.nodeChannels) {
-                if (this.displayName.equals(channel.getName())) {
-                    nodeChannels.add(channel);
-                }
-            }
         } else {
-            // Filter the channels that match the property name
-            nodeChannels = new ArrayList<Channel>();
-            for (Channel channel : parentNode.nodeChannels) {
-                if (this.displayName.equals(channel.getProperty(
-                        getPropertyName()).getValue())) {
-                    nodeChannels.add(channel);
-                }
+            // The parent already grouped its channels by the value of the
+            // property at this level, or by name for the leaves
+            nodeChannels = parentNode.childrenChannels.get(displayName);
+            if (nodeChannels == null) {
+                nodeChannels = Collections.emptyList();
             }
         }
 
         if (depth < model.properties.size()) {
             // Children will be property values
-            childrenNames = new ArrayList<String>(ChannelUtil.getPropValues(
-                    nodeChannels, model.properties.get(depth)));
-            Collections.sort(childrenNames);
+            childrenChannels = ChannelIndex.groupByProperty(nodeChannels, model.properties.get(depth));
+            childrenNames = new ArrayList<String>(childrenChannels.keySet());
         } else if (depth == model.properties.size()) {
             // Children will be channels
             if (model.isShowChannelNames()) {
-                childrenNames = new ArrayList<String>(
-                        ChannelUtil.getChannelNames(nodeChannels));
-                Collections.sort(childrenNames);
+                childrenChannels = ChannelIndex.groupByName(nodeChannels);
+                childrenNames = new ArrayList<String>(childrenChannels.keySet());
             } else {
+                childrenChannels = null;
                 childrenNames = null;
             }
         } else {
+            childrenChannels = null;
             childrenNames = null;
         }
     }
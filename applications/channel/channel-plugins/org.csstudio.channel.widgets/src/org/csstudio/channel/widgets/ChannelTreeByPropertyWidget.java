@@ -2,7 +2,6 @@ package org.csstudio.channel.widgets;
 
 import gov.bnl.channelfinder.api.ChannelQuery;
 import gov.bnl.channelfinder.api.ChannelQuery.Result;
-import gov.bnl.channelfinder.api.ChannelUtil;
 
 import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
@@ -11,6 +10,7 @@ import java.util.Arrays;
 import java.util.List;
 
 import org.csstudio.ui.util.widgets.ErrorBar;
+import org.csstudio.utility.channelfinder.ChannelIndex;
 import org.csstudio.utility.pvmanager.widgets.ConfigurableWidget;
 import org.eclipse.jface.viewers.ISelection;
 import org.eclipse.jface.viewers.ISelectionChangedListener;
@@ -40,6 +40,9 @@ implements ConfigurableWidget, ISelectionProvider {
     private ISelectionProvider selectionProvider;
     private List<String> properties = new ArrayList<String>();
     private ChannelTreeByPropertyModel model;
+    // Index of the query result, built once for each result
+    private Result indexedResult;
+    private ChannelIndex index;
 
     @Override
     public void setMenu(Menu menu) {
@@ -144,6 +147,16 @@ implements ConfigurableWidget, ISelectionProvider {
         tree.setItemCount(0);
         tree.clearAll(true);
         errorBar.setException(null);
+        indexedResult = null;
+        index = null;
+    }
+
+    private ChannelIndex getIndex(Result result) {
+        if (result != indexedResult) {
+            index = new ChannelIndex(result.channels);
+            indexedResult = result;
+        }
+        return index;
     }
 
     @Override
@@ -151,7 +164,7 @@ implements ConfigurableWidget, ISelectionProvider {
         errorBar.setException(result.exception);
         if (result.exception == null) {
             List<String> newProperties = new ArrayList<String>(getProperties());
-            newProperties.retainAll(ChannelUtil.getPropertyNames(result.channels));
+            newProperties.retainAll(getIndex(result).getPropertyNames());
             if (newProperties.size() != getProperties().size()) {
                 setProperties(newProperties);
             }
@@ -167,7 +180,7 @@ implements ConfigurableWidget, ISelectionProvider {
         } else if (getChannelQuery().getResult() == null) {
             model = new ChannelTreeByPropertyModel(getChannelQuery().getQuery(), null, getProperties(), this, showChannelNames);
         } else {
-            model = new ChannelTreeByPropertyModel(getChannelQuery().getQuery(), getChannelQuery().getResult().channels, getProperties(), this, showChannelNames);
+            model = new ChannelTreeByPropertyModel(getChannelQuery().getQuery(), getIndex(getChannelQuery().getResult()), getProperties(), this, showChannelNames);
         }
         if (model.getRoot().getChildrenNames() != null) {
             tree.setItemCount(model.getRoot().getChildrenNames().size());
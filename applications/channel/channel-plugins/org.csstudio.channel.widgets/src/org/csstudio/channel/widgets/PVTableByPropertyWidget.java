@@ -8,7 +8,6 @@ import static org.diirt.datasource.vtype.ExpressionLanguage.vTable;
 import gov.bnl.channelfinder.api.Channel;
 import gov.bnl.channelfinder.api.ChannelQuery;
 import gov.bnl.channelfinder.api.ChannelQuery.Result;
-import gov.bnl.channelfinder.api.ChannelUtil;
 
 import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
@@ -17,11 +16,14 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 
 import org.csstudio.channel.widgets.util.MementoUtil;
 import org.csstudio.ui.util.widgets.ErrorBar;
+import org.csstudio.utility.channelfinder.ChannelIndex;
 import org.csstudio.utility.pvmanager.ui.SWTUtil;
 import org.csstudio.utility.pvmanager.widgets.ConfigurableWidget;
 import org.csstudio.utility.pvmanager.widgets.VTableDisplay;
@@ -137,6 +139,9 @@ public class PVTableByPropertyWidget extends AbstractChannelQueryResultWidget im
 
     private List<List<String>> cellPvs;
     private List<List<Collection<Channel>>> cellChannels;
+    // Union of the cell channels of each row and column
+    private List<Collection<Channel>> rowChannels;
+    private List<Collection<Channel>> columnChannels;
     private List<String> columnNames;
     private List<String> rowNames;
 
@@ -214,10 +219,13 @@ public class PVTableByPropertyWidget extends AbstractChannelQueryResultWidget im
     }
 
     private Collection<Channel> channels;
+    // Index of the channels, built once for each query result
+    private ChannelIndex index;
 
     private void setChannels(Collection<Channel> channels) {
         Collection<Channel> oldChannels = this.channels;
         this.channels = channels;
+        this.index = channels == null ? null : new ChannelIndex(channels);
         changeSupport.firePropertyChange("channels", oldChannels, channels);
     }
 
@@ -235,6 +243,8 @@ public class PVTableByPropertyWidget extends AbstractChannelQueryResultWidget im
         rowNames = null;
         cellPvs = null;
         cellChannels = null;
+        rowChannels = null;
+        columnChannels = null;
         reconnect();
     }
 
@@ -247,26 +257,31 @@ public class PVTableByPropertyWidget extends AbstractChannelQueryResultWidget im
 
         // Filter only the channels that actually have the properties
         // If none, then nothing should be shown
-        Collection<Channel> channelsWithRow = ChannelUtil.filterbyProperties(channels, Arrays.asList(rowProperty));
         Collection<String> propertyNames = new ArrayList<String>();
+        propertyNames.add(rowProperty);
         if (columnProperty != null)
             propertyNames.add(columnProperty);
         List<String> tagNames = this.columnTags;
         if (tagNames == null)
             tagNames = new ArrayList<String>();
-        Collection<Channel> channelsInTable = ChannelUtil.filterbyElements(channelsWithRow, propertyNames, tagNames);
+        Collection<Channel> channelsInTable = index.getChannelsWith(propertyNames, tagNames);
         if (channelsInTable.isEmpty()) {
             propertyNames = null;
             rowNames = null;
             cellPvs = null;
             cellChannels = null;
+            rowChannels = null;
+            columnChannels = null;
             reconnect();
             return;
         }
 
-        // Find the rows and columns
-        List<String> possibleRows = new ArrayList<String>(ChannelUtil.getPropValues(channelsInTable, rowProperty));
-        List<String> columnPropertyValues = new ArrayList<String>(ChannelUtil.getPropValues(channelsInTable, columnProperty));
+        // Find the rows and columns, grouping the channels in one pass
+        Map<String, List<Channel>> channelsByRow = ChannelIndex.groupByProperty(channelsInTable, rowProperty);
+        Map<String, List<Channel>> channelsByColumn = columnProperty == null ? Collections.<String, List<Channel>>emptyMap()
+                : ChannelIndex.groupByProperty(channelsInTable, columnProperty);
+        List<String> possibleRows = new ArrayList<String>(channelsByRow.keySet());
+        List<String> columnPropertyValues = new ArrayList<String>(channelsByColumn.keySet());
         //possibleColumns.addAll(tagNames);
         int nRows = possibleRows.size();
         int nColumns = columnPropertyValues.size() + tagNames.size();
@@ -283,11 +298,21 @@ public class PVTableByPropertyWidget extends AbstractChannelQueryResultWidget im
             return;
         }
 
-        Collections.sort(possibleRows);
-        Collections.sort(columnPropertyValues);
+        // Rows and columns are already sorted: look up their position
+        // instead of searching the lists for each channel
+        Map<String, Integer> rowIndex = new HashMap<String, Integer>();
+        for (int nRow = 0; nRow < nRows; nRow++) {
+            rowIndex.put(possibleRows.get(nRow), nRow);
+        }
+        Map<String, Integer> columnIndex = new HashMap<String, Integer>();
+        for (int nColumn = 0; nColumn < columnPropertyValues.size(); nColumn++) {
+            columnIndex.put(columnPropertyValues.get(nColumn), nColumn);
+        }
 
         List<List<String>> cells = new ArrayList<List<String>>();
         List<List<Collection<Channel>>> channels = new ArrayList<List<Collection<Channel>>>();
+        List<Collection<Channel>> newColumnChannels = new ArrayList<Collection<Channel>>();
+        List<Collection<Channel>> newRowChannels = new ArrayList<Collection<Channel>>();
         for (int nColumn = 0; nColumn < nColumns; nColumn++) {
             List<String> column = new ArrayList<String>();
             List<Collection<Channel>> channelColumn = new ArrayList<Collection<Channel>>();
@@ -297,29 +322,30 @@ public class PVTableByPropertyWidget extends AbstractChannelQueryResultWidget im
             }
             cells.add(column);
             channels.add(channelColumn);
+            newColumnChannels.add(new HashSet<Channel>());
+        }
+        for (int nRow = 0; nRow < nRows; nRow++) {
+            newRowChannels.add(new HashSet<Channel>());
         }
 
         for (Channel channel : channelsInTable) {
-            int nColumn = -1;
             // Row is guaranteed to have the property, column may not
-            String row = channel.getProperty(rowProperty).getValue();
+            Integer nRow = rowIndex.get(channel.getProperty(rowProperty).getValue());
+            if (nRow == null)
+                continue;
+            Integer nColumn = null;
             if (channel.getProperty(columnProperty) != null) {
-                nColumn = columnPropertyValues.indexOf(channel.getProperty(columnProperty).getValue());
+                nColumn = columnIndex.get(channel.getProperty(columnProperty).getValue());
             }
 
-            int nRow = possibleRows.indexOf(row);
-
-            if (nRow != -1 && nColumn != -1) {
-                cells.get(nColumn).set(nRow, channel.getName());
-                channels.get(nColumn).get(nRow).add(channel);
+            if (nColumn != null) {
+                addToCell(cells, channels, newRowChannels, newColumnChannels, nRow, nColumn, channel);
             }
 
             int tagCount = 0;
             for (String tagName : tagNames) {
                 if (channel.getTag(tagName) != null) {
-                    nColumn = columnPropertyValues.size() + tagCount;
-                    cells.get(nColumn).set(nRow, channel.getName());
-                    channels.get(nColumn).get(nRow).add(channel);
+                    addToCell(cells, channels, newRowChannels, newColumnChannels, nRow, columnPropertyValues.size() + tagCount, channel);
                 }
                 tagCount++;
             }
@@ -334,10 +360,21 @@ public class PVTableByPropertyWidget extends AbstractChannelQueryResultWidget im
         rowNames = possibleRows;
         cellPvs = cells;
         cellChannels = channels;
+        rowChannels = newRowChannels;
+        columnChannels = newColumnChannels;
 
         reconnect();
     }
 
+    private static void addToCell(List<List<String>> cells, List<List<Collection<Channel>>> channels,
+            List<Collection<Channel>> rowChannels, List<Collection<Channel>> columnChannels,
+            int nRow, int nColumn, Channel channel) {
+        cells.get(nColumn).set(nRow, channel.getName());
+        channels.get(nColumn).get(nRow).add(channel);
+        rowChannels.get(nRow).add(channel);
+        columnChannels.get(nColumn).add(channel);
+    }
+
     private String rowSelectionPv = null;
     private LocalUtilityPvManagerBridge rowSelectionWriter = null;
 
@@ -395,19 +432,11 @@ public class PVTableByPropertyWidget extends AbstractChannelQueryResultWidget im
     }
 
     public Collection<Channel> getChannelsInColumn(int column) {
-        Collection<Channel> columnChannels = new HashSet<Channel>();
-        for (Collection<Channel> channels : cellChannels.get(column)) {
-            columnChannels.addAll(channels);
-        }
-        return columnChannels;
+        return new HashSet<Channel>(columnChannels.get(column));
     }
 
     public Collection<Channel> getChannelsInRow(int row) {
-        Collection<Channel> rowChannels = new HashSet<Channel>();
-        for (List<Collection<Channel>> column : cellChannels) {
-            rowChannels.addAll(column.get(row));
-        }
-        return rowChannels;
+        return new HashSet<Channel>(rowChannels.get(row));
     }
 
     public List<String> getColumnPropertyValues() {
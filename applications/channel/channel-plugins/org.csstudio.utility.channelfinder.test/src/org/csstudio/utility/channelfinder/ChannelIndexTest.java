@@ -0,0 +1,92 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.utility.channelfinder;
+
+import static gov.bnl.channelfinder.api.Channel.Builder.channel;
+import static gov.bnl.channelfinder.api.Property.Builder.property;
+import static gov.bnl.channelfinder.api.Tag.Builder.tag;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import gov.bnl.channelfinder.api.Channel;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for the {@link ChannelIndex}
+ */
+public class ChannelIndexTest {
+
+    private Channel c1, c2, c3, c4;
+    private ChannelIndex index;
+
+    @Before
+    public void setUp() {
+        c1 = channel("SR:C01:BPM").with(property("cell").value("01")).with(property("device").value("BPM"))
+                .with(tag("archived")).build();
+        c2 = channel("SR:C02:BPM").with(property("cell").value("02")).with(property("device").value("BPM")).build();
+        c3 = channel("SR:C01:COR").with(property("cell").value("01")).with(tag("archived")).build();
+        c4 = channel("LN:GUN").with(tag("linac")).build();
+        index = new ChannelIndex(Arrays.asList(c1, c2, c3, c4));
+    }
+
+    @Test
+    public void testNames() {
+        assertEquals(Arrays.asList(c1, c2, c3, c4), index.getChannels());
+        assertEquals(Arrays.asList("cell", "device"), Arrays.asList(index.getPropertyNames().toArray()));
+        assertEquals(Arrays.asList("archived", "linac"), Arrays.asList(index.getTagNames().toArray()));
+        assertEquals(Arrays.asList("01", "02"), Arrays.asList(index.getPropertyValues("cell").toArray()));
+        assertTrue(index.getPropertyValues("missing").isEmpty());
+    }
+
+    @Test
+    public void testLookups() {
+        assertEquals(Arrays.asList(c1, c2, c3), index.getChannelsWithProperty("cell"));
+        assertEquals(Arrays.asList(c1, c3), index.getChannelsWithProperty("cell", "01"));
+        assertEquals(Collections.emptyList(), index.getChannelsWithProperty("cell", "99"));
+        assertEquals(Collections.emptyList(), index.getChannelsWithProperty("missing"));
+        assertEquals(Arrays.asList(c1, c3), index.getChannelsWithTag("archived"));
+        assertEquals(Collections.emptyList(), index.getChannelsWithTag("missing"));
+    }
+
+    @Test
+    public void testChannelsWith() {
+        List<String> none = Collections.emptyList();
+        assertEquals(Arrays.asList(c1, c2, c3, c4), index.getChannelsWith(none, none));
+        assertEquals(Arrays.asList(c1, c2), index.getChannelsWith(Arrays.asList("cell", "device"), none));
+        assertEquals(Arrays.asList(c1), index.getChannelsWith(Arrays.asList("device"), Arrays.asList("archived")));
+        assertEquals(Collections.emptyList(), index.getChannelsWith(Arrays.asList("device"), Arrays.asList("linac")));
+        assertEquals(Collections.emptyList(), index.getChannelsWith(Arrays.asList("missing"), none));
+    }
+
+    @Test
+    public void testGroupBy() {
+        Map<String, List<Channel>> byCell = index.groupByProperty("cell");
+        assertEquals(Arrays.asList("01", "02"), Arrays.asList(byCell.keySet().toArray()));
+        assertEquals(Arrays.asList(c1, c3), byCell.get("01"));
+        assertEquals(Arrays.asList(c2), byCell.get("02"));
+        assertEquals(byCell, ChannelIndex.groupByProperty(Arrays.asList(c1, c2, c3, c4), "cell"));
+        assertTrue(index.groupByProperty("missing").isEmpty());
+
+        Map<String, List<Channel>> byName = ChannelIndex.groupByName(Arrays.asList(c3, c4, c1));
+        assertEquals(Arrays.asList("LN:GUN", "SR:C01:BPM", "SR:C01:COR"), Arrays.asList(byName.keySet().toArray()));
+    }
+
+    @Test
+    public void testEmpty() {
+        ChannelIndex empty = new ChannelIndex(null);
+        assertTrue(empty.getChannels().isEmpty());
+        assertTrue(empty.getPropertyNames().isEmpty());
+        assertTrue(empty.getChannelsWithProperty("cell").isEmpty());
+    }
+}
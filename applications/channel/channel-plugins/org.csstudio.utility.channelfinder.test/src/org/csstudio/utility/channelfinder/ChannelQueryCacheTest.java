@@ -0,0 +1,155 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.utility.channelfinder;
+
+import static gov.bnl.channelfinder.api.Channel.Builder.channel;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import gov.bnl.channelfinder.api.Channel;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for the {@link ChannelQueryCache} using the {@link FakeChannelFinderClient}
+ */
+public class ChannelQueryCacheTest {
+
+    private FakeChannelFinderClient client;
+    private final AtomicLong time = new AtomicLong();
+    private final List<Runnable> backgroundTasks = new ArrayList<Runnable>();
+
+    @Before
+    public void setUp() {
+        client = new FakeChannelFinderClient();
+        client.put("SR*", Arrays.asList(channel("SR:C01").build(), channel("SR:C02").build()));
+    }
+
+    private ChannelQueryCache createCache(long timeToLive, long refreshAfter) {
+        return new ChannelQueryCache(client, timeToLive, refreshAfter, TimeUnit.SECONDS, backgroundTasks::add, time::get);
+    }
+
+    private void advance(long seconds) {
+        time.addAndGet(TimeUnit.SECONDS.toNanos(seconds));
+    }
+
+    @Test
+    public void testHitsAndExpiry() {
+        ChannelQueryCache cache = createCache(10, 10);
+        Collection<Channel> first = cache.find("SR*");
+        assertEquals(2, first.size());
+        advance(5);
+        assertSame(first, cache.find("SR*"));
+        assertEquals(1, client.queries.get());
+
+        advance(6);
+        cache.find("SR*");
+        assertEquals(2, client.queries.get());
+        assertEquals(1, cache.getStatistics().getHits());
+        assertEquals(2, cache.getStatistics().getMisses());
+        assertTrue(backgroundTasks.isEmpty());
+    }
+
+    @Test
+    public void testBackgroundRefresh() {
+        ChannelQueryCache cache = createCache(10, 5);
+        cache.find("SR*");
+        advance(6);
+
+        // The old result is returned while the refresh is pending
+        assertEquals(2, cache.find("SR*").size());
+        assertEquals(2, cache.find("SR*").size());
+        assertEquals(1, backgroundTasks.size());
+        assertEquals(1, cache.getStatistics().getRefreshes());
+        assertEquals(1, cache.getStatistics().getMerged());
+
+        client.put("SR*", Arrays.asList(channel("SR:C03").build()));
+        backgroundTasks.remove(0).run();
+        assertEquals(1, cache.find("SR*").size());
+        assertEquals(2, client.queries.get());
+    }
+
+    @Test(timeout = 10000)
+    public void testInvalidateDropsRunningRequests() {
+        ChannelQueryCache cache = createCache(10, 5);
+        cache.find("SR*");
+        advance(6);
+        cache.find("SR*");
+        assertEquals(1, backgroundTasks.size());
+
+        // Queries after the invalidation do not wait for the refresh that started before
+        client.put("SR*", Arrays.asList(channel("SR:C03").build()));
+        cache.invalidateAll();
+        Collection<Channel> fresh = cache.find("SR*");
+        assertEquals(1, fresh.size());
+        assertEquals(0, cache.getStatistics().getMerged());
+
+        // The stale refresh does not replace the newer result
+        backgroundTasks.remove(0).run();
+        assertSame(fresh, cache.find("SR*"));
+        assertEquals(3, client.queries.get());
+    }
+
+    @Test
+    public void testConcurrentQueriesAreMerged() throws Exception {
+        final ChannelQueryCache cache = createCache(10, 10);
+        client.block();
+        final AtomicReferenceArray<Collection<Channel>> results = new AtomicReferenceArray<Collection<Channel>>(5);
+        Thread[] threads = new Thread[results.length()];
+        for (int i = 0; i < threads.length; i++) {
+            final int index = i;
+            threads[i] = new Thread(() -> results.set(index, cache.find("SR*")));
+            threads[i].start();
+        }
+        for (int i = 0; i < 100 && cache.getStatistics().getMerged() < threads.length - 1; i++) {
+            Thread.sleep(50);
+        }
+        client.release();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(1, client.queries.get());
+        assertEquals(threads.length - 1, cache.getStatistics().getMerged());
+        for (int i = 0; i < results.length(); i++) {
+            assertSame(results.get(0), results.get(i));
+        }
+    }
+
+    @Test
+    public void testInvalidateAndFailure() {
+        ChannelQueryCache cache = createCache(10, 10);
+        cache.find("SR*");
+        cache.invalidateAll();
+        assertEquals(0, cache.size());
+        cache.find("SR*");
+        assertEquals(2, client.queries.get());
+
+        // Failed queries are not cached
+        cache.invalidate("SR*");
+        client.failWith(new IllegalStateException("Server down"));
+        try {
+            cache.find("SR*");
+            fail("Query should have failed");
+        } catch (IllegalStateException ex) {
+            // Expected
+        }
+        assertEquals(1, cache.getStatistics().getFailures());
+        assertEquals(0, cache.size());
+    }
+}
@@ -0,0 +1,258 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.utility.channelfinder;
+
+import gov.bnl.channelfinder.api.Channel;
+import gov.bnl.channelfinder.api.Channel.Builder;
+import gov.bnl.channelfinder.api.ChannelFinderClient;
+import gov.bnl.channelfinder.api.ChannelFinderException;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.ws.rs.core.MultivaluedMap;
+
+/**
+ * An in-memory {@link ChannelFinderClient} for tests.
+ *
+ * Queries return the channels put for that exact query string, and the client
+ * counts how many queries it answered. Queries can be held back until
+ * {@link #release()} is called, to test concurrent requests.
+ */
+public class FakeChannelFinderClient implements ChannelFinderClient {
+
+    private final Map<String, Collection<Channel>> results = new ConcurrentHashMap<String, Collection<Channel>>();
+    private volatile CountDownLatch gate = new CountDownLatch(0);
+    private volatile RuntimeException failure = null;
+
+    public final AtomicInteger queries = new AtomicInteger();
+
+    /**
+     * Sets the result of a query
+     *
+     * @param query
+     * @param channels
+     */
+    public void put(String query, Collection<Channel> channels) {
+        results.put(query, channels);
+    }
+
+    /**
+     * Makes the following queries fail, or succeed again for null
+     *
+     * @param failure
+     */
+    public void failWith(RuntimeException failure) {
+        this.failure = failure;
+    }
+
+    /**
+     * Holds back the following queries until {@link #release()}
+     */
+    public void block() {
+        gate = new CountDownLatch(1);
+    }
+
+    /**
+     * Lets the queries that are held back return
+     */
+    public void release() {
+        gate.countDown();
+    }
+
+    @Override
+    public Collection<Channel> find(String query) throws ChannelFinderException {
+        queries.incrementAndGet();
+        try {
+            gate.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        Collection<Channel> result = results.get(query);
+        return result == null ? Collections.<Channel> emptyList() : result;
+    }
+
+    @Override
+    public Collection<String> getAllProperties() {
+        return Collections.emptyList();
+    }
+
+    @Override
+    public Collection<String> getAllTags() {
+        return Collections.emptyList();
+    }
+
+    @Override
+    public Collection<Channel> getAllChannels() {
+        return Collections.emptyList();
+    }
+
+    @Override
+    public Channel getChannel(String channelName) throws ChannelFinderException {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void set(Builder channel) throws ChannelFinderException {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void set(gov.bnl.channelfinder.api.Tag.Builder tag) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void set(gov.bnl.channelfinder.api.Property.Builder prop) throws ChannelFinderException {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void set(Collection<Builder> channels) throws ChannelFinderException {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void set(gov.bnl.channelfinder.api.Tag.Builder tag, String channelName) throws ChannelFinderException {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void set(gov.bnl.channelfinder.api.Property.Builder prop, String channelName) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void set(gov.bnl.channelfinder.api.Tag.Builder tag, Collection<String> channelNames)
+            throws ChannelFinderException {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void set(gov.bnl.channelfinder.api.Property.Builder prop, Collection<String> channelNames) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void set(gov.bnl.channelfinder.api.Property.Builder prop, Map<String, String> channelPropertyMap) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void update(Builder channel) throws ChannelFinderException {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void update(gov.bnl.channelfinder.api.Tag.Builder tag, String channelName) throws ChannelFinderException {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void update(gov.bnl.channelfinder.api.Property.Builder prop, String channelName)
+            throws ChannelFinderException {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void update(gov.bnl.channelfinder.api.Tag.Builder tag, Collection<String> channelNames)
+            throws ChannelFinderException {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void update(gov.bnl.channelfinder.api.Property.Builder prop, Collection<String> channelNames)
+            throws ChannelFinderException {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void update(gov.bnl.channelfinder.api.Property.Builder prop, Map<String, String> channelPropValueMap)
+            throws ChannelFinderException {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Collection<Channel> findByName(String pattern) throws ChannelFinderException {
+        return find(pattern);
+    }
+
+    @Override
+    public Collection<Channel> findByTag(String pattern) throws ChannelFinderException {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Collection<Channel> findByProperty(String property, String... pattern) throws ChannelFinderException {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Collection<Channel> find(Map<String, String> map) throws ChannelFinderException {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Collection<Channel> find(MultivaluedMap<String, String> map) throws ChannelFinderException {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void deleteTag(String tagName) throws ChannelFinderException {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void deleteProperty(String propertyName) throws ChannelFinderException {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void deleteChannel(String channelName) throws ChannelFinderException {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void delete(Collection<Builder> channels) throws ChannelFinderException {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void delete(gov.bnl.channelfinder.api.Tag.Builder tag, String channelName) throws ChannelFinderException {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void delete(gov.bnl.channelfinder.api.Property.Builder prop, String channelName)
+            throws ChannelFinderException {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void delete(gov.bnl.channelfinder.api.Tag.Builder tag, Collection<String> channelNames)
+            throws ChannelFinderException {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void delete(gov.bnl.channelfinder.api.Property.Builder prop, Collection<String> channelNames)
+            throws ChannelFinderException {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void close() {
+    }
+}
@@ -7,6 +7,7 @@ import org.eclipse.core.runtime.preferences.InstanceScope;
 import org.eclipse.jface.preference.FieldEditor;
 import org.eclipse.jface.preference.FieldEditorPreferencePage;
 import org.eclipse.jface.preference.FileFieldEditor;
+import org.eclipse.jface.preference.IntegerFieldEditor;
 import org.eclipse.jface.preference.StringFieldEditor;
 import org.eclipse.jface.util.PropertyChangeEvent;
 import org.eclipse.ui.IWorkbench;
@@ -55,6 +56,10 @@ public class ChannelFinderPreferencePage extends FieldEditorPreferencePage
     addField(new PasswordFieldEditor(Activator.PLUGIN_ID,
         PreferenceConstants.Password, "user password: ",
         getFieldEditorParent()));
+
+    addField(new IntegerFieldEditor(PreferenceConstants.QueryCacheTimeToLive,
+        "query cache time to live (seconds, 0 to disable): ",
+        getFieldEditorParent()));
     }
 
     @Override
@@ -10,6 +10,9 @@ import gov.bnl.channelfinder.api.ChannelFinderException;
 import java.io.IOException;
 import java.util.Collection;
 import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Logger;
 
 import javax.ws.rs.core.MultivaluedMap;
@@ -30,7 +33,14 @@ public class ChannelFinderClientFromPreferences implements ChannelFinderClient {
 
     private static final Logger log = Logger
         .getLogger(ChannelFinderClientFromPreferences.class.getName());
+    private static final Executor refreshExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "ChannelFinder query refresh");
+        thread.setDaemon(true);
+        return thread;
+    });
     private volatile ChannelFinderClient client;
+    // Null if query caching is disabled
+    private volatile ChannelQueryCache queryCache;
 
     public ChannelFinderClientFromPreferences() {
     reloadConfiguration();
@@ -60,6 +70,12 @@ public class ChannelFinderClientFromPreferences implements ChannelFinderClient {
                         PreferenceConstants.Password, ""))
                 .create());
         client = compositeClient;
+        // Results are refreshed in the background once half their time to live is over
+        int timeToLive = prefs.getInt(Activator.PLUGIN_ID,
+            PreferenceConstants.QueryCacheTimeToLive, 30, null);
+        queryCache = timeToLive > 0 ? new ChannelQueryCache(client,
+            timeToLive * 1000L, timeToLive * 500L, TimeUnit.MILLISECONDS,
+            refreshExecutor) : null;
     } catch (IOException e) {
         log.severe(e.getMessage());
     } catch (StorageException e) {
@@ -68,6 +84,22 @@ public class ChannelFinderClientFromPreferences implements ChannelFinderClient {
 
     }
 
+    /**
+     * The cache of the query results, which can be used to look at the
+     * statistics or to drop results.
+     *
+     * @return the cache, or null if query caching is disabled
+     */
+    public ChannelQueryCache getQueryCache() {
+    return queryCache;
+    }
+
+    private void invalidateQueryCache() {
+    ChannelQueryCache cache = queryCache;
+    if (cache != null)
+        cache.invalidateAll();
+    }
+
     @Override
     public Collection<String> getAllProperties() {
     return client.getAllProperties();
@@ -86,81 +118,95 @@ public class ChannelFinderClientFromPreferences implements ChannelFinderClient {
     @Override
     public void set(Builder channel) throws ChannelFinderException {
     client.set(channel);
+    invalidateQueryCache();
     }
 
     @Override
     public void set(gov.bnl.channelfinder.api.Tag.Builder channel) {
     client.set(channel);
+    invalidateQueryCache();
     }
 
     @Override
     public void set(gov.bnl.channelfinder.api.Property.Builder channel)
         throws ChannelFinderException {
     client.set(channel);
+    invalidateQueryCache();
     }
 
     @Override
     public void set(Collection<Builder> channels) throws ChannelFinderException {
     client.set(channels);
+    invalidateQueryCache();
     }
 
     @Override
     public void set(gov.bnl.channelfinder.api.Tag.Builder tag,
         String channelName) throws ChannelFinderException {
     client.set(tag, channelName);
+    invalidateQueryCache();
     }
 
     @Override
     public void set(gov.bnl.channelfinder.api.Property.Builder tag,
         String channelName) {
     client.set(tag, channelName);
+    invalidateQueryCache();
     }
 
     @Override
     public void set(gov.bnl.channelfinder.api.Tag.Builder tag,
         Collection<String> channelNames) throws ChannelFinderException {
     client.set(tag, channelNames);
+    invalidateQueryCache();
     }
 
     @Override
     public void set(gov.bnl.channelfinder.api.Property.Builder tag,
         Collection<String> channelNames) {
     client.set(tag, channelNames);
+    invalidateQueryCache();
     }
 
     @Override
     public void set(gov.bnl.channelfinder.api.Property.Builder prop,
         Map<String, String> channelPropertyMap) {
     client.set(prop, channelPropertyMap);
+    invalidateQueryCache();
     }
 
     @Override
     public void update(Builder channel) throws ChannelFinderException {
     client.update(channel);
+    invalidateQueryCache();
     }
 
     @Override
     public void update(gov.bnl.channelfinder.api.Tag.Builder tag,
         String channelName) throws ChannelFinderException {
     client.update(tag, channelName);
+    invalidateQueryCache();
     }
 
     @Override
     public void update(gov.bnl.channelfinder.api.Property.Builder tag,
         String channelName) throws ChannelFinderException {
     client.update(tag, channelName);
+    invalidateQueryCache();
     }
 
     @Override
     public void update(gov.bnl.channelfinder.api.Tag.Builder tag,
         Collection<String> channelNames) throws ChannelFinderException {
     client.update(tag, channelNames);
+    invalidateQueryCache();
     }
 
     @Override
     public void update(gov.bnl.channelfinder.api.Property.Builder tag,
         Collection<String> channelNames) throws ChannelFinderException {
     client.update(tag, channelNames);
+    invalidateQueryCache();
     }
 
     @Override
@@ -168,6 +214,7 @@ public class ChannelFinderClientFromPreferences implements ChannelFinderClient {
         Map<String, String> channelPropValueMap)
         throws ChannelFinderException {
     client.update(property, channelPropValueMap);
+    invalidateQueryCache();
     }
 
     @Override
@@ -190,6 +237,9 @@ public class ChannelFinderClientFromPreferences implements ChannelFinderClient {
 
     @Override
     public Collection<Channel> find(String query) throws ChannelFinderException {
+    ChannelQueryCache cache = queryCache;
+    if (cache != null)
+        return cache.find(query);
     return client.find(query);
     }
 
@@ -208,47 +258,55 @@ public class ChannelFinderClientFromPreferences implements ChannelFinderClient {
     @Override
     public void deleteTag(String tagName) throws ChannelFinderException {
     client.deleteTag(tagName);
+    invalidateQueryCache();
     }
 
     @Override
     public void deleteProperty(String propertyName)
         throws ChannelFinderException {
     client.deleteProperty(propertyName);
+    invalidateQueryCache();
     }
 
     @Override
     public void deleteChannel(String channelName) throws ChannelFinderException {
     client.deleteChannel(channelName);
+    invalidateQueryCache();
     }
 
     @Override
     public void delete(Collection<Builder> channels)
         throws ChannelFinderException {
     client.delete(channels);
+    invalidateQueryCache();
     }
 
     @Override
     public void delete(gov.bnl.channelfinder.api.Tag.Builder tag,
         String channelName) throws ChannelFinderException {
     client.delete(tag, channelName);
+    invalidateQueryCache();
     }
 
     @Override
     public void delete(gov.bnl.channelfinder.api.Property.Builder tag,
         String channelName) throws ChannelFinderException {
     client.delete(tag, channelName);
+    invalidateQueryCache();
     }
 
     @Override
     public void delete(gov.bnl.channelfinder.api.Tag.Builder tag,
         Collection<String> channelNames) throws ChannelFinderException {
     client.delete(tag, channelNames);
+    invalidateQueryCache();
     }
 
     @Override
     public void delete(gov.bnl.channelfinder.api.Property.Builder tag,
         Collection<String> channelNames) throws ChannelFinderException {
     client.delete(tag, channelNames);
+    invalidateQueryCache();
     }
 
     @Override
@@ -0,0 +1,258 @@
+package org.csstudio.utility.channelfinder;
+
+import gov.bnl.channelfinder.api.Channel;
+import gov.bnl.channelfinder.api.Property;
+import gov.bnl.channelfinder.api.Tag;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * An inverted index of the properties and tags of the channels returned by a
+ * channel finder query.
+ * <p>
+ * The index is built in a single pass over the channels. It then tells which
+ * channels have a property, a property value or a tag, and which values a
+ * property takes, without scanning all the channels again. Lookups return
+ * channels in the order of the indexed collection.
+ * <p>
+ * The index is immutable. The channel collection must not change after it was
+ * indexed, which holds for the result of a query. The owner of a query result,
+ * typically a widget, builds the index once and keeps it with the result.
+ */
+public class ChannelIndex {
+
+    private final List<Channel> channels;
+    // property name -> channels with that property
+    private final Map<String, List<Channel>> propertyChannels = new HashMap<String, List<Channel>>();
+    // property name -> property value -> channels with that value
+    private final Map<String, Map<String, List<Channel>>> propertyValueChannels = new HashMap<String, Map<String, List<Channel>>>();
+    // tag name -> channels with that tag
+    private final Map<String, List<Channel>> tagChannels = new HashMap<String, List<Channel>>();
+
+    /**
+     * Builds the index for the given channels.
+     *
+     * @param channels the channels to index; null is treated as empty
+     */
+    public ChannelIndex(Collection<Channel> channels) {
+        if (channels == null) {
+            channels = Collections.emptyList();
+        }
+        this.channels = Collections.unmodifiableList(new ArrayList<Channel>(channels));
+        for (Channel channel : this.channels) {
+            for (Property property : channel.getProperties()) {
+                add(propertyChannels, property.getName(), channel);
+                if (property.getValue() != null) {
+                    Map<String, List<Channel>> values = propertyValueChannels.get(property.getName());
+                    if (values == null) {
+                        values = new HashMap<String, List<Channel>>();
+                        propertyValueChannels.put(property.getName(), values);
+                    }
+                    add(values, property.getValue(), channel);
+                }
+            }
+            for (Tag tag : channel.getTags()) {
+                add(tagChannels, tag.getName(), channel);
+            }
+        }
+    }
+
+    private static void add(Map<String, List<Channel>> map, String key, Channel channel) {
+        List<Channel> list = map.get(key);
+        if (list == null) {
+            list = new ArrayList<Channel>();
+            map.put(key, list);
+        }
+        list.add(channel);
+    }
+
+    /**
+     * All the indexed channels.
+     *
+     * @return the channels
+     */
+    public List<Channel> getChannels() {
+        return channels;
+    }
+
+    /**
+     * The names of the properties found in any of the channels.
+     *
+     * @return sorted property names
+     */
+    public Set<String> getPropertyNames() {
+        return Collections.unmodifiableSet(new TreeSet<String>(propertyChannels.keySet()));
+    }
+
+    /**
+     * The names of the tags found in any of the channels.
+     *
+     * @return sorted tag names
+     */
+    public Set<String> getTagNames() {
+        return Collections.unmodifiableSet(new TreeSet<String>(tagChannels.keySet()));
+    }
+
+    /**
+     * The values that the given property takes in the channels.
+     *
+     * @param propertyName a property name
+     * @return sorted property values
+     */
+    public Set<String> getPropertyValues(String propertyName) {
+        Map<String, List<Channel>> values = propertyValueChannels.get(propertyName);
+        if (values == null) {
+            return Collections.emptySet();
+        }
+        return Collections.unmodifiableSet(new TreeSet<String>(values.keySet()));
+    }
+
+    /**
+     * The channels that have the given property, with any value.
+     *
+     * @param propertyName a property name
+     * @return the channels with the property
+     */
+    public List<Channel> getChannelsWithProperty(String propertyName) {
+        return unmodifiable(propertyChannels.get(propertyName));
+    }
+
+    /**
+     * The channels where the given property has the given value.
+     *
+     * @param propertyName a property name
+     * @param propertyValue a property value
+     * @return the channels with the property value
+     */
+    public List<Channel> getChannelsWithProperty(String propertyName, String propertyValue) {
+        Map<String, List<Channel>> values = propertyValueChannels.get(propertyName);
+        if (values == null) {
+            return Collections.emptyList();
+        }
+        return unmodifiable(values.get(propertyValue));
+    }
+
+    /**
+     * The channels that have the given tag.
+     *
+     * @param tagName a tag name
+     * @return the tagged channels
+     */
+    public List<Channel> getChannelsWithTag(String tagName) {
+        return unmodifiable(tagChannels.get(tagName));
+    }
+
+    /**
+     * The channels that have all the given properties and tags.
+     * <p>
+     * Only the shortest of the lists of channels with one of the properties or
+     * tags is scanned.
+     *
+     * @param propertyNames the required properties
+     * @param tagNames the required tags
+     * @return the channels with all properties and tags
+     */
+    public List<Channel> getChannelsWith(Collection<String> propertyNames, Collection<String> tagNames) {
+        List<Channel> candidates = channels;
+        for (String propertyName : propertyNames) {
+            List<Channel> list = getChannelsWithProperty(propertyName);
+            if (list.size() < candidates.size()) {
+                candidates = list;
+            }
+        }
+        for (String tagName : tagNames) {
+            List<Channel> list = getChannelsWithTag(tagName);
+            if (list.size() < candidates.size()) {
+                candidates = list;
+            }
+        }
+
+        List<Channel> result = new ArrayList<Channel>();
+        for (Channel channel : candidates) {
+            if (hasAll(channel, propertyNames, tagNames)) {
+                result.add(channel);
+            }
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    /**
+     * The channels grouped by the values of the given property. Channels
+     * without the property are left out.
+     *
+     * @param propertyName a property name
+     * @return channels by property value, sorted by value
+     */
+    public Map<String, List<Channel>> groupByProperty(String propertyName) {
+        Map<String, List<Channel>> result = new TreeMap<String, List<Channel>>();
+        Map<String, List<Channel>> values = propertyValueChannels.get(propertyName);
+        if (values != null) {
+            for (Map.Entry<String, List<Channel>> entry : values.entrySet()) {
+                result.put(entry.getKey(), Collections.unmodifiableList(entry.getValue()));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Groups the given channels by the values of the given property, in a
+     * single pass. Channels without the property are left out.
+     *
+     * @param channels some channels, typically a part of an index
+     * @param propertyName a property name
+     * @return channels by property value, sorted by value
+     */
+    public static Map<String, List<Channel>> groupByProperty(Collection<Channel> channels, String propertyName) {
+        Map<String, List<Channel>> result = new TreeMap<String, List<Channel>>();
+        for (Channel channel : channels) {
+            Property property = channel.getProperty(propertyName);
+            if (property != null && property.getValue() != null) {
+                add(result, property.getValue(), channel);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Groups the given channels by name, in a single pass.
+     *
+     * @param channels some channels
+     * @return channels by name, sorted by name
+     */
+    public static Map<String, List<Channel>> groupByName(Collection<Channel> channels) {
+        Map<String, List<Channel>> result = new TreeMap<String, List<Channel>>();
+        for (Channel channel : channels) {
+            add(result, channel.getName(), channel);
+        }
+        return result;
+    }
+
+    private static boolean hasAll(Channel channel, Collection<String> propertyNames, Collection<String> tagNames) {
+        for (String propertyName : propertyNames) {
+            if (channel.getProperty(propertyName) == null) {
+                return false;
+            }
+        }
+        for (String tagName : tagNames) {
+            if (channel.getTag(tagName) == null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static List<Channel> unmodifiable(List<Channel> list) {
+        if (list == null) {
+            return Collections.emptyList();
+        }
+        return Collections.unmodifiableList(list);
+    }
+}
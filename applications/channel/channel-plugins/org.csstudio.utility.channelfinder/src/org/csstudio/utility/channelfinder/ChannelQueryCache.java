@@ -0,0 +1,298 @@
+package org.csstudio.utility.channelfinder;
+
+import gov.bnl.channelfinder.api.Channel;
+import gov.bnl.channelfinder.api.ChannelFinderClient;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Caches the results of channel finder queries.
+ * <p>
+ * Identical queries that are sent while a request for that query is still
+ * running wait for that request instead of sending another one. Results are
+ * kept for a time to live. A result that is older than the refresh time, but
+ * still alive, is returned right away and refreshed in the background, so that
+ * frequent queries do not wait for the server.
+ * <p>
+ * Writes through the client do not update cached results: call
+ * {@link #invalidateAll()} after changing channels, tags or properties.
+ */
+public class ChannelQueryCache {
+
+    private static final Logger log = Logger.getLogger(ChannelQueryCache.class.getName());
+
+    /**
+     * Counters of a {@link ChannelQueryCache}.
+     */
+    public static class Statistics {
+        private final long hits;
+        private final long misses;
+        private final long merged;
+        private final long refreshes;
+        private final long failures;
+
+        private Statistics(long hits, long misses, long merged, long refreshes, long failures) {
+            this.hits = hits;
+            this.misses = misses;
+            this.merged = merged;
+            this.refreshes = refreshes;
+            this.failures = failures;
+        }
+
+        /**
+         * @return queries answered from the cache
+         */
+        public long getHits() {
+            return hits;
+        }
+
+        /**
+         * @return queries that were not cached, or whose result had expired
+         */
+        public long getMisses() {
+            return misses;
+        }
+
+        /**
+         * @return misses and refreshes that joined a request already running
+         *         for the same query
+         */
+        public long getMerged() {
+            return merged;
+        }
+
+        /**
+         * @return background refreshes started
+         */
+        public long getRefreshes() {
+            return refreshes;
+        }
+
+        /**
+         * @return requests to the server that failed
+         */
+        public long getFailures() {
+            return failures;
+        }
+
+        /**
+         * @return fraction of the queries answered from the cache
+         */
+        public double getHitRatio() {
+            long total = hits + misses;
+            return total == 0 ? 0.0 : (double) hits / total;
+        }
+
+        @Override
+        public String toString() {
+            return "hits " + hits + ", misses " + misses + ", merged " + merged
+                    + ", refreshes " + refreshes + ", failures " + failures;
+        }
+    }
+
+    private static class Entry {
+        private final Collection<Channel> channels;
+        private final long time;
+
+        private Entry(Collection<Channel> channels, long time) {
+            this.channels = channels;
+            this.time = time;
+        }
+    }
+
+    private final ChannelFinderClient client;
+    private final long timeToLive;
+    private final long refreshAfter;
+    private final Executor executor;
+    private final LongSupplier clock;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<String, Entry>();
+    private final Map<String, CompletableFuture<Collection<Channel>>> requests = new ConcurrentHashMap<String, CompletableFuture<Collection<Channel>>>();
+    // Incremented by each invalidation, so that requests which were already
+    // running do not put a stale result back into the cache.
+    // Invalidations also drop those requests from the running ones,
+    // so that later queries do not wait for a stale result
+    private long generation = 0;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong merged = new AtomicLong();
+    private final AtomicLong refreshes = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+
+    /**
+     * Creates a cache for the queries sent to the given client.
+     *
+     * @param client the client that executes the queries
+     * @param timeToLive how long a result is used
+     * @param refreshAfter age after which a result is refreshed in the
+     *            background; not smaller than timeToLive disables the
+     *            background refresh
+     * @param unit unit of timeToLive and refreshAfter
+     * @param executor runs the background refreshes
+     */
+    public ChannelQueryCache(ChannelFinderClient client, long timeToLive, long refreshAfter, TimeUnit unit,
+            Executor executor) {
+        this(client, timeToLive, refreshAfter, unit, executor, System::nanoTime);
+    }
+
+    ChannelQueryCache(ChannelFinderClient client, long timeToLive, long refreshAfter, TimeUnit unit,
+            Executor executor, LongSupplier clock) {
+        this.client = client;
+        this.timeToLive = unit.toNanos(timeToLive);
+        this.refreshAfter = unit.toNanos(refreshAfter);
+        this.executor = executor;
+        this.clock = clock;
+    }
+
+    /**
+     * Returns the channels that match the query, from the cache if possible.
+     *
+     * @param query a channel finder query
+     * @return the matching channels, not modifiable
+     */
+    public Collection<Channel> find(String query) {
+        long now = clock.getAsLong();
+        Entry entry = entries.get(query);
+        if (entry != null && now - entry.time < timeToLive) {
+            hits.incrementAndGet();
+            if (now - entry.time >= refreshAfter) {
+                request(query, true);
+            }
+            return entry.channels;
+        }
+        misses.incrementAndGet();
+        removeExpired(now);
+        return get(request(query, false));
+    }
+
+    /**
+     * Refreshes the result of the query in the background, whether it is
+     * cached or not.
+     *
+     * @param query a channel finder query
+     */
+    public void refresh(String query) {
+        request(query, true);
+    }
+
+    /**
+     * Drops the cached result of the query.
+     *
+     * @param query a channel finder query
+     */
+    public void invalidate(String query) {
+        synchronized (this) {
+            generation++;
+            entries.remove(query);
+            requests.remove(query);
+        }
+    }
+
+    /**
+     * Drops all the cached results.
+     */
+    public void invalidateAll() {
+        synchronized (this) {
+            generation++;
+            entries.clear();
+            requests.clear();
+        }
+    }
+
+    /**
+     * @return the number of cached results
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * @return a snapshot of the counters
+     */
+    public Statistics getStatistics() {
+        return new Statistics(hits.get(), misses.get(), merged.get(), refreshes.get(), failures.get());
+    }
+
+    private CompletableFuture<Collection<Channel>> request(final String query, boolean background) {
+        final CompletableFuture<Collection<Channel>> future = new CompletableFuture<Collection<Channel>>();
+        final long requestGeneration;
+        synchronized (this) {
+            CompletableFuture<Collection<Channel>> running = requests.putIfAbsent(query, future);
+            if (running != null) {
+                merged.incrementAndGet();
+                return running;
+            }
+            requestGeneration = generation;
+        }
+        Runnable task = () -> {
+            try {
+                Collection<Channel> channels = Collections.unmodifiableCollection(
+                        new ArrayList<Channel>(client.find(query)));
+                synchronized (ChannelQueryCache.this) {
+                    if (requestGeneration == generation) {
+                        entries.put(query, new Entry(channels, clock.getAsLong()));
+                    }
+                }
+                future.complete(channels);
+            } catch (Throwable ex) {
+                failures.incrementAndGet();
+                future.completeExceptionally(ex);
+            } finally {
+                requests.remove(query, future);
+            }
+        };
+        if (background) {
+            refreshes.incrementAndGet();
+            future.whenComplete((channels, ex) -> {
+                if (ex != null) {
+                    log.log(Level.WARNING, "Refresh of channel finder query '" + query + "' failed", ex);
+                }
+            });
+            executor.execute(task);
+        } else {
+            task.run();
+        }
+        return future;
+    }
+
+    private static Collection<Channel> get(CompletableFuture<Collection<Channel>> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for channel finder query", ex);
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new RuntimeException(cause);
+        }
+    }
+
+    private void removeExpired(long now) {
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            if (now - iterator.next().time >= timeToLive) {
+                iterator.remove();
+            }
+        }
+    }
+}
@@ -8,5 +8,6 @@ public class PreferenceConstants {
     public static final String ChannelFinder_URL = "channel_finder_url";
     public static final String Username = "user";
     public static final String Password = "password";
+    public static final String QueryCacheTimeToLive = "query_cache_ttl";
 
 }
@@ -0,0 +1,46 @@
+package org.csstudio.trends.databrowser2;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.List;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.csstudio.trends.databrowser2.model.SharedPVReader;
+
+/**
+ * Status page that lists the PVs shared between all Data Browser sessions
+ * and the number of items that use each PV.
+ */
+@SuppressWarnings("nls")
+public class PVStatusServlet extends HttpServlet {
+
+    private static final long serialVersionUID = -2950118744932411023L;
+
+    @Override
+    protected void doGet(HttpServletRequest request,
+            HttpServletResponse response) throws ServletException, IOException {
+        response.setContentType("text/html");
+        response.setCharacterEncoding("UTF-8");
+        final PrintWriter out = response.getWriter();
+        final List<SharedPVReader.Info> readers = SharedPVReader.getReaders();
+        int subscribers = 0;
+        for (SharedPVReader.Info info : readers)
+            subscribers += info.subscribers;
+        out.println("<html><head><title>Data Browser PVs</title></head><body>");
+        out.println("<p>" + readers.size() + " shared PVs, " + subscribers + " subscribers</p>");
+        out.println("<table border=\"1\" cellpadding=\"3\">");
+        out.println("<tr><th>PV</th><th>Subscribers</th><th>Connected</th></tr>");
+        for (SharedPVReader.Info info : readers)
+            out.println("<tr><td>" + escape(info.name) + "</td><td>" + info.subscribers
+                    + "</td><td>" + info.connected + "</td></tr>");
+        out.println("</table></body></html>");
+    }
+
+    private static String escape(final String text) {
+        return text.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;");
+    }
+}
@@ -0,0 +1,147 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.trends.databrowser2.model;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.diirt.vtype.VType;
+import org.diirt.vtype.ValueFactory;
+import org.junit.Test;
+
+/** JUnit test of the {@link SharedPVReader} fan-out
+ *
+ *  <p>Uses a reader that is not connected to a PV.
+ */
+@SuppressWarnings("nls")
+public class SharedPVReaderUnitTest
+{
+    /** Item that records the values it receives */
+    private static class TestItem extends PVItem
+    {
+        final long update_period;
+
+        /** Received values, one list per update, <code>null</code> for 'disconnected' */
+        final List<List<VType>> updates = new CopyOnWriteArrayList<>();
+
+        TestItem(final long update_period) throws Exception
+        {
+            super("test", 0.0);
+            this.update_period = update_period;
+        }
+
+        @Override
+        long getUpdatePeriodMillis()
+        {
+            return update_period;
+        }
+
+        @Override
+        void handleValues(final String name, final List<VType> values, final Exception error)
+        {
+            updates.add(values == null ? null : new ArrayList<>(values));
+        }
+
+        void awaitUpdates(final int count) throws Exception
+        {
+            final long end = System.currentTimeMillis() + 5000;
+            while (updates.size() < count  &&  System.currentTimeMillis() < end)
+                Thread.sleep(10);
+            assertThat(updates.size(), equalTo(count));
+        }
+
+        /** @return All received values */
+        List<Double> getValues()
+        {
+            final List<Double> result = new ArrayList<>();
+            for (List<VType> update : updates)
+                if (update != null)
+                    for (VType value : update)
+                        result.add(toDouble(value));
+            return result;
+        }
+    }
+
+    private static List<VType> values(final double... numbers)
+    {
+        final List<VType> result = new ArrayList<>();
+        for (double number : numbers)
+            result.add(ValueFactory.newVDouble(number));
+        return result;
+    }
+
+    private static double toDouble(final VType value)
+    {
+        return ((org.diirt.vtype.VDouble) value).getValue();
+    }
+
+    @Test(timeout=10000)
+    public void testCoalescingPerItem() throws Exception
+    {
+        final SharedPVReader reader = new SharedPVReader("test", false);
+        final TestItem fast = new TestItem(0);
+        final TestItem slow = new TestItem(500);
+        reader.add(fast);
+        reader.add(slow);
+
+        reader.receive(values(1.0), null);
+        slow.awaitUpdates(1);
+        for (int i=2; i<=10; ++i)
+        {
+            reader.receive(values(i), null);
+            Thread.sleep(10);
+        }
+
+        // Slow item receives the values of its update period in one update
+        slow.awaitUpdates(2);
+        assertThat(slow.updates.get(1).size(), equalTo(9));
+        assertTrue(fast.updates.size() > slow.updates.size());
+
+        // No item misses a value
+        final List<Double> expected = Arrays.asList(1.0, 2.0, 3.0, 4.0, 5.0, 6.0, 7.0, 8.0, 9.0, 10.0);
+        assertThat(slow.getValues(), equalTo(expected));
+        Thread.sleep(100);
+        assertThat(fast.getValues(), equalTo(expected));
+    }
+
+    @Test(timeout=10000)
+    public void testLateSubscriberAndDisconnect() throws Exception
+    {
+        final SharedPVReader reader = new SharedPVReader("test", false);
+        reader.receive(values(1.0, 2.0), null);
+
+        // Item that subscribes later receives the most recent value
+        final TestItem item = new TestItem(200);
+        reader.add(item);
+        item.awaitUpdates(1);
+        assertThat(item.getValues(), equalTo(Collections.singletonList(2.0)));
+
+        // Values and disconnect within one update period keep their order
+        reader.receive(values(3.0), null);
+        reader.receive(null, null);
+        reader.receive(values(4.0), null);
+        item.awaitUpdates(4);
+        assertThat(toDouble(item.updates.get(1).get(0)), equalTo(3.0));
+        assertThat(item.updates.get(2), nullValue());
+        assertThat(toDouble(item.updates.get(3).get(0)), equalTo(4.0));
+
+        // Removed item receives no more values
+        reader.remove(item);
+        reader.receive(values(5.0), null);
+        Thread.sleep(400);
+        assertThat(item.updates.size(), equalTo(4));
+    }
+}
@@ -30,6 +30,7 @@ import org.csstudio.trends.databrowser2.Messages;
 import org.csstudio.trends.databrowser2.imports.ImportArchiveReaderFactory;
 import org.csstudio.trends.databrowser2.persistence.XMLPersistence;
 import org.csstudio.trends.databrowser2.preferences.Preferences;
+import org.csstudio.utility.singlesource.SingleSourcePlugin;
 import org.diirt.datasource.PVManager;
 import org.diirt.datasource.PVReader;
 import org.diirt.datasource.PVReaderEvent;
@@ -66,6 +67,9 @@ public class PVItem extends ModelItem implements PVReaderListener<List<VType>>
     /** Control system PV, set when running */
     private PVReader<List<VType>> pv = null;
 
+    /** Reader shared with other items, used instead of 'pv' in the web version */
+    private SharedPVReader shared_pv = null;
+
     /** Most recently received value */
     private volatile VType current_value;
 
@@ -123,7 +127,7 @@ public class PVItem extends ModelItem implements PVReaderListener<List<VType>>
         if (! super.setName(new_name))
             return false;
         // Stop PV, clear samples
-        final boolean running = (pv != null);
+        final boolean running = (pv != null  ||  shared_pv != null);
         if (running)
             stop();
         samples.clear();
@@ -150,7 +154,7 @@ public class PVItem extends ModelItem implements PVReaderListener<List<VType>>
         // Don't 'scan' faster than 1 Hz. Instead switch to on-change.
         if (period < 0.1)
             period = 0.0;
-        final boolean running = (pv != null);
+        final boolean running = (pv != null  ||  shared_pv != null);
         if (running)
             stop();
         this.period = period;
@@ -309,9 +313,13 @@ public class PVItem extends ModelItem implements PVReaderListener<List<VType>>
      */
     public void start() throws Exception
     {
-        if (pv != null)
+        if (pv != null  ||  shared_pv != null)
             throw new RuntimeException("Already started " + getName());
-        pv = PVManager.read(newValuesOf(vType(getResolvedName()))).timeout(ofSeconds(30.0)).readListener(this).maxRate(ofSeconds(0.1));
+        // All sessions of the web version share one reader per PV
+        if (SingleSourcePlugin.isRAP())
+            shared_pv = SharedPVReader.subscribe(getResolvedName(), this);
+        else
+            pv = PVManager.read(newValuesOf(vType(getResolvedName()))).timeout(ofSeconds(30.0)).readListener(this).maxRate(ofSeconds(0.1));
         // Log every received value?
         if (period <= 0.0)
             return;
@@ -323,15 +331,23 @@ public class PVItem extends ModelItem implements PVReaderListener<List<VType>>
     /** Disconnect from control system PV, stop scanning, ... */
     public void stop()
     {
-        if (pv == null)
+        if (pv == null  &&  shared_pv == null)
             throw new RuntimeException("Not running " + getName());
         if (scanner != null)
         {
             scanner.cancel(true);
             scanner = null;
         }
-        pv.close();
-        pv = null;
+        if (shared_pv != null)
+        {
+            SharedPVReader.unsubscribe(shared_pv, this);
+            shared_pv = null;
+        }
+        else
+        {
+            pv.close();
+            pv = null;
+        }
     }
 
     /** {@inheritDoc} */
@@ -346,12 +362,27 @@ public class PVItem extends ModelItem implements PVReaderListener<List<VType>>
     public void pvChanged(final PVReaderEvent<List<VType>> event)
     {
         final PVReader<List<VType>> pv = event.getPvReader();
+        handleValues(pv.getName(), pv.getValue(), pv.lastException());
+    }
+
+    /** @return Period in milliseconds at which a shared reader passes values to this item */
+    long getUpdatePeriodMillis()
+    {
+        final double seconds = model.isPresent() ? model.get().getUpdatePeriod() : Preferences.getUpdatePeriod();
+        return Math.round(seconds * 1000);
+    }
+
+    /** Handle values received from the PV
+     *  @param name PV name
+     *  @param values Values received since the last update, <code>null</code> when disconnected
+     *  @param error Error or <code>null</code>
+     */
+    void handleValues(final String name, final List<VType> values, final Exception error)
+    {
         // Check for error
-        final Exception error = pv.lastException();
         if (error != null)
-            Activator.getLogger().log(Level.FINE, "PV " + pv.getName() + " error", error);
+            Activator.getLogger().log(Level.FINE, "PV " + name + " error", error);
 
-        final List<VType> values = pv.getValue();
         if (values == null)
         {   // No current value
             current_value = null;
@@ -0,0 +1,254 @@
+/*******************************************************************************
+ * Copyright (c) 2010 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.trends.databrowser2.model;
+
+import static org.diirt.datasource.ExpressionLanguage.newValuesOf;
+import static org.diirt.datasource.vtype.ExpressionLanguage.vType;
+import static org.diirt.util.time.TimeDuration.ofSeconds;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.csstudio.swt.rtplot.util.NamedThreadFactory;
+import org.diirt.datasource.PVManager;
+import org.diirt.datasource.PVReader;
+import org.diirt.datasource.PVReaderEvent;
+import org.diirt.datasource.PVReaderListener;
+import org.diirt.vtype.VType;
+
+/** PV reader shared by all {@link PVItem}s that read the same PV.
+ *
+ *  <p>In the web version, each session has its own model with its own
+ *  items. Instead of a reader per item, one reader per PV
+ *  passes the received values on to all items.
+ *  Each item receives the values coalesced to the update period of its model,
+ *  i.e. the refresh rate of its session.
+ */
+@SuppressWarnings("nls")
+public class SharedPVReader implements PVReaderListener<List<VType>>
+{
+    /** Status of a shared reader */
+    public static class Info
+    {
+        /** PV name */
+        final public String name;
+        /** Number of items that use the reader */
+        final public int subscribers;
+        /** Is the PV connected? */
+        final public boolean connected;
+
+        Info(final SharedPVReader reader)
+        {
+            name = reader.name;
+            subscribers = reader.subscribers.size();
+            connected = reader.pv != null  &&  reader.pv.isConnected();
+        }
+    }
+
+    /** Item that receives the values of the reader */
+    private static class Subscriber
+    {
+        final PVItem item;
+
+        /** Values received since the last update of the item, <code>null</code> for 'disconnected'.
+         *  Guarded by the reader.
+         */
+        final List<List<VType>> pending = new ArrayList<>();
+
+        /** Most recent error, guarded by the reader */
+        Exception error = null;
+
+        /** Is an update of the item scheduled? Guarded by the reader */
+        boolean scheduled = false;
+
+        /** Time of last update in millisec, guarded by the reader */
+        long last_update = 0;
+
+        Subscriber(final PVItem item)
+        {
+            this.item = item;
+        }
+    }
+
+    /** Timer that passes received values to the items */
+    final private static ScheduledExecutorService update_timer =
+            Executors.newSingleThreadScheduledExecutor(new NamedThreadFactory("SharedPVReader"));
+
+    /** Shared readers by PV name */
+    final private static Map<String, SharedPVReader> readers = new HashMap<>();
+
+    final private String name;
+
+    final private List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+
+    /** Reader for the PV, <code>null</code> when not connected to a PV */
+    final private PVReader<List<VType>> pv;
+
+    /** Most recently received value, passed to items that subscribe later, guarded by 'this' */
+    private VType last_value = null;
+
+    /** @param name PV name
+     *  @param connect Connect to the PV? Otherwise values are only received via <code>receive()</code>
+     */
+    SharedPVReader(final String name, final boolean connect)
+    {
+        this.name = name;
+        pv = connect
+           ? PVManager.read(newValuesOf(vType(name))).timeout(ofSeconds(30.0)).readListener(this).maxRate(ofSeconds(0.1))
+           : null;
+    }
+
+    /** @param name PV name
+     *  @param item Item that receives the values of the PV
+     *  @return Shared reader
+     */
+    static SharedPVReader subscribe(final String name, final PVItem item)
+    {
+        SharedPVReader reader;
+        synchronized (readers)
+        {
+            reader = readers.get(name);
+            if (reader == null)
+            {
+                reader = new SharedPVReader(name, true);
+                readers.put(name, reader);
+            }
+            reader.add(item);
+        }
+        return reader;
+    }
+
+    /** @param reader Shared reader
+     *  @param item Item that no longer receives the values of the PV
+     */
+    static void unsubscribe(final SharedPVReader reader, final PVItem item)
+    {
+        synchronized (readers)
+        {
+            reader.remove(item);
+            if (! reader.subscribers.isEmpty())
+                return;
+            readers.remove(reader.name);
+        }
+        reader.pv.close();
+    }
+
+    /** @return Status of all shared readers, sorted by PV name */
+    public static List<Info> getReaders()
+    {
+        final List<Info> result;
+        synchronized (readers)
+        {
+            result = new ArrayList<>(readers.size());
+            for (SharedPVReader reader : readers.values())
+                result.add(new Info(reader));
+        }
+        Collections.sort(result, (a, b) -> a.name.compareTo(b.name));
+        return result;
+    }
+
+    /** @param item Item that receives the values of the PV,
+     *              starting with the most recently received value
+     */
+    synchronized void add(final PVItem item)
+    {
+        final Subscriber subscriber = new Subscriber(item);
+        subscribers.add(subscriber);
+        if (last_value != null)
+            queue(subscriber, Collections.singletonList(last_value), null);
+    }
+
+    /** @param item Item that no longer receives the values of the PV */
+    synchronized void remove(final PVItem item)
+    {
+        for (Subscriber subscriber : subscribers)
+            if (subscriber.item == item)
+                subscribers.remove(subscriber);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void pvChanged(final PVReaderEvent<List<VType>> event)
+    {
+        // Reader may already send events while its constructor runs
+        final PVReader<List<VType>> pv = event.getPvReader();
+        receive(pv.getValue(), pv.lastException());
+    }
+
+    /** @param values Values received from the PV, <code>null</code> when disconnected
+     *  @param error Error or <code>null</code>
+     */
+    synchronized void receive(final List<VType> values, final Exception error)
+    {
+        last_value = values == null  ||  values.isEmpty() ? null : values.get(values.size() - 1);
+        for (Subscriber subscriber : subscribers)
+            queue(subscriber, values, error);
+    }
+
+    /** Add values for a subscriber, schedule update of the item
+     *  @param subscriber Subscriber
+     *  @param values Values, <code>null</code> when disconnected
+     *  @param error Error or <code>null</code>
+     */
+    private void queue(final Subscriber subscriber, final List<VType> values, final Exception error)
+    {
+        subscriber.pending.add(values);
+        if (error != null)
+            subscriber.error = error;
+        if (subscriber.scheduled)
+            return;
+        subscriber.scheduled = true;
+        final long delay = Math.max(0, subscriber.last_update + subscriber.item.getUpdatePeriodMillis() - System.currentTimeMillis());
+        update_timer.schedule(() -> update(subscriber), delay, TimeUnit.MILLISECONDS);
+    }
+
+    /** Pass values received since the last update to the item
+     *  @param subscriber Subscriber
+     */
+    private void update(final Subscriber subscriber)
+    {
+        final List<List<VType>> pending;
+        final Exception error;
+        synchronized (this)
+        {
+            subscriber.scheduled = false;
+            if (! subscribers.contains(subscriber))
+                return;
+            pending = new ArrayList<>(subscriber.pending);
+            subscriber.pending.clear();
+            error = subscriber.error;
+            subscriber.error = null;
+            subscriber.last_update = System.currentTimeMillis();
+        }
+        // Combine values received while connected, keep disconnects
+        List<VType> values = new ArrayList<>();
+        for (List<VType> received : pending)
+        {
+            if (received != null)
+            {
+                values.addAll(received);
+                continue;
+            }
+            if (! values.isEmpty())
+            {
+                subscriber.item.handleValues(name, values, error);
+                values = new ArrayList<>();
+            }
+            subscriber.item.handleValues(name, null, error);
+        }
+        if (! values.isEmpty())
+            subscriber.item.handleValues(name, values, error);
+    }
+}
@@ -11,6 +11,7 @@ import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.CoreMatchers.hasItem;
 import static org.hamcrest.CoreMatchers.nullValue;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
 
 import java.util.List;
 import java.util.Map;
@@ -63,4 +64,33 @@ public class FieldParserUnitTest
         assertThat(fields, hasItem("INGG"));
         assertThat(fields, hasItem("INLL"));
     }
+
+    @Test
+    public void testPartialFieldList() throws Exception
+    {
+        // Trailing separator is allowed, types that are not listed have no links
+        final Map<String, List<String>> rec_fields = FieldParser.parse(" ai(INP) ; ");
+        assertThat(rec_fields.size(), equalTo(1));
+        assertThat(rec_fields.get("ai").size(), equalTo(1));
+        assertThat(rec_fields.get("ai").get(0), equalTo("INP"));
+        assertThat(rec_fields.get("bo"), nullValue());
+    }
+
+    @Test
+    public void testFieldParserErrors() throws Exception
+    {
+        for (String config : new String[] { "ai", "ai(INP", "(INP)", "ai(INP);calc(INPAA-LL)" })
+        {
+            try
+            {
+                FieldParser.parse(config);
+                fail("Parsed '" + config + "'");
+            }
+            catch (Exception ex)
+            {
+                // Expected
+                assertThat(ex.getMessage() != null, equalTo(true));
+            }
+        }
+    }
 }
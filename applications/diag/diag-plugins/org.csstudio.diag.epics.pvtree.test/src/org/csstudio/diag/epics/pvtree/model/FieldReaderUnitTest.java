@@ -0,0 +1,204 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.diag.epics.pvtree.model;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.csstudio.vtype.pv.PV;
+import org.csstudio.vtype.pv.PVFactory;
+import org.csstudio.vtype.pv.PVPool;
+import org.diirt.vtype.VType;
+import org.diirt.vtype.ValueFactory;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/** JUnit test of the {@link FieldReader}
+ *
+ *  <p>Uses PVs that only receive a value when the test sends one.
+ */
+@SuppressWarnings("nls")
+public class FieldReaderUnitTest
+{
+    /** PV that receives values from the test */
+    private static class TestPV extends PV
+    {
+        TestPV(final String name)
+        {
+            super(name);
+        }
+
+        void update(final VType value)
+        {
+            notifyListenersOfValue(value);
+        }
+
+        @Override
+        public void write(final Object new_value) throws Exception
+        {
+            throw new Exception("Read-only");
+        }
+
+        @Override
+        protected void close()
+        {
+            pvs.remove(getName());
+        }
+    }
+
+    /** Open test PVs by name */
+    private static final Map<String, TestPV> pvs = new ConcurrentHashMap<>();
+
+    @BeforeClass
+    public static void setup()
+    {
+        PVPool.addPVFactory(new PVFactory()
+        {
+            @Override
+            public String getType()
+            {
+                return "fieldtest";
+            }
+
+            @Override
+            public PV createPV(final String name, final String base_name) throws Exception
+            {
+                if (base_name.startsWith("bad"))
+                    throw new Exception("Cannot create " + name);
+                final TestPV pv = new TestPV(name);
+                pvs.put(name, pv);
+                return pv;
+            }
+        });
+    }
+
+    /** Callback that records the values it receives */
+    private static class Result implements Consumer<String>
+    {
+        private final LinkedBlockingQueue<String> values = new LinkedBlockingQueue<>();
+
+        @Override
+        public void accept(final String value)
+        {
+            // Queue cannot hold null
+            values.add(value == null ? "<null>" : value);
+        }
+
+        String get() throws Exception
+        {
+            final String value = values.poll(10, TimeUnit.SECONDS);
+            assertThat("Received a value", value != null, equalTo(true));
+            return value.equals("<null>") ? null : value;
+        }
+
+        boolean isEmpty() throws Exception
+        {
+            return values.poll(200, TimeUnit.MILLISECONDS) == null;
+        }
+    }
+
+    /** @param name PV name
+     *  @return PV once the reader started to read it
+     */
+    private static TestPV awaitPV(final String name) throws Exception
+    {
+        for (int i=0; i<200; ++i)
+        {
+            final TestPV pv = pvs.get(name);
+            if (pv != null)
+                return pv;
+            Thread.sleep(50);
+        }
+        throw new Exception("No read for " + name);
+    }
+
+    @Test(timeout=20000)
+    public void testValueAndCache() throws Exception
+    {
+        final FieldReader reader = new FieldReader(10, 60000);
+        final String type = "fieldtest://cached.RTYP";
+
+        // Two requests for the same field share one read
+        final Result first = new Result(), second = new Result();
+        reader.read(type, first);
+        reader.read(type, second);
+        assertThat(reader.getPendingReads(), equalTo(1));
+        awaitPV(type).update(ValueFactory.newVString("calc", ValueFactory.alarmNone(), ValueFactory.timeNow()));
+        assertThat(first.get(), equalTo("calc"));
+        assertThat(second.get(), equalTo("calc"));
+        assertThat(reader.getPendingReads(), equalTo(0));
+
+        // PV is released after the first value
+        assertThat(pvs.get(type), nullValue());
+
+        // Next request is served from the cache, without reading the PV
+        final Result cached = new Result();
+        reader.read(type, cached);
+        assertThat(cached.get(), equalTo("calc"));
+        assertThat(pvs.get(type), nullValue());
+
+        // Without the cache, the PV is read again
+        reader.clearCache();
+        final Result again = new Result();
+        reader.read(type, again);
+        awaitPV(type).update(ValueFactory.newVDouble(3.5));
+        assertThat(again.get(), equalTo("3.5"));
+    }
+
+    @Test(timeout=20000)
+    public void testError() throws Exception
+    {
+        final FieldReader reader = new FieldReader(10, 60000);
+        final String link = "fieldtest://bad.INP";
+
+        final Result result = new Result();
+        reader.read(link, result);
+        assertThat(result.get(), nullValue());
+        assertThat(reader.getPendingReads(), equalTo(0));
+
+        // Failure is not cached, the next request tries again
+        final Result again = new Result();
+        reader.read(link, again);
+        assertThat(again.get(), nullValue());
+    }
+
+    @Test(timeout=30000)
+    public void testPartialFields() throws Exception
+    {
+        // One read at a time
+        final FieldReader reader = new FieldReader(1, 0);
+        final String silent = "fieldtest://partial.INPA";
+        final String link = "fieldtest://partial.INPB";
+
+        // First field never receives a value, second one waits for the slot
+        final Result silent_result = new Result(), link_result = new Result();
+        reader.read(silent, silent_result);
+        reader.read(link, link_result);
+        awaitPV(silent);
+        assertThat(pvs.get(link), nullValue());
+        assertThat(reader.getPendingReads(), equalTo(2));
+
+        // After the slot timeout, the second field is read
+        awaitPV(link).update(ValueFactory.newVString("other", ValueFactory.alarmNone(), ValueFactory.timeNow()));
+        assertThat(link_result.get(), equalTo("other"));
+        assertThat(silent_result.isEmpty(), equalTo(true));
+
+        // Cancelled read releases its PV and never calls back
+        reader.cancel(silent, silent_result);
+        assertThat(reader.getPendingReads(), equalTo(0));
+        assertThat(pvs.get(silent), nullValue());
+        assertThat(silent_result.isEmpty(), equalTo(true));
+    }
+}
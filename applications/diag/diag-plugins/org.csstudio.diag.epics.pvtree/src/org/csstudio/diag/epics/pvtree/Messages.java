@@ -20,11 +20,13 @@ public class Messages extends NLS
     public static String ExpandAlarmsTT;
     public static String ExpandAll;
     public static String ExpandAllTT;
+    public static String ItemCountFmt;
     public static String ManyPVConfirmFmt;
     public static String ManyPVs;
     public static String PV;
     public static String PV_Label;
     public static String PV_TT;
+    public static String ResolvingLinksFmt;
     public static String TreeMode;
     public static String TreeMode_TT;
     public static String UnknownPVType;
@@ -29,6 +29,8 @@ public class Preferences
     public static final String MAX_ALARM_PVs = "max_alarm_pvs";
     public static final String READ_LONG_FIELDS = "read_long_fields";
     public static final String FIELDS = "fields";
+    public static final String MAX_LINK_READS = "max_link_reads";
+    public static final String LINK_CACHE_PERIOD = "link_cache_period";
 
     /** @return Max update period in seconds */
     public static double getUpdatePeriod()
@@ -57,6 +59,26 @@ public class Preferences
         return read_long;
     }
 
+    /** @return Max number of record types and links to read at the same time */
+    public static int getMaxLinkReads()
+    {
+        final IPreferencesService preferences = Platform.getPreferencesService();
+        int max_reads = 50;
+        if (preferences != null)
+            max_reads = preferences.getInt(Plugin.ID, MAX_LINK_READS, max_reads, null);
+        return Math.max(1, max_reads);
+    }
+
+    /** @return Period in seconds for caching record types and links, 0 to disable */
+    public static double getLinkCachePeriod()
+    {
+        final IPreferencesService preferences = Platform.getPreferencesService();
+        double period = 60.0;
+        if (preferences != null)
+            period = preferences.getDouble(Plugin.ID, LINK_CACHE_PERIOD, period, null);
+        return period;
+    }
+
     /** @return Field info for all record types
      *  @throws Exception on error in the preference setting
      *  @see FieldParser
@@ -10,10 +10,16 @@ package org.csstudio.diag.epics.pvtree.jfx;
 import static org.csstudio.diag.epics.pvtree.Plugin.logger;
 import static org.csstudio.diag.epics.pvtree.Plugin.openIconStream;
 
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.logging.Level;
 
 import org.csstudio.diag.epics.pvtree.Messages;
 import org.csstudio.diag.epics.pvtree.model.TreeModel;
+import org.csstudio.diag.epics.pvtree.model.TreeModelItem;
+import org.csstudio.diag.epics.pvtree.model.TreeModelListener;
+import org.eclipse.osgi.util.NLS;
+
+import javafx.application.Platform;
 
 import javafx.scene.control.Button;
 import javafx.scene.control.Label;
@@ -37,6 +43,8 @@ public class FXTreeUI extends BorderPane
 {
     private final FXTree tree;
     private final TextField pv_name;
+    private final Label status = new Label();
+    private final AtomicBoolean status_pending = new AtomicBoolean();
 
     /** @param model Model to represent */
     public FXTreeUI(final TreeModel model)
@@ -77,6 +85,38 @@ public class FXTreeUI extends BorderPane
 
         setTop(buttons);
         setCenter(tree.getNode());
+        setBottom(status);
+
+        model.addListener(new TreeModelListener()
+        {
+            @Override
+            public void itemLinkAdded(final TreeModelItem item, final TreeModelItem link)
+            {
+                // Handled by tree
+            }
+
+            @Override
+            public void itemChanged(final TreeModelItem item)
+            {
+                // Handled by tree
+            }
+
+            @Override
+            public void linksChanged(final int links_to_resolve)
+            {
+                if (status_pending.getAndSet(true))
+                    return;
+                Platform.runLater(() ->
+                {
+                    status_pending.set(false);
+                    final int links = model.getLinksToResolve();
+                    if (links > 0)
+                        status.setText(NLS.bind(Messages.ResolvingLinksFmt, model.getItemCount(), links));
+                    else
+                        status.setText(NLS.bind(Messages.ItemCountFmt, model.getItemCount()));
+                });
+            }
+        });
     }
 
     /** @param pv_name PV name to show in tree */
@@ -0,0 +1,296 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.diag.epics.pvtree.model;
+
+import static org.csstudio.diag.epics.pvtree.Plugin.logger;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+
+import org.csstudio.diag.epics.pvtree.Preferences;
+import org.csstudio.vtype.pv.PV;
+import org.csstudio.vtype.pv.PVListenerAdapter;
+import org.csstudio.vtype.pv.PVPool;
+import org.diirt.vtype.VType;
+
+/** Reader for record types and link fields
+ *
+ *  <p>Reads the value of a field PV once.
+ *  Values are cached for a while, shared by all trees.
+ *  Concurrent requests for the same field share one read,
+ *  and the number of PVs that are read at the same time is limited.
+ */
+@SuppressWarnings("nls")
+class FieldReader
+{
+    /** Seconds after which a read that did not receive a value gives up its slot.
+     *  The read continues, but no longer blocks other reads.
+     */
+    private static final long SLOT_TIMEOUT = 5;
+
+    /** Cache size at which expired entries are removed */
+    private static final int PURGE_SIZE = 10000;
+
+    /** Thread for timeouts and for delivering cached values */
+    private static final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(runnable ->
+    {
+        final Thread thread = new Thread(runnable, "PVTreeFieldReader");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private static final FieldReader instance =
+        new FieldReader(Preferences.getMaxLinkReads(), Math.round(Preferences.getLinkCachePeriod() * 1000));
+
+    /** Cached field value */
+    private static class Cached
+    {
+        final String value;
+        final long time;
+
+        Cached(final String value)
+        {
+            this.value = value;
+            time = System.currentTimeMillis();
+        }
+    }
+
+    /** Read of one field PV */
+    private class Read extends PVListenerAdapter
+    {
+        final String name;
+        final List<Consumer<String>> callbacks = new CopyOnWriteArrayList<>();
+        /** PV, set once started. Guarded by FieldReader.this */
+        PV pv = null;
+        /** Does the read occupy a slot? Guarded by FieldReader.this */
+        boolean has_slot = false;
+
+        Read(final String name)
+        {
+            this.name = name;
+        }
+
+        @Override
+        public void valueChanged(final PV pv, final VType value)
+        {
+            complete(this, pv, VTypeHelper.formatValue(value));
+        }
+    }
+
+    private final int max_reads;
+
+    private final long cache_ms;
+
+    private final Map<String, Cached> cache = new ConcurrentHashMap<>();
+
+    /** Active and queued reads by PV name. Guarded by this */
+    private final Map<String, Read> reads = new HashMap<>();
+
+    /** Reads waiting for a slot. Guarded by this */
+    private final Deque<Read> queue = new ArrayDeque<>();
+
+    /** Number of reads that occupy a slot. Guarded by this */
+    private int in_flight = 0;
+
+    /** @return Reader shared by all trees */
+    static FieldReader getInstance()
+    {
+        return instance;
+    }
+
+    /** @param max_reads Max number of PVs to read at the same time
+     *  @param cache_ms Period for caching values, 0 to disable cache
+     */
+    FieldReader(final int max_reads, final long cache_ms)
+    {
+        this.max_reads = max_reads;
+        this.cache_ms = cache_ms;
+    }
+
+    /** Read the value of a PV
+     *
+     *  <p>Callback is invoked once from a background thread,
+     *  with <code>null</code> if the PV cannot be read.
+     *
+     *  @param name PV name
+     *  @param callback Will receive the formatted value
+     *  @see #cancel(String, Consumer)
+     */
+    void read(final String name, final Consumer<String> callback)
+    {
+        final Cached cached = cache.get(name);
+        if (cached != null  &&  System.currentTimeMillis() - cached.time < cache_ms)
+        {
+            logger.log(Level.FINE, "Cached {0} = {1}", new Object[] { name, cached.value });
+            // Deliver on other thread to avoid recursion
+            // when the callback starts reading the next field
+            timer.execute(() -> callback.accept(cached.value));
+            return;
+        }
+        synchronized (this)
+        {
+            Read read = reads.get(name);
+            if (read == null)
+            {
+                read = new Read(name);
+                reads.put(name, read);
+                queue.add(read);
+            }
+            read.callbacks.add(callback);
+        }
+        startReads();
+    }
+
+    /** Cancel a read
+     *  @param name PV name
+     *  @param callback Callback that no longer needs the value
+     */
+    void cancel(final String name, final Consumer<String> callback)
+    {
+        final Read read;
+        final PV pv;
+        synchronized (this)
+        {
+            read = reads.get(name);
+            if (read == null)
+                return;
+            read.callbacks.remove(callback);
+            if (! read.callbacks.isEmpty())
+                return;
+            reads.remove(name);
+            queue.remove(read);
+            releaseSlot(read);
+            pv = read.pv;
+        }
+        if (pv != null)
+            releasePV(read, pv);
+        startReads();
+    }
+
+    /** Remove all cached values */
+    void clearCache()
+    {
+        cache.clear();
+    }
+
+    /** @return Number of reads that are active or waiting for a slot */
+    synchronized int getPendingReads()
+    {
+        return reads.size();
+    }
+
+    /** Start queued reads while slots are available */
+    private void startReads()
+    {
+        final List<Read> start = new ArrayList<>();
+        synchronized (this)
+        {
+            while (in_flight < max_reads  &&  ! queue.isEmpty())
+            {
+                final Read read = queue.poll();
+                read.has_slot = true;
+                ++in_flight;
+                start.add(read);
+            }
+        }
+        for (Read read : start)
+        {
+            try
+            {
+                final PV pv = PVPool.getPV(read.name);
+                synchronized (this)
+                {
+                    if (reads.get(read.name) != read)
+                    {   // Cancelled while PV was created
+                        PVPool.releasePV(pv);
+                        continue;
+                    }
+                    read.pv = pv;
+                }
+                pv.addListener(read);
+                timer.schedule(() -> timeout(read), SLOT_TIMEOUT, TimeUnit.SECONDS);
+            }
+            catch (Exception ex)
+            {
+                logger.log(Level.WARNING, "Cannot read " + read.name, ex);
+                complete(read, null, null);
+            }
+        }
+    }
+
+    /** @param read Read that received a value or failed
+     *  @param pv PV of the read, <code>null</code> if it failed to start
+     *  @param value Formatted value, <code>null</code> on error
+     */
+    private void complete(final Read read, final PV pv, final String value)
+    {
+        synchronized (this)
+        {   // Ignore further updates after the first value
+            if (reads.get(read.name) != read)
+                return;
+            reads.remove(read.name);
+            releaseSlot(read);
+        }
+        if (pv != null)
+            releasePV(read, pv);
+        if (value != null  &&  cache_ms > 0)
+        {
+            if (cache.size() > PURGE_SIZE)
+                purgeCache();
+            cache.put(read.name, new Cached(value));
+        }
+        for (Consumer<String> callback : read.callbacks)
+            callback.accept(value);
+        startReads();
+    }
+
+    /** Release the slot of a read that did not receive a value in time */
+    private void timeout(final Read read)
+    {
+        synchronized (this)
+        {
+            if (! read.has_slot)
+                return;
+            logger.log(Level.FINE, "No value for {0} after {1} seconds", new Object[] { read.name, SLOT_TIMEOUT });
+            releaseSlot(read);
+        }
+        startReads();
+    }
+
+    /** Must be called with lock held */
+    private void releaseSlot(final Read read)
+    {
+        if (! read.has_slot)
+            return;
+        read.has_slot = false;
+        --in_flight;
+    }
+
+    private void releasePV(final Read read, final PV pv)
+    {
+        pv.removeListener(read);
+        PVPool.releasePV(pv);
+    }
+
+    private void purgeCache()
+    {
+        final long now = System.currentTimeMillis();
+        cache.values().removeIf(cached -> now - cached.time >= cache_ms);
+    }
+}
@@ -61,6 +61,8 @@ public class TreeModel
             old.dispose();
 
         links_to_resolve.set(0);
+        for (TreeModelListener listener : listeners)
+            listener.linksChanged(0);
 
         if (latched.getAndSet(false))
             for (TreeModelListener listener : listeners)
@@ -79,10 +81,18 @@ public class TreeModel
         return item_count.get();
     }
 
+    /** @return Number of links that are still to be resolved */
+    public int getLinksToResolve()
+    {
+        return links_to_resolve.get();
+    }
+
     /** @param size Additional links that a PV tree item starts to resolve */
     void incrementLinks(final int size)
     {
-        links_to_resolve.addAndGet(size);
+        final int left = links_to_resolve.addAndGet(size);
+        for (TreeModelListener listener : listeners)
+            listener.linksChanged(left);
     }
 
     /** PVItem resolved another link
@@ -92,6 +102,8 @@ public class TreeModel
     void decrementLinks()
     {
         final int left = links_to_resolve.decrementAndGet();
+        for (TreeModelListener listener : listeners)
+            listener.linksChanged(left);
         if (left > 0)
             return;
 
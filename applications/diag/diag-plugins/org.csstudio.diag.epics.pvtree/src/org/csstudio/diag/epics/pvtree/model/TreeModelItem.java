@@ -11,9 +11,9 @@ import static org.csstudio.diag.epics.pvtree.Plugin.logger;
 
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 import java.util.logging.Level;
 
 import org.csstudio.diag.epics.pvtree.Messages;
@@ -94,78 +94,26 @@ public class TreeModelItem
         }
     };
 
-    /** PV for type of this item (released after read once) */
-    private AtomicReference<PV> type_pv = new AtomicReference<>();
-    private final PVListener type_listener = new PVListenerAdapter()
-    {
-        @Override
-        public void valueChanged(final PV pv, final VType value)
-        {
-            type = VTypeHelper.formatValue(value);
-            logger.fine("Type " + type);
-            disposeTypePV();
-            // Notify model to redraw this PV
-            model.itemUpdated(TreeModelItem.this);
-            fetchLinks();
-        }
-    };
+    /** Reader for type and links */
+    private final FieldReader reader = FieldReader.getInstance();
 
-    /** List of links to read (empty when done) */
-    private final ConcurrentLinkedQueue<String> links_to_read = new ConcurrentLinkedQueue<>();
+    /** Receives the type of this item */
+    private final Consumer<String> type_callback = this::typeReceived;
 
-    /** Current link to read (released when all links were read) */
-    private AtomicReference<PV> link_pv = new AtomicReference<>();
-    private final PVListener link_listener = new PVListenerAdapter()
-    {
-        @Override
-        public void valueChanged(final PV pv, final VType value)
-        {
-            final String field = links_to_read.poll();
-            if (field == null)
-            {
-                logger.log(Level.WARNING, "Unexpected link update " + pv.getName() + " = " + value);
-                return;
-            }
-            String text = VTypeHelper.formatValue(value);
-            logger.fine("Link " + record_name + "." + field + " -> " + text);
-            disposeLinkPV();
+    /** Has the item been disposed? */
+    private volatile boolean disposed = false;
 
-            // The value could be
-            // a) a record name followed by "... NPP NMS". Remove that.
-            // b) a hardware input/output "@... " or "#...". Keep that.
-            if (text.length() > 1 &&
-                text.charAt(0) != '@' &&
-                text.charAt(0) != '#')
-            {
-                int i = text.indexOf(' ');
-                if (i > 0)
-                    text = text.substring(0, i);
-            }
+    /** Fields to read as links, <code>null</code> until type is known. Guarded by 'this' */
+    private List<String> link_fields = null;
 
-            if (! text.isEmpty())
-            {
-                try
-                {
-                    final TreeModelItem new_item = new TreeModelItem(model, TreeModelItem.this, field, text);
-                    links.add(new_item);
-                    model.itemLinkAdded(TreeModelItem.this, new_item);
-                }
-                catch (Exception ex)
-                {
-                    logger.log(Level.WARNING,
-                            "Cannot add tree node for link " + field + " = " + text, ex);
-                }
-            }
-            // This decrement the links read _so_far_ to zero,
-            // since the new TreeModelItem just created has not
-            // started to request its links.
-            // Tree will thus expand a few times,
-            // whenever a bunch of links have resolved,
-            // but at least not for every single change
-            model.decrementLinks();
-            resolveNextLink();
-        }
-    };
+    /** Receive the values of the link fields. Guarded by 'this' */
+    private Consumer<String>[] link_callbacks;
+
+    /** Received values of the link fields, <code>null</code> while unknown. Guarded by 'this' */
+    private String[] link_values;
+
+    /** Index of next link field to add to the tree. Guarded by 'this' */
+    private int next_link = 0;
 
 
     /** PV tree item
@@ -251,19 +199,21 @@ public class TreeModelItem
 
     private void fetchType()
     {
-        try
-        {
-            final PV pv = PVPool.getPV(record_name + ".RTYP");
+        reader.read(record_name + ".RTYP", type_callback);
+    }
 
-            pv.addListener(type_listener);
-            type_pv.set(pv);
-        }
-        catch (Exception ex)
-        {
-            logger.log(Level.WARNING, "Cannot fetch RTYP for " + this, ex);
-        }
+    private void typeReceived(final String new_type)
+    {
+        if (disposed  ||  new_type == null)
+            return;
+        type = new_type;
+        logger.fine("Type " + type);
+        // Notify model to redraw this PV
+        model.itemUpdated(TreeModelItem.this);
+        fetchLinks();
     }
 
+    @SuppressWarnings("unchecked")
     private void fetchLinks()
     {
         // Avoid loops
@@ -279,39 +229,96 @@ public class TreeModelItem
             logger.fine("Type " + type + " has no known links");
             return;
         }
-        // Could fetch all links in parallel,
+        // All links are read in parallel,
         // but to keep the model clean we drop empty links.
-        // Reading them one by one, then adding only
-        // those links that have a value,
+        // Adding only those links that have a value,
+        // in the order of the fields,
         // reduces the number of UI updates.
         // It results in a steadily 'growing' tree as opposed
         // to a tree that initially shows all yet-to-be-resolved links,
         // then removes the empty ones while
         // expanding the non-empty subtrees
-        links_to_read.addAll(type_links);
-        model.incrementLinks(links_to_read.size());
-        resolveNextLink();
+        final int N = type_links.size();
+        synchronized (this)
+        {
+            if (disposed)
+                return;
+            link_fields = type_links;
+            link_values = new String[N];
+            link_callbacks = new Consumer[N];
+            for (int i=0; i<N; ++i)
+            {
+                final int index = i;
+                link_callbacks[i] = text -> linkReceived(index, text);
+            }
+        }
+        model.incrementLinks(N);
+        for (int i=0; i<N; ++i)
+            reader.read(getLinkName(type_links.get(i)), link_callbacks[i]);
     }
 
-    private void resolveNextLink()
+    private String getLinkName(final String field)
     {
-        final String field = links_to_read.peek();
-        if (field == null)
-            return;
-
-        String link_name = record_name + "." + field;
+        final String link_name = record_name + "." + field;
         if (read_long_fields)
-            link_name += "$";
-        try
-        {
-            final PV pv = PVPool.getPV(link_name);
-            pv.addListener(link_listener);
-            link_pv.set(pv);
-        }
-        catch (Exception ex)
+            return link_name + "$";
+        return link_name;
+    }
+
+    /** @param index Index of link field
+     *  @param text Value of the link field, <code>null</code> if it cannot be read
+     */
+    private void linkReceived(final int index, String text)
+    {
+        synchronized (this)
         {
-            logger.log(Level.WARNING, "Cannot create link PV" + link_name, ex);
+            if (disposed)
+                return;
+            final String field = link_fields.get(index);
+            if (text == null)
+                text = "";
+            logger.fine("Link " + record_name + "." + field + " -> " + text);
+
+            // The value could be
+            // a) a record name followed by "... NPP NMS". Remove that.
+            // b) a hardware input/output "@... " or "#...". Keep that.
+            if (text.length() > 1 &&
+                text.charAt(0) != '@' &&
+                text.charAt(0) != '#')
+            {
+                int i = text.indexOf(' ');
+                if (i > 0)
+                    text = text.substring(0, i);
+            }
+            link_values[index] = text;
+
+            // Add links in field order, up to the first one still unknown
+            while (next_link < link_values.length  &&  link_values[next_link] != null)
+            {
+                final String link_field = link_fields.get(next_link);
+                final String link = link_values[next_link++];
+                if (link.isEmpty())
+                    continue;
+                try
+                {
+                    final TreeModelItem new_item = new TreeModelItem(model, TreeModelItem.this, link_field, link);
+                    links.add(new_item);
+                    model.itemLinkAdded(TreeModelItem.this, new_item);
+                }
+                catch (Exception ex)
+                {
+                    logger.log(Level.WARNING,
+                            "Cannot add tree node for link " + link_field + " = " + link, ex);
+                }
+            }
         }
+        // This decrement the links read _so_far_ to zero,
+        // since the new TreeModelItem just created has not
+        // started to request its links.
+        // Tree will thus expand a few times,
+        // whenever a bunch of links have resolved,
+        // but at least not for every single change
+        model.decrementLinks();
     }
 
     /** Update value (and severity) from 'current_value/severity'
@@ -326,22 +333,17 @@ public class TreeModelItem
         model.itemUpdated(this);
     }
 
-    private void disposeLinkPV()
+    private void cancelReads()
     {
-        final PV pv = link_pv.getAndSet(null);
-        if (pv == null)
-            return;
-        pv.removeListener(link_listener);
-        PVPool.releasePV(pv);
-    }
-
-    private void disposeTypePV()
-    {
-        final PV pv = type_pv.getAndSet(null);
-        if (pv == null)
-            return;
-        pv.removeListener(type_listener);
-        PVPool.releasePV(pv);
+        reader.cancel(record_name + ".RTYP", type_callback);
+        synchronized (this)
+        {
+            if (link_fields == null)
+                return;
+            for (int i=0; i<link_values.length; ++i)
+                if (link_values[i] == null)
+                    reader.cancel(getLinkName(link_fields.get(i)), link_callbacks[i]);
+        }
     }
 
     private void disposeValuePV()
@@ -355,9 +357,9 @@ public class TreeModelItem
 
     void dispose()
     {
+        disposed = true;
         disposeValuePV();
-        disposeLinkPV();
-        disposeTypePV();
+        cancelReads();
         for (TreeModelItem link : links)
             link.dispose();
         links.clear();
@@ -33,6 +33,16 @@ public interface TreeModelListener
      */
     default void latchStateChanged(boolean latched) {};
 
+    /** Notification that the number of links to resolve changed
+     *
+     *  <p>Called for each resolved link,
+     *  UI should throttle its updates.
+     *
+     *  @param links_to_resolve Number of links that are still to be resolved
+     *  @see TreeModel#getLinksToResolve()
+     */
+    default void linksChanged(int links_to_resolve) {};
+
     /** Notification that model has for now resolved all links
      *
      *  <p>UI may now expand the tree
@@ -7,6 +7,7 @@
  ******************************************************************************/
 package org.csstudio.diag.epics.pvtree.swt;
 
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import org.csstudio.autocomplete.ui.AutoCompleteTypes;
@@ -28,6 +29,7 @@ import org.eclipse.jface.action.IToolBarManager;
 import org.eclipse.jface.action.MenuManager;
 import org.eclipse.jface.action.Separator;
 import org.eclipse.jface.viewers.TreeViewer;
+import org.eclipse.osgi.util.NLS;
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.events.DisposeEvent;
 import org.eclipse.swt.events.DisposeListener;
@@ -71,6 +73,12 @@ public class PVTreeView extends ViewPart
 
     private TreeViewer viewer;
 
+    /** Item count and link resolution progress */
+    private Label status;
+
+    /** Is a status update pending on the UI thread? */
+    private final AtomicBoolean status_pending = new AtomicBoolean();
+
     private TreeValueUpdateThrottle<TreeModelItem> value_throttle;
 
     /** Allows 'zoom in' and then going back up via context menu. */
@@ -121,6 +129,19 @@ public class PVTreeView extends ViewPart
             });
         }
 
+        @Override
+        public void linksChanged(final int links_to_resolve)
+        {
+            if (status.isDisposed()  ||  status_pending.getAndSet(true))
+                return;
+            status.getDisplay().asyncExec(() ->
+            {
+                status_pending.set(false);
+                if (! status.isDisposed())
+                    updateStatus();
+            });
+        }
+
         @Override
         public void allLinksResolved()
         {
@@ -210,6 +231,13 @@ public class PVTreeView extends ViewPart
         gd.verticalAlignment = SWT.FILL;
         tree.setLayoutData(gd);
 
+        status = new Label(parent, SWT.LEFT);
+        gd = new GridData();
+        gd.horizontalSpan = gl.numColumns;
+        gd.grabExcessHorizontalSpace = true;
+        gd.horizontalAlignment = SWT.FILL;
+        status.setLayoutData(gd);
+
         viewer = new TreeViewer(tree);
         drillDownAdapter = new DrillDownAdapter(viewer);
         viewer.setContentProvider(new TreeModelContentProvider());
@@ -267,6 +295,16 @@ public class PVTreeView extends ViewPart
         }
     }
 
+    /** Show item count and number of links to resolve */
+    private void updateStatus()
+    {
+        final int links = model.getLinksToResolve();
+        if (links > 0)
+            status.setText(NLS.bind(Messages.ResolvingLinksFmt, model.getItemCount(), links));
+        else
+            status.setText(NLS.bind(Messages.ItemCountFmt, model.getItemCount()));
+    }
+
     /** Set initial focus. */
     @Override
     public void setFocus()
@@ -0,0 +1,45 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.diag.postanalyser.math;
+
+/** Timing of the FFT compared to the original DFT.
+ *  <p>
+ *  Prints the time per transform of a random signal
+ *  for lengths that are, or are not, a power of two.
+ */
+@SuppressWarnings("nls")
+public class FFTBenchmark
+{
+    private static final int RUNS = 10;
+
+    public static void main(String[] args)
+    {
+        System.out.println("N\tDFT [ms]\tFFT [ms]\tFFT, padded [ms]");
+        for (int N : new int[] { 1000, 1024, 5000, 8192, 20000, 65536 })
+        {
+            final double signal[] = new double[N];
+            for (int k = 0; k < N; ++k)
+                signal[k] = Math.random();
+            final double dft = N <= 20000 ? time(() -> FFTTest.dftAmplitudes(signal)) : Double.NaN;
+            final double fft = time(() -> new Fourier(1.0, signal));
+            final double padded = time(() -> new Fourier(1.0, signal, Filter.Type.None,
+                                                         FFT.nextPowerOfTwo(N)));
+            System.out.format("%d\t%.3f\t%.3f\t%.3f\n", N, dft, fft, padded);
+        }
+    }
+
+    private static double time(final Runnable transform)
+    {
+        // Warm up
+        transform.run();
+        final long start = System.nanoTime();
+        for (int i = 0; i < RUNS; ++i)
+            transform.run();
+        return (System.nanoTime() - start) / 1e6 / RUNS;
+    }
+}
@@ -0,0 +1,153 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.diag.postanalyser.math;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+/** Test of the FFT against a direct computation of the DFT.
+ */
+@SuppressWarnings("nls")
+public class FFTTest
+{
+    private static final double EPS = 1e-9;
+
+    /** Amplitudes as computed by the original O(N^2) DFT of {@link Fourier} */
+    static double[] dftAmplitudes(final double signal[])
+    {
+        final int N = signal.length;
+        final double exp_coeff = 2.0 * Math.PI / N;
+        final int nyquist_index = N/2;
+        final double amplitude[] = new double[nyquist_index];
+        for (int n = 0; n < nyquist_index; n++)
+        {
+            double real = 0.0;
+            double imag = 0.0;
+            for (int k = 0; k < N; k++)
+            {
+                real += signal[k] * Math.cos(exp_coeff * k * n);
+                imag += signal[k] * Math.sin(exp_coeff * k * n);
+            }
+            real /= N;
+            imag /= N;
+            amplitude[n] = Math.sqrt(real*real + imag*imag);
+        }
+        return amplitude;
+    }
+
+    @Test
+    public void testComplexTransform()
+    {
+        final Random random = new Random(42);
+        // Powers of two use radix-2, others the chirp z-transform
+        for (int N = 1; N <= 70; ++N)
+        {
+            final double real[] = new double[N];
+            final double imag[] = new double[N];
+            for (int k = 0; k < N; ++k)
+            {
+                real[k] = random.nextGaussian();
+                imag[k] = random.nextGaussian();
+            }
+            final double fft_real[] = real.clone();
+            final double fft_imag[] = imag.clone();
+            FFT.transform(fft_real, fft_imag);
+            for (int n = 0; n < N; ++n)
+            {
+                double re = 0.0, im = 0.0;
+                for (int k = 0; k < N; ++k)
+                {
+                    final double angle = -2.0 * Math.PI * k * n / N;
+                    re += real[k] * Math.cos(angle) - imag[k] * Math.sin(angle);
+                    im += real[k] * Math.sin(angle) + imag[k] * Math.cos(angle);
+                }
+                assertEquals("N=" + N + ", real " + n, re, fft_real[n], EPS);
+                assertEquals("N=" + N + ", imag " + n, im, fft_imag[n], EPS);
+            }
+        }
+    }
+
+    @Test
+    public void testAmplitudesMatchDFT()
+    {
+        final Random random = new Random(7);
+        for (int N : new int[] { 2, 3, 8, 15, 64, 100, 127 })
+        {
+            final double signal[] = new double[N];
+            for (int k = 0; k < N; ++k)
+                signal[k] = Math.sin(0.3 * k) + random.nextDouble();
+            final double expected[] = dftAmplitudes(signal);
+            final double ampl[] = new Fourier(1.0, signal).getAmplitudes();
+            assertArrayEquals("N=" + N, expected, ampl, EPS);
+        }
+    }
+
+    @Test
+    public void testZeroPadding()
+    {
+        final int N = 100;
+        final double signal[] = new double[N];
+        for (int k = 0; k < N; ++k)
+            signal[k] = 2.0 + Math.cos(2.0 * Math.PI * k / 10);
+        final int length = FFT.nextPowerOfTwo(N);
+        assertEquals(128, length);
+        final Fourier fft = new Fourier(1.0, signal, Filter.Type.None, length);
+        final double ampl[] = fft.getAmplitudes();
+        final double freq[] = fft.getFrequencies();
+        assertEquals(64, ampl.length);
+        // DC remains normalized to the original signal
+        assertEquals(2.0, ampl[0], EPS);
+        // Finer frequency spacing of the padded signal
+        assertEquals(1.0/128, freq[1], EPS);
+    }
+
+    @Test
+    public void testPowerSpectralDensity()
+    {
+        final int N = 256;
+        final double period = 0.01;
+        final double signal[] = new double[N];
+        double mean_square = 0.0;
+        for (int k = 0; k < N; ++k)
+        {
+            signal[k] = 3.0 * Math.sin(2.0 * Math.PI * 8 * k / N);
+            mean_square += signal[k] * signal[k] / N;
+        }
+        final Fourier fft = new Fourier(period, signal);
+        final double psd[] = fft.getPowerSpectralDensity();
+        final double freq[] = fft.getFrequencies();
+        // Parseval: Integral of the PSD is the mean square of the signal
+        double total = 0.0;
+        for (double p : psd)
+            total += p * (freq[1] - freq[0]);
+        assertEquals(mean_square, total, 1e-6);
+        assertEquals(4.5, mean_square, 1e-6);
+    }
+
+    @Test
+    public void testSpectrogram()
+    {
+        // 10 Hz for the first half, then 40 Hz
+        final double period = 0.001;
+        final int N = 4096;
+        final double signal[] = new double[N];
+        for (int k = 0; k < N; ++k)
+            signal[k] = Math.sin(2.0 * Math.PI * (k < N/2 ? 10 : 40) * k * period);
+        final Spectrogram spectrogram = new Spectrogram(period, signal, Filter.Type.Hanning, 512, 256);
+        final double time[] = spectrogram.getTimes();
+        final double peak[] = spectrogram.getPeakFrequencies();
+        assertEquals(15, time.length);
+        assertEquals(0.256, time[0], EPS);
+        final double resolution = spectrogram.getFrequencies()[1];
+        assertEquals(10.0, peak[0], resolution);
+        assertEquals(40.0, peak[peak.length-1], resolution);
+    }
+}
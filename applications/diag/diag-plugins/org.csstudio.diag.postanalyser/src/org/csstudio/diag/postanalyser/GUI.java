@@ -72,7 +72,7 @@ public class GUI implements ModelListener, AlgorithmJobListener
     // GUI elements
     private InteractiveChart ichart;
     private ImageRegistry images = new ImageRegistry();
-    private Button crop, baseline;
+    private Button crop, baseline, fft_pad;
     private Combo algorithm_name, channel_name, fft_window, alt_channel;
     private Label fft_window_label, alt_channel_label, message;
 
@@ -192,6 +192,14 @@ public class GUI implements ModelListener, AlgorithmJobListener
             fft_window.add(type.toString());
         fft_window.select(0);
 
+        fft_pad = new Button(control_frame, SWT.CHECK);
+        fft_pad.setText(Messages.GUI_ZeroPad);
+        fft_pad.setToolTipText(Messages.GUI_ZeroPad_TT);
+        fd = new FormData();
+        fd.top = new FormAttachment(0, 0);
+        fd.left = new FormAttachment(fft_window, GAP);
+        fft_pad.setLayoutData(fd);
+
         alt_channel_label = new Label(control_frame, 0);
         alt_channel_label.setText(Messages.GUI_SecondChannel_);
         fd = new FormData();
@@ -299,6 +307,7 @@ public class GUI implements ModelListener, AlgorithmJobListener
         boolean show = algorithm instanceof FFTAlgorithm;
         fft_window_label.setVisible(show);
         fft_window.setVisible(show);
+        fft_pad.setVisible(show);
         if (show)
             show_crop = false;
 
@@ -350,6 +359,7 @@ public class GUI implements ModelListener, AlgorithmJobListener
         channel_name.addSelectionListener(update);
         alt_channel.addSelectionListener(update);
         fft_window.addSelectionListener(update);
+        fft_pad.addSelectionListener(update);
 
         crop.addSelectionListener(new SelectionAdapter()
         {
@@ -456,6 +466,7 @@ public class GUI implements ModelListener, AlgorithmJobListener
             {
                 final Filter.Type type = Filter.Type.valueOf(fft_window.getText());
                 ((FFTAlgorithm)algorithm).setFilterType(type);
+                ((FFTAlgorithm)algorithm).setZeroPadding(fft_pad.getSelection());
             }
             algorithm_job = new AlgorithmJob(algorithm, this);
             algorithm_job.schedule();
@@ -15,6 +15,8 @@ public class Messages extends NLS
     public static String Algorithm_NoDataPoints;
     public static String Algorithm_NoSecondChannelError;
     public static String Algorithm_Original;
+    public static String Algorithm_PSD;
+    public static String Algorithm_Spectrogram;
     public static String Algorithm_TimeAxisLabel;
     public static String Algorithm_XYArraysDiffer;
     public static String ExponentialFit_DecayMessage;
@@ -36,9 +38,14 @@ public class Messages extends NLS
     public static String GUI_NoSecondChannelError;
     public static String GUI_SecondChannel_;
     public static String GUI_Window_;
+    public static String GUI_ZeroPad;
+    public static String GUI_ZeroPad_TT;
     public static String LineFit_Error;
     public static String LineFit_Message;
     public static String MinMaxFinder_Message;
+    public static String PSD_Message;
+    public static String PSD_YAxisLabel;
+    public static String Spectrogram_Message;
     static
     {
         // initialize resource bundle
@@ -0,0 +1,166 @@
+package org.csstudio.diag.postanalyser.math;
+
+/** Fast Fourier transform of complex data.
+ *  <p>
+ *  Computes the discrete Fourier transform
+ *  <code>X(n) = sum{k} [ x(k) exp(-2 pi j k n/N) ]</code>
+ *  in O(N log N).
+ *  Lengths that are a power of two use an iterative radix-2 transform,
+ *  all other lengths are turned into a radix-2 convolution
+ *  (Bluestein's chirp z-transform).
+ */
+public class FFT
+{
+    /** @param n Length
+     *  @return <code>true</code> if n is a power of two
+     */
+    public static boolean isPowerOfTwo(final int n)
+    {
+        return n > 0  &&  (n & (n - 1)) == 0;
+    }
+
+    /** @param n Length
+     *  @return Smallest power of two that is &ge; n
+     */
+    public static int nextPowerOfTwo(final int n)
+    {
+        int result = 1;
+        while (result < n)
+            result <<= 1;
+        return result;
+    }
+
+    /** Compute the (unscaled) forward transform in place
+     *  @param real Real part of the input, replaced by the real part of the transform
+     *  @param imag Imaginary part of the input, replaced by the imaginary part of the transform
+     *  @throws IllegalArgumentException when arrays differ in length
+     */
+    @SuppressWarnings("nls")
+    public static void transform(final double[] real, final double[] imag)
+    {
+        final int N = real.length;
+        if (imag.length != N)
+            throw new IllegalArgumentException(
+                    "real length " + N + " != imag length " + imag.length);
+        if (N <= 1)
+            return;
+        if (isPowerOfTwo(N))
+            radix2(real, imag);
+        else
+            bluestein(real, imag);
+    }
+
+    /** Iterative radix-2 transform, N must be a power of two */
+    private static void radix2(final double[] real, final double[] imag)
+    {
+        final int N = real.length;
+        // Bit-reversed ordering
+        for (int i = 1, j = 0; i < N; ++i)
+        {
+            int bit = N >> 1;
+            for (/**/; (j & bit) != 0; bit >>= 1)
+                j ^= bit;
+            j ^= bit;
+            if (i < j)
+            {
+                double tmp = real[i];
+                real[i] = real[j];
+                real[j] = tmp;
+                tmp = imag[i];
+                imag[i] = imag[j];
+                imag[j] = tmp;
+            }
+        }
+        // Butterflies.
+        // Twiddle factors are computed per stage instead of by
+        // repeated multiplication to avoid accumulating rounding errors.
+        for (int len = 2; len <= N; len <<= 1)
+        {
+            final int half = len >> 1;
+            final double angle = -2.0 * Math.PI / len;
+            final double cos[] = new double[half];
+            final double sin[] = new double[half];
+            for (int k = 0; k < half; ++k)
+            {
+                cos[k] = Math.cos(angle * k);
+                sin[k] = Math.sin(angle * k);
+            }
+            for (int start = 0; start < N; start += len)
+            {
+                for (int k = 0; k < half; ++k)
+                {
+                    final int a = start + k;
+                    final int b = a + half;
+                    final double t_real = real[b] * cos[k] - imag[b] * sin[k];
+                    final double t_imag = real[b] * sin[k] + imag[b] * cos[k];
+                    real[b] = real[a] - t_real;
+                    imag[b] = imag[a] - t_imag;
+                    real[a] += t_real;
+                    imag[a] += t_imag;
+                }
+            }
+        }
+    }
+
+    /** Transform of arbitrary length N as a convolution of length M &ge; 2N-1,
+     *  where M is a power of two
+     */
+    private static void bluestein(final double[] real, final double[] imag)
+    {
+        final int N = real.length;
+        final int M = nextPowerOfTwo(2 * N - 1);
+
+        // Chirp w(k) = exp(-j pi k^2 / N).
+        // k^2 is reduced modulo 2N to keep the angle small and precise.
+        final double cos[] = new double[N];
+        final double sin[] = new double[N];
+        for (int k = 0; k < N; ++k)
+        {
+            final long k2 = ((long) k * k) % (2L * N);
+            final double angle = Math.PI * k2 / N;
+            cos[k] = Math.cos(angle);
+            sin[k] = -Math.sin(angle);
+        }
+
+        // a(k) = x(k) * w(k), zero-padded to M
+        final double a_real[] = new double[M];
+        final double a_imag[] = new double[M];
+        for (int k = 0; k < N; ++k)
+        {
+            a_real[k] = real[k] * cos[k] - imag[k] * sin[k];
+            a_imag[k] = real[k] * sin[k] + imag[k] * cos[k];
+        }
+        // b(k) = conj(w(k)), wrapped around for negative k
+        final double b_real[] = new double[M];
+        final double b_imag[] = new double[M];
+        b_real[0] = cos[0];
+        b_imag[0] = -sin[0];
+        for (int k = 1; k < N; ++k)
+        {
+            b_real[k] = b_real[M - k] = cos[k];
+            b_imag[k] = b_imag[M - k] = -sin[k];
+        }
+
+        // Convolution a * b via radix-2 transforms
+        radix2(a_real, a_imag);
+        radix2(b_real, b_imag);
+        for (int i = 0; i < M; ++i)
+        {
+            final double re = a_real[i] * b_real[i] - a_imag[i] * b_imag[i];
+            final double im = a_real[i] * b_imag[i] + a_imag[i] * b_real[i];
+            // Conjugate, so that the forward transform computes the inverse
+            a_real[i] = re;
+            a_imag[i] = -im;
+        }
+        radix2(a_real, a_imag);
+
+        // X(n) = w(n) * conj(result)/M
+        for (int n = 0; n < N; ++n)
+        {
+            final double re = a_real[n] / M;
+            final double im = -a_imag[n] / M;
+            real[n] = re * cos[n] - im * sin[n];
+            imag[n] = re * sin[n] + im * cos[n];
+        }
+    }
+}
@@ -35,6 +35,19 @@ public class Filter
         return output;
     }
 
+    /** Obtain all filter coefficients
+     *  @param type Window type
+     *  @param N Length of data
+     *  @return N filter coefficients
+     */
+    public static double[] coefficients(final Type type, final int N)
+    {
+        final double result[] = new double[N];
+        for (int i = 0; i < N; ++i)
+            result[i] = coeff(type, i, N);
+        return result;
+    }
+
     /** Obtain filter coefficient.
      *  @param type Window type
      *  @param i Index of filter coefficient, 0...N-1
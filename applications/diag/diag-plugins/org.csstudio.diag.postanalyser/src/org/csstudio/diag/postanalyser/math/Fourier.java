@@ -18,6 +18,9 @@ public class Fourier
     /** FFT amplitudes, DC to nyquist_index */
     final private double amplitude[];
 
+    /** One-sided power spectral density, DC to nyquist_index */
+    final private double psd[];
+
     /** Compute discrete Fourier transform
      *  <p>
      *  <code>FFT(n) = 1/N sum{k} [ signal(k) exp(-2 pi j k n/N) ]</code>
@@ -43,28 +46,57 @@ public class Fourier
      *  @see #getFrequencies()
      */
     public Fourier(final double period, double[] signal)
+    {
+        this(period, signal, Filter.Type.None, signal.length);
+    }
+
+    /** Compute discrete Fourier transform of windowed, zero-padded signal
+     *  <p>
+     *  The signal is multiplied by the window, then zeros are appended
+     *  to obtain the requested length before computing the transform.
+     *  Zero-padding interpolates the spectrum at a finer frequency spacing,
+     *  and padding to a power of two, see {@link FFT#nextPowerOfTwo(int)},
+     *  results in the fastest transform.
+     *  Amplitudes remain normalized to the N points of the original signal.
+     *
+     *  @param period Sample period in seconds
+     *  @param signal Real-valued input signal, N points
+     *  @param window Window to apply to the signal
+     *  @param length Length of the transform, N or more
+     *  @throws IllegalArgumentException when length is smaller than N
+     */
+    @SuppressWarnings("nls")
+    public Fourier(final double period, final double[] signal,
+                   final Filter.Type window, final int length)
     {
         this.period = period;
         N = signal.length;
-        final double exp_coeff = 2.0 * Math.PI / N;
+        if (length < N)
+            throw new IllegalArgumentException(
+                    "Length " + length + " < signal length " + N);
+        final double coeff[] = Filter.coefficients(window, N);
+        final double real[] = new double[length];
+        final double imag[] = new double[length];
+        // Power of the window for the PSD, N for a rectangular window
+        double window_power = 0.0;
+        for (int k = 0; k < N; k++)
+        {
+            real[k] = coeff[k] * signal[k];
+            window_power += coeff[k] * coeff[k];
+        }
+        FFT.transform(real, imag);
 
-        // FFT(n) = 1/N sum{k} [ signal(k) exp(-2 pi j k n/N) ]
-        nyquist_index = (int) Math.ceil(N/2);
+        nyquist_index = length/2;
         amplitude = new double[nyquist_index];
+        psd = new double[nyquist_index];
         for (int n = 0; n < nyquist_index; n++)
         {
-            // Compute sum{k} [ signal(k) exp(-2 pi j k n/N) ]
-            double real = 0.0;
-            double imag = 0.0;
-            for (int k = 0; k < N; k++)
-            {
-                real += signal[k] * Math.cos(exp_coeff * k * n);
-                imag += signal[k] * Math.sin(exp_coeff * k * n);
-            }
+            final double power = real[n]*real[n] + imag[n]*imag[n];
             // 1/N
-            real /= N;
-            imag /= N;
-            amplitude[n] = Math.sqrt(real*real + imag*imag);
+            amplitude[n] = Math.sqrt(power) / N;
+            // Frequencies above Nyquist mirror those below,
+            // so all but DC get twice the power
+            psd[n] = (n == 0 ? 1.0 : 2.0) * power * period / window_power;
         }
     }
 
@@ -74,6 +106,19 @@ public class Fourier
         return amplitude;
     }
 
+    /** Power spectral density
+     *  <p>
+     *  One-sided density, in units of signal<sup>2</sup>/Hz,
+     *  corrected for the power of the window.
+     *  The sum over all points multiplied by the frequency spacing
+     *  approximates the mean square of the signal.
+     *  @return Power spectral density for 0 to Nyquist (N/2)
+     */
+    public double [] getPowerSpectralDensity()
+    {
+        return psd;
+    }
+
     /** @return Frequency points in Hz; 0 to Nyquist */
     public double [] getFrequencies()
     {
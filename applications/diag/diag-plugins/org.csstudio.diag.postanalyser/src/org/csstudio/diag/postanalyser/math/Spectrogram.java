@@ -0,0 +1,87 @@
+package org.csstudio.diag.postanalyser.math;
+
+/** Spectrogram: Power spectral density over time.
+ *  <p>
+ *  The signal is split into segments of equal length which may overlap.
+ *  Each segment is windowed, zero-padded to a power of two and
+ *  transformed into its power spectral density.
+ */
+public class Spectrogram
+{
+    /** Time of each segment's center in seconds, relative to the signal start */
+    final private double time[];
+
+    /** Frequency points in Hz */
+    final private double freq[];
+
+    /** Power spectral density, [segment][frequency] */
+    final private double power[][];
+
+    /** Compute spectrogram
+     *  @param period Sample period in seconds
+     *  @param signal Real-valued input signal
+     *  @param window Window applied to each segment
+     *  @param segment_length Number of signal points per segment
+     *  @param overlap Number of points shared by adjacent segments
+     *  @throws IllegalArgumentException on invalid segment length or overlap
+     */
+    @SuppressWarnings("nls")
+    public Spectrogram(final double period, final double[] signal,
+                       final Filter.Type window,
+                       final int segment_length, final int overlap)
+    {
+        if (segment_length < 2  ||  segment_length > signal.length)
+            throw new IllegalArgumentException("Invalid segment length " + segment_length);
+        if (overlap < 0  ||  overlap >= segment_length)
+            throw new IllegalArgumentException("Invalid overlap " + overlap);
+        final int step = segment_length - overlap;
+        final int segments = (signal.length - segment_length) / step + 1;
+        final int length = FFT.nextPowerOfTwo(segment_length);
+        time = new double[segments];
+        power = new double[segments][];
+        final double segment[] = new double[segment_length];
+        Fourier fft = null;
+        for (int s = 0; s < segments; ++s)
+        {
+            final int start = s * step;
+            System.arraycopy(signal, start, segment, 0, segment_length);
+            fft = new Fourier(period, segment, window, length);
+            time[s] = (start + segment_length/2.0) * period;
+            power[s] = fft.getPowerSpectralDensity();
+        }
+        freq = fft.getFrequencies();
+    }
+
+    /** @return Time of each segment's center in seconds, relative to the signal start */
+    public double[] getTimes()
+    {
+        return time;
+    }
+
+    /** @return Frequency points in Hz, 0 to Nyquist */
+    public double[] getFrequencies()
+    {
+        return freq;
+    }
+
+    /** @return Power spectral density, indexed by [segment][frequency] */
+    public double[][] getPowerSpectralDensity()
+    {
+        return power;
+    }
+
+    /** @return Frequency with the highest power in each segment, ignoring DC */
+    public double[] getPeakFrequencies()
+    {
+        final double peak[] = new double[power.length];
+        for (int s = 0; s < power.length; ++s)
+        {
+            int max = freq.length > 1 ? 1 : 0;
+            for (int i = max + 1; i < freq.length; ++i)
+                if (power[s][i] > power[s][max])
+                    max = i;
+            peak[s] = freq.length > 0 ? freq[max] : 0.0;
+        }
+        return peak;
+    }
+}
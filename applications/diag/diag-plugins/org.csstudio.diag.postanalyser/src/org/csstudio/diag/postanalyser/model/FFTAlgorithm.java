@@ -1,7 +1,7 @@
 package org.csstudio.diag.postanalyser.model;
 
 import org.csstudio.diag.postanalyser.Messages;
-import org.csstudio.diag.postanalyser.math.Filter;
+import org.csstudio.diag.postanalyser.math.FFT;
 import org.csstudio.diag.postanalyser.math.Fourier;
 import org.csstudio.diag.postanalyser.math.Filter.Type;
 import org.csstudio.swt.chart.TraceType;
@@ -16,11 +16,19 @@ import org.eclipse.osgi.util.NLS;
  */
 public class FFTAlgorithm extends Algorithm
 {
-    private Type type;
+    protected Type type = Type.None;
+
+    private boolean zero_padding = false;
 
     public FFTAlgorithm()
     {
-        super(Messages.Algorithm_FFT);
+        this(Messages.Algorithm_FFT);
+    }
+
+    /** Constructor for derived spectral algorithms */
+    protected FFTAlgorithm(final String name)
+    {
+        super(name);
     }
 
     /** Define the FFT window filter */
@@ -29,6 +37,20 @@ public class FFTAlgorithm extends Algorithm
         this.type = type;
     }
 
+    /** Define if the signal is padded with zeros to a power of two */
+    public void setZeroPadding(final boolean zero_padding)
+    {
+        this.zero_padding = zero_padding;
+    }
+
+    /** @param N Number of signal points
+     *  @return Length of the transform for N signal points
+     */
+    protected int getTransformLength(final int N)
+    {
+        return zero_padding ? FFT.nextPowerOfTwo(N) : N;
+    }
+
     /** @return <code>false</code> because FFT needs no time axis */
     @Override
     public boolean needTimeAxis()
@@ -36,6 +58,15 @@ public class FFTAlgorithm extends Algorithm
         return false;
     }
 
+    /** @return Guessed signal period
+     *  @see FFTAlgorithm
+     */
+    protected double getPeriod()
+    {
+        final int N = input.size();
+        return (input.get(N-1).getX() - input.get(0).getX()) / N;
+    }
+
     /** {@inheritDoc} */
     @Override
     public void process() throws Exception
@@ -51,9 +82,8 @@ public class FFTAlgorithm extends Algorithm
             error(Messages.Algorithm_NoDataPoints);
             return;
         }
-        final double period = (input.get(N-1).getX() - input.get(0).getX()) / N;
-        final double signal[] = Filter.window(input.getY(), type);
-        final Fourier fft = new Fourier(period, signal);
+        final Fourier fft = new Fourier(getPeriod(), input.getY(), type,
+                                        getTransformLength(N));
         message = NLS.bind(Messages.FFT_Message, input.getName());
         outputs = new AlgorithmOutput[]
         {
@@ -63,7 +93,7 @@ public class FFTAlgorithm extends Algorithm
         };
     }
 
-    private void error(final String error)
+    protected void error(final String error)
     {
         message = error;
         outputs = new AlgorithmOutput[]
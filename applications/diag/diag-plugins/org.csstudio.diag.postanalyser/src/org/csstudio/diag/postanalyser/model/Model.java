@@ -18,7 +18,9 @@ public class Model
             new ExpFitAlgorithm(),
             new GaussFitAlgorithm(),
             new CorrelationAlgorithm(),
-            new FFTAlgorithm()
+            new FFTAlgorithm(),
+            new PSDAlgorithm(),
+            new SpectrogramAlgorithm()
     };
 
     /** Channels */
@@ -0,0 +1,44 @@
+package org.csstudio.diag.postanalyser.model;
+
+import org.csstudio.diag.postanalyser.Messages;
+import org.csstudio.diag.postanalyser.math.Fourier;
+import org.csstudio.swt.chart.TraceType;
+import org.eclipse.osgi.util.NLS;
+
+/** An Algorithm that computes the power spectral density.
+ *  <p>
+ *  Uses the same guessed signal period as the {@link FFTAlgorithm}.
+ */
+public class PSDAlgorithm extends FFTAlgorithm
+{
+    public PSDAlgorithm()
+    {
+        super(Messages.Algorithm_PSD);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void process() throws Exception
+    {
+        x_axis_label = Messages.FFT_XAxisLabel;
+        if (input == null)
+            throw new IllegalArgumentException(Messages.Algorithm_NoDataPoints);
+
+        final int N = input.size();
+        if (N <= 1)
+        {
+            error(Messages.Algorithm_NoDataPoints);
+            return;
+        }
+        final Fourier fft = new Fourier(getPeriod(), input.getY(), type,
+                                        getTransformLength(N));
+        y_axis_label = NLS.bind(Messages.PSD_YAxisLabel, input.getName());
+        message = NLS.bind(Messages.PSD_Message, input.getName());
+        outputs = new AlgorithmOutput[]
+        {
+            new AlgorithmOutput(message,
+                    new XYChartSamples(fft.getFrequencies(),
+                                       fft.getPowerSpectralDensity()), TraceType.Lines)
+        };
+    }
+}
@@ -0,0 +1,64 @@
+package org.csstudio.diag.postanalyser.model;
+
+import org.csstudio.diag.postanalyser.Messages;
+import org.csstudio.diag.postanalyser.math.Spectrogram;
+import org.csstudio.swt.chart.TraceType;
+import org.eclipse.osgi.util.NLS;
+
+/** An Algorithm that shows how the spectrum changes over time.
+ *  <p>
+ *  Computes a spectrogram from half-overlapping segments of the signal
+ *  and displays the dominant frequency of each segment over time.
+ */
+public class SpectrogramAlgorithm extends FFTAlgorithm
+{
+    /** Minimum number of points in each segment */
+    private static final int MIN_SEGMENT = 16;
+
+    /** Number of segments that the signal is split into, not counting overlap */
+    private static final int SEGMENTS = 16;
+
+    public SpectrogramAlgorithm()
+    {
+        super(Messages.Algorithm_Spectrogram);
+    }
+
+    /** @return <code>true</code> because frequency is shown over time */
+    @Override
+    public boolean needTimeAxis()
+    {
+        return true;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void process() throws Exception
+    {
+        x_axis_label = Messages.Algorithm_TimeAxisLabel;
+        if (input == null)
+            throw new IllegalArgumentException(Messages.Algorithm_NoDataPoints);
+
+        final int N = input.size();
+        if (N < 2*MIN_SEGMENT)
+        {
+            error(Messages.Algorithm_NoDataPoints);
+            return;
+        }
+        final int segment = Math.max(MIN_SEGMENT, N / SEGMENTS);
+        final Spectrogram spectrogram = new Spectrogram(getPeriod(), input.getY(),
+                                                        type, segment, segment/2);
+        // Segment times are relative to the start of the signal
+        final double time[] = spectrogram.getTimes();
+        final double x0 = input.get(0).getX();
+        for (int i=0; i<time.length; ++i)
+            time[i] += x0;
+        y_axis_label = Messages.FFT_XAxisLabel;
+        message = NLS.bind(Messages.Spectrogram_Message, input.getName());
+        outputs = new AlgorithmOutput[]
+        {
+            new AlgorithmOutput(message,
+                    new XYChartSamples(time, spectrogram.getPeakFrequencies()),
+                    TraceType.Lines)
+        };
+    }
+}
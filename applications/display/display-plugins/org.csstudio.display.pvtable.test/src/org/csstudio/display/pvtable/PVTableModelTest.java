@@ -0,0 +1,160 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.display.pvtable;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
+import org.csstudio.display.pvtable.model.PVTableItem;
+import org.csstudio.display.pvtable.model.PVTableModel;
+import org.csstudio.display.pvtable.model.PVTableModelListener;
+import org.csstudio.vtype.pv.PV;
+import org.csstudio.vtype.pv.PVPool;
+import org.junit.Before;
+import org.junit.Test;
+
+/** JUnit test of the accumulated updates of the {@link PVTableModel}
+ */
+@SuppressWarnings("nls")
+public class PVTableModelTest implements PVTableModelListener
+{
+    /** Items passed to {@link #tableItemsChanged(List)}, one list per call */
+    final private List<List<PVTableItem>> updates = new ArrayList<>();
+
+    /** Number of calls to {@link #tableItemsChanged()} */
+    private int refreshes = 0;
+
+    @Before
+    public void setup()
+    {
+        TestSettings.setup();
+    }
+
+    @Override
+    public void tableItemSelectionChanged(final PVTableItem item)
+    {
+        // Ignore
+    }
+
+    @Override
+    public void tableItemChanged(final PVTableItem item)
+    {
+        tableItemsChanged(Collections.singletonList(item));
+    }
+
+    @Override
+    public synchronized void tableItemsChanged(final List<PVTableItem> items)
+    {
+        updates.add(new ArrayList<>(items));
+        notifyAll();
+    }
+
+    @Override
+    public synchronized void tableItemsChanged()
+    {
+        ++refreshes;
+        notifyAll();
+    }
+
+    @Override
+    public void modelChanged()
+    {
+        // Ignore
+    }
+
+    /** Wait for the next update or refresh, then for any that might follow */
+    private void awaitUpdates() throws Exception
+    {
+        synchronized (this)
+        {
+            while (updates.isEmpty()  &&  refreshes == 0)
+                wait(100);
+        }
+        Thread.sleep(2 * Preferences.getUpdatePeriod());
+    }
+
+    private synchronized void reset()
+    {
+        updates.clear();
+        refreshes = 0;
+    }
+
+    @Test(timeout=8000)
+    public void testCoalescedUpdates() throws Exception
+    {
+        final PVTableModel model = new PVTableModel();
+        model.addListener(this);
+        final PVTableItem a = model.addItem("loc://pvtable_a(0)");
+        final PVTableItem b = model.addItem("loc://pvtable_b(0)");
+        model.addItem("loc://pvtable_c(0)");
+
+        // Initial values
+        awaitUpdates();
+        reset();
+
+        // Several changes of two PVs result in one update of just those items
+        final PV pv_a = PVPool.getPV("loc://pvtable_a(0)");
+        final PV pv_b = PVPool.getPV("loc://pvtable_b(0)");
+        pv_a.write(1.0);
+        pv_a.write(2.0);
+        pv_b.write(3.0);
+        pv_a.write(4.0);
+        awaitUpdates();
+        synchronized (this)
+        {
+            assertThat(refreshes, equalTo(0));
+            assertThat(updates.size(), equalTo(1));
+            assertThat(new HashSet<>(updates.get(0)), equalTo(new HashSet<>(Arrays.asList(a, b))));
+        }
+        assertThat(PVTableItemTest.toDouble(a.getValue()), equalTo(4.0));
+
+        PVPool.releasePV(pv_b);
+        PVPool.releasePV(pv_a);
+        model.dispose();
+    }
+
+    @Test(timeout=8000)
+    public void testManyChangesRefreshTable() throws Exception
+    {
+        final PVTableModel model = new PVTableModel();
+        model.addListener(this);
+        final List<PVTableItem> items = new ArrayList<>();
+        for (int i=0; i<Preferences.getUpdateItemThreshold(); ++i)
+            items.add(model.addItem("# Comment " + i));
+
+        // Changes of many items result in one refresh of the whole table
+        for (PVTableItem item : items)
+            model.tableItemChanged(item);
+        awaitUpdates();
+        synchronized (this)
+        {
+            assertThat(refreshes, equalTo(1));
+            assertThat(updates.size(), equalTo(0));
+        }
+
+        // Repeated change of one item is one update
+        reset();
+        model.tableItemChanged(items.get(0));
+        model.tableItemChanged(items.get(0));
+        awaitUpdates();
+        synchronized (this)
+        {
+            assertThat(refreshes, equalTo(0));
+            assertThat(updates.size(), equalTo(1));
+            assertThat(updates.get(0), equalTo(Collections.singletonList(items.get(0))));
+        }
+
+        model.dispose();
+    }
+}
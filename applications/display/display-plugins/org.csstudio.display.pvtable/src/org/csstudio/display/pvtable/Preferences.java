@@ -33,6 +33,14 @@ public class Preferences {
         return threshold;
     }
 
+    public static long getUpdatePeriod() {
+        long period = 200;
+        final IPreferencesService service = Platform.getPreferencesService();
+        if (service != null)
+            period = service.getLong(Plugin.ID, "update_period", period, null);
+        return period;
+    }
+
     public static boolean treatByteArrayAsString() {
         return getBoolOption("treat_byte_array_as_string");
     }
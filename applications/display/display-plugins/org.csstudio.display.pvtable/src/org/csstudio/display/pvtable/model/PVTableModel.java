@@ -11,8 +11,9 @@ import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
-import java.util.Timer;
-import java.util.TimerTask;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 import org.csstudio.display.pvtable.Messages;
@@ -30,26 +31,35 @@ import org.eclipse.swt.widgets.Display;
  * Updates are throttled: Changed items are accumulated, and depending on how
  * many changed, just those items are notified, or the whole table is marked for
  * update.
+ * <p>
+ * The first change after an update schedules the next update,
+ * so no timer is running while the values don't change.
  *
  * @author Kay Kasemir, A. PHILIPPE L. PHILIPPE GANIL/FRANCE
  */
 public class PVTableModel implements PVTableItemListener
 {
-    /** Period for update checks
+    /** Timer shared by all models to perform the accumulated updates */
+    final private static ScheduledExecutorService update_timer = Executors.newSingleThreadScheduledExecutor(runnable ->
+    {
+        final Thread thread = new Thread(runnable, "PVTableUpdate"); //$NON-NLS-1$
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    final private int updateItemThreshold = Preferences.getUpdateItemThreshold();
+
+    /** Delay between the first change and the update of the table
      *
      *  @see #performUpdates()
      */
-    private static final long UPDATE_PERIOD_MS = 200;
-
-    final private int updateItemThreshold = Preferences.getUpdateItemThreshold();
+    final private long update_period_ms = Preferences.getUpdatePeriod();
 
     /** The list of items in this table. */
     private List<PVTableItem> items = new ArrayList<PVTableItem>();
 
     final private List<PVTableModelListener> listeners = new ArrayList<PVTableModelListener>();
 
-    final private Timer update_timer = new Timer("PVTableUpdate", true); //$NON-NLS-1$
-
     /** @see #performUpdates() */
     private Set<PVTableItem> changed_items = new HashSet<PVTableItem>();
 
@@ -61,19 +71,6 @@ public class PVTableModel implements PVTableItemListener
     /** Timeout in seconds used for restoring PVs with completion */
     private long completion_timeout_seconds = 60;
 
-    /** Initialize */
-    public PVTableModel()
-    {
-        update_timer.schedule(new TimerTask()
-        {
-            @Override
-            public void run()
-            {
-                performUpdates();
-            }
-        }, UPDATE_PERIOD_MS, UPDATE_PERIOD_MS);
-    }
-
     /** @param listener Listener to add */
     public void addListener(final PVTableModelListener listener)
     {
@@ -273,8 +270,8 @@ public class PVTableModel implements PVTableItemListener
 
     /** Invoked by timer to perform accumulated updates.
      *
-     *  <p>If only one item changed, update that item. If multiple items changed,
-     *  refresh the whole table.
+     *  <p>If fewer items than the threshold changed, update just those items.
+     *  If more items changed, refresh the whole table.
      */
     private void performUpdates()
     {
@@ -301,9 +298,8 @@ public class PVTableModel implements PVTableItemListener
         else
         {
             // Update exactly the changed items
-            for (PVTableItem item : to_update)
-                for (PVTableModelListener listener : listeners)
-                    listener.tableItemChanged(item);
+            for (PVTableModelListener listener : listeners)
+                listener.tableItemsChanged(to_update);
         }
     }
 
@@ -367,32 +363,59 @@ public class PVTableModel implements PVTableItemListener
         this.isConfHeaderToAdd(item);
         synchronized (changed_items)
         {
-            changed_items.add(item);
+            // First change since the last update schedules the next update
+            if (changed_items.add(item)  &&  changed_items.size() == 1)
+                update_timer.schedule(this::performUpdates, update_period_ms, TimeUnit.MILLISECONDS);
         }
     }
 
     /** Save snapshot value of all checked items */
     public void save()
     {
-        for (PVTableItem item : items)
-            if (item.isSelected())
-                item.save();
-
-        for (PVTableModelListener listener : listeners)
-        {
-            listener.tableItemsChanged();
-            listener.modelChanged();
-        }
+        final List<PVTableItem> selected = items.stream()
+                                                .filter(PVTableItem::isSelected)
+                                                .collect(Collectors.toList());
+        save(selected);
     }
 
     /** Save snapshot value of each item
+     *
+     *  <p>Values are saved in a background task,
+     *  listeners are notified once when all items have been saved.
      *
      *  @param items Items to save
      */
     public void save(final List<PVTableItem> items)
     {
-        for (PVTableItem item : items)
+        Job.create("Save PV Table", monitor ->
+        {
+            final SubMonitor progress = SubMonitor.convert(monitor, "Save PVs", items.size());
+            for (PVTableItem item : items)
+            {
+                if (progress.isCanceled())
+                    break;
+                item.save();
+                progress.worked(1);
+            }
+            Display.getDefault().asyncExec(this::fireSaved);
+        }).schedule();
+    }
+
+    /** Save snapshot value of all items in the configuration
+     *
+     *  <p>Values are saved before this method returns,
+     *  so they can be used to create a measure.
+     */
+    public void saveConf()
+    {
+        for (PVTableItem item : config.getItems())
             item.save();
+        fireSaved();
+    }
+
+    /** Inform listeners that saved values changed */
+    private void fireSaved()
+    {
         for (PVTableModelListener listener : listeners)
         {
             listener.tableItemsChanged();
@@ -400,11 +423,6 @@ public class PVTableModel implements PVTableItemListener
         }
     }
 
-    public void saveConf()
-    {
-        save(config.getItems());
-    }
-
     /** Restore saved values for all checked items */
     public void restore()
     {
@@ -450,6 +468,10 @@ public class PVTableModel implements PVTableItemListener
         for (PVTableItem item : items)
             item.dispose();
         items.clear();
+        synchronized (changed_items)
+        {
+            changed_items.clear();
+        }
     }
 
     /** Inform listeners that model changed */
@@ -7,6 +7,8 @@
  ******************************************************************************/
 package org.csstudio.display.pvtable.model;
 
+import java.util.List;
+
 /**
  * Listener to {@link PVTableModel}
  *
@@ -16,6 +18,19 @@ public interface PVTableModelListener extends PVTableItemListener {
     /** Multiple table items have changed, need overall table refresh */
     public void tableItemsChanged();
 
+    /**
+     * Several table items have new values
+     * <p>
+     * By default, each item is handled as if it changed on its own.
+     *
+     * @param items
+     *            Items that have new values
+     */
+    public default void tableItemsChanged(final List<PVTableItem> items) {
+        for (PVTableItem item : items)
+            tableItemChanged(item);
+    }
+
     /**
      * Model has changed (items added, removed, renamed, values saved)
      * <p>
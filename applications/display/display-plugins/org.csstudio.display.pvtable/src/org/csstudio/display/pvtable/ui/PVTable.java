@@ -717,6 +717,22 @@ public class PVTable implements PVTableModelListener
         });
     }
 
+    /** {@inheritDoc} */
+    @Override
+    public void tableItemsChanged(final List<PVTableItem> items) {
+        final Table table = viewer.getTable();
+        if (table.isDisposed()) {
+            return;
+        }
+        // One UI update for all changed rows
+        final Object[] elements = items.toArray();
+        table.getDisplay().asyncExec(() -> {
+            if (!table.isDisposed() && !viewer.isCellEditorActive()) {
+                viewer.update(elements, null);
+            }
+        });
+    }
+
     /** {@inheritDoc} */
     @Override
     public void tableItemsChanged() {
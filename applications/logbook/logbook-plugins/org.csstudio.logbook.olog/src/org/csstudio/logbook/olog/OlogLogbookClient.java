@@ -119,6 +119,43 @@ public class OlogLogbookClient implements LogbookClient {
 
     @Override
     public Collection<LogEntry> findLogEntries(String search) throws Exception {
+        Collection<LogEntry> logEntries = new ArrayList<LogEntry>();
+        Collection<Log> logs = reader.findLogs(createSearchParameters(search));
+        for (Log log : logs) {
+            logEntries.add(new OlogEntry(log));
+        }
+        return logEntries;
+    }
+
+    /**
+     * Restricts the start of the search time range to <tt>since</tt>, so the
+     * service only returns the logs that were added since. Logs older than
+     * that which were edited since are not guaranteed to be included, callers
+     * should occasionally repeat the complete search.
+     */
+    @Override
+    public Collection<LogEntry> findLogEntriesModifiedSince(String search, Date since) throws Exception {
+        Map<String, String> searchParameters = createSearchParameters(search);
+        long sinceSecs = since.toInstant().getEpochSecond();
+        if (!searchParameters.containsKey("start") || Long.parseLong(searchParameters.get("start")) < sinceSecs) {
+            searchParameters.put("start", String.valueOf(sinceSecs));
+        }
+        if (!searchParameters.containsKey("end")) {
+            searchParameters.put("end", String.valueOf(new Date().toInstant().getEpochSecond()));
+        }
+        Collection<LogEntry> logEntries = new ArrayList<LogEntry>();
+        for (Log log : reader.findLogs(searchParameters)) {
+            logEntries.add(new OlogEntry(log));
+        }
+        return logEntries;
+    }
+
+    /**
+     * @param search
+     *            search string
+     * @return search parameters for the Olog service
+     */
+    private Map<String, String> createSearchParameters(String search) throws Exception {
         Map<String, String> searchParameters = LogEntrySearchUtil.parseSearchString(search);
         // append text search with a leading and trailing *
         if (searchParameters.containsKey(SEARCH_KEYWORD_TEXT)) {
@@ -143,12 +180,7 @@ public class OlogLogbookClient implements LogbookClient {
                 searchParameters.put("end", String.valueOf(startEndTimeParser.getEnd().toInstant().getEpochSecond()));
             }
         }
-        Collection<LogEntry> logEntries = new ArrayList<LogEntry>();
-        Collection<Log> logs = reader.findLogs(searchParameters);
-        for (Log log : logs) {
-            logEntries.add(new OlogEntry(log));
-        }
-        return logEntries;
+        return searchParameters;
     }
 
     @Override
@@ -0,0 +1,220 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+/**
+ *
+ */
+package org.csstudio.logbook;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * An in-memory {@link LogbookClient} for tests.
+ *
+ * Every search returns all the log entries, newest first, and the client counts
+ * how often each kind of search was performed.
+ */
+public class MockLogbookClient implements LogbookClient {
+
+    private final Map<Object, LogEntry> logEntries = new LinkedHashMap<Object, LogEntry>();
+    private final Map<Object, Collection<Attachment>> attachments = new LinkedHashMap<Object, Collection<Attachment>>();
+
+    public final AtomicInteger completeSearches = new AtomicInteger();
+    public final AtomicInteger modifiedSearches = new AtomicInteger();
+    public final AtomicInteger attachmentRequests = new AtomicInteger();
+
+    /**
+     * Add or replace a log entry
+     *
+     * @param id
+     * @param text
+     * @param created
+     * @param modified
+     * @return the log entry
+     */
+    public synchronized LogEntry put(long id, String text, Date created, Date modified) {
+        LogEntry logEntry = new MockLogEntry(id, text, created, modified);
+        logEntries.put(id, logEntry);
+        return logEntry;
+    }
+
+    /**
+     * Remove a log entry
+     *
+     * @param id
+     */
+    public synchronized void remove(long id) {
+        logEntries.remove(id);
+    }
+
+    @Override
+    public Collection<Logbook> listLogbooks() throws Exception {
+        return Collections.emptyList();
+    }
+
+    @Override
+    public List<String> listLevels() throws Exception {
+        return Collections.emptyList();
+    }
+
+    @Override
+    public Collection<Tag> listTags() throws Exception {
+        return Collections.emptyList();
+    }
+
+    @Override
+    public Collection<Property> listProperties() throws Exception {
+        return Collections.emptyList();
+    }
+
+    @Override
+    public synchronized Collection<Attachment> listAttachments(Object logId) throws Exception {
+        attachmentRequests.incrementAndGet();
+        Collection<Attachment> result = attachments.get(logId);
+        return result == null ? Collections.<Attachment> emptyList() : result;
+    }
+
+    @Override
+    public InputStream getAttachment(Object logId, String attachmentFileName) throws Exception {
+        return new ByteArrayInputStream(new byte[0]);
+    }
+
+    @Override
+    public synchronized LogEntry findLogEntry(Object logId) throws Exception {
+        return logEntries.get(logId);
+    }
+
+    @Override
+    public synchronized Collection<LogEntry> findLogEntries(String search) throws Exception {
+        completeSearches.incrementAndGet();
+        return sorted(logEntries.values());
+    }
+
+    @Override
+    public synchronized Collection<LogEntry> findLogEntriesModifiedSince(String search, Date since) throws Exception {
+        modifiedSearches.incrementAndGet();
+        List<LogEntry> result = new ArrayList<LogEntry>();
+        for (LogEntry logEntry : logEntries.values()) {
+            if (!logEntry.getModifiedDate().before(since)) {
+                result.add(logEntry);
+            }
+        }
+        return sorted(result);
+    }
+
+    private static List<LogEntry> sorted(Collection<LogEntry> logEntries) {
+        List<LogEntry> result = new ArrayList<LogEntry>(logEntries);
+        Collections.sort(result, (o1, o2) -> o2.getCreateDate().compareTo(o1.getCreateDate()));
+        return result;
+    }
+
+    @Override
+    public LogEntry createLogEntry(LogEntry logEntry) throws Exception {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public LogEntry updateLogEntry(LogEntry logEntry) throws Exception {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void updateLogEntries(Collection<LogEntry> logEntires) throws Exception {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Attachment addAttachment(Object logId, InputStream file, String name) throws Exception {
+        throw new UnsupportedOperationException();
+    }
+
+    private static class MockLogEntry implements LogEntry {
+        private final long id;
+        private final String text;
+        private final Date created;
+        private final Date modified;
+
+        MockLogEntry(long id, String text, Date created, Date modified) {
+            this.id = id;
+            this.text = text;
+            this.created = created;
+            this.modified = modified;
+        }
+
+        @Override
+        public Object getId() {
+            return id;
+        }
+
+        @Override
+        public String getLevel() {
+            return "Info";
+        }
+
+        @Override
+        public String getText() {
+            return text;
+        }
+
+        @Override
+        public String getOwner() {
+            return "test";
+        }
+
+        @Override
+        public Date getCreateDate() {
+            return created;
+        }
+
+        @Override
+        public Date getModifiedDate() {
+            return modified;
+        }
+
+        @Override
+        public Collection<Attachment> getAttachment() {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public Collection<Tag> getTags() {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public Collection<Logbook> getLogbooks() {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public Collection<Property> getProperties() {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(id) * 31 + modified.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof MockLogEntry))
+                return false;
+            MockLogEntry other = (MockLogEntry) obj;
+            return id == other.id && text.equals(other.text) && modified.equals(other.modified);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+/**
+ *
+ */
+package org.csstudio.logbook.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Date;
+
+import org.csstudio.logbook.LogEntry;
+import org.csstudio.logbook.MockLogbookClient;
+import org.csstudio.logbook.util.LogEntryCache.Update;
+import org.junit.Test;
+
+/**
+ * Tests for the {@link LogEntryCache} using the {@link MockLogbookClient}
+ */
+public class LogEntryCacheTest {
+
+    private static Date time(long seconds) {
+        return new Date(seconds * 1000);
+    }
+
+    @Test
+    public void testIncrementalRefresh() throws Exception {
+        MockLogbookClient client = new MockLogbookClient();
+        LogEntry first = client.put(1, "first", time(10), time(10));
+        LogEntry second = client.put(2, "second", time(20), time(20));
+
+        LogEntryCache cache = new LogEntryCache(client, "logbook:Operations");
+        Update update = cache.refresh(false);
+        assertEquals(1, client.completeSearches.get());
+        assertEquals(Arrays.asList(second, first), update.logs);
+        assertEquals(2, update.added.size());
+
+        // Nothing changed
+        update = cache.refresh(false);
+        assertEquals(1, client.completeSearches.get());
+        assertEquals(1, client.modifiedSearches.get());
+        assertTrue(update.isEmpty());
+        assertEquals(Arrays.asList(second, first), update.logs);
+
+        // A new and a changed entry
+        LogEntry third = client.put(3, "third", time(30), time(30));
+        LogEntry edited = client.put(1, "first, edited", time(10), time(40));
+        update = cache.refresh(false);
+        assertEquals(1, client.completeSearches.get());
+        assertEquals(Arrays.asList(third, second, edited), update.logs);
+        assertEquals(2, update.added.size());
+        assertTrue(update.added.containsAll(Arrays.asList(third, edited)));
+        assertEquals(Arrays.asList(first), update.removed);
+
+        // Deletions are only noticed by a complete search
+        client.remove(2);
+        update = cache.refresh(false);
+        assertTrue(update.isEmpty());
+        update = cache.refresh(true);
+        assertEquals(2, client.completeSearches.get());
+        assertEquals(Arrays.asList(third, edited), update.logs);
+        assertEquals(Arrays.asList(second), update.removed);
+    }
+
+    @Test
+    public void testLimit() throws Exception {
+        MockLogbookClient client = new MockLogbookClient();
+        LogEntry first = client.put(1, "first", time(10), time(10));
+        LogEntry second = client.put(2, "second", time(20), time(20));
+
+        LogEntryCache cache = new LogEntryCache(client, "page:1 limit:2");
+        cache.refresh(false);
+        LogEntry third = client.put(3, "third", time(30), time(30));
+        Update update = cache.refresh(false);
+        assertEquals(Arrays.asList(third, second), update.logs);
+        assertEquals(Arrays.asList(third), update.added);
+        assertEquals(Arrays.asList(first), update.removed);
+
+        // Other pages are always searched completely
+        cache = new LogEntryCache(client, "page:2 limit:2");
+        cache.refresh(false);
+        cache.refresh(false);
+        assertEquals(3, client.completeSearches.get());
+    }
+
+    @Test
+    public void testAttachments() throws Exception {
+        MockLogbookClient client = new MockLogbookClient();
+        client.put(1, "first", time(10), time(10));
+        LogEntryCache cache = new LogEntryCache(client, "");
+        cache.refresh(false);
+        cache.getAttachments(1L);
+        cache.getAttachments(1L);
+        assertEquals(1, client.attachmentRequests.get());
+        // Changed entry drops its cached attachments
+        client.put(1, "first, edited", time(10), time(20));
+        cache.refresh(false);
+        cache.getAttachments(1L);
+        assertEquals(2, client.attachmentRequests.get());
+    }
+}
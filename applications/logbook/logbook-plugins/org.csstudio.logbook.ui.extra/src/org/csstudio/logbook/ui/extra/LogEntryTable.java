@@ -7,8 +7,10 @@ import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
 import java.beans.PropertyChangeSupport;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -68,6 +70,8 @@ public class LogEntryTable extends Composite implements ISelectionProvider {
     private ErrorBar errorBar;
     private GridTableViewer gridTableViewer;
     private List<LogEntry> logEntries = Collections.emptyList();
+    // Set while updateLogs() notifies listeners about rows it already updated
+    private boolean updatingLogs = false;
     private Grid grid;
 
     public LogEntryTable(Composite parent, int style) {
@@ -80,6 +84,9 @@ public class LogEntryTable extends Composite implements ISelectionProvider {
             public void propertyChange(PropertyChangeEvent event) {
                 switch (event.getPropertyName()) {
                 case "logEntries":
+                    if (updatingLogs) {
+                        break;
+                    }
                     gridTableViewer.setSelection(null, true);
                     gridTableViewer.setInput(logEntries.toArray(new LogEntry[logEntries.size()]));
                     break;
@@ -136,7 +143,8 @@ public class LogEntryTable extends Composite implements ISelectionProvider {
 
             @Override
             public Object[] getElements(Object inputElement) {
-                return (Object[]) inputElement;
+                // Same as the input array unless updateLogs() changed the log entries
+                return logEntries.toArray();
             }
         });
 
@@ -280,6 +288,37 @@ public class LogEntryTable extends Composite implements ISelectionProvider {
         changeSupport.firePropertyChange("logEntries", oldValue, this.logEntries);
     }
 
+    /**
+     * Update the log entries, only removing and adding the rows of the given
+     * log entries instead of re-creating all rows.
+     *
+     * @param logEntries
+     *            all log entries
+     * @param added
+     *            log entries that were added to the previous log entries
+     * @param removed
+     *            log entries that were removed from the previous log entries
+     */
+    public void updateLogs(List<LogEntry> logEntries, Collection<LogEntry> added, Collection<LogEntry> removed) {
+        Collection<LogEntry> oldValue = this.logEntries;
+        this.logEntries = logEntries;
+        if (!removed.isEmpty()) {
+            gridTableViewer.remove(removed.toArray());
+        }
+        // Insert in the order of the log entries, so that every position is valid
+        List<LogEntry> inserted = new ArrayList<LogEntry>(added);
+        inserted.sort(Comparator.comparingInt(logEntries::indexOf));
+        for (LogEntry logEntry : inserted) {
+            gridTableViewer.insert(logEntry, logEntries.indexOf(logEntry));
+        }
+        updatingLogs = true;
+        try {
+            changeSupport.firePropertyChange("logEntries", oldValue, this.logEntries);
+        } finally {
+            updatingLogs = false;
+        }
+    }
+
     @Override
     public void addMouseListener(MouseListener listener) {
         gridTableViewer.getGrid().addMouseListener(listener);
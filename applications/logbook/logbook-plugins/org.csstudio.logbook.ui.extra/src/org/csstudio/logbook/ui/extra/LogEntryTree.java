@@ -12,11 +12,13 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.Date;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import org.csstudio.java.time.TimestampFormats;
@@ -77,6 +79,8 @@ public class LogEntryTree extends Composite implements ISelectionProvider {
     private ErrorBar errorBar;
     private GridTreeViewer gridTreeViewer;
     private List<LogEntry> logEntries = Collections.emptyList();
+    // Set while updateLogs() notifies listeners about items it already updated
+    private boolean updatingLogs = false;
     private Grid grid;
 
     public LogEntryTree(Composite parent, int style) {
@@ -89,6 +93,9 @@ public class LogEntryTree extends Composite implements ISelectionProvider {
             public void propertyChange(PropertyChangeEvent event) {
                 switch (event.getPropertyName()) {
                 case "logEntries":
+                    if (updatingLogs) {
+                        break;
+                    }
                     gridTreeViewer.setSelection(null, true);
                     gridTreeViewer.setInput(createModel(logEntries));
                     break;
@@ -305,6 +312,65 @@ public class LogEntryTree extends Composite implements ISelectionProvider {
         changeSupport.firePropertyChange("logEntries", oldValue, this.logEntries);
     }
 
+    /**
+     * Update the log entries, only re-creating the tree items of the log
+     * entries which were added or removed instead of the whole tree.
+     *
+     * @param logEntries
+     *            all log entries
+     * @param added
+     *            log entries that were added to the previous log entries
+     * @param removed
+     *            log entries that were removed from the previous log entries
+     */
+    public void updateLogs(List<LogEntry> logEntries, Collection<LogEntry> added, Collection<LogEntry> removed) {
+        Collection<LogEntry> oldValue = this.logEntries;
+        this.logEntries = logEntries;
+        LogEntryTreeModel root = (LogEntryTreeModel) gridTreeViewer.getInput();
+        if (root == null) {
+            gridTreeViewer.setInput(createModel(logEntries));
+        } else {
+            updateModel(root, added, removed);
+        }
+        updatingLogs = true;
+        try {
+            changeSupport.firePropertyChange("logEntries", oldValue, this.logEntries);
+        } finally {
+            updatingLogs = false;
+        }
+    }
+
+    private void updateModel(LogEntryTreeModel root, Collection<LogEntry> added, Collection<LogEntry> removed) {
+        // The items of the affected log entries, including all their versions, are replaced
+        Set<Object> ids = new HashSet<Object>();
+        for (LogEntry logEntry : added) {
+            ids.add(logEntry.getId());
+        }
+        for (LogEntry logEntry : removed) {
+            ids.add(logEntry.getId());
+        }
+        List<LogEntryTreeModel> stale = root.child.stream()
+                .filter(item -> ids.contains(item.logEntry.getId()))
+                .collect(Collectors.toList());
+        root.child.removeAll(stale);
+        gridTreeViewer.remove(stale.toArray());
+
+        LogEntryTreeModel fresh = createModel(logEntries.stream()
+                .filter(logEntry -> ids.contains(logEntry.getId()))
+                .collect(Collectors.toList()));
+        for (LogEntryTreeModel item : fresh.child) {
+            item.parent = root;
+            root.child.add(item);
+        }
+        Collections.sort(root.child, NEWEST_FIRST);
+        // Insert at the sorted position, in order, so that every position is valid
+        List<LogEntryTreeModel> inserted = new ArrayList<LogEntryTreeModel>(fresh.child);
+        inserted.sort(Comparator.comparingInt(root.child::indexOf));
+        for (LogEntryTreeModel item : inserted) {
+            gridTreeViewer.insert(root, item, root.child.indexOf(item));
+        }
+    }
+
     /**
      * @return the logEntryOrder
      */
@@ -501,16 +567,18 @@ public class LogEntryTree extends Composite implements ISelectionProvider {
             }
         }
 
-        Collections.sort(root.child, new Comparator<LogEntryTreeModel>() {
-
-            @Override
-            public int compare(LogEntryTreeModel o1, LogEntryTreeModel o2) {
-                Date d1 = o1.logEntry.getCreateDate();
-                Date d2 = o2.logEntry.getCreateDate();
-                return d2.compareTo(d1);
-            }
-
-        });
+        Collections.sort(root.child, NEWEST_FIRST);
         return root;
     }
+
+    private static final Comparator<LogEntryTreeModel> NEWEST_FIRST = new Comparator<LogEntryTreeModel>() {
+
+        @Override
+        public int compare(LogEntryTreeModel o1, LogEntryTreeModel o2) {
+            Date d1 = o1.logEntry.getCreateDate();
+            Date d2 = o2.logEntry.getCreateDate();
+            return d2.compareTo(d1);
+        }
+
+    };
 }
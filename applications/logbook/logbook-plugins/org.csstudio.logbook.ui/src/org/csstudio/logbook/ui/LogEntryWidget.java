@@ -38,6 +38,7 @@ import org.csstudio.logbook.Property;
 import org.csstudio.logbook.Tag;
 import org.csstudio.logbook.TagBuilder;
 import org.csstudio.logbook.ui.util.IFileUtil;
+import org.csstudio.logbook.util.LogEntryCache;
 import org.csstudio.logbook.util.LogEntryUtil;
 import org.csstudio.ui.util.dialogs.StringListSelectionDialog;
 import org.csstudio.ui.util.widgets.ErrorBar;
@@ -103,6 +104,8 @@ public class LogEntryWidget extends Composite {
     // private LogEntry logEntry;
 
     private LogbookClient logbookClient;
+    // Cache of the query that listed the log entry, provides its attachments
+    private volatile LogEntryCache logEntryCache;
     // List of all the possible logbooks and tags which may be added to a
     // logEntry.
     private List<String> logbookNames = Collections.emptyList();
@@ -939,7 +942,10 @@ public class LogEntryWidget extends Composite {
                     .logEntry(logEntryChangeset
                         .getLogEntry());
                 Collection<AttachmentBuilder> attachments = new ArrayList<AttachmentBuilder>();
-                for (Attachment attachment : logbookClient.listAttachments(logEntry.getId())) {
+                LogEntryCache cache = logEntryCache;
+                Collection<Attachment> listed = cache != null ? cache.getAttachments(logEntry.getId())
+                    : logbookClient.listAttachments(logEntry.getId());
+                for (Attachment attachment : listed) {
                     attachments.add(AttachmentBuilder.attachment(attachment));
                 }
                 logEntryBuilder.setAttachments(attachments);
@@ -1172,7 +1178,20 @@ public class LogEntryWidget extends Composite {
     }
 
     public void setLogEntry(LogEntry logEntry) {
+    setLogEntry(logEntry, null);
+    }
 
+    /**
+     * Display a log entry that was listed by a query
+     *
+     * @param logEntry
+     *            the log entry
+     * @param cache
+     *            the cache of the query, used to get the attachments of the
+     *            log entry, or null to ask the logbook client
+     */
+    public void setLogEntry(LogEntry logEntry, LogEntryCache cache) {
+    this.logEntryCache = cache;
     try {
         LogEntry oldValue = this.logEntryChangeset.getLogEntry();
         this.logEntryChangeset = new LogEntryChangeset(logEntry);
@@ -4,14 +4,11 @@
 package org.csstudio.logbook.ui;
 
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
-import java.util.Date;
-import java.util.List;
 
 import org.csstudio.logbook.LogEntry;
-import org.csstudio.logbook.LogbookClient;
 import org.csstudio.logbook.ui.PeriodicLogQuery.LogResult;
+import org.csstudio.logbook.util.LogEntryCache;
+import org.csstudio.logbook.util.LogEntryCache.Update;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Status;
@@ -25,13 +22,20 @@ public class LogQueryJob extends Job {
 
     private final static String name = "LogQueryJob";
 
-    private final String query;
-    private final LogbookClient logbookClient;
-
-    LogQueryJob(String query, LogbookClient logbookClient) {
+    private final LogEntryCache cache;
+    private final boolean complete;
+
+    /**
+     * @param cache
+     *            the cache to refresh
+     * @param complete
+     *            perform the complete query rather than only asking for the
+     *            log entries modified since the last query
+     */
+    LogQueryJob(LogEntryCache cache, boolean complete) {
     super(name);
-    this.query = query;
-    this.logbookClient = logbookClient;
+    this.cache = cache;
+    this.complete = complete;
     }
 
     void completedQuery(LogResult result) {
@@ -42,19 +46,8 @@ public class LogQueryJob extends Job {
     protected IStatus run(IProgressMonitor monitor) {
     LogResult result = null;
     try {
-        List<LogEntry> logs = new ArrayList<LogEntry>(
-            logbookClient.findLogEntries(query));
-        Collections.sort(logs, new Comparator<LogEntry>() {
-
-        @Override
-        public int compare(LogEntry o1, LogEntry o2) {
-            Date d1 = o1.getCreateDate();
-            Date d2 = o2.getCreateDate();
-            return d2.compareTo(d1);
-        }
-
-        });
-        result = new LogResult(logs, null);
+        Update update = cache.refresh(complete);
+        result = new LogResult(update.logs, update.added, update.removed, null);
     } catch (Exception e) {
         result = new LogResult(new ArrayList<LogEntry>(0), e);
     } finally {
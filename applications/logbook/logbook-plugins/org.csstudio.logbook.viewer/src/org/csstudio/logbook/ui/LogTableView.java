@@ -17,6 +17,7 @@ import org.csstudio.logbook.LogbookClient;
 import org.csstudio.logbook.LogbookClientManager;
 import org.csstudio.logbook.Tag;
 import org.csstudio.logbook.ui.PeriodicLogQuery.LogResult;
+import org.csstudio.logbook.util.LogEntryCache;
 import org.csstudio.logbook.util.LogEntrySearchUtil;
 import org.csstudio.ui.util.PopupMenuUtil;
 import org.csstudio.ui.util.widgets.ErrorBar;
@@ -105,7 +106,12 @@ public class LogTableView extends ViewPart {
             } else {
             nextPage.setEnabled(true);
             }
+            if (result.update) {
+            // Only apply the inserted or changed log entries
+            logEntryTable.updateLogs(result.logs, result.added, result.removed);
+            } else {
             logEntryTable.setLogs(result.logs);
+            }
             logEntryTable.setSelection(selection);
         }
         });
@@ -322,6 +328,13 @@ public class LogTableView extends ViewPart {
     initializeClient();
     }
 
+    /**
+     * @return the cache of the displayed query, or null if there is no query
+     */
+    LogEntryCache getCache() {
+    return logQuery == null ? null : logQuery.getCache();
+    }
+
     @Override
     public void dispose() {
     if (logQuery != null) {
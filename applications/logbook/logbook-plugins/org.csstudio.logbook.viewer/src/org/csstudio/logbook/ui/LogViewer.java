@@ -7,6 +7,7 @@ import java.util.Arrays;
 import java.util.List;
 
 import org.csstudio.logbook.LogEntry;
+import org.csstudio.logbook.util.LogEntryCache;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.jface.viewers.ISelection;
 import org.eclipse.jface.viewers.IStructuredSelection;
@@ -104,7 +105,14 @@ public class LogViewer extends EditorPart {
         if (selection instanceof IStructuredSelection) {
             Object first = ((IStructuredSelection) selection).getFirstElement();
             if (first instanceof LogEntry) {
-            logEntryWidget.setLogEntry((LogEntry) first);
+            // Attachments are cached with the query that listed the log entry
+            LogEntryCache cache = null;
+            if (part instanceof LogTableView) {
+                cache = ((LogTableView) part).getCache();
+            } else if (part instanceof LogTreeView) {
+                cache = ((LogTreeView) part).getCache();
+            }
+            logEntryWidget.setLogEntry((LogEntry) first, cache);
             } else {
 //            try {
 //                logEntryWidget.setLogEntry(LogEntryBuilder.withText("").build());
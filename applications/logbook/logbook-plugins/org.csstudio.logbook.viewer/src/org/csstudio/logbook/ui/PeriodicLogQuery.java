@@ -12,6 +12,7 @@ import java.util.concurrent.TimeUnit;
 
 import org.csstudio.logbook.LogEntry;
 import org.csstudio.logbook.LogbookClient;
+import org.csstudio.logbook.util.LogEntryCache;
 import org.eclipse.core.runtime.jobs.Job;
 
 /**
@@ -19,13 +20,22 @@ import org.eclipse.core.runtime.jobs.Job;
  * same query and provide you with a notification when the result changes. This
  * is useful for implementing auto-refresh.
  *
+ * The results are kept in a {@link LogEntryCache}, so most executions only
+ * ask the service for the log entries modified since the last execution. Every
+ * {@link #COMPLETE_QUERY_PERIOD} executions, the complete query is performed
+ * to also notice removed log entries.
+ *
  * @author Kunal Shroff
  *
  */
 public class PeriodicLogQuery {
 
-    private volatile String query;
+    /** Perform the complete query every so many executions */
+    public static final int COMPLETE_QUERY_PERIOD = 10;
+
+    private volatile LogEntryCache cache;
     private final LogbookClient logbookClient;
+    private int executions = 0;
     private final TimeUnit timeUnit;
     private final int delay;
 
@@ -46,10 +56,27 @@ public class PeriodicLogQuery {
      */
     public static class LogResult {
     public final List<LogEntry> logs;
+    /** Log entries added since the previous result */
+    public final List<LogEntry> added;
+    /** Log entries removed since the previous result */
+    public final List<LogEntry> removed;
+    /**
+     * true if this result only differs from the previous result of the same
+     * query by the added and removed log entries
+     */
+    public final boolean update;
     public final Exception lastException;
 
     public LogResult(List<LogEntry> result, Exception lastException) {
+        this(result, result, Collections.<LogEntry> emptyList(), false, lastException);
+    }
+
+    public LogResult(List<LogEntry> result, List<LogEntry> added, List<LogEntry> removed, boolean update,
+        Exception lastException) {
         this.logs = Collections.unmodifiableList(result);
+        this.added = Collections.unmodifiableList(added);
+        this.removed = Collections.unmodifiableList(removed);
+        this.update = update;
         this.lastException = lastException;
     }
 
@@ -96,14 +123,21 @@ public class PeriodicLogQuery {
      * @param minutes
      */
     public PeriodicLogQuery(String query, LogbookClient logbookClient, int delay, TimeUnit timeUnit) {
-    this.query = query;
     this.logbookClient = logbookClient;
+    this.cache = new LogEntryCache(logbookClient, query);
     this.delay = delay;
     this.timeUnit = timeUnit;
     }
 
+    /**
+     * @return the cache of the current query
+     */
+    public LogEntryCache getCache() {
+    return cache;
+    }
+
     public void setQuery(String query) {
-    this.query = query;
+    this.cache = new LogEntryCache(logbookClient, query);
     execute();
     }
 
@@ -129,6 +163,7 @@ public class PeriodicLogQuery {
     }
 
     private LogResult lastResult = null;
+    private LogEntryCache lastCache = null;
 
     private void execute() {
     try {
@@ -140,15 +175,27 @@ public class PeriodicLogQuery {
 //        currentJob.cancel();
 //        return;
         }
-        currentJob = new LogQueryJob(query, logbookClient) {
+        final LogEntryCache queryCache = cache;
+        final boolean complete = executions++ % COMPLETE_QUERY_PERIOD == 0;
+        currentJob = new LogQueryJob(queryCache, complete) {
 
         @Override
         void completedQuery(LogResult result) {
+            if (result == null || queryCache != cache) {
+            return;
+            }
+            // Listeners can apply the changes if they got the previous
+            // result of the same query
+            boolean update = lastCache == queryCache && lastResult != null
+                && lastResult.lastException == null && result.lastException == null;
+            if (update && result.added.isEmpty() && result.removed.isEmpty()) {
             // Only inform the listeners if the result has changed.
-            if (result != null && !result.equals(lastResult)) {
-            lastResult = result;
-            fireGetQueryResult(result);
+            return;
             }
+            lastCache = queryCache;
+            lastResult = new LogResult(result.logs, result.added, result.removed, update,
+                result.lastException);
+            fireGetQueryResult(lastResult);
         }
         };
         currentJob.schedule();
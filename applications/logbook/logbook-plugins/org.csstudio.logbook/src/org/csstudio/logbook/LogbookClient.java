@@ -1,7 +1,9 @@
 package org.csstudio.logbook;
 
 import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Date;
 import java.util.List;
 
 /**
@@ -94,6 +96,33 @@ public interface LogbookClient {
      */
     public Collection<LogEntry> findLogEntries(String search) throws Exception;
 
+    /**
+     * Find the logentries which match the search criteria specified by the
+     * <tt>search</tt> string and were created or modified at or after
+     * <tt>since</tt>.
+     *
+     * The default implementation performs the complete search and filters
+     * the result. Clients should override this when the service can
+     * restrict the search itself.
+     *
+     * @param search
+     *            search string, see {@link #findLogEntries(String)}
+     * @param since
+     *            only return logEntries modified at or after this time
+     * @return a collection of LogEntry
+     * @throws Exception
+     */
+    public default Collection<LogEntry> findLogEntriesModifiedSince(String search, Date since) throws Exception {
+    List<LogEntry> result = new ArrayList<LogEntry>();
+    for (LogEntry logEntry : findLogEntries(search)) {
+        Date modified = logEntry.getModifiedDate() != null ? logEntry.getModifiedDate() : logEntry.getCreateDate();
+        if (modified == null || !modified.before(since)) {
+        result.add(logEntry);
+        }
+    }
+    return result;
+    }
+
     /**
      * Create the logEntry <tt>logEntry</tt>
      *
@@ -0,0 +1,212 @@
+/**
+ *
+ */
+package org.csstudio.logbook.util;
+
+import static org.csstudio.logbook.util.LogEntrySearchUtil.SEARCH_KEYWORD_COUNT;
+import static org.csstudio.logbook.util.LogEntrySearchUtil.SEARCH_KEYWORD_HISTORY;
+import static org.csstudio.logbook.util.LogEntrySearchUtil.SEARCH_KEYWORD_PAGE;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.csstudio.logbook.Attachment;
+import org.csstudio.logbook.LogEntry;
+import org.csstudio.logbook.LogbookClient;
+
+/**
+ * A local cache of the log entries which match a search.
+ *
+ * After the first complete search, the cache is updated by only asking the
+ * {@link LogbookClient} for the log entries modified since the most recent
+ * modification seen so far. Each refresh reports which entries were added to
+ * or removed from the cache, so that viewers can apply just those changes.
+ *
+ * Only the first page of a paged search can be updated that way, other pages
+ * are always searched completely.
+ */
+public class LogEntryCache {
+
+    /**
+     * The log entries after a refresh, and how they differ from the log
+     * entries before the refresh.
+     */
+    public static class Update {
+        /** All cached log entries, newest first */
+        public final List<LogEntry> logs;
+        /** Log entries that were inserted or are a changed version of a cached entry */
+        public final List<LogEntry> added;
+        /** Log entries that were removed or replaced by a changed version */
+        public final List<LogEntry> removed;
+
+        private Update(List<LogEntry> logs, List<LogEntry> added, List<LogEntry> removed) {
+            this.logs = Collections.unmodifiableList(logs);
+            this.added = Collections.unmodifiableList(added);
+            this.removed = Collections.unmodifiableList(removed);
+        }
+
+        /**
+         * @return true if the refresh did not change the cached log entries
+         */
+        public boolean isEmpty() {
+            return added.isEmpty() && removed.isEmpty();
+        }
+    }
+
+    private static final Comparator<LogEntry> NEWEST_FIRST = new Comparator<LogEntry>() {
+        @Override
+        public int compare(LogEntry o1, LogEntry o2) {
+            return o2.getCreateDate().compareTo(o1.getCreateDate());
+        }
+    };
+
+    private final LogbookClient logbookClient;
+    private final String search;
+    private final boolean history;
+    private final boolean firstPage;
+    private final int limit;
+
+    /** Cached log entries by id, or by id and modified date when showing the history */
+    private final Map<Object, LogEntry> logEntries = new HashMap<Object, LogEntry>();
+    /** Cached attachments by log entry id */
+    private final Map<Object, Collection<Attachment>> attachments = new ConcurrentHashMap<Object, Collection<Attachment>>();
+    /** Most recent creation or modification time of the cached entries, null until searched */
+    private Date lastModified = null;
+
+    /**
+     * Create a cache for the log entries which match <tt>search</tt>
+     *
+     * @param logbookClient
+     * @param search
+     *            search string, see {@link LogbookClient#findLogEntries(String)}
+     */
+    public LogEntryCache(LogbookClient logbookClient, String search) {
+        this.logbookClient = logbookClient;
+        this.search = search;
+        Map<String, String> searchParameters = LogEntrySearchUtil.parseSearchString(search);
+        history = Boolean.parseBoolean(searchParameters.get(SEARCH_KEYWORD_HISTORY));
+        String page = searchParameters.get(SEARCH_KEYWORD_PAGE);
+        firstPage = page == null || page.trim().equals("1");
+        int count = -1;
+        try {
+            if (searchParameters.containsKey(SEARCH_KEYWORD_COUNT)) {
+                count = Integer.parseInt(searchParameters.get(SEARCH_KEYWORD_COUNT).trim());
+            }
+        } catch (NumberFormatException e) {
+            count = -1;
+        }
+        limit = count;
+    }
+
+    /**
+     * @return the search string of this cache
+     */
+    public String getSearch() {
+        return search;
+    }
+
+    /**
+     * Update the cache.
+     *
+     * @param complete
+     *            perform the complete search even if the cache could be
+     *            updated with the log entries modified since the last search.
+     *            This picks up entries that were deleted or no longer match.
+     * @return the cached log entries and the changes
+     * @throws Exception
+     */
+    public synchronized Update refresh(boolean complete) throws Exception {
+        final boolean incremental = !complete && firstPage && lastModified != null;
+        final Collection<LogEntry> result = incremental
+                ? logbookClient.findLogEntriesModifiedSince(search, lastModified)
+                : logbookClient.findLogEntries(search);
+
+        List<LogEntry> added = new ArrayList<LogEntry>();
+        List<LogEntry> removed = new ArrayList<LogEntry>();
+        Set<Object> found = new HashSet<Object>();
+        for (LogEntry logEntry : result) {
+            Object key = key(logEntry);
+            found.add(key);
+            LogEntry old = logEntries.put(key, logEntry);
+            if (old == null) {
+                added.add(logEntry);
+            } else if (!old.equals(logEntry)) {
+                removed.add(old);
+                added.add(logEntry);
+                attachments.remove(logEntry.getId());
+            }
+            Date modified = modified(logEntry);
+            if (modified != null && (lastModified == null || modified.after(lastModified))) {
+                lastModified = modified;
+            }
+        }
+        if (!incremental) {
+            // Drop the entries which are no longer found
+            Iterator<Map.Entry<Object, LogEntry>> iterator = logEntries.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<Object, LogEntry> entry = iterator.next();
+                if (!found.contains(entry.getKey())) {
+                    removed.add(entry.getValue());
+                    attachments.remove(entry.getValue().getId());
+                    iterator.remove();
+                }
+            }
+        }
+
+        List<LogEntry> logs = new ArrayList<LogEntry>(logEntries.values());
+        Collections.sort(logs, NEWEST_FIRST);
+        if (limit >= 0 && logs.size() > limit) {
+            // New entries pushed the oldest ones off the page
+            List<LogEntry> dropped = logs.subList(limit, logs.size());
+            for (LogEntry logEntry : dropped) {
+                logEntries.remove(key(logEntry));
+                attachments.remove(logEntry.getId());
+                if (!added.remove(logEntry)) {
+                    removed.add(logEntry);
+                }
+            }
+            dropped.clear();
+        }
+        return new Update(logs, added, removed);
+    }
+
+    /**
+     * Get the attachments of a cached log entry, only asking the
+     * {@link LogbookClient} when they are not already cached.
+     *
+     * @param logId
+     * @return a collection of the attachments of the log entry
+     * @throws Exception
+     */
+    public Collection<Attachment> getAttachments(Object logId) throws Exception {
+        Collection<Attachment> result = attachments.get(logId);
+        if (result == null) {
+            result = Collections.unmodifiableCollection(logbookClient.listAttachments(logId));
+            attachments.put(logId, result);
+        }
+        return result;
+    }
+
+    private Object key(LogEntry logEntry) {
+        if (history) {
+            // Each version of a log entry is listed
+            return Arrays.asList(logEntry.getId(), logEntry.getModifiedDate());
+        }
+        return logEntry.getId();
+    }
+
+    private static Date modified(LogEntry logEntry) {
+        return logEntry.getModifiedDate() != null ? logEntry.getModifiedDate() : logEntry.getCreateDate();
+    }
+}
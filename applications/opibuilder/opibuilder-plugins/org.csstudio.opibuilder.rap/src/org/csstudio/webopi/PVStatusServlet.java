@@ -0,0 +1,56 @@
+package org.csstudio.webopi;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.List;
+import java.util.Map;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.csstudio.simplepv.SharedPVFactory;
+import org.csstudio.simplepv.SharedPVFactory.SubscriptionInfo;
+import org.csstudio.simplepv.SimplePVLayer;
+
+/**Status page that lists the PVs shared between all WebOPI sessions
+ * and the number of subscribers of each PV.
+ */
+@SuppressWarnings("nls")
+public class PVStatusServlet extends HttpServlet {
+
+    private static final long serialVersionUID = 5036913375285710427L;
+
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+        response.setContentType("text/html");
+        response.setCharacterEncoding("UTF-8");
+        final PrintWriter out = response.getWriter();
+        out.println("<html><head><title>WebOPI PVs</title></head><body>");
+        final Map<String, SharedPVFactory> factories = SimplePVLayer.getSharedPVFactories();
+        if (factories.isEmpty())
+            out.println("<p>No shared PVs.</p>");
+        for (Map.Entry<String, SharedPVFactory> entry : factories.entrySet()) {
+            final List<SubscriptionInfo> subscriptions = entry.getValue().getSubscriptions();
+            out.println("<h2>" + escape(entry.getKey()) + "</h2>");
+            out.println("<p>" + subscriptions.size() + " shared PVs, "
+                    + entry.getValue().getSubscriberCount() + " subscribers</p>");
+            out.println("<table border=\"1\" cellpadding=\"3\">");
+            out.println("<tr><th>PV</th><th>Subscribers</th><th>Connected</th>"
+                    + "<th>Read Only</th><th>Buffered</th><th>Updates</th></tr>");
+            for (SubscriptionInfo info : subscriptions)
+                out.println("<tr><td>" + escape(info.getName()) + "</td><td>" + info.getSubscribers()
+                        + "</td><td>" + info.isConnected() + "</td><td>" + info.isReadOnly()
+                        + "</td><td>" + info.isBufferingValues() + "</td><td>" + info.getUpdates()
+                        + "</td></tr>");
+            out.println("</table>");
+        }
+        out.println("</body></html>");
+    }
+
+    private static String escape(final String text) {
+        return text.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;");
+    }
+}
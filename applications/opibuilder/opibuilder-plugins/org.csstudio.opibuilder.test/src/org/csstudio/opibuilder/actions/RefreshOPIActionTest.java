@@ -0,0 +1,67 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.opibuilder.actions;
+
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import org.csstudio.opibuilder.model.AbstractWidgetModel;
+import org.csstudio.opibuilder.model.DisplayModel;
+import org.csstudio.opibuilder.properties.FilePathProperty;
+import org.csstudio.opibuilder.properties.WidgetPropertyCategory;
+import org.csstudio.swt.widgets.symbol.util.SymbolImageCache;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.Path;
+import org.eclipse.swt.graphics.ImageData;
+import org.eclipse.swt.graphics.PaletteData;
+import org.junit.Test;
+
+/**
+ * Test that refreshing an OPI removes its images from the {@link SymbolImageCache}
+ */
+@SuppressWarnings("nls")
+public class RefreshOPIActionTest {
+
+    /** Widget with an image file */
+    private static class SymbolModel extends AbstractWidgetModel {
+        @Override
+        protected void configureProperties() {
+            addProperty(new FilePathProperty("image_file", "Image File",
+                    WidgetPropertyCategory.Basic, new Path(""), new String[] { "png" }));
+        }
+
+        @Override
+        public String getTypeID() {
+            return "org.csstudio.opibuilder.test.symbol";
+        }
+    }
+
+    private static ImageData createImage() {
+        return new ImageData(4, 4, 24, new PaletteData(0xFF, 0xFF00, 0xFF0000));
+    }
+
+    @Test
+    public void testRefreshInvalidatesSymbolImages() {
+        final IPath valve = new Path("/project/symbols/valve.png");
+        final IPath pump = new Path("/project/symbols/pump.png");
+        final SymbolImageCache cache = SymbolImageCache.getInstance();
+        cache.put(SymbolImageCache.Key.decoded(valve), createImage());
+        cache.put(SymbolImageCache.Key.decoded(pump), createImage());
+
+        // Display uses the valve, with a path relative to the OPI
+        final DisplayModel display = new DisplayModel(new Path("/project/test.opi"));
+        final SymbolModel widget = new SymbolModel();
+        widget.setPropertyValue("image_file", new Path("symbols/valve.png"));
+        display.addChild(widget);
+
+        RefreshOPIAction.invalidateSymbolImages(display);
+        assertNull(cache.get(SymbolImageCache.Key.decoded(valve)));
+        assertNotNull(cache.get(SymbolImageCache.Key.decoded(pump)));
+        cache.invalidate(pump);
+    }
+}
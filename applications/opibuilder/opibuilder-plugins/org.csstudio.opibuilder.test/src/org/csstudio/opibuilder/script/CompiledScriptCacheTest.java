@@ -0,0 +1,73 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.opibuilder.script;
+
+import static org.junit.Assert.*;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.Path;
+import org.junit.Before;
+import org.junit.Test;
+
+public class CompiledScriptCacheTest {
+
+    private final CompiledScriptCache cache = CompiledScriptCache.getInstance();
+    private final AtomicInteger compiled = new AtomicInteger();
+
+    private String compile(final String source) {
+        compiled.incrementAndGet();
+        return "compiled " + source;
+    }
+
+    @Before
+    public void setup() {
+        cache.clear();
+    }
+
+    @Test
+    public void testSameContentIsCompiledOnce() throws Exception {
+        final long saved = cache.getCompilationsSaved();
+        for (int i = 0; i < 10; ++i)
+            assertEquals("compiled pv0 > 5",
+                    cache.getCompiledScript(CompiledScriptCache.RHINO, "pv0 > 5", null, String.class, this::compile));
+        assertEquals(1, compiled.get());
+        assertEquals(saved + 9, cache.getCompilationsSaved());
+    }
+
+    @Test
+    public void testEnginesAreSeparate() throws Exception {
+        cache.getCompiledScript(CompiledScriptCache.RHINO, "x = 1", null, String.class, this::compile);
+        cache.getCompiledScript(CompiledScriptCache.JYTHON, "x = 1", null, String.class, this::compile);
+        assertEquals(2, compiled.get());
+
+        final Object engine = new Object();
+        cache.getCompiledScript(engine, "x = 1", null, String.class, this::compile);
+        assertEquals(3, cache.size());
+        cache.invalidateEngine(engine);
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    public void testFileChange() throws Exception {
+        final IPath path = new Path("/demo/script.js");
+        cache.getCompiledScript(CompiledScriptCache.RHINO, "a()", path, String.class, this::compile);
+        cache.getCompiledScript(CompiledScriptCache.RHINO, "a()", path, String.class, this::compile);
+        assertEquals(1, compiled.get());
+
+        // Changed file replaces the previously compiled content
+        assertEquals("compiled b()",
+                cache.getCompiledScript(CompiledScriptCache.RHINO, "b()", path, String.class, this::compile));
+        assertEquals(2, compiled.get());
+        assertEquals(1, cache.size());
+
+        cache.invalidate(path);
+        assertEquals(0, cache.size());
+    }
+}
@@ -0,0 +1,147 @@
+/*******************************************************************************
+ * Copyright (c) 2010 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.opibuilder.script;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mozilla.javascript.Context;
+import org.mozilla.javascript.ImporterTopLevel;
+import org.mozilla.javascript.NativeJavaClass;
+import org.mozilla.javascript.Scriptable;
+import org.mozilla.javascript.ScriptableObject;
+
+/** Evaluate the same expressions in Rhino and with the {@link RuleExpression}.
+ *
+ *  <p>The script reads the variables like the script generated by {@link RuleData},
+ *  from methods that return the same types as <code>PVUtil</code>.
+ *  Every expression that the native engine accepts must give the same
+ *  'truthiness' and the same value as Rhino, others must be rejected.
+ */
+@SuppressWarnings("nls")
+public class RuleExpressionParityTest {
+
+    /** Stand-in for PVUtil, returning the same types */
+    public static class Values {
+        static double[] pv;
+        static Long[] pvInt;
+        static String[] pvStr;
+        static int[] pvSev;
+
+        public static double getDouble(final int i) {
+            return pv[i];
+        }
+
+        public static Long getLong(final int i) {
+            return pvInt[i];
+        }
+
+        public static String getString(final int i) {
+            return pvStr[i];
+        }
+
+        public static int getSeverity(final int i) {
+            return pvSev[i];
+        }
+    }
+
+    /** Stand-in for the widget */
+    public static class Widget {
+        public Object value;
+
+        public void setPropertyValue(final Object value) {
+            this.value = value;
+        }
+    }
+
+    private static final String[] EXPRESSIONS = {
+        "pv0 > 5", "pv0 <= 5", "pv0 == 7 && pvSev0 == 1", "pv0 === 7", "!(pv0 < 5) || pv1 > 1",
+        "pv1", "pv1 == pv1", "pv1 != pv1", "pv1 || pv0", "pv0 && pv1", "-pv0 + 2 * 3", "pv0 % 4", "pv0 / 0",
+        "pvStr0", "pvStr1", "!pvStr1", "pvStr0 == 'abc'", "'x' != pvStr0", "pvStr1 == ''", "pvStr1 || pvStr0",
+        "''", "'a' || 'b'", "'' || 'b'", "'b' > 'a'", "'abc' === 'abc'",
+        "pvInt0", "pvInt1", "!pvInt1", "pvInt1 || pvInt0", "pvInt0 && pvInt1", "pvInt0 == 3", "pvInt1 == 0",
+        "pvInt0 > 2", "pvInt0 < pvInt1", "pvInt0 - 1", "pvInt0 * pvInt1", "-pvInt0", "pvInt0 == pv0",
+        "pvSev0", "pvSev1", "pvSev0 == 1", "pvSev1 === 0", "!pvSev1",
+        "true", "false", "!true", "(pv0 > 5) == true", "pv0 > 5 != false", "5", "2.5", "1e3", "-3", "0 || 5",
+    };
+
+    /** Not handled natively because the result differs from the plain value, must be rejected */
+    private static final String[] UNSUPPORTED = {
+        "pvInt0 + 1", "pvStr0 + 1", "pvStr0 === 'abc'", "pvInt0 === 3", "pvInt0 !== 3", "pvInt0 == pvInt1",
+        "pvStr0 == pvStr1", "pvStr0 < 'b'", "pvInt0 || 5", "pv0 == 'abc'", "0 || 'x'", "pvStr0 && 'x'",
+    };
+
+    private static final Object[][] INPUTS = {
+        { new double[] { 7.0, Double.NaN }, new Long[] { 3L, 0L }, new String[] { "abc", "" }, new int[] { 1, 0 } },
+        { new double[] { 0.0, -2.5 }, new Long[] { 0L, -4L }, new String[] { "", "abc" }, new int[] { 0, 2 } },
+        { new double[] { 5.0, 5.0 }, new Long[] { 5L, 5L }, new String[] { "x", "x" }, new int[] { -1, 3 } },
+    };
+
+    private Context context;
+    private Scriptable scope;
+    private final Widget widget = new Widget();
+
+    @Before
+    public void setup() {
+        context = Context.enter();
+        scope = new ImporterTopLevel(context);
+        ScriptableObject.putProperty(scope, "widget", Context.javaToJS(widget, scope));
+        ScriptableObject.putProperty(scope, "Values", new NativeJavaClass(scope, Values.class));
+    }
+
+    @After
+    public void shutdown() {
+        Context.exit();
+    }
+
+    /** @return Value that the script passes to the widget */
+    private Object rhino(final String expression) {
+        final StringBuilder script = new StringBuilder();
+        for (int i = 0; i < 2; ++i) {
+            script.append("var pv" + i + " = Values.getDouble(" + i + ");\n");
+            script.append("var pvInt" + i + " = Values.getLong(" + i + ");\n");
+            script.append("var pvStr" + i + " = Values.getString(" + i + ");\n");
+            script.append("var pvSev" + i + " = Values.getSeverity(" + i + ");\n");
+        }
+        script.append("widget.setPropertyValue(" + expression + ");\n");
+        context.evaluateString(scope, script.toString(), "rule", 1, null);
+        return widget.value;
+    }
+
+    @Test
+    public void testParity() throws Exception {
+        for (String expression : EXPRESSIONS) {
+            final RuleExpression exp = new RuleExpression(expression, 2);
+            for (Object[] input : INPUTS) {
+                Values.pv = (double[]) input[0];
+                Values.pvInt = (Long[]) input[1];
+                Values.pvStr = (String[]) input[2];
+                Values.pvSev = (int[]) input[3];
+                final RuleExpression.Inputs inputs = new RuleExpression.Inputs(
+                        Values.pv, Values.pvInt, Values.pvStr, Values.pvSev);
+                assertEquals(expression, rhino("(" + expression + ") ? true : false"), exp.isTrue(inputs));
+                assertEquals(expression, rhino(expression), exp.getValue(inputs));
+            }
+        }
+    }
+
+    @Test
+    public void testUnsupported() {
+        for (String expression : UNSUPPORTED) {
+            try {
+                new RuleExpression(expression, 2);
+                fail(expression + " should not be handled natively");
+            } catch (Exception ex) {
+                // Expected
+            }
+        }
+    }
+}
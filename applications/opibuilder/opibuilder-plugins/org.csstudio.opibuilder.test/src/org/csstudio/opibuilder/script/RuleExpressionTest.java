@@ -0,0 +1,100 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.opibuilder.script;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class RuleExpressionTest {
+
+    private final RuleExpression.Inputs inputs = new RuleExpression.Inputs(
+            new double[] { 7.0, Double.NaN },
+            new Long[] { 3L, 4L },
+            new String[] { "abc", "" },
+            new int[] { 1, 0 });
+
+    private boolean isTrue(final String expression) throws Exception {
+        return new RuleExpression(expression, 2).isTrue(inputs);
+    }
+
+    private Object value(final String expression) throws Exception {
+        return new RuleExpression(expression, 2).getValue(inputs);
+    }
+
+    private void assertUnsupported(final String expression) {
+        try {
+            new RuleExpression(expression, 2);
+            fail("Expected script fallback for " + expression);
+        } catch (Exception ex) {
+            // Expected
+        }
+    }
+
+    @Test
+    public void testComparisons() throws Exception {
+        assertTrue(isTrue("pv0 > 5"));
+        assertFalse(isTrue("pv0<=5"));
+        assertTrue(isTrue("pv0 == 7 && pvSev0 == 1"));
+        assertTrue(isTrue("pv0 === 7"));
+        assertTrue(isTrue("!(pv0 < 5) || pv1 > 1"));
+        assertTrue(isTrue("pvStr0 == \"abc\""));
+        assertTrue(isTrue("'x' != pvStr0"));
+        assertTrue(isTrue("pvInt0 * pvInt1 == 12"));
+    }
+
+    @Test
+    public void testJavaScriptSemantics() throws Exception {
+        // NaN is neither true nor equal to itself
+        assertFalse(isTrue("pv1"));
+        assertFalse(isTrue("pv1 == pv1"));
+        assertTrue(isTrue("pv1 != pv1"));
+        // pvStr and pvInt are Java objects, 'true' even when empty or zero
+        assertTrue(isTrue("pvStr1"));
+        assertFalse(isTrue("!pvStr1"));
+        assertTrue(isTrue("pvInt1 || pvInt0"));
+        // .. while an empty string constant is false
+        assertFalse(isTrue("''"));
+        // && and || return an operand
+        assertEquals(7.0, value("pv1 || pv0"));
+        assertEquals(-1.0, value("-pv0 + 2 * 3"));
+        assertEquals(3.0, value("pv0 % 4"));
+        assertEquals(Long.valueOf(4), value("pvInt1"));
+        assertEquals("abc", value("pvStr0"));
+    }
+
+    @Test
+    public void testVariables() throws Exception {
+        final RuleExpression exp = new RuleExpression("pvSev1 == 0 && pvStr0 == 'abc'", 2);
+        assertFalse(exp.usesDouble());
+        assertFalse(exp.usesInt());
+        assertTrue(exp.usesString());
+        assertTrue(exp.usesSeverity());
+    }
+
+    @Test
+    public void testFallback() {
+        assertUnsupported("pv0 >= 7 ? 1 : 0");
+        assertUnsupported("pv0 = 5");
+        assertUnsupported("pv0 & 1");
+        assertUnsupported("Math.abs(pv0) > 1");
+        assertUnsupported("PVUtil.getDouble(pvs[0]) > 1");
+        assertUnsupported("pv2 > 1");
+        assertUnsupported("pvStr0 == pvStr1");
+        assertUnsupported("pvStr0 + 1");
+        assertUnsupported("pv0 == 'abc'");
+        assertUnsupported("0x10 > 1");
+        // Rhino concatenates the Long as text
+        assertUnsupported("pvInt0 + 1 > 3");
+        // Strict or identity comparison of Java objects
+        assertUnsupported("pvStr0 === 'abc'");
+        assertUnsupported("pvInt0 !== 3");
+        assertUnsupported("pvInt0 == pvInt1");
+        assertUnsupported("pvStr0 < 'b'");
+    }
+}
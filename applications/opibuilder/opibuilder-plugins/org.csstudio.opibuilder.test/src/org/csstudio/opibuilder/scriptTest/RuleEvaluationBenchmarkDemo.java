@@ -0,0 +1,88 @@
+/*******************************************************************************
+ * Copyright (c) 2010 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.opibuilder.scriptTest;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import org.csstudio.opibuilder.script.RuleExpression;
+import org.csstudio.simplepv.IPV;
+import org.diirt.vtype.ValueFactory;
+import org.mozilla.javascript.Context;
+import org.mozilla.javascript.ImporterTopLevel;
+import org.mozilla.javascript.Script;
+import org.mozilla.javascript.Scriptable;
+import org.mozilla.javascript.ScriptableObject;
+
+/** Compare rule evaluation in Rhino with the native {@link RuleExpression}.
+ *
+ *  <p>Both paths read the PV values through PVUtil,
+ *  evaluate the same alarm color style rule and pass the result to a widget stand-in.
+ */
+@SuppressWarnings("nls")
+public class RuleEvaluationBenchmarkDemo {
+
+    /** Stand-in for the widget controller */
+    public static class Widget {
+        public Object value;
+
+        public void setPropertyValue(final String prop_id, final Object value) {
+            this.value = value;
+        }
+    }
+
+    private static final int RUNS = 5;
+    private static final int EXECUTIONS = 200000;
+
+    private static final String CONDITION = "pv0 > 5 && pvSev0 == 0";
+
+    private static final String SCRIPT =
+        "importPackage(Packages.org.csstudio.opibuilder.scriptUtil); \n" +
+        "var pv0 = PVUtil.getDouble(pvs[0]);\n" +
+        "var pvSev0 = PVUtil.getSeverity(pvs[0]);\n" +
+        "if(" + CONDITION + ")\n" +
+        "\twidget.setPropertyValue(\"background_color\",\"OK\");\n" +
+        "else\n" +
+        "\twidget.setPropertyValue(\"background_color\",\"Major\");\n";
+
+    public static void main(final String[] args) throws Exception {
+        final IPV pv = mock(IPV.class);
+        when(pv.getValue()).thenReturn(ValueFactory.newVDouble(7.0, ValueFactory.alarmNone(),
+                ValueFactory.timeNow(), ValueFactory.displayNone()));
+        final IPV[] pvs = new IPV[] { pv };
+        final Widget widget = new Widget();
+
+        final Context context = Context.enter();
+        final Scriptable scope = new ImporterTopLevel(context);
+        ScriptableObject.putProperty(scope, "widget", Context.javaToJS(widget, scope));
+        ScriptableObject.putProperty(scope, "pvs", Context.javaToJS(pvs, scope));
+        final Script script = context.compileString(SCRIPT, "rule", 1, null);
+
+        final RuleExpression condition = new RuleExpression(CONDITION, pvs.length);
+
+        for (int run = 0; run < RUNS; ++run) {
+            long start = System.nanoTime();
+            for (int i = 0; i < EXECUTIONS; ++i)
+                script.exec(context, scope);
+            final double script_secs = (System.nanoTime() - start) / 1e9;
+
+            start = System.nanoTime();
+            for (int i = 0; i < EXECUTIONS; ++i) {
+                final RuleExpression.Inputs inputs = new RuleExpression.Inputs(pvs,
+                        condition.usesDouble(), condition.usesInt(),
+                        condition.usesString(), condition.usesSeverity());
+                widget.setPropertyValue("background_color", condition.isTrue(inputs) ? "OK" : "Major");
+            }
+            final double native_secs = (System.nanoTime() - start) / 1e9;
+
+            System.out.format("Run %d: Rhino %.0f rules/sec, native %.0f rules/sec, speedup %.1f\n",
+                    run, EXECUTIONS / script_secs, EXECUTIONS / native_secs, script_secs / native_secs);
+        }
+        Context.exit();
+    }
+}
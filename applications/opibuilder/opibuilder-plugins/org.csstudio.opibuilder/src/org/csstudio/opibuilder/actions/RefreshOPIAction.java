@@ -8,9 +8,16 @@
 package org.csstudio.opibuilder.actions;
 
 import org.csstudio.opibuilder.OPIBuilderPlugin;
+import org.csstudio.opibuilder.model.AbstractWidgetModel;
+import org.csstudio.opibuilder.model.DisplayModel;
+import org.csstudio.opibuilder.properties.AbstractWidgetProperty;
+import org.csstudio.opibuilder.properties.FilePathProperty;
 import org.csstudio.opibuilder.runmode.IOPIRuntime;
 import org.csstudio.opibuilder.util.ErrorHandlerUtil;
+import org.csstudio.opibuilder.util.ResourceUtil;
+import org.csstudio.swt.widgets.symbol.util.SymbolImageCache;
 import org.csstudio.ui.util.CustomMediaFactory;
+import org.eclipse.core.runtime.IPath;
 import org.eclipse.jface.action.Action;
 import org.eclipse.ui.IWorkbenchCommandConstants;
 import org.eclipse.ui.PartInitException;
@@ -38,6 +45,7 @@ public class RefreshOPIAction extends Action {
 
     @Override
     public void run() {
+        invalidateSymbolImages(opiRuntime.getDisplayModel());
         try {
             opiRuntime.setOPIInput(opiRuntime.getOPIInput());
         } catch (PartInitException e) {
@@ -45,5 +53,25 @@ public class RefreshOPIAction extends Action {
         }
     }
 
+    /**Remove the files used by the widgets of a display from the
+     * {@link SymbolImageCache}, so that modified images are loaded again.
+     * @param display the display model, may be null.
+     */
+    static void invalidateSymbolImages(DisplayModel display) {
+        if (display == null)
+            return;
+        SymbolImageCache cache = SymbolImageCache.getInstance();
+        for (AbstractWidgetModel widget : display.getAllDescendants()) {
+            for (String id : widget.getAllPropertyIDs()) {
+                AbstractWidgetProperty property = widget.getProperty(id);
+                if (!(property instanceof FilePathProperty))
+                    continue;
+                IPath path = (IPath) property.getPropertyValue();
+                if (path != null && !path.isEmpty())
+                    cache.invalidate(ResourceUtil.buildAbsolutePath(widget, path));
+            }
+        }
+    }
+
 
 }
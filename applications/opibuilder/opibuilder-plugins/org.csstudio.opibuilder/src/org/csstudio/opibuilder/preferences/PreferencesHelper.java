@@ -84,6 +84,7 @@ public class PreferencesHelper {
 
     public static final String STARTUP_OPI = "startup_opi"; //$NON-NLS-1$
     public static final String MOBILE_STARTUP_OPI = "mobile_startup_opi"; //$NON-NLS-1$
+    public static final String SHARE_PVS = "share_pvs"; //$NON-NLS-1$
 
     private static final char ROW_SEPARATOR = '|';
     private static final char ITEM_SEPARATOR = ',';
@@ -501,4 +502,12 @@ public class PreferencesHelper {
           final IPreferencesService service = Platform.getPreferencesService();
         return service.getBoolean(OPIBuilderPlugin.PLUGIN_ID, ABOUT_SHOW_LINKS, true, null);
     }
+
+    /**
+     * @return true if PVs should be shared between all WebOPI sessions.
+     */
+    public static boolean isSharePVs(){
+        final IPreferencesService service = Platform.getPreferencesService();
+        return service.getBoolean(OPIBuilderPlugin.PLUGIN_ID, SHARE_PVS, true, null);
+    }
 }
@@ -0,0 +1,228 @@
+/*******************************************************************************
+ * Copyright (c) 2010 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.opibuilder.script;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.core.runtime.IPath;
+
+/**Process-wide cache of compiled scripts, shared by all script stores.
+ *
+ * <p>Displays with many widgets typically use the same script file or
+ * generate identical rule scripts for each widget instance.
+ * Compiling each of them again is the dominant cost of opening such a display,
+ * so compiled scripts are cached by the hash of their source text
+ * and the engine that compiled them.
+ *
+ * <p>A script that was loaded from a file is also tracked by its path.
+ * When the file content changes, the entry compiled from the previous content
+ * is removed the next time the file is loaded.
+ */
+@SuppressWarnings("nls")
+public class CompiledScriptCache {
+
+    /** Engine key for Rhino scripts. Compiled Rhino scripts can be executed in any context. */
+    public static final String RHINO = "rhino";
+
+    /** Engine key for Jython code. */
+    public static final String JYTHON = "jython";
+
+    /** Maximum number of compiled scripts kept in the cache */
+    private static final int MAX_ENTRIES = 2000;
+
+    /**Compiler for a script engine
+     * @param <T> Type of the compiled script
+     */
+    @FunctionalInterface
+    public interface ScriptCompiler<T> {
+        /** @param source Script source text
+         *  @return Compiled script
+         *  @throws Exception on compilation error
+         */
+        T compile(String source) throws Exception;
+    }
+
+    /** Cache key: engine and hash of the script source */
+    private static class Key {
+        final Object engine;
+        final String hash;
+
+        Key(final Object engine, final String hash) {
+            this.engine = engine;
+            this.hash = hash;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * engine.hashCode() + hash.hashCode();
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (!(obj instanceof Key))
+                return false;
+            final Key other = (Key) obj;
+            return engine.equals(other.engine) && hash.equals(other.hash);
+        }
+    }
+
+    private static final CompiledScriptCache instance = new CompiledScriptCache();
+
+    /** Compiled scripts in access order, oldest entries are removed first */
+    private final Map<Key, Object> scripts = new LinkedHashMap<Key, Object>(16, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<Key, Object> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+
+    /** Last known key for each script file */
+    private final Map<String, Key> fileKeys = new HashMap<>();
+
+    private final AtomicLong compilations = new AtomicLong();
+
+    private final AtomicLong compilationsSaved = new AtomicLong();
+
+    private CompiledScriptCache() {
+    }
+
+    /** @return The process-wide cache */
+    public static CompiledScriptCache getInstance() {
+        return instance;
+    }
+
+    /**Get a compiled script, compiling it only if it is not already cached.
+     * @param engine Engine that the compiled script is valid for.
+     *        Either {@link #RHINO}, {@link #JYTHON}, or the engine instance itself
+     *        if its compiled scripts cannot be shared between engines.
+     * @param source Script source text
+     * @param path Path of the script file, <code>null</code> for rules and embedded scripts
+     * @param type Type of the compiled script
+     * @param compiler Compiler used on cache miss
+     * @return Compiled script
+     * @throws Exception on compilation error
+     */
+    public <T> T getCompiledScript(final Object engine, final String source, final IPath path,
+            final Class<T> type, final ScriptCompiler<T> compiler) throws Exception {
+        final Key key = new Key(engine, hash(source));
+        synchronized (this) {
+            if (path != null) {
+                final Key previous = fileKeys.put(engine + ":" + path.toString(), key);
+                if (previous != null && !previous.equals(key))
+                    scripts.remove(previous);
+            }
+            final Object script = scripts.get(key);
+            if (type.isInstance(script)) {
+                compilationsSaved.incrementAndGet();
+                return type.cast(script);
+            }
+        }
+        // Compile outside of the lock, other displays may be compiling as well.
+        // Identical scripts compiled concurrently simply replace each other.
+        final T script = compiler.compile(source);
+        compilations.incrementAndGet();
+        synchronized (this) {
+            scripts.put(key, script);
+        }
+        return script;
+    }
+
+    /**Remove the compiled script of a file
+     * @param path Path of the script file
+     */
+    public synchronized void invalidate(final IPath path) {
+        final String suffix = ":" + path.toString();
+        final Iterator<Map.Entry<String, Key>> iter = fileKeys.entrySet().iterator();
+        while (iter.hasNext()) {
+            final Map.Entry<String, Key> entry = iter.next();
+            if (entry.getKey().endsWith(suffix)) {
+                scripts.remove(entry.getValue());
+                iter.remove();
+            }
+        }
+    }
+
+    /**Remove all scripts compiled by an engine, for example when the engine is disposed.
+     * @param engine Engine
+     */
+    public synchronized void invalidateEngine(final Object engine) {
+        scripts.keySet().removeIf(key -> key.engine.equals(engine));
+        fileKeys.values().removeIf(key -> key.engine.equals(engine));
+    }
+
+    /** Remove all compiled scripts */
+    public synchronized void clear() {
+        scripts.clear();
+        fileKeys.clear();
+    }
+
+    /** @return Number of compiled scripts in the cache */
+    public synchronized int size() {
+        return scripts.size();
+    }
+
+    /** @return Number of scripts that had to be compiled */
+    public long getCompilations() {
+        return compilations.get();
+    }
+
+    /** @return Number of compilations that were avoided by using a cached script */
+    public long getCompilationsSaved() {
+        return compilationsSaved.get();
+    }
+
+    /**Read script text from a stream. The stream will be closed by this method.
+     * @param stream Stream with script text in the default encoding
+     * @return Script text
+     * @throws IOException on error
+     */
+    public static String readScript(final InputStream stream) throws IOException {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(stream))) {
+            final StringBuilder buf = new StringBuilder();
+            final char[] chars = new char[4096];
+            int len;
+            while ((len = reader.read(chars)) >= 0)
+                buf.append(chars, 0, len);
+            return buf.toString();
+        }
+    }
+
+    private static String hash(final String source) {
+        try {
+            final MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            final byte[] bytes = digest.digest(source.getBytes(StandardCharsets.UTF_8));
+            final StringBuilder buf = new StringBuilder(bytes.length * 2);
+            for (byte b : bytes)
+                buf.append(String.format("%02x", b & 0xFF));
+            return buf.toString();
+        } catch (NoSuchAlgorithmException ex) {
+            // Every Java platform provides SHA-256
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "CompiledScriptCache: " + scripts.size() + " scripts, " +
+                compilations.get() + " compilations, " +
+                compilationsSaved.get() + " compilations saved";
+    }
+}
@@ -1,8 +1,6 @@
 package org.csstudio.opibuilder.script;
 
-import java.io.BufferedReader;
 import java.io.InputStream;
-import java.io.InputStreamReader;
 
 import javax.script.Bindings;
 import javax.script.Compilable;
@@ -41,15 +39,18 @@ public class JavaScriptStore extends AbstractScriptStore {
 
     @Override
     protected void compileString(String string) throws Exception {
-        script = ((Compilable) engine).compile(string);
+        // Compiled scripts are bound to the engine that compiled them
+        script = CompiledScriptCache.getInstance().getCompiledScript(engine,
+                string, null, CompiledScript.class,
+                source -> ((Compilable) engine).compile(source));
     }
 
     @Override
     protected void compileInputStream(InputStream s) throws Exception {
-        try (BufferedReader reader = new BufferedReader(new InputStreamReader(s))) {
-            script = ((Compilable) engine).compile(reader);
-        }
-
+        final String text = CompiledScriptCache.readScript(s);
+        script = CompiledScriptCache.getInstance().getCompiledScript(engine,
+                text, getAbsoluteScriptPath(), CompiledScript.class,
+                source -> ((Compilable) engine).compile(source));
     }
 
     @Override
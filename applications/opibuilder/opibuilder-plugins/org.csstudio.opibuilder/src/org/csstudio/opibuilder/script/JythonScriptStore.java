@@ -8,7 +8,6 @@
 package org.csstudio.opibuilder.script;
 
 import java.io.InputStream;
-import java.io.InputStreamReader;
 
 import org.csstudio.opibuilder.editparts.AbstractBaseEditPart;
 import org.csstudio.opibuilder.util.ResourceUtil;
@@ -62,12 +61,15 @@ public class JythonScriptStore extends AbstractScriptStore{
 
     @Override
     protected void compileString(String string) throws Exception {
-        code = interp.compile(string);
+        code = CompiledScriptCache.getInstance().getCompiledScript(CompiledScriptCache.JYTHON,
+                string, null, PyCode.class, source -> interp.compile(source));
     }
 
     @Override
     protected void compileInputStream(InputStream s) throws Exception {
-        code = interp.compile(new InputStreamReader(s));
+        final String text = CompiledScriptCache.readScript(s);
+        code = CompiledScriptCache.getInstance().getCompiledScript(CompiledScriptCache.JYTHON,
+                text, getAbsoluteScriptPath(), PyCode.class, source -> interp.compile(source));
     }
 
     @Override
@@ -0,0 +1,145 @@
+/*******************************************************************************
+ * Copyright (c) 2010 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.opibuilder.script;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+
+import org.csstudio.opibuilder.OPIBuilderPlugin;
+import org.csstudio.opibuilder.properties.AbstractWidgetProperty;
+import org.csstudio.opibuilder.util.OPIColor;
+import org.csstudio.opibuilder.util.OPIFont;
+import org.csstudio.simplepv.IPV;
+import org.eclipse.core.runtime.IPath;
+
+/**A rule that is evaluated in Java.
+ *
+ *  <p>Equivalent to the script generated by {@link RuleData#generateScript()}:
+ *  The first expression that is 'true' determines the property value,
+ *  with the current property value as the default.
+ *  Rules with expressions that {@link RuleExpression} cannot handle
+ *  must be executed as a script.
+ *
+ *  <p>The parsed expressions are shared through the {@link CompiledScriptCache},
+ *  while each widget's rule holds its own property values.
+ */
+@SuppressWarnings("nls")
+public class NativeRule {
+
+    /** Engine key for {@link RuleExpression}s in the {@link CompiledScriptCache} */
+    private static final String NATIVE = "native";
+
+    /** Condition of an expression and the resulting property value */
+    private static class Case {
+        final RuleExpression condition;
+        /** Output expression, or <code>null</code> to use <code>value</code> */
+        final RuleExpression output;
+        final Object value;
+
+        Case(final RuleExpression condition, final RuleExpression output, final Object value) {
+            this.condition = condition;
+            this.output = output;
+            this.value = value;
+        }
+    }
+
+    private final String propId;
+
+    private final List<Case> cases = new ArrayList<>();
+
+    private final Object defaultValue;
+
+    private boolean dbl, ints, strs, sevs;
+
+    /**Compile a rule for native execution.
+     * @param rule Rule data
+     * @return {@link NativeRule} or <code>null</code> if the rule needs to be executed as a script
+     */
+    public static NativeRule compile(final RuleData rule) {
+        try {
+            return new NativeRule(rule);
+        } catch (Exception ex) {
+            OPIBuilderPlugin.getLogger().log(Level.FINE,
+                    "Rule " + rule.getName() + " will be executed as script: " + ex.getMessage());
+            return null;
+        }
+    }
+
+    /**Compile rule
+     * @param rule Rule data
+     * @throws Exception if the rule needs to be executed as a script
+     */
+    public NativeRule(final RuleData rule) throws Exception {
+        propId = rule.getPropId();
+        final AbstractWidgetProperty property = rule.getProperty();
+        if (property == null)
+            throw new Exception("Unknown property '" + propId + "'");
+        if (rule.getExpressionList().isEmpty())
+            throw new Exception("Rule has no expressions");
+        final int pv_count = rule.getPVList().size();
+        for (Expression exp : rule.getExpressionList()) {
+            final RuleExpression condition = track(parse(exp.getBooleanExpression(), pv_count));
+            if (rule.isOutputExpValue())
+                cases.add(new Case(condition, track(parse(exp.getValue().toString(), pv_count)), null));
+            else
+                cases.add(new Case(condition, null, checkValue(exp.getValue())));
+        }
+        // Like the script, use the property value at the time the rule was created as default
+        defaultValue = checkValue(property.getPropertyValue());
+    }
+
+    /** @return Id of the property set by the rule */
+    public String getPropId() {
+        return propId;
+    }
+
+    /** @param expression Expression text
+     *  @param pv_count Number of input PVs
+     *  @return Parsed expression, shared by all rules with the same expression
+     *  @throws Exception if the expression needs to be executed as a script
+     */
+    private static RuleExpression parse(final String expression, final int pv_count) throws Exception {
+        return CompiledScriptCache.getInstance().getCompiledScript(NATIVE,
+                pv_count + ":" + expression, null, RuleExpression.class,
+                source -> new RuleExpression(expression, pv_count));
+    }
+
+    private RuleExpression track(final RuleExpression exp) {
+        dbl |= exp.usesDouble();
+        ints |= exp.usesInt();
+        strs |= exp.usesString();
+        sevs |= exp.usesSeverity();
+        return exp;
+    }
+
+    /** The script writes constant values as script text, which is then converted back
+     *  into a property value. Only pass on values that are known to be immutable.
+     */
+    private static Object checkValue(final Object value) throws Exception {
+        if (value == null || value instanceof String || value instanceof Boolean ||
+            value instanceof Number || value instanceof OPIColor || value instanceof OPIFont ||
+            value instanceof IPath)
+            return value;
+        throw new Exception("Unsupported rule value type " + value.getClass().getName());
+    }
+
+    /**Evaluate the rule
+     * @param pvs Input PVs
+     * @return Value for the property
+     * @throws Exception on error, for example when PVs have no value
+     */
+    public Object evaluate(final IPV[] pvs) throws Exception {
+        final RuleExpression.Inputs inputs = new RuleExpression.Inputs(pvs, dbl, ints, strs, sevs);
+        for (Case c : cases) {
+            if (c.condition.isTrue(inputs))
+                return c.output == null ? c.value : c.output.getValue(inputs);
+        }
+        return defaultValue;
+    }
+}
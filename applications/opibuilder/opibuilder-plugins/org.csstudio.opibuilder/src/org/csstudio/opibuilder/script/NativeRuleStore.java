@@ -0,0 +1,57 @@
+/*******************************************************************************
+ * Copyright (c) 2010 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.opibuilder.script;
+
+import java.io.InputStream;
+
+import org.csstudio.opibuilder.editparts.AbstractBaseEditPart;
+import org.csstudio.simplepv.IPV;
+
+/**
+ * This is the implementation of {@link AbstractScriptStore} for rules that are
+ * evaluated in Java, see {@link NativeRule}.
+ * <p>
+ * The {@link NativeRule} is usually compiled by the {@link ScriptStoreFactory}
+ * when it decides to use this store, and passed on in the {@link RuleScriptData}.
+ */
+public class NativeRuleStore extends AbstractScriptStore {
+
+    private NativeRule rule;
+
+    public NativeRuleStore(final RuleScriptData scriptData, final AbstractBaseEditPart editpart,
+            final IPV[] pvArray) throws Exception {
+        super(scriptData, editpart, pvArray);
+    }
+
+    @Override
+    protected void initScriptEngine() throws Exception {
+        // Nothing to initialize
+    }
+
+    /** The rule is compiled from its {@link RuleData}, the generated script text is not used */
+    @Override
+    protected void compileString(final String string) throws Exception {
+        final RuleScriptData scriptData = (RuleScriptData) getScriptData();
+        rule = scriptData.getNativeRule();
+        if (rule == null)
+            rule = NativeRule.compile(scriptData.getRuleData());
+        if (rule == null)
+            throw new Exception("Cannot execute rule natively"); //$NON-NLS-1$
+    }
+
+    /** Rules are always compiled from their text, but handle a stream the same way */
+    @Override
+    protected void compileInputStream(final InputStream s) throws Exception {
+        compileString(CompiledScriptCache.readScript(s));
+    }
+
+    @Override
+    protected void execScript(final IPV triggerPV) throws Exception {
+        getEditPart().setPropertyValue(rule.getPropId(), rule.evaluate(getPvArray()));
+    }
+}
@@ -7,10 +7,7 @@
  ******************************************************************************/
 package org.csstudio.opibuilder.script;
 
-import java.io.BufferedReader;
-import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
 
 import org.csstudio.opibuilder.editparts.AbstractBaseEditPart;
 import org.csstudio.simplepv.IPV;
@@ -62,15 +59,17 @@ public class RhinoScriptStore extends AbstractScriptStore{
 
     @Override
     protected void compileString(String string) throws Exception{
-        script = scriptContext.compileString(string, "rule", 1, null);
+        script = CompiledScriptCache.getInstance().getCompiledScript(CompiledScriptCache.RHINO,
+                string, null, Script.class,
+                source -> scriptContext.compileString(source, "rule", 1, null)); //$NON-NLS-1$
     }
 
     @Override
-    protected void compileInputStream(InputStream s) throws IOException {
-        BufferedReader reader = new BufferedReader(new InputStreamReader(s));
-        script = scriptContext.compileReader(reader, "script", 1, null); //$NON-NLS-1$
-        s.close();
-        reader.close();
+    protected void compileInputStream(InputStream s) throws Exception {
+        final String text = CompiledScriptCache.readScript(s);
+        script = CompiledScriptCache.getInstance().getCompiledScript(CompiledScriptCache.RHINO,
+                text, getAbsoluteScriptPath(), Script.class,
+                source -> scriptContext.compileString(source, "script", 1, null)); //$NON-NLS-1$
     }
 
     @Override
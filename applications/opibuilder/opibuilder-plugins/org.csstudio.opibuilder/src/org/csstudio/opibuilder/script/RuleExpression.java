@@ -0,0 +1,748 @@
+/*******************************************************************************
+ * Copyright (c) 2010 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.opibuilder.script;
+
+import org.csstudio.opibuilder.scriptUtil.PVUtil;
+import org.csstudio.simplepv.IPV;
+
+/**Rule expression that is evaluated in Java instead of a script engine.
+ *
+ *  <p>Supports the subset of JavaScript that is typically used in rules:
+ *  <ul>
+ *  <li>Numeric, string and boolean constants
+ *  <li>The rule variables <code>pv0</code>, <code>pvInt0</code>,
+ *      <code>pvStr0</code> and <code>pvSev0</code>
+ *  <li>(sub-expression in braces), unary <code>-</code> and <code>!</code>
+ *  <li><code>*</code>, <code>/</code>, <code>%</code>
+ *  <li><code>+</code>, <code>-</code>
+ *  <li>comparisons <code>&lt;, &gt;, &lt;=, &gt;=, ==, !=, ===, !==</code>
+ *  <li>boolean logic <code>&amp;&amp;, ||</code>
+ *  </ul>
+ *  Like the {@link org.csstudio.apputil.formula.Formula}, the expression
+ *  is parsed once into a tree, but the tree is typed so that numbers,
+ *  strings and booleans follow the semantics of the generated rule script in Rhino.
+ *  <code>pvIntN</code> and <code>pvStrN</code> hold the <code>Long</code> and <code>String</code>
+ *  returned by PVUtil, which Rhino wraps as Java objects:
+ *  They are 'true' even when empty or zero, '+' concatenates them as text,
+ *  and '==' between two of them compares identity.
+ *  Anything else, including operations that JavaScript would resolve by
+ *  type conversion, results in a parse error so that the caller can
+ *  fall back to the script engine.
+ */
+@SuppressWarnings("nls")
+public class RuleExpression {
+
+    /** Type of a (sub-)expression */
+    enum Type {
+        NUMBER,
+        STRING,
+        BOOLEAN
+    }
+
+    /** Values of the rule's input PVs, read once per rule execution.
+     *  Only the variable kinds used by a rule are read,
+     *  the same way the generated script only declares the used variables.
+     */
+    public static class Inputs {
+        final double[] pv;
+        final Long[] pvInt;
+        final String[] pvStr;
+        final int[] pvSev;
+
+        /** @param pv Values for <code>pvN</code>, may be <code>null</code> if not used
+         *  @param pvInt Values for <code>pvIntN</code>, may be <code>null</code> if not used
+         *  @param pvStr Values for <code>pvStrN</code>, may be <code>null</code> if not used
+         *  @param pvSev Values for <code>pvSevN</code>, may be <code>null</code> if not used
+         */
+        Inputs(final double[] pv, final Long[] pvInt, final String[] pvStr, final int[] pvSev) {
+            this.pv = pv;
+            this.pvInt = pvInt;
+            this.pvStr = pvStr;
+            this.pvSev = pvSev;
+        }
+
+        /** @param pvs PVs of the rule
+         *  @param dbl Read <code>pvN</code>?
+         *  @param ints Read <code>pvIntN</code>?
+         *  @param strs Read <code>pvStrN</code>?
+         *  @param sevs Read <code>pvSevN</code>?
+         */
+        public Inputs(final IPV[] pvs, final boolean dbl, final boolean ints,
+                final boolean strs, final boolean sevs) {
+            final int n = pvs.length;
+            pv = dbl ? new double[n] : null;
+            pvInt = ints ? new Long[n] : null;
+            pvStr = strs ? new String[n] : null;
+            pvSev = sevs ? new int[n] : null;
+            for (int i = 0; i < n; ++i) {
+                if (dbl)
+                    pv[i] = PVUtil.getDouble(pvs[i]);
+                if (ints)
+                    pvInt[i] = PVUtil.getLong(pvs[i]);
+                if (strs)
+                    pvStr[i] = PVUtil.getString(pvs[i]);
+                if (sevs)
+                    pvSev[i] = PVUtil.getSeverity(pvs[i]);
+            }
+        }
+    }
+
+    /** Node of the expression tree */
+    private abstract static class Node {
+        final Type type;
+
+        /** Is the value a Java object wrapped by Rhino, not a JavaScript primitive? */
+        final boolean object;
+
+        Node(final Type type) {
+            this(type, false);
+        }
+
+        Node(final Type type, final boolean object) {
+            this.type = type;
+            this.object = object;
+        }
+
+        double number(final Inputs in) {
+            throw new IllegalStateException(type + " is not a number");
+        }
+
+        String string(final Inputs in) {
+            throw new IllegalStateException(type + " is not a string");
+        }
+
+        /** @return JavaScript 'truthiness' of a primitive value */
+        boolean bool(final Inputs in) {
+            if (type == Type.NUMBER) {
+                final double value = number(in);
+                return value != 0.0 && !Double.isNaN(value);
+            }
+            final String value = string(in);
+            return value != null && !value.isEmpty();
+        }
+
+        /** @return Value as passed from a script to Java */
+        Object value(final Inputs in) {
+            switch (type) {
+            case NUMBER:
+                return number(in);
+            case STRING:
+                return string(in);
+            default:
+                return bool(in);
+            }
+        }
+    }
+
+    private static class NumberConstant extends Node {
+        final double value;
+
+        NumberConstant(final double value) {
+            super(Type.NUMBER);
+            this.value = value;
+        }
+
+        @Override
+        double number(final Inputs in) {
+            return value;
+        }
+    }
+
+    private static class StringConstant extends Node {
+        final String value;
+
+        StringConstant(final String value) {
+            super(Type.STRING);
+            this.value = value;
+        }
+
+        @Override
+        String string(final Inputs in) {
+            return value;
+        }
+    }
+
+    private static class BooleanConstant extends Node {
+        final boolean value;
+
+        BooleanConstant(final boolean value) {
+            super(Type.BOOLEAN);
+            this.value = value;
+        }
+
+        @Override
+        boolean bool(final Inputs in) {
+            return value;
+        }
+    }
+
+    /** pvN */
+    private static class DoubleVariable extends Node {
+        final int index;
+
+        DoubleVariable(final int index) {
+            super(Type.NUMBER);
+            this.index = index;
+        }
+
+        @Override
+        double number(final Inputs in) {
+            return in.pv[index];
+        }
+    }
+
+    /** pvIntN, the <code>Long</code> returned by <code>PVUtil.getLong()</code> */
+    private static class LongVariable extends Node {
+        final int index;
+
+        LongVariable(final int index) {
+            super(Type.NUMBER, true);
+            this.index = index;
+        }
+
+        @Override
+        double number(final Inputs in) {
+            return in.pvInt[index].doubleValue();
+        }
+
+        /** Wrapped Java object is 'true', even for 0 */
+        @Override
+        boolean bool(final Inputs in) {
+            return true;
+        }
+
+        @Override
+        Object value(final Inputs in) {
+            return in.pvInt[index];
+        }
+    }
+
+    /** pvStrN, the <code>String</code> returned by <code>PVUtil.getString()</code> */
+    private static class StringVariable extends Node {
+        final int index;
+
+        StringVariable(final int index) {
+            super(Type.STRING, true);
+            this.index = index;
+        }
+
+        @Override
+        String string(final Inputs in) {
+            return in.pvStr[index];
+        }
+
+        /** Wrapped Java object is 'true', even for an empty string */
+        @Override
+        boolean bool(final Inputs in) {
+            return in.pvStr[index] != null;
+        }
+    }
+
+    /** pvSevN */
+    private static class SeverityVariable extends Node {
+        final int index;
+
+        SeverityVariable(final int index) {
+            super(Type.NUMBER);
+            this.index = index;
+        }
+
+        @Override
+        double number(final Inputs in) {
+            return in.pvSev[index];
+        }
+    }
+
+    private static class Negate extends Node {
+        final Node arg;
+
+        Negate(final Node arg) {
+            super(Type.NUMBER);
+            this.arg = arg;
+        }
+
+        @Override
+        double number(final Inputs in) {
+            return -arg.number(in);
+        }
+    }
+
+    private static class Not extends Node {
+        final Node arg;
+
+        Not(final Node arg) {
+            super(Type.BOOLEAN);
+            this.arg = arg;
+        }
+
+        @Override
+        boolean bool(final Inputs in) {
+            return !arg.bool(in);
+        }
+    }
+
+    private static class Arithmetic extends Node {
+        final char op;
+        final Node left, right;
+
+        Arithmetic(final char op, final Node left, final Node right) {
+            super(Type.NUMBER);
+            this.op = op;
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        double number(final Inputs in) {
+            final double a = left.number(in), b = right.number(in);
+            switch (op) {
+            case '+':
+                return a + b;
+            case '-':
+                return a - b;
+            case '*':
+                return a * b;
+            case '/':
+                return a / b;
+            default:
+                return a % b;
+            }
+        }
+    }
+
+    private static class Compare extends Node {
+        final String op;
+        final Node left, right;
+
+        Compare(final String op, final Node left, final Node right) {
+            super(Type.BOOLEAN);
+            this.op = op;
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        boolean bool(final Inputs in) {
+            final int cmp;
+            if (left.type == Type.NUMBER) {
+                final double a = left.number(in), b = right.number(in);
+                switch (op) {
+                case "<":
+                    return a < b;
+                case "<=":
+                    return a <= b;
+                case ">":
+                    return a > b;
+                case ">=":
+                    return a >= b;
+                case "==":
+                case "===":
+                    return a == b;
+                default:
+                    return a != b;
+                }
+            } else if (left.type == Type.BOOLEAN)
+                cmp = left.bool(in) == right.bool(in) ? 0 : 1;
+            else {
+                final String a = left.string(in), b = right.string(in);
+                // A null Java string only equals null, relational operators are not used with variables
+                if (a == null || b == null)
+                    cmp = a == b ? 0 : 1;
+                else
+                    cmp = a.compareTo(b);
+            }
+            switch (op) {
+            case "<":
+                return cmp < 0;
+            case "<=":
+                return cmp <= 0;
+            case ">":
+                return cmp > 0;
+            case ">=":
+                return cmp >= 0;
+            case "==":
+            case "===":
+                return cmp == 0;
+            default:
+                return cmp != 0;
+            }
+        }
+    }
+
+    /** &amp;&amp; and ||, which in JavaScript return one of their operands */
+    private static class Logic extends Node {
+        final boolean and;
+        final Node left, right;
+
+        Logic(final boolean and, final Node left, final Node right) {
+            super(left.type, left.object);
+            this.and = and;
+            this.left = left;
+            this.right = right;
+        }
+
+        private Node select(final Inputs in) {
+            return left.bool(in) == and ? right : left;
+        }
+
+        @Override
+        double number(final Inputs in) {
+            return select(in).number(in);
+        }
+
+        @Override
+        String string(final Inputs in) {
+            return select(in).string(in);
+        }
+
+        @Override
+        boolean bool(final Inputs in) {
+            return select(in).bool(in);
+        }
+
+        @Override
+        Object value(final Inputs in) {
+            return select(in).value(in);
+        }
+    }
+
+    /** The original expression that was parsed */
+    final private String expression;
+
+    final private Node tree;
+
+    private boolean usesDouble, usesInt, usesString, usesSeverity;
+
+    /** Parse expression
+     *  @param expression JavaScript expression of a rule
+     *  @param pv_count Number of input PVs
+     *  @throws Exception if the expression cannot be handled without a script engine
+     */
+    public RuleExpression(final String expression, final int pv_count) throws Exception {
+        this.expression = expression;
+        tree = new Parser(expression, pv_count).parse();
+    }
+
+    /** @return Original expression */
+    public String getExpression() {
+        return expression;
+    }
+
+    /** @return <code>true</code> if the expression uses <code>pvN</code> */
+    public boolean usesDouble() {
+        return usesDouble;
+    }
+
+    /** @return <code>true</code> if the expression uses <code>pvIntN</code> */
+    public boolean usesInt() {
+        return usesInt;
+    }
+
+    /** @return <code>true</code> if the expression uses <code>pvStrN</code> */
+    public boolean usesString() {
+        return usesString;
+    }
+
+    /** @return <code>true</code> if the expression uses <code>pvSevN</code> */
+    public boolean usesSeverity() {
+        return usesSeverity;
+    }
+
+    /** @param inputs Input values
+     *  @return <code>true</code> if the expression is 'true' in the JavaScript sense
+     */
+    public boolean isTrue(final Inputs inputs) {
+        return tree.bool(inputs);
+    }
+
+    /** @param inputs Input values
+     *  @return Value of the expression as it would be passed from a script to Java
+     */
+    public Object getValue(final Inputs inputs) {
+        return tree.value(inputs);
+    }
+
+    @Override
+    public String toString() {
+        return expression;
+    }
+
+    /** Recursive descent parser, following the JavaScript operator precedence */
+    private class Parser {
+        final String text;
+        final int pv_count;
+        int pos = 0;
+
+        Parser(final String text, final int pv_count) {
+            this.text = text;
+            this.pv_count = pv_count;
+        }
+
+        Node parse() throws Exception {
+            final Node node = parseOr();
+            skipSpace();
+            if (pos < text.length())
+                throw new Exception("Unsupported rule expression at '" + text.substring(pos) + "'");
+            return node;
+        }
+
+        private void skipSpace() {
+            while (pos < text.length() && Character.isWhitespace(text.charAt(pos)))
+                ++pos;
+        }
+
+        /** @return <code>true</code> if the next token is the operator, which is then consumed.
+         *  Callers must try longer operators first, for example "&lt;=" before "&lt;".
+         */
+        private boolean accept(final String op) {
+            skipSpace();
+            if (!text.startsWith(op, pos))
+                return false;
+            final int end = pos + op.length();
+            // Don't mistake '++' or '--' for two '+' or '-'
+            if ((op.equals("+") || op.equals("-"))
+                    && end < text.length() && text.charAt(end) == op.charAt(0))
+                return false;
+            pos = end;
+            return true;
+        }
+
+        private Node parseOr() throws Exception {
+            Node n = parseAnd();
+            while (accept("||"))
+                n = logic(false, n, parseAnd());
+            return n;
+        }
+
+        private Node parseAnd() throws Exception {
+            Node n = parseEquality();
+            while (accept("&&"))
+                n = logic(true, n, parseEquality());
+            return n;
+        }
+
+        private Node parseEquality() throws Exception {
+            Node n = parseRelational();
+            while (true) {
+                if (accept("==="))
+                    n = compare("===", n, parseRelational());
+                else if (accept("!=="))
+                    n = compare("!==", n, parseRelational());
+                else if (accept("=="))
+                    n = compare("==", n, parseRelational());
+                else if (accept("!="))
+                    n = compare("!=", n, parseRelational());
+                else
+                    return n;
+            }
+        }
+
+        private Node parseRelational() throws Exception {
+            Node n = parseAdditive();
+            while (true) {
+                if (accept("<="))
+                    n = compare("<=", n, parseAdditive());
+                else if (accept(">="))
+                    n = compare(">=", n, parseAdditive());
+                else if (accept("<"))
+                    n = compare("<", n, parseAdditive());
+                else if (accept(">"))
+                    n = compare(">", n, parseAdditive());
+                else
+                    return n;
+            }
+        }
+
+        private Node parseAdditive() throws Exception {
+            Node n = parseMultiplicative();
+            while (true) {
+                if (accept("+"))
+                    n = arithmetic('+', n, parseMultiplicative());
+                else if (accept("-"))
+                    n = arithmetic('-', n, parseMultiplicative());
+                else
+                    return n;
+            }
+        }
+
+        private Node parseMultiplicative() throws Exception {
+            Node n = parseUnary();
+            while (true) {
+                if (accept("*"))
+                    n = arithmetic('*', n, parseUnary());
+                else if (accept("/"))
+                    n = arithmetic('/', n, parseUnary());
+                else if (accept("%"))
+                    n = arithmetic('%', n, parseUnary());
+                else
+                    return n;
+            }
+        }
+
+        private Node parseUnary() throws Exception {
+            if (accept("!"))
+                return new Not(parseUnary());
+            if (accept("-")) {
+                final Node arg = parseUnary();
+                if (arg.type != Type.NUMBER)
+                    throw new Exception("Unsupported negation of " + arg.type);
+                return new Negate(arg);
+            }
+            return parsePrimary();
+        }
+
+        private Node parsePrimary() throws Exception {
+            skipSpace();
+            if (pos >= text.length())
+                throw new Exception("Unexpected end of rule expression");
+            final char c = text.charAt(pos);
+            if (c == '(') {
+                ++pos;
+                final Node n = parseOr();
+                if (!accept(")"))
+                    throw new Exception("Expected closing ')'");
+                return n;
+            }
+            if (c == '"' || c == '\'')
+                return parseString(c);
+            if (Character.isDigit(c) || c == '.')
+                return parseNumber();
+            if (Character.isJavaIdentifierStart(c))
+                return parseIdentifier();
+            throw new Exception("Unsupported rule expression at '" + text.substring(pos) + "'");
+        }
+
+        private Node parseNumber() throws Exception {
+            final int start = pos;
+            while (pos < text.length()) {
+                final char c = text.charAt(pos);
+                if (Character.isDigit(c) || c == '.')
+                    ++pos;
+                else if ((c == 'e' || c == 'E') && pos + 1 < text.length()) {
+                    ++pos;
+                    if (text.charAt(pos) == '+' || text.charAt(pos) == '-')
+                        ++pos;
+                } else
+                    break;
+            }
+            // Hex, octal or other notations are left to the script engine
+            if (pos < text.length() && Character.isJavaIdentifierPart(text.charAt(pos)))
+                throw new Exception("Unsupported number '" + text.substring(start) + "'");
+            return new NumberConstant(Double.parseDouble(text.substring(start, pos)));
+        }
+
+        private Node parseString(final char quote) throws Exception {
+            final StringBuilder buf = new StringBuilder();
+            ++pos;
+            while (pos < text.length()) {
+                char c = text.charAt(pos++);
+                if (c == quote)
+                    return new StringConstant(buf.toString());
+                if (c == '\\') {
+                    if (pos >= text.length())
+                        break;
+                    c = text.charAt(pos++);
+                    switch (c) {
+                    case 'n':
+                        c = '\n';
+                        break;
+                    case 't':
+                        c = '\t';
+                        break;
+                    case '\\':
+                    case '"':
+                    case '\'':
+                        break;
+                    default:
+                        throw new Exception("Unsupported escape sequence '\\" + c + "'");
+                    }
+                }
+                buf.append(c);
+            }
+            throw new Exception("Unterminated string in rule expression");
+        }
+
+        private Node parseIdentifier() throws Exception {
+            final int start = pos;
+            while (pos < text.length() && Character.isJavaIdentifierPart(text.charAt(pos)))
+                ++pos;
+            final String name = text.substring(start, pos);
+            if (name.equals("true"))
+                return new BooleanConstant(true);
+            if (name.equals("false"))
+                return new BooleanConstant(false);
+            if (name.startsWith("pvInt")) {
+                usesInt = true;
+                return new LongVariable(index(name, 5));
+            }
+            if (name.startsWith("pvStr")) {
+                usesString = true;
+                return new StringVariable(index(name, 5));
+            }
+            if (name.startsWith("pvSev")) {
+                usesSeverity = true;
+                return new SeverityVariable(index(name, 5));
+            }
+            if (name.startsWith("pv")) {
+                usesDouble = true;
+                return new DoubleVariable(index(name, 2));
+            }
+            throw new Exception("Unsupported identifier '" + name + "'");
+        }
+
+        private int index(final String name, final int prefix) throws Exception {
+            final String digits = name.substring(prefix);
+            int index = -1;
+            if (!digits.isEmpty() && digits.chars().allMatch(Character::isDigit)) {
+                try {
+                    index = Integer.parseInt(digits);
+                } catch (NumberFormatException ex) {
+                    index = -1;
+                }
+            }
+            if (index < 0 || index >= pv_count)
+                throw new Exception("Unknown rule variable '" + name + "'");
+            return index;
+        }
+
+        private Node arithmetic(final char op, final Node left, final Node right) throws Exception {
+            // JavaScript would concatenate strings or convert other types
+            if (left.type != Type.NUMBER || right.type != Type.NUMBER)
+                throw new Exception("Unsupported '" + op + "' for " + left.type + ", " + right.type);
+            // Rhino converts a wrapped Long to text for '+'
+            if (op == '+' && (left.object || right.object))
+                throw new Exception("Unsupported '+' for pvInt");
+            return new Arithmetic(op, left, right);
+        }
+
+        private Node compare(final String op, final Node left, final Node right) throws Exception {
+            if (left.type != right.type)
+                throw new Exception("Unsupported '" + op + "' for " + left.type + ", " + right.type);
+            final boolean equality = op.startsWith("=") || op.startsWith("!");
+            if (left.type == Type.BOOLEAN && !equality)
+                throw new Exception("Unsupported '" + op + "' for " + left.type);
+            if (left.object || right.object) {
+                // '===' never matches a wrapped Java object and a primitive
+                if (op.length() > 2)
+                    throw new Exception("Unsupported '" + op + "' for pvInt or pvStr");
+                // '==' for two wrapped Java objects checks identity
+                if (equality && left.object && right.object)
+                    throw new Exception("Unsupported '" + op + "' for two pvInt or pvStr");
+                if (!equality && left.type == Type.STRING)
+                    throw new Exception("Unsupported '" + op + "' for pvStr");
+            }
+            return new Compare(op, left, right);
+        }
+
+        private Node logic(final boolean and, final Node left, final Node right) throws Exception {
+            if (left.type != right.type || left.object != right.object)
+                throw new Exception("Unsupported '" + (and ? "&&" : "||") + "' for " + left.type + ", " + right.type);
+            return new Logic(and, left, right);
+        }
+    }
+}
@@ -17,6 +17,7 @@ public class RuleScriptData extends ScriptData {
 
     private String scriptString;
     private RuleData ruleData;
+    private NativeRule nativeRule;
 
 
     public RuleScriptData(RuleData ruleData) {
@@ -41,6 +42,20 @@ public class RuleScriptData extends ScriptData {
         this.scriptString = scriptString;
     }
 
+    /**
+     * @return the rule compiled for evaluation in Java, or <code>null</code>
+     */
+    public NativeRule getNativeRule() {
+        return nativeRule;
+    }
+
+    /**
+     * @param nativeRule the rule compiled for evaluation in Java
+     */
+    public void setNativeRule(NativeRule nativeRule) {
+        this.nativeRule = nativeRule;
+    }
+
     public void setPVList(List<PVTuple> pvList){
         this.pvList = pvList;
     }
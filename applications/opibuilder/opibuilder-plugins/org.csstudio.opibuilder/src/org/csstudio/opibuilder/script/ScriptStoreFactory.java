@@ -48,6 +48,9 @@ public class ScriptStoreFactory {
 
     final private static JavaScriptEngine defaultJsEngine;
 
+    /** Evaluate rules in Java where possible? */
+    final private static boolean nativeRules;
+
     private static boolean pythonInterpreterInitialized = false;
 
     private static Map<Display, Context> displayContextMap =
@@ -69,6 +72,8 @@ public class ScriptStoreFactory {
         {    // Create more obvious exception
             throw new RuntimeException("Invalid preference setting " + OPIBuilderPlugin.PLUGIN_ID + "/java_script_engine=" + option);
         }
+        nativeRules = service == null ||
+                service.getBoolean(OPIBuilderPlugin.PLUGIN_ID, "native_rules", true, null);
     }
 
     public static void initPythonInterpreter() throws Exception
@@ -143,14 +148,16 @@ public class ScriptStoreFactory {
      * @throws Exception
      */
     private static void initJdkJSEngine() throws Exception {
-        ScriptEngine engine = new ScriptEngineManager().getEngineByName("javascript");
+        final ScriptEngine engine = new ScriptEngineManager().getEngineByName("javascript");
         final Display display = Display.getCurrent();
         displayScriptEngineMap.put(display, engine);
         SingleSourceHelper.rapAddDisplayDisposeListener(display, new Runnable() {
 
             @Override
             public void run() {
-                displayContextMap.remove(display);
+                displayScriptEngineMap.remove(display);
+                // Scripts compiled by this engine cannot be used by any other engine
+                CompiledScriptCache.getInstance().invalidateEngine(engine);
             }
         });
     }
@@ -164,6 +171,14 @@ public class ScriptStoreFactory {
      */
     public static AbstractScriptStore getScriptStore(
             ScriptData scriptData, AbstractBaseEditPart editpart, IPV[] pvArray) throws Exception{
+        // Native rules follow the Rhino semantics of the generated script
+        if(nativeRules && defaultJsEngine == JavaScriptEngine.RHINO &&
+                scriptData instanceof RuleScriptData){
+            final RuleScriptData ruleScriptData = (RuleScriptData) scriptData;
+            ruleScriptData.setNativeRule(NativeRule.compile(ruleScriptData.getRuleData()));
+            if(ruleScriptData.getNativeRule() != null)
+                return new NativeRuleStore(ruleScriptData, editpart, pvArray);
+        }
         if(!scriptData.isEmbedded() &&
                 (scriptData.getPath() == null || scriptData.getPath().getFileExtension() == null)){
             if(scriptData instanceof RuleScriptData){
@@ -3,6 +3,7 @@ package org.csstudio.opibuilder.util;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 
+import org.csstudio.opibuilder.OPIBuilderPlugin;
 import org.csstudio.opibuilder.preferences.PreferencesHelper;
 import org.csstudio.simplepv.AbstractPVFactory;
 import org.csstudio.simplepv.ExceptionHandler;
@@ -69,8 +70,10 @@ public class BOYPVFactory{
             String pvConnectionLayer = PreferencesHelper.getPVConnectionLayer();
             if(pvConnectionLayer == null || pvConnectionLayer.isEmpty())
                 throw new Exception("PV connection layer is not configured in preference.");
-            AbstractPVFactory pvFactory = SimplePVLayer.getPVFactory
-                    (pvConnectionLayer);
+            // In RAP, share PVs between all sessions of the web server
+            AbstractPVFactory pvFactory = OPIBuilderPlugin.isRAP() && PreferencesHelper.isSharePVs()
+                    ? SimplePVLayer.getSharedPVFactory(pvConnectionLayer)
+                    : SimplePVLayer.getPVFactory(pvConnectionLayer);
             if(pvFactory == null)
                 throw new Exception("No such PVFactory extension available: " + pvConnectionLayer);
             return pvFactory.createPV(
@@ -0,0 +1,275 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.simplepv;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.diirt.vtype.VType;
+import org.diirt.vtype.ValueFactory;
+import org.junit.Test;
+
+public class SharedPVFactoryTest {
+
+    /** PV that is controlled by the test */
+    private static class TestPV implements IPV {
+        final String name;
+        final List<IPVListener> listeners = new CopyOnWriteArrayList<>();
+        volatile VType value;
+        volatile Object written;
+        volatile boolean started, connected;
+
+        TestPV(final String name) {
+            this.name = name;
+        }
+
+        void connect() {
+            connected = true;
+            for (IPVListener listener : listeners)
+                listener.connectionChanged(this);
+        }
+
+        void update(final double number) {
+            value = ValueFactory.newVDouble(number);
+            for (IPVListener listener : listeners)
+                listener.valueChanged(this);
+        }
+
+        void finishWrite(final boolean succeeded) {
+            for (IPVListener listener : listeners)
+                listener.writeFinished(this, succeeded);
+        }
+
+        @Override public void addListener(IPVListener listener) { listeners.add(listener); }
+        @Override public List<VType> getAllBufferedValues() { return value == null ? null : Collections.singletonList(value); }
+        @Override public String getName() { return name; }
+        @Override public VType getValue() { return value; }
+        @Override public boolean isBufferingValues() { return false; }
+        @Override public boolean isConnected() { return connected; }
+        @Override public boolean isPaused() { return false; }
+        @Override public boolean isStarted() { return started; }
+        @Override public boolean isWriteAllowed() { return connected; }
+        @Override public void removeListener(IPVListener listener) { listeners.remove(listener); }
+        @Override public void setPaused(boolean paused) { }
+        @Override public void setValue(Object value) throws Exception { }
+        @Override public boolean setValue(Object value, int timeout) throws Exception {
+            assertTrue("Timed write to a PV that is not started", started);
+            written = value;
+            return true;
+        }
+        @Override public void start() throws Exception { started = true; }
+        @Override public void stop() { started = false; }
+    }
+
+    private static class TestPVFactory extends AbstractPVFactory {
+        final List<TestPV> created = new ArrayList<>();
+
+        @Override
+        public IPV createPV(String name, boolean readOnly, long minUpdatePeriodInMs, boolean bufferAllValues,
+                Executor notificationThread, ExceptionHandler exceptionHandler) throws Exception {
+            final TestPV pv = new TestPV(name);
+            created.add(pv);
+            return pv;
+        }
+    }
+
+    private static class CountingListener extends IPVListener.Stub {
+        final AtomicInteger connections = new AtomicInteger(), values = new AtomicInteger();
+
+        @Override
+        public void connectionChanged(IPV pv) {
+            connections.incrementAndGet();
+        }
+
+        @Override
+        public void valueChanged(IPV pv) {
+            values.incrementAndGet();
+        }
+    }
+
+    private static final Executor DIRECT = Runnable::run;
+
+    private static void waitFor(final AtomicInteger counter, final int expected) throws Exception {
+        final long end = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(5);
+        while (counter.get() < expected && System.currentTimeMillis() < end)
+            Thread.sleep(10);
+        assertEquals(expected, counter.get());
+    }
+
+    @Test
+    public void testSharedSubscription() throws Exception {
+        final TestPVFactory delegate = new TestPVFactory();
+        final SharedPVFactory factory = new SharedPVFactory(delegate);
+
+        final IPV a = factory.createPV("test", true, 10, false, DIRECT, null);
+        final IPV b = factory.createPV("test", true, 10, false, DIRECT, null);
+        final CountingListener la = new CountingListener(), lb = new CountingListener();
+        a.addListener(la);
+        b.addListener(lb);
+        a.start();
+        b.start();
+
+        assertEquals(1, delegate.created.size());
+        final TestPV shared = delegate.created.get(0);
+        assertTrue(shared.isStarted());
+        assertEquals(1, factory.getSubscriptions().size());
+        assertEquals(2, factory.getSubscriptions().get(0).getSubscribers());
+
+        shared.connect();
+        shared.update(42.0);
+        waitFor(la.connections, 1);
+        waitFor(lb.connections, 1);
+        waitFor(la.values, 1);
+        waitFor(lb.values, 1);
+        assertSame(shared.getValue(), a.getValue());
+        assertSame(shared.getValue(), b.getValue());
+
+        a.stop();
+        assertTrue(shared.isStarted());
+        b.stop();
+        assertFalse(shared.isStarted());
+        assertEquals(0, factory.getSubscriptions().size());
+    }
+
+    @Test
+    public void testCoalescing() throws Exception {
+        final TestPVFactory delegate = new TestPVFactory();
+        final SharedPVFactory factory = new SharedPVFactory(delegate);
+
+        final IPV fast = factory.createPV("test", true, 0, false, DIRECT, null);
+        final IPV slow = factory.createPV("test", true, 500, false, DIRECT, null);
+        final CountingListener lfast = new CountingListener(), lslow = new CountingListener();
+        fast.addListener(lfast);
+        slow.addListener(lslow);
+        fast.start();
+        slow.start();
+
+        final TestPV shared = delegate.created.get(0);
+        shared.connect();
+        shared.update(1.0);
+        waitFor(lslow.values, 1);
+        for (int i = 2; i <= 10; ++i) {
+            shared.update(i);
+            Thread.sleep(10);
+        }
+        // Slow subscriber receives the most recent value after its update period
+        waitFor(lslow.values, 2);
+        assertEquals(10.0, ((org.diirt.vtype.VDouble) slow.getValue()).getValue(), 0.0);
+        assertTrue(lfast.values.get() > lslow.values.get());
+
+        fast.stop();
+        slow.stop();
+    }
+
+    @Test
+    public void testLateSubscriber() throws Exception {
+        final TestPVFactory delegate = new TestPVFactory();
+        final SharedPVFactory factory = new SharedPVFactory(delegate);
+
+        final IPV a = factory.createPV("test", true, 0, false, DIRECT, null);
+        a.start();
+        final TestPV shared = delegate.created.get(0);
+        shared.connect();
+        shared.update(42.0);
+
+        // Subscriber that starts later gets the current state right away
+        final IPV b = factory.createPV("test", true, 0, false, DIRECT, null);
+        final CountingListener lb = new CountingListener();
+        b.addListener(lb);
+        b.start();
+        assertTrue(b.isConnected());
+        waitFor(lb.connections, 1);
+        waitFor(lb.values, 1);
+        assertSame(shared.getValue(), b.getValue());
+
+        a.stop();
+        b.stop();
+    }
+
+    @Test
+    public void testTimedWrite() throws Exception {
+        final TestPVFactory delegate = new TestPVFactory();
+        final SharedPVFactory factory = new SharedPVFactory(delegate);
+
+        // Write without starting the PV
+        final IPV pv = factory.createPV("test", false, 10, false, DIRECT, null);
+        assertTrue(pv.setValue(3.14, 100));
+        assertEquals(1, delegate.created.size());
+        final TestPV shared = delegate.created.get(0);
+        assertEquals(3.14, shared.written);
+        assertFalse(shared.isStarted());
+        assertEquals(0, factory.getSubscriptions().size());
+
+        // Started PV writes through its shared PV
+        pv.start();
+        assertTrue(pv.setValue(42, 100));
+        assertEquals(2, delegate.created.size());
+        assertEquals(42, delegate.created.get(1).written);
+        pv.stop();
+
+        final IPV readOnly = factory.createPV("test", true, 10, false, DIRECT, null);
+        try {
+            readOnly.setValue(1, 100);
+            fail("Wrote to read-only PV");
+        } catch (Exception ex) {
+            assertTrue(ex.getMessage().contains("read only"));
+        }
+    }
+
+    @Test
+    public void testWriterStopsBeforeWriteFinished() throws Exception {
+        final TestPVFactory delegate = new TestPVFactory();
+        final SharedPVFactory factory = new SharedPVFactory(delegate);
+
+        final IPV a = factory.createPV("test", false, 10, false, DIRECT, null);
+        final IPV b = factory.createPV("test", false, 10, false, DIRECT, null);
+        final List<Boolean> finished_a = new CopyOnWriteArrayList<>(), finished_b = new CopyOnWriteArrayList<>();
+        a.addListener(new IPVListener.Stub() {
+            @Override
+            public void writeFinished(IPV pv, boolean isWriteSucceeded) {
+                finished_a.add(isWriteSucceeded);
+            }
+        });
+        b.addListener(new IPVListener.Stub() {
+            @Override
+            public void writeFinished(IPV pv, boolean isWriteSucceeded) {
+                finished_b.add(isWriteSucceeded);
+            }
+        });
+        a.start();
+        b.start();
+        final TestPV shared = delegate.created.get(0);
+
+        // 'a' stops before its write finishes
+        a.setValue(1);
+        b.setValue(2);
+        a.stop();
+        final SharedPVFactory.Subscription subscription = ((SharedPV) b).getSubscription();
+        assertEquals(2, subscription.writers.size());
+        assertNull(subscription.writers.peek().get());
+
+        // Result of the write by 'a' is dropped, 'b' receives the result of its own write
+        shared.finishWrite(false);
+        shared.finishWrite(true);
+        assertEquals(Collections.emptyList(), finished_a);
+        assertEquals(Collections.singletonList(true), finished_b);
+        assertTrue(subscription.writers.isEmpty());
+
+        // Stopping the last subscriber removes all pending writes
+        b.setValue(3);
+        b.stop();
+        assertTrue(subscription.writers.isEmpty());
+    }
+}
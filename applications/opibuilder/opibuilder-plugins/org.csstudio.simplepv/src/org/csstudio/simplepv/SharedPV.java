@@ -0,0 +1,287 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.simplepv;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.diirt.vtype.VType;
+
+/**A PV created by the {@link SharedPVFactory}. It subscribes to a shared PV
+ * when started, and notifies its listeners about updates of the shared PV
+ * at most once per minimum update period.
+ */
+class SharedPV implements IPV {
+
+    private final SharedPVFactory factory;
+    private final String name;
+    private final boolean readOnly;
+    private final long minUpdatePeriod;
+    private final boolean bufferAllValues;
+    private final Executor notificationThread;
+    private final ExceptionHandler exceptionHandler;
+    private final List<IPVListener> listeners = new CopyOnWriteArrayList<>();
+
+    private volatile SharedPVFactory.Subscription subscription;
+    private volatile boolean paused = false;
+
+    /** Values delivered to the listeners in the last update */
+    private volatile VType value;
+    private volatile List<VType> allValues;
+
+    /** Values received from the shared PV since the last update, guarded by 'this' */
+    private VType latestValue;
+    private final List<VType> receivedValues = new ArrayList<>();
+    private boolean updatePending = false;
+    private long lastUpdate = 0;
+
+    SharedPV(final SharedPVFactory factory, final String name, final boolean readOnly,
+            final long minUpdatePeriod, final boolean bufferAllValues,
+            final Executor notificationThread, final ExceptionHandler exceptionHandler) {
+        this.factory = factory;
+        this.name = name;
+        this.readOnly = readOnly;
+        this.minUpdatePeriod = minUpdatePeriod;
+        this.bufferAllValues = bufferAllValues;
+        this.notificationThread = notificationThread;
+        this.exceptionHandler = exceptionHandler;
+    }
+
+    boolean isReadOnly() {
+        return readOnly;
+    }
+
+    long getMinUpdatePeriod() {
+        return minUpdatePeriod;
+    }
+
+    @Override
+    public void addListener(final IPVListener listener) {
+        listeners.add(listener);
+        // Allow listeners added later to get the current state
+        if (isConnected() && !paused) {
+            notificationThread.execute(() -> {
+                listener.connectionChanged(this);
+                if (value != null)
+                    listener.valueChanged(this);
+            });
+        }
+    }
+
+    @Override
+    public void removeListener(final IPVListener listener) {
+        listeners.remove(listener);
+    }
+
+    @Override
+    public List<VType> getAllBufferedValues() {
+        return allValues;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public VType getValue() {
+        return value;
+    }
+
+    @Override
+    public boolean isBufferingValues() {
+        return bufferAllValues;
+    }
+
+    @Override
+    public boolean isConnected() {
+        final SharedPVFactory.Subscription s = subscription;
+        return s != null && s.pv.isConnected();
+    }
+
+    @Override
+    public boolean isPaused() {
+        return subscription != null && paused;
+    }
+
+    @Override
+    public boolean isStarted() {
+        return subscription != null;
+    }
+
+    @Override
+    public boolean isWriteAllowed() {
+        final SharedPVFactory.Subscription s = subscription;
+        return !readOnly && s != null && s.pv.isWriteAllowed();
+    }
+
+    @Override
+    public void setPaused(final boolean paused) {
+        if (this.paused == paused)
+            return;
+        this.paused = paused;
+        if (!paused)
+            scheduleUpdate();
+    }
+
+    @Override
+    public void setValue(final Object value) throws Exception {
+        final SharedPVFactory.Subscription s = subscription;
+        if (s == null)
+            throw new Exception("PV " + name + " is not started."); //$NON-NLS-1$ //$NON-NLS-2$
+        if (readOnly)
+            throw new Exception("PV " + name + " is read only."); //$NON-NLS-1$ //$NON-NLS-2$
+        s.write(this, value);
+    }
+
+    @Override
+    public boolean setValue(final Object value, final int timeout) throws Exception {
+        if (readOnly)
+            throw new Exception("PV " + name + " is read only."); //$NON-NLS-1$ //$NON-NLS-2$
+        final SharedPVFactory.Subscription s = subscription;
+        if (s != null)
+            return s.pv.setValue(value, timeout);
+        // Not started: Subscribe for the duration of the write.
+        // The shared PV handles the connection timeout.
+        final SharedPV writer = new SharedPV(factory, name, false, minUpdatePeriod, false,
+                Runnable::run, exceptionHandler);
+        writer.start();
+        try {
+            return writer.subscription.pv.setValue(value, timeout);
+        } finally {
+            writer.stop();
+        }
+    }
+
+    @Override
+    public synchronized void start() throws Exception {
+        if (subscription != null)
+            throw new IllegalStateException("PV " + name + " has already been started."); //$NON-NLS-1$ //$NON-NLS-2$
+        factory.subscribe(this);
+    }
+
+    /**@return the shared PV, or null if not started.
+     */
+    SharedPVFactory.Subscription getSubscription() {
+        return subscription;
+    }
+
+    /**Called by the factory before events of the shared PV can reach this PV.
+     * @param subscription the shared PV, or null if it could not be started.
+     */
+    void subscribed(final SharedPVFactory.Subscription subscription) {
+        this.subscription = subscription;
+    }
+
+    @Override
+    public synchronized void stop() {
+        final SharedPVFactory.Subscription s = subscription;
+        if (s == null) {
+            Logger.getLogger(SimplePVPlugin.PLUGIN_ID).log(Level.WARNING,
+                    "PV " + name + " has already been stopped or was not started yet."); //$NON-NLS-1$ //$NON-NLS-2$
+            return;
+        }
+        subscription = null;
+        factory.unsubscribe(s, this);
+        latestValue = null;
+        receivedValues.clear();
+        value = null;
+        allValues = null;
+    }
+
+    // Events from the shared PV, called on the fan-out thread
+
+    void update(final VType newValue, final List<VType> newValues) {
+        synchronized (this) {
+            latestValue = newValue;
+            if (bufferAllValues && !paused) {
+                if (newValues != null)
+                    receivedValues.addAll(newValues);
+                else if (newValue != null)
+                    receivedValues.add(newValue);
+            }
+        }
+        scheduleUpdate();
+    }
+
+    void connectionChanged() {
+        notificationThread.execute(() -> {
+            if (subscription == null)
+                return;
+            for (IPVListener listener : listeners)
+                listener.connectionChanged(this);
+        });
+    }
+
+    void exceptionOccurred(final Exception exception) {
+        if (exceptionHandler != null) {
+            exceptionHandler.handleException(exception);
+            return;
+        }
+        notificationThread.execute(() -> {
+            for (IPVListener listener : listeners)
+                listener.exceptionOccurred(this, exception);
+        });
+    }
+
+    void writeFinished(final boolean isWriteSucceeded) {
+        notificationThread.execute(() -> {
+            for (IPVListener listener : listeners)
+                listener.writeFinished(this, isWriteSucceeded);
+        });
+    }
+
+    void writePermissionChanged() {
+        notificationThread.execute(() -> {
+            for (IPVListener listener : listeners)
+                listener.writePermissionChanged(this);
+        });
+    }
+
+    /**Notify listeners about received values, but not faster than the minimum update period.*/
+    private void scheduleUpdate() {
+        final long delay;
+        synchronized (this) {
+            if (updatePending || paused || latestValue == null)
+                return;
+            updatePending = true;
+            delay = Math.max(0, lastUpdate + minUpdatePeriod - System.currentTimeMillis());
+        }
+        SharedPVFactory.TIMER.schedule(() -> notificationThread.execute(this::fireValueChanged),
+                delay, TimeUnit.MILLISECONDS);
+    }
+
+    private void fireValueChanged() {
+        synchronized (this) {
+            updatePending = false;
+            if (subscription == null || paused || latestValue == null)
+                return;
+            lastUpdate = System.currentTimeMillis();
+            value = latestValue;
+            if (bufferAllValues) {
+                allValues = new ArrayList<>(receivedValues);
+                receivedValues.clear();
+            } else
+                allValues = Collections.singletonList(latestValue);
+            latestValue = null;
+        }
+        for (IPVListener listener : listeners)
+            listener.valueChanged(this);
+    }
+
+    @Override
+    public String toString() {
+        return getName();
+    }
+}
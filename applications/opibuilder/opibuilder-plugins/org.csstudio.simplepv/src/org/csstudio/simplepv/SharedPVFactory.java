@@ -0,0 +1,263 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.simplepv;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.diirt.vtype.VType;
+
+/**A PV factory that shares one PV of another factory between all clients
+ * that use the same PV, for example all sessions of a web server.
+ *
+ * <p>The PVs created by this factory subscribe to a shared PV when they are started.
+ * PVs with the same name share a PV if they agree in being read only and buffering
+ * all values. The shared PV is created with the settings of the first subscriber and
+ * stopped when the last subscriber stops. Each subscriber receives the updates of
+ * the shared PV coalesced to its own minimum update period, on its own notification thread.
+ * Since the minimum update period of the shared PV is that of the first subscriber,
+ * later subscribers with a shorter period do not receive updates faster than that.
+ */
+public class SharedPVFactory extends AbstractPVFactory {
+
+    /**Status of a shared PV.*/
+    public static class SubscriptionInfo {
+        private final String name;
+        private final boolean readOnly, bufferAllValues, connected;
+        private final int subscribers;
+        private final long updates;
+
+        SubscriptionInfo(final Subscription subscription) {
+            name = subscription.pv.getName();
+            readOnly = subscription.readOnly;
+            bufferAllValues = subscription.bufferAllValues;
+            connected = subscription.pv.isConnected();
+            subscribers = subscription.subscribers.size();
+            updates = subscription.updates.get();
+        }
+
+        /** @return name of the PV. */
+        public String getName() {
+            return name;
+        }
+
+        /** @return true if the shared PV is read only. */
+        public boolean isReadOnly() {
+            return readOnly;
+        }
+
+        /** @return true if the shared PV buffers all values. */
+        public boolean isBufferingValues() {
+            return bufferAllValues;
+        }
+
+        /** @return true if the shared PV is connected. */
+        public boolean isConnected() {
+            return connected;
+        }
+
+        /** @return number of started PVs that use the shared PV. */
+        public int getSubscribers() {
+            return subscribers;
+        }
+
+        /** @return number of value updates received from the shared PV. */
+        public long getUpdates() {
+            return updates;
+        }
+    }
+
+    /**A PV of the underlying factory and the PVs that subscribed to it.
+     * Receives the events of the shared PV on the fan-out thread.
+     */
+    static class Subscription implements IPVListener {
+        final String key;
+        final IPV pv;
+        final boolean readOnly, bufferAllValues;
+        final List<SharedPV> subscribers = new CopyOnWriteArrayList<>();
+        /** Subscribers that wait for a write to finish, in order of the writes.
+         *  The subscriber is cleared when it stops before its write finishes.
+         */
+        final Queue<AtomicReference<SharedPV>> writers = new ConcurrentLinkedQueue<>();
+        final AtomicLong updates = new AtomicLong();
+
+        Subscription(final String key, final IPV pv, final boolean readOnly, final boolean bufferAllValues) {
+            this.key = key;
+            this.pv = pv;
+            this.readOnly = readOnly;
+            this.bufferAllValues = bufferAllValues;
+        }
+
+        /**Bring a new subscriber up to date with the shared PV.*/
+        void welcome(final SharedPV subscriber) {
+            if (!pv.isConnected())
+                return;
+            subscriber.connectionChanged();
+            final VType value = pv.getValue();
+            if (value != null)
+                subscriber.update(value, pv.getAllBufferedValues());
+        }
+
+        void write(final SharedPV writer, final Object value) throws Exception {
+            final AtomicReference<SharedPV> pending = new AtomicReference<>(writer);
+            writers.add(pending);
+            try {
+                pv.setValue(value);
+            } catch (Exception ex) {
+                writers.remove(pending);
+                throw ex;
+            }
+        }
+
+        /**Forget a subscriber that stops. Its pending writes stay in the queue
+         * so that later writeFinished events still reach the correct writers.
+         */
+        void removeWriter(final SharedPV writer) {
+            for (AtomicReference<SharedPV> pending : writers)
+                pending.compareAndSet(writer, null);
+        }
+
+        @Override
+        public void connectionChanged(final IPV pv) {
+            for (SharedPV subscriber : subscribers)
+                subscriber.connectionChanged();
+        }
+
+        @Override
+        public void exceptionOccurred(final IPV pv, final Exception exception) {
+            for (SharedPV subscriber : subscribers)
+                subscriber.exceptionOccurred(exception);
+        }
+
+        @Override
+        public void valueChanged(final IPV pv) {
+            updates.incrementAndGet();
+            final VType value = pv.getValue();
+            final List<VType> allValues = pv.getAllBufferedValues();
+            for (SharedPV subscriber : subscribers)
+                subscriber.update(value, allValues);
+        }
+
+        @Override
+        public void writeFinished(final IPV pv, final boolean isWriteSucceeded) {
+            final AtomicReference<SharedPV> pending = writers.poll();
+            final SharedPV writer = pending == null ? null : pending.get();
+            if (writer != null)
+                writer.writeFinished(isWriteSucceeded);
+        }
+
+        @Override
+        public void writePermissionChanged(final IPV pv) {
+            for (SharedPV subscriber : subscribers)
+                subscriber.writePermissionChanged();
+        }
+    }
+
+    /** Timer used by the PVs of all shared factories to coalesce updates. */
+    static final ScheduledExecutorService TIMER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        final Thread thread = new Thread(runnable, "Shared PV Timer"); //$NON-NLS-1$
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final AbstractPVFactory factory;
+
+    /** Thread on which the shared PVs notify their subscribers. */
+    private final ExecutorService fanoutThread = Executors.newSingleThreadExecutor(runnable -> {
+        final Thread thread = new Thread(runnable, "Shared PV Fan-out"); //$NON-NLS-1$
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Map<String, Subscription> subscriptions = new HashMap<>();
+
+    /**@param factory the factory that creates the shared PVs.
+     */
+    public SharedPVFactory(final AbstractPVFactory factory) {
+        this.factory = factory;
+    }
+
+    @Override
+    public IPV createPV(final String name, final boolean readOnly, final long minUpdatePeriodInMs,
+            final boolean bufferAllValues, final Executor notificationThread,
+            final ExceptionHandler exceptionHandler) throws Exception {
+        return new SharedPV(this, name, readOnly, minUpdatePeriodInMs, bufferAllValues,
+                notificationThread, exceptionHandler);
+    }
+
+    /**Subscribe to the shared PV, creating it if necessary.
+     * The subscriber receives its subscription before any events of the shared PV.
+     */
+    synchronized void subscribe(final SharedPV subscriber) throws Exception {
+        final String key = subscriber.getName() + (subscriber.isReadOnly() ? " [ro]" : "") //$NON-NLS-1$ //$NON-NLS-2$
+                + (subscriber.isBufferingValues() ? " [buffered]" : ""); //$NON-NLS-1$ //$NON-NLS-2$
+        Subscription subscription = subscriptions.get(key);
+        if (subscription == null) {
+            final IPV pv = factory.createPV(subscriber.getName(), subscriber.isReadOnly(),
+                    subscriber.getMinUpdatePeriod(), subscriber.isBufferingValues(), fanoutThread, null);
+            subscription = new Subscription(key, pv, subscriber.isReadOnly(), subscriber.isBufferingValues());
+            pv.addListener(subscription);
+            subscriber.subscribed(subscription);
+            subscription.subscribers.add(subscriber);
+            try {
+                pv.start();
+            } catch (Exception ex) {
+                pv.removeListener(subscription);
+                subscriber.subscribed(null);
+                throw ex;
+            }
+            subscriptions.put(key, subscription);
+        } else {
+            subscriber.subscribed(subscription);
+            subscription.subscribers.add(subscriber);
+            subscription.welcome(subscriber);
+        }
+    }
+
+    synchronized void unsubscribe(final Subscription subscription, final SharedPV subscriber) {
+        subscription.subscribers.remove(subscriber);
+        subscription.removeWriter(subscriber);
+        if (!subscription.subscribers.isEmpty())
+            return;
+        subscription.writers.clear();
+        subscriptions.remove(subscription.key);
+        subscription.pv.removeListener(subscription);
+        subscription.pv.stop();
+    }
+
+    /**@return status of all shared PVs, sorted by name.
+     */
+    public synchronized List<SubscriptionInfo> getSubscriptions() {
+        final List<SubscriptionInfo> result = new ArrayList<>(subscriptions.size());
+        for (Subscription subscription : subscriptions.values())
+            result.add(new SubscriptionInfo(subscription));
+        Collections.sort(result, (a, b) -> a.getName().compareTo(b.getName()));
+        return result;
+    }
+
+    /**@return number of started PVs that use a shared PV.
+     */
+    public synchronized int getSubscriberCount() {
+        int count = 0;
+        for (Subscription subscription : subscriptions.values())
+            count += subscription.subscribers.size();
+        return count;
+    }
+}
@@ -26,6 +26,8 @@ public class SimplePVLayer {
 
     private static Map<String, AbstractPVFactory> factoryMap = new HashMap<String, AbstractPVFactory>(4);
 
+    private static Map<String, SharedPVFactory> sharedFactoryMap = new HashMap<String, SharedPVFactory>(4);
+
     /**If there is only one {@link AbstractPVFactory} implementation, return it.
      * If there are multiple implementations, return the default PV factory which
      * is configured in the preference.
@@ -58,6 +60,30 @@ public class SimplePVLayer {
         return factoryMap.get(pvFactoryId);
     }
 
+    /**Get a PV Factory that shares the PVs of a PV Factory extension between all its clients,
+     * see {@link SharedPVFactory}.
+     * @param pvFactoryId ID of the PV Factory extension.
+     * @return the shared PV Factory. null if the PV Factory extension does not exist.
+     * @throws CoreException on loading extensions error.
+     */
+    public static synchronized SharedPVFactory getSharedPVFactory(String pvFactoryId) throws CoreException{
+        SharedPVFactory sharedFactory = sharedFactoryMap.get(pvFactoryId);
+        if(sharedFactory == null){
+            AbstractPVFactory pvFactory = getPVFactory(pvFactoryId);
+            if(pvFactory == null)
+                return null;
+            sharedFactory = new SharedPVFactory(pvFactory);
+            sharedFactoryMap.put(pvFactoryId, sharedFactory);
+        }
+        return sharedFactory;
+    }
+
+    /**@return the shared PV Factories that have been created so far, by PV Factory extension ID.
+     */
+    public static synchronized Map<String, SharedPVFactory> getSharedPVFactories(){
+        return new HashMap<String, SharedPVFactory>(sharedFactoryMap);
+    }
+
     private static AbstractPVFactory createPVFactory(String pvFactoryID) throws CoreException{
         IExtensionRegistry extReg = Platform.getExtensionRegistry();
         IConfigurationElement[] confElements =
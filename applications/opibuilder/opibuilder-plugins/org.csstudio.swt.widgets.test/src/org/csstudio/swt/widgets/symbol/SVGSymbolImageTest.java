@@ -0,0 +1,94 @@
+/*******************************************************************************
+ * Copyright (c) 2010-2016 ITER Organization.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.swt.widgets.symbol;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.csstudio.utility.batik.SVGRasterCache;
+import org.eclipse.core.runtime.Path;
+import org.eclipse.draw2d.SWTGraphics;
+import org.eclipse.draw2d.geometry.Rectangle;
+import org.eclipse.swt.graphics.GC;
+import org.eclipse.swt.graphics.Image;
+import org.eclipse.swt.widgets.Display;
+import org.junit.Test;
+
+/**
+ * Tests of the {@link SVGSymbolImage} with the {@link SVGRasterCache}
+ */
+@SuppressWarnings("nls")
+public class SVGSymbolImageTest {
+
+    private static final String SVG = "<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"20\" height=\"20\">"
+            + "<rect x=\"2\" y=\"2\" width=\"16\" height=\"16\" fill=\"#00FF00\"/></svg>";
+
+    @Test(timeout = 30000)
+    public void testImageLargerThanCache() throws Exception {
+        final File file = File.createTempFile("symbol", ".svg");
+        file.deleteOnExit();
+        Files.write(file.toPath(), SVG.getBytes(StandardCharsets.UTF_8));
+
+        final Display display = Display.getDefault();
+        final Image canvas = new Image(display, 100, 100);
+        final GC gc = new GC(canvas);
+        final SWTGraphics graphics = new SWTGraphics(gc);
+        // Budget of one byte: The cache is enabled, but cannot hold any image
+        final SVGRasterCache cache = new SVGRasterCache(1, 1);
+        final SVGSymbolImage symbol = new SVGSymbolImage(null, true);
+        try {
+            symbol.setRasterCache(cache);
+            symbol.setImagePath(new Path(file.getAbsolutePath()));
+            symbol.setBounds(new Rectangle(0, 0, 40, 40));
+            symbol.setStretch(true);
+            symbol.syncLoadImage();
+            symbol.setListener(new SymbolImageListener() {
+                @Override
+                public void symbolImageLoaded() {
+                }
+
+                @Override
+                public void repaintRequested() {
+                    symbol.paintFigure(graphics);
+                }
+
+                @Override
+                public void sizeChanged() {
+                }
+            });
+            symbol.paintFigure(graphics);
+
+            // Background render completes via display.asyncExec
+            while (symbol.imageData == null) {
+                if (!display.readAndDispatch())
+                    display.sleep();
+            }
+
+            // The delivered image is displayed, not requested from the cache and rendered again
+            final long end = System.currentTimeMillis() + 1000;
+            while (System.currentTimeMillis() < end) {
+                if (!display.readAndDispatch())
+                    Thread.sleep(10);
+            }
+            symbol.resetData();
+            symbol.paintFigure(graphics);
+            assertNotNull(symbol.imageData);
+            assertEquals(1, cache.getRenders());
+            assertEquals(0, cache.getEntries());
+        } finally {
+            symbol.dispose();
+            graphics.dispose();
+            gc.dispose();
+            canvas.dispose();
+        }
+    }
+}
@@ -0,0 +1,106 @@
+/*******************************************************************************
+ * Copyright (c) 2010-2016 ITER Organization.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.swt.widgets.symbol;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.csstudio.utility.batik.SVGRasterCache;
+import org.eclipse.core.runtime.Path;
+import org.eclipse.draw2d.SWTGraphics;
+import org.eclipse.draw2d.geometry.Rectangle;
+import org.eclipse.swt.graphics.GC;
+import org.eclipse.swt.graphics.Image;
+import org.eclipse.swt.widgets.Display;
+
+/**
+ * Time to open a display with many widgets that show the same SVG symbol.
+ * <p>
+ * Loads and paints {@link #WIDGETS} symbols, the way a display does when it
+ * is opened, then processes UI events until every symbol has its rendered
+ * image. The display is opened twice: First with an empty
+ * {@link SVGRasterCache}, then again with the images rendered by the first
+ * display still cached.
+ * <p>
+ * Run with the path of a static SVG file as argument. Compare with
+ * <code>raster_cache_mb=0</code> in the batik plugin preferences to see the
+ * time taken when every widget renders its own image on the UI thread.
+ */
+@SuppressWarnings("nls")
+public class SVGSymbolOpenBenchmarkDemo {
+
+    private static final int WIDGETS = 500;
+
+    private static final int SIZE = 40;
+
+    public static void main(String[] args) {
+        final String file = args.length > 0 ? args[0] : "/tmp/symbol.svg";
+        final Display display = Display.getDefault();
+        final Image canvas = new Image(display, 25 * SIZE, (WIDGETS / 25 + 1) * SIZE);
+        final GC gc = new GC(canvas);
+        final SWTGraphics graphics = new SWTGraphics(gc);
+        try {
+            for (String run : new String[] { "Empty cache", "Warm cache" })
+                openDisplay(run, file, display, graphics);
+            System.out.println(SVGRasterCache.getInstance());
+        } finally {
+            graphics.dispose();
+            gc.dispose();
+            canvas.dispose();
+        }
+    }
+
+    private static void openDisplay(final String run, final String file, final Display display,
+            final SWTGraphics graphics) {
+        final long start = System.nanoTime();
+        final List<SVGSymbolImage> symbols = new ArrayList<>();
+        for (int i = 0; i < WIDGETS; ++i) {
+            final SVGSymbolImage symbol = new SVGSymbolImage(null, true);
+            symbol.setImagePath(new Path(file));
+            symbol.setBounds(new Rectangle((i % 25) * SIZE, (i / 25) * SIZE, SIZE, SIZE));
+            symbol.setStretch(true);
+            symbol.syncLoadImage();
+            symbol.setListener(new SymbolImageListener() {
+                @Override
+                public void symbolImageLoaded() {
+                }
+
+                @Override
+                public void repaintRequested() {
+                    symbol.paintFigure(graphics);
+                }
+
+                @Override
+                public void sizeChanged() {
+                }
+            });
+            symbol.paintFigure(graphics);
+            symbols.add(symbol);
+        }
+        final long opened = System.nanoTime();
+
+        // Background rendering completes via display.asyncExec
+        while (!allRendered(symbols)) {
+            if (!display.readAndDispatch())
+                display.sleep();
+        }
+        final long rendered = System.nanoTime();
+
+        System.out.format("%s: %d widgets opened in %.1f ms, all images rendered after %.1f ms\n",
+                run, WIDGETS, (opened - start) / 1e6, (rendered - start) / 1e6);
+        for (SVGSymbolImage symbol : symbols)
+            symbol.dispose();
+    }
+
+    private static boolean allRendered(final List<SVGSymbolImage> symbols) {
+        for (SVGSymbolImage symbol : symbols)
+            if (symbol.imageData == null)
+                return false;
+        return true;
+    }
+}
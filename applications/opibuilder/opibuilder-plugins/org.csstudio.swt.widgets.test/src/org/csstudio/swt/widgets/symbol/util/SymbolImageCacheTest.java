@@ -0,0 +1,69 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.swt.widgets.symbol.util;
+
+import static org.junit.Assert.*;
+
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.Path;
+import org.eclipse.swt.graphics.ImageData;
+import org.eclipse.swt.graphics.PaletteData;
+import org.eclipse.swt.graphics.RGB;
+import org.junit.Test;
+
+public class SymbolImageCacheTest {
+
+    private final IPath valve = new Path("/symbols/valve.png");
+    private final IPath pump = new Path("/symbols/pump.png");
+
+    /** @return 10x10 image, 8 bit per pixel = 100 bytes + padding */
+    private ImageData createImage() {
+        return new ImageData(10, 10, 8, new PaletteData(0xFF, 0xFF00, 0xFF0000));
+    }
+
+    @Test
+    public void testKeys() {
+        final SymbolImageCache cache = new SymbolImageCache(100000);
+        final ImageData data = createImage();
+        cache.put(SymbolImageCache.Key.transformed(valve, 0,
+                PermutationMatrix.generateRotationMatrix(90), new RGB(255, 0, 0), -1, -1), data);
+
+        // Equal matrix and color, but different instances
+        assertSame(data, cache.get(SymbolImageCache.Key.transformed(valve, 0,
+                PermutationMatrix.generateRotationMatrix(90), new RGB(255, 0, 0), -1, -1)));
+        assertNull(cache.get(SymbolImageCache.Key.transformed(valve, 0,
+                PermutationMatrix.generateRotationMatrix(180), new RGB(255, 0, 0), -1, -1)));
+        assertNull(cache.get(SymbolImageCache.Key.transformed(valve, 0,
+                PermutationMatrix.generateRotationMatrix(90), null, -1, -1)));
+        assertNull(cache.get(SymbolImageCache.Key.transformed(valve, 0,
+                PermutationMatrix.generateRotationMatrix(90), new RGB(255, 0, 0), 20, 20)));
+        assertNull(cache.get(SymbolImageCache.Key.decoded(valve)));
+        assertEquals(1, cache.getHits());
+        assertEquals(4, cache.getMisses());
+    }
+
+    @Test
+    public void testBudget() {
+        final long size = SymbolImageCache.getSize(createImage());
+        final SymbolImageCache cache = new SymbolImageCache(3 * size);
+        cache.put(SymbolImageCache.Key.decoded(valve), createImage());
+        cache.put(SymbolImageCache.Key.decoded(pump), createImage());
+        for (int frame = 0; frame < 2; ++frame)
+            cache.put(SymbolImageCache.Key.transformed(valve, frame, null, null, -1, -1), createImage());
+        // Least recently used entry was evicted
+        assertEquals(3, cache.getEntries());
+        assertEquals(3 * size, cache.getBytes());
+        assertEquals(1, cache.getEvictions());
+        assertNull(cache.get(SymbolImageCache.Key.decoded(valve)));
+
+        cache.invalidate(valve);
+        assertEquals(1, cache.getEntries());
+        assertEquals(size, cache.getBytes());
+        assertNotNull(cache.get(SymbolImageCache.Key.decoded(pump)));
+    }
+}
@@ -50,4 +50,14 @@ public class Preferences
              return prefs.getInt(
                      Activator.PLUGIN_ID, "url_file_load_timeout", 5000, null); //$NON-NLS-1$
     }
+
+    /** @return Memory budget of the shared symbol image cache in MB */
+    public static int getSymbolImageCacheSize(){
+         final IPreferencesService prefs = Platform.getPreferencesService();
+         if (prefs == null)
+             return 64;
+         else
+             return prefs.getInt(
+                     Activator.PLUGIN_ID, "symbol_image_cache_mb", 64, null); //$NON-NLS-1$
+    }
 }
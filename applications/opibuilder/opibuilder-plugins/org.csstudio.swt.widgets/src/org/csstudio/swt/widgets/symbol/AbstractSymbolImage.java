@@ -8,6 +8,7 @@
 package org.csstudio.swt.widgets.symbol;
 
 import org.csstudio.swt.widgets.symbol.util.PermutationMatrix;
+import org.csstudio.swt.widgets.symbol.util.SymbolImageCache;
 import org.eclipse.core.runtime.IPath;
 import org.eclipse.draw2d.geometry.Dimension;
 import org.eclipse.draw2d.geometry.Rectangle;
@@ -123,6 +124,22 @@ public abstract class AbstractSymbolImage implements SymbolImage {
 
     public abstract void resetData();
 
+    /**
+     * @param frame Frame index for animated images, 0 otherwise
+     * @return Key for the image data with the current color, permutation
+     *         and stretch settings applied, <code>null</code> if the image
+     *         was not loaded from a file
+     */
+    protected SymbolImageCache.Key getTransformedKey(int frame) {
+        if (imagePath == null || imagePath.isEmpty())
+            return null;
+        RGB tint = colorToChange.equals(currentColor) ? null : currentColor.getRGB();
+        if (stretch && bounds != null)
+            return SymbolImageCache.Key.transformed(imagePath, frame, permutationMatrix, tint,
+                    bounds.width + leftCrop + rightCrop, bounds.height + topCrop + bottomCrop);
+        return SymbolImageCache.Key.transformed(imagePath, frame, permutationMatrix, tint, -1, -1);
+    }
+
     public void setCurrentColor(Color newColor) {
         if (isEditMode())
             return;
@@ -19,6 +19,7 @@ import org.apache.commons.lang.time.DateUtils;
 import org.csstudio.java.thread.ExecutionService;
 import org.csstudio.swt.widgets.Activator;
 import org.csstudio.swt.widgets.symbol.util.ImageUtils;
+import org.csstudio.swt.widgets.symbol.util.SymbolImageCache;
 import org.csstudio.swt.widgets.util.AbstractInputStreamRunnable;
 import org.csstudio.swt.widgets.util.IJobErrorHandler;
 import org.csstudio.swt.widgets.util.ResourceUtil;
@@ -189,32 +190,35 @@ public class GIFSymbolImage extends AbstractSymbolImage {
         return offScreenImage;
     }
 
+    /** @return Frame with color, permutation and stretch applied, shared via the {@link SymbolImageCache} */
+    private ImageData generateFrameData(int frame, ImageData original) {
+        SymbolImageCache.Key key = getTransformedKey(frame);
+        ImageData data = key == null ? null : SymbolImageCache.getInstance().get(key);
+        if (data != null)
+            return data;
+        data = (ImageData) original.clone();
+        if (!colorToChange.equals(currentColor))
+            data = ImageUtils.changeImageColor(currentColor, data);
+        data = ImageUtils.applyMatrix(data, permutationMatrix);
+        if (stretch && bounds != null) {
+            data = data.scaledTo(bounds.width + leftCrop + rightCrop, bounds.height + topCrop + bottomCrop);
+        }
+        if (key != null)
+            SymbolImageCache.getInstance().put(key, data);
+        return data;
+    }
+
     private void generateAnimatedData() {
         if (disposed) {
             return;
         }
         if (animated) {
             imageDataArray = new ImageData[originalImageDataArray.length];
-            for (int i = 0; i < originalImageDataArray.length; i++) {
-                imageDataArray[i] = (ImageData) originalImageDataArray[i].clone();
-                if (!colorToChange.equals(currentColor))
-                    imageDataArray[i] = ImageUtils.changeImageColor(currentColor, imageDataArray[i]);
-                imageDataArray[i] = ImageUtils.applyMatrix(imageDataArray[i], permutationMatrix);
-                if (stretch && bounds != null) {
-                    imageDataArray[i] = imageDataArray[i].scaledTo(bounds.width + leftCrop + rightCrop, bounds.height
-                            + topCrop + bottomCrop);
-                }
-            }
+            for (int i = 0; i < originalImageDataArray.length; i++)
+                imageDataArray[i] = generateFrameData(i, originalImageDataArray[i]);
             imageData = imageDataArray[0];
         } else {
-            imageData = (ImageData) originalImageData.clone();
-            if (!colorToChange.equals(currentColor))
-                imageData = ImageUtils.changeImageColor(currentColor, imageData);
-            imageData = ImageUtils.applyMatrix(imageData, permutationMatrix);
-            if (stretch && bounds != null) {
-                imageData = imageData.scaledTo(bounds.width + leftCrop + rightCrop, bounds.height + topCrop
-                        + bottomCrop);
-            }
+            imageData = generateFrameData(0, originalImageData);
         }
         int imgWidth = imageData.width;
         int imgHeight = imageData.height;
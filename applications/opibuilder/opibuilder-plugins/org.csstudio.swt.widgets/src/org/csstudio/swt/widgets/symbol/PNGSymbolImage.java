@@ -13,6 +13,7 @@ import java.util.logging.Level;
 
 import org.csstudio.swt.widgets.Activator;
 import org.csstudio.swt.widgets.symbol.util.ImageUtils;
+import org.csstudio.swt.widgets.symbol.util.SymbolImageCache;
 import org.csstudio.swt.widgets.util.AbstractInputStreamRunnable;
 import org.csstudio.swt.widgets.util.IJobErrorHandler;
 import org.csstudio.swt.widgets.util.ResourceUtil;
@@ -83,13 +84,19 @@ public class PNGSymbolImage extends AbstractSymbolImage {
         if (disposed || originalImageData == null)
             return;
 
-        imageData = (ImageData) originalImageData.clone();
-        if (!colorToChange.equals(currentColor))
-            imageData = ImageUtils.changeImageColor(currentColor, imageData);
-        imageData = ImageUtils.applyMatrix(imageData, permutationMatrix);
-        if (stretch && bounds != null) {
-            imageData = imageData.scaledTo(bounds.width + leftCrop + rightCrop,
-                    bounds.height + topCrop + bottomCrop);
+        SymbolImageCache.Key key = getTransformedKey(0);
+        imageData = key == null ? null : SymbolImageCache.getInstance().get(key);
+        if (imageData == null) {
+            imageData = (ImageData) originalImageData.clone();
+            if (!colorToChange.equals(currentColor))
+                imageData = ImageUtils.changeImageColor(currentColor, imageData);
+            imageData = ImageUtils.applyMatrix(imageData, permutationMatrix);
+            if (stretch && bounds != null) {
+                imageData = imageData.scaledTo(bounds.width + leftCrop + rightCrop,
+                        bounds.height + topCrop + bottomCrop);
+            }
+            if (key != null)
+                SymbolImageCache.getInstance().put(key, imageData);
         }
         int imgWidth = imageData.width;
         int imgHeight = imageData.height;
@@ -124,8 +131,26 @@ public class PNGSymbolImage extends AbstractSymbolImage {
     // Image loading
     // ************************************************************
 
+    /**
+     * Use the decoded image from the shared cache, if available.
+     *
+     * @return <code>true</code> if the image was found in the cache
+     */
+    private boolean loadCachedImage() {
+        ImageData cached = SymbolImageCache.getInstance().get(SymbolImageCache.Key.decoded(imagePath));
+        if (cached == null)
+            return false;
+        setOriginalImageData(cached);
+        return true;
+    }
+
+    private void setDecodedImageData(ImageData imgData) {
+        SymbolImageCache.getInstance().put(SymbolImageCache.Key.decoded(imagePath), imgData);
+        setOriginalImageData(imgData);
+    }
+
     public void syncLoadImage() {
-        if (imagePath == null)
+        if (imagePath == null || loadCachedImage())
             return;
         InputStream stream = null;
         Image tempImage = null;
@@ -133,7 +158,7 @@ public class PNGSymbolImage extends AbstractSymbolImage {
             stream = ResourceUtil.pathToInputStream(imagePath.toPortableString());
             tempImage = new Image(Display.getDefault(), stream);
             ImageData imgData = tempImage.getImageData();
-            setOriginalImageData(imgData);
+            setDecodedImageData(imgData);
         } catch (Exception e) {
             Activator.getLogger().log(Level.WARNING,
                     "ERROR in loading PNG image " + imagePath, e);
@@ -152,6 +177,15 @@ public class PNGSymbolImage extends AbstractSymbolImage {
     public void asyncLoadImage() {
         if (imagePath == null)
             return;
+        if (loadCachedImage()) {
+            // Notify like a completed load, after the caller received this image
+            Display.getDefault().asyncExec(new Runnable() {
+                public void run() {
+                    fireSymbolImageLoaded();
+                }
+            });
+            return;
+        }
         loadingImage = true;
         loadImage(new IJobErrorHandler() {
             private int maxAttempts = 5;
@@ -182,7 +216,7 @@ public class PNGSymbolImage extends AbstractSymbolImage {
                     try {
                         tempImage = new Image(Display.getDefault(), stream);
                         ImageData imgData = tempImage.getImageData();
-                        setOriginalImageData(imgData);
+                        setDecodedImageData(imgData);
                     } finally {
                         try {
                             stream.close();
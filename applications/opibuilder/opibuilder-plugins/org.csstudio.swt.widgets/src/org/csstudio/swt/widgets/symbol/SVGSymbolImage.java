@@ -11,6 +11,9 @@ import java.awt.RenderingHints;
 import java.awt.image.BufferedImage;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.logging.Level;
 
 import org.apache.batik.dom.svg.SAXSVGDocumentFactory;
@@ -21,13 +24,16 @@ import org.csstudio.swt.widgets.util.IJobErrorHandler;
 import org.csstudio.swt.widgets.util.ResourceUtil;
 import org.csstudio.utility.batik.SVGHandler;
 import org.csstudio.utility.batik.SVGHandlerListener;
+import org.csstudio.utility.batik.SVGRasterCache;
 import org.csstudio.utility.batik.SVGUtils;
 import org.eclipse.core.runtime.IPath;
 import org.eclipse.core.runtime.Path;
 import org.eclipse.draw2d.Graphics;
 import org.eclipse.draw2d.geometry.Dimension;
 import org.eclipse.draw2d.geometry.Rectangle;
+import org.eclipse.swt.graphics.Color;
 import org.eclipse.swt.graphics.Image;
+import org.eclipse.swt.graphics.ImageData;
 import org.eclipse.swt.widgets.Display;
 import org.w3c.dom.Document;
 import org.w3c.dom.svg.SVGDocument;
@@ -39,12 +45,37 @@ import org.w3c.dom.svg.SVGDocument;
  */
 public class SVGSymbolImage extends AbstractSymbolImage {
 
+    private static final Map<RenderingHints.Key, Object> RENDERING_HINTS;
+    static {
+        final Map<RenderingHints.Key, Object> hints = new HashMap<>();
+        hints.put(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+        hints.put(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_LCD_HRGB);
+        hints.put(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        hints.put(RenderingHints.KEY_FRACTIONALMETRICS, RenderingHints.VALUE_FRACTIONALMETRICS_ON);
+        hints.put(RenderingHints.KEY_STROKE_CONTROL, RenderingHints.VALUE_STROKE_PURE);
+        RENDERING_HINTS = Collections.unmodifiableMap(hints);
+    }
+
     private Dimension imgDimension = null;
 
     private boolean loadingImage = false;
     private boolean failedToLoadDocument = false;
     private SVGHandler svgHandler;
     private Document svgDocument;
+    private String documentURI;
+
+    /**
+     * Image requested from the {@link SVGRasterCache}, <code>null</code> if
+     * the image is rendered by this symbol's own {@link SVGHandler}.
+     */
+    private SVGRasterCache.Key rasterKey;
+    /**
+     * Image delivered for the {@link #rasterKey}, kept because the
+     * {@link SVGRasterCache} may not be able to hold it.
+     */
+    private ImageData rasterData;
+    private boolean rasterFailed = false;
+    private SVGRasterCache rasterCache = SVGRasterCache.getInstance();
 
     private boolean needRender = true;
 
@@ -100,6 +131,7 @@ public class SVGSymbolImage extends AbstractSymbolImage {
         // Create image
         if (image == null) {
             if (imageData == null) {
+                paintPlaceholder(gfx);
                 return;
             }
             image = new Image(Display.getCurrent(), imageData);
@@ -129,6 +161,17 @@ public class SVGSymbolImage extends AbstractSymbolImage {
         }
     }
 
+    /**
+     * Fill the area of an image that is still being rendered in the background.
+     */
+    private void paintPlaceholder(final Graphics gfx) {
+        if (bounds == null || imgDimension == null || backgroundColor == null) {
+            return;
+        }
+        gfx.setBackgroundColor(backgroundColor);
+        gfx.fillRectangle(bounds.x, bounds.y, imgDimension.width, imgDimension.height);
+    }
+
     @Override
     public void resetData() {
         needRender = true;
@@ -144,8 +187,9 @@ public class SVGSymbolImage extends AbstractSymbolImage {
             return;
         }
         svgHandler.setColorToChange(colorToChange);
-        if (!isEditMode() && !colorToChange.equals(currentColor)) {
-            svgHandler.setColorToApply(currentColor);
+        final Color colorToApply = !isEditMode() && !colorToChange.equals(currentColor) ? currentColor : null;
+        if (colorToApply != null) {
+            svgHandler.setColorToApply(colorToApply);
         }
         if (permutationMatrix != null) {
             svgHandler.setTransformMatrix(permutationMatrix.getMatrix());
@@ -168,11 +212,16 @@ public class SVGSymbolImage extends AbstractSymbolImage {
         rightCrop = (imgWidth - leftCrop - rightCrop) < 0 ? 0 : rightCrop;
         imgWidth = (int) Math.round(scale * (imgWidth + leftCrop + rightCrop));
         imgHeight = (int) Math.round(scale * (imgHeight + bottomCrop + topCrop));
-        svgHandler.setCanvasSize(imgWidth, imgHeight);
-
-        BufferedImage awtImage = svgHandler.getOffScreen();
-        if (awtImage != null) {
-            imageData = SVGUtils.toSWT(Display.getCurrent(), awtImage);
+        if (useRasterCache()) {
+            imageData = getRasterImageData(imgWidth, imgHeight, colorToApply);
+        } else {
+            rasterKey = null;
+            rasterData = null;
+            svgHandler.setCanvasSize(imgWidth, imgHeight);
+            BufferedImage awtImage = svgHandler.getOffScreen();
+            if (awtImage != null) {
+                imageData = SVGUtils.toSWT(Display.getCurrent(), awtImage);
+            }
         }
 
         // Calculate areas
@@ -188,6 +237,71 @@ public class SVGSymbolImage extends AbstractSymbolImage {
         needRender = false;
     }
 
+    /**
+     * @return <code>true</code> if the image is shared through the
+     *         {@link SVGRasterCache}, which only holds static documents.
+     */
+    private boolean useRasterCache() {
+        return documentURI != null && !rasterFailed && !svgHandler.isDynamicDocument()
+                && rasterCache.isEnabled();
+    }
+
+    /**
+     * @param cache Cache to use instead of the shared {@link SVGRasterCache}
+     *            instance, for tests
+     */
+    void setRasterCache(final SVGRasterCache cache) {
+        rasterCache = cache;
+    }
+
+    /**
+     * Get image data from the {@link SVGRasterCache}. Missing images are
+     * rendered in the background, and the symbol is repainted once the image
+     * is available. Until then, the previous image is displayed.
+     */
+    private ImageData getRasterImageData(final int width, final int height, final Color colorToApply) {
+        final SVGRasterCache cache = rasterCache;
+        final SVGRasterCache.Key key = new SVGRasterCache.Key(documentURI, width, height,
+                colorToChange.getRGB(), colorToApply == null ? null : colorToApply.getRGB(),
+                permutationMatrix == null ? null : permutationMatrix.getMatrix());
+        if (key.equals(rasterKey) && rasterData != null) {
+            return rasterData;
+        }
+        rasterKey = key;
+        rasterData = null;
+        final ImageData cached = cache.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        final Display display = Display.getCurrent();
+        cache.render(key, (SVGDocument) svgDocument, display, RENDERING_HINTS, data -> {
+            if (display.isDisposed()) {
+                return;
+            }
+            display.asyncExec(() -> {
+                if (disposed || !key.equals(rasterKey)) {
+                    return;
+                }
+                // Use the delivered image, the cache may not be able to hold it
+                final ImageData rendered = data != null ? data : cache.get(key);
+                if (rendered == null) {
+                    // Render with the symbol's own handler if the background render failed
+                    rasterFailed = true;
+                    resetData();
+                } else {
+                    rasterData = rendered;
+                    imageData = rendered;
+                    if (image != null && !image.isDisposed()) {
+                        image.dispose();
+                    }
+                    image = null;
+                }
+                repaint();
+            });
+        });
+        return imageData;
+    }
+
     // ************************************************************
     // Image size calculation
     // ************************************************************
@@ -300,6 +414,10 @@ public class SVGSymbolImage extends AbstractSymbolImage {
     private void loadDocument(final InputStream inputStream) {
         svgHandler = null;
         failedToLoadDocument = true;
+        documentURI = null;
+        rasterKey = null;
+        rasterData = null;
+        rasterFailed = false;
         if (imagePath == null || imagePath.isEmpty()) {
             return;
         }
@@ -313,9 +431,9 @@ public class SVGSymbolImage extends AbstractSymbolImage {
             svgHandler = new SVGHandler((SVGDocument) svgDocument, Display.getCurrent());
             svgHandler.setAlignedToNearestSecond(alignedToNearestSecond);
             initRenderingHints();
-            BufferedImage awtImage = svgHandler.getOffScreen();
-            if (awtImage != null) {
-                this.originalImageData = SVGUtils.toSWT(Display.getCurrent(), awtImage);
+            documentURI = uri;
+            this.originalImageData = renderOriginalImageData(uri);
+            if (originalImageData != null) {
                 resetData();
             }
             svgHandler.setRenderListener(new SVGHandlerListener() {
@@ -335,6 +453,31 @@ public class SVGSymbolImage extends AbstractSymbolImage {
         }
     }
 
+    /**
+     * Render the document in its original size. Static documents are shared
+     * through the {@link SVGRasterCache}.
+     */
+    private ImageData renderOriginalImageData(final String uri) {
+        final SVGRasterCache cache = rasterCache;
+        final boolean shared = cache.isEnabled() && !svgHandler.isDynamicDocument();
+        final SVGRasterCache.Key key = new SVGRasterCache.Key(uri, -1, -1, null, null, null);
+        if (shared) {
+            final ImageData cached = cache.get(key);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        BufferedImage awtImage = svgHandler.getOffScreen();
+        if (awtImage == null) {
+            return null;
+        }
+        final ImageData data = SVGUtils.toSWT(Display.getCurrent(), awtImage);
+        if (shared) {
+            cache.put(key, data);
+        }
+        return data;
+    }
+
     private final Document getDocument() {
         if (failedToLoadDocument) {
             return null;
@@ -346,10 +489,8 @@ public class SVGSymbolImage extends AbstractSymbolImage {
     }
 
     private void initRenderingHints() {
-        svgHandler.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
-        svgHandler.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_LCD_HRGB);
-        svgHandler.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-        svgHandler.setRenderingHint(RenderingHints.KEY_FRACTIONALMETRICS, RenderingHints.VALUE_FRACTIONALMETRICS_ON);
-        svgHandler.setRenderingHint(RenderingHints.KEY_STROKE_CONTROL, RenderingHints.VALUE_STROKE_PURE);
+        for (Map.Entry<RenderingHints.Key, Object> hint : RENDERING_HINTS.entrySet()) {
+            svgHandler.setRenderingHint(hint.getKey(), hint.getValue());
+        }
     }
 }
@@ -110,7 +110,7 @@ public class PermutationMatrix {
     public int hashCode() {
         final int prime = 31;
         int result = 1;
-        result = prime * result + Arrays.hashCode(matrix);
+        result = prime * result + Arrays.deepHashCode(matrix);
         return result;
     }
 
@@ -0,0 +1,207 @@
+/*******************************************************************************
+ * Copyright (c) 2010-2016 ITER Organization.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.swt.widgets.symbol.util;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+import org.csstudio.java.thread.SizeBoundedCache;
+import org.csstudio.swt.widgets.Preferences;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.swt.graphics.ImageData;
+import org.eclipse.swt.graphics.RGB;
+
+/**
+ * Shared cache of decoded and transformed symbol {@link ImageData}.
+ * <p>
+ * Synoptic displays use the same few symbol files for many widgets, so the
+ * decoded image as well as the flipped, rotated, tinted and stretched copies
+ * are shared between all symbol images instead of being computed per widget.
+ * <p>
+ * The cache is limited by the number of bytes of image data it holds, and
+ * evicts the least recently used entries when that budget is exceeded.
+ * Cached {@link ImageData} must be treated as read-only.
+ */
+public class SymbolImageCache {
+
+    /**
+     * Cache key: Image file, frame index and the transformation applied to
+     * the decoded image.
+     */
+    public static final class Key {
+        private final String path;
+        private final int frame;
+        private final PermutationMatrix matrix;
+        private final RGB tint;
+        private final int width, height;
+
+        private Key(final IPath path, final int frame, final PermutationMatrix matrix,
+                final RGB tint, final int width, final int height) {
+            this.path = path.toPortableString();
+            this.frame = frame;
+            this.matrix = matrix;
+            this.tint = tint;
+            this.width = width;
+            this.height = height;
+        }
+
+        /**
+         * @param path Image file
+         * @return Key for the decoded image
+         */
+        public static Key decoded(final IPath path) {
+            return new Key(path, 0, null, null, -1, -1);
+        }
+
+        /**
+         * @param path Image file
+         * @param frame Frame index for animated images, 0 otherwise
+         * @param matrix Permutation applied to the image
+         * @param tint Color applied to the image, <code>null</code> for original colors
+         * @param width Width the image was scaled to, -1 if not scaled
+         * @param height Height the image was scaled to, -1 if not scaled
+         * @return Key for the transformed image
+         */
+        public static Key transformed(final IPath path, final int frame,
+                final PermutationMatrix matrix, final RGB tint,
+                final int width, final int height) {
+            return new Key(path, frame, matrix == null
+                    ? PermutationMatrix.generateIdentityMatrix() : matrix,
+                    tint, width, height);
+        }
+
+        @Override
+        public int hashCode() {
+            int result = path.hashCode();
+            result = 31 * result + frame;
+            result = 31 * result + (matrix == null ? 0 : Arrays.deepHashCode(matrix.getMatrix()));
+            result = 31 * result + Objects.hashCode(tint);
+            result = 31 * result + width;
+            result = 31 * result + height;
+            return result;
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (this == obj)
+                return true;
+            if (!(obj instanceof Key))
+                return false;
+            final Key other = (Key) obj;
+            return path.equals(other.path) && frame == other.frame
+                    && Objects.equals(matrix, other.matrix)
+                    && Objects.equals(tint, other.tint)
+                    && width == other.width && height == other.height;
+        }
+
+        @Override
+        public String toString() {
+            return path + "[" + frame + "]"; //$NON-NLS-1$ //$NON-NLS-2$
+        }
+    }
+
+    private static SymbolImageCache instance;
+
+    private final SizeBoundedCache<Key, ImageData> cache;
+
+    /** @param maxBytes Memory budget in bytes */
+    public SymbolImageCache(final long maxBytes) {
+        cache = new SizeBoundedCache<>(maxBytes, SymbolImageCache::getSize);
+    }
+
+    /** @return Shared instance, sized according to the preferences */
+    public static synchronized SymbolImageCache getInstance() {
+        if (instance == null)
+            instance = new SymbolImageCache(Preferences.getSymbolImageCacheSize() * 1024L * 1024L);
+        return instance;
+    }
+
+    /**
+     * @param key Key
+     * @return Cached image data or <code>null</code>
+     */
+    public ImageData get(final Key key) {
+        return cache.get(key);
+    }
+
+    /**
+     * Add image data to the cache. Images larger than the complete budget are
+     * not cached.
+     *
+     * @param key Key
+     * @param data Image data, must not be modified afterwards
+     */
+    public void put(final Key key, final ImageData data) {
+        cache.put(key, data);
+    }
+
+    /**
+     * Remove all entries for an image file, for example after it was modified
+     *
+     * @param path Image file
+     */
+    public void invalidate(final IPath path) {
+        final String portable = path.toPortableString();
+        cache.removeIf(key -> key.path.equals(portable));
+    }
+
+    /** Remove all entries */
+    public void clear() {
+        cache.clear();
+    }
+
+    /** @return Number of cached images */
+    public int getEntries() {
+        return cache.getEntries();
+    }
+
+    /** @return Bytes of image data held by the cache */
+    public long getBytes() {
+        return cache.getSize();
+    }
+
+    /** @return Memory budget in bytes */
+    public long getMaxBytes() {
+        return cache.getMaxSize();
+    }
+
+    /** @return Number of successful lookups */
+    public long getHits() {
+        return cache.getHits();
+    }
+
+    /** @return Number of failed lookups */
+    public long getMisses() {
+        return cache.getMisses();
+    }
+
+    /** @return Number of entries removed to stay within the budget */
+    public long getEvictions() {
+        return cache.getEvictions();
+    }
+
+    /**
+     * @param data Image data
+     * @return Approximate memory used by the image data in bytes
+     */
+    public static long getSize(final ImageData data) {
+        if (data == null)
+            return 0;
+        long size = data.data == null ? 0 : data.data.length;
+        if (data.alphaData != null)
+            size += data.alphaData.length;
+        if (data.maskData != null)
+            size += data.maskData.length;
+        return size;
+    }
+
+    @Override
+    public String toString() {
+        return "SymbolImageCache: " + cache; //$NON-NLS-1$
+    }
+}
@@ -509,6 +509,40 @@ public class GitManagerTest {
         assertEquals(1, snapshots.size());
     }
 
+    @Test
+    public void testFindSnapshotsIndex() throws IOException, GitAPIException {
+        Branch newBranch = manager.createBranch(branch, "foobar");
+        List<Snapshot> snapshots = manager.findSnapshotsByCommentOrUser("wabbit", newBranch, true, false,
+            Optional.empty(), Optional.empty());
+        assertEquals(1, snapshots.size());
+        assertTrue("Index was stored", new File(repositoryPath, ".git/saverestore/foobar.idx").exists());
+        // new commit is added to the existing index
+        SaveSet saveSet = new SaveSet(newBranch, Optional.of(new BaseLevel(newBranch, branchBase)),
+            branchSaveSet.getPath(), GitDataProvider.ID);
+        Snapshot snapshot = new Snapshot(saveSet, Instant.ofEpochMilli(time + 20000), "Kill the wabbit", "elmerfudd");
+        manager.saveSnapshot(new VSnapshot(snapshot, branchV1.getEntries(), snapshot.getDate()), "Kill the wabbit");
+        snapshots = manager.findSnapshotsByCommentOrUser("wabbit", newBranch, true, false, Optional.empty(),
+            Optional.empty());
+        assertEquals(2, snapshots.size());
+        assertEquals("Kill the wabbit", snapshots.get(0).getComment());
+        // a new manager reads the index from the file
+        GitManager other = new GitManager() {
+
+            @Override
+            protected Credentials getCredentials(Optional<Credentials> previous) {
+                return new Credentials("", new char[0], false);
+            }
+        };
+        try {
+            other.initialise(repositoryPath.toURI(), repositoryPath);
+            snapshots = other.findSnapshotsByCommentOrUser("wabbit", newBranch, true, false, Optional.empty(),
+                Optional.empty());
+            assertEquals(2, snapshots.size());
+        } finally {
+            other.dispose();
+        }
+    }
+
     @Test
     public void testDeleteSaveSet() throws IOException, GitAPIException {
         SaveSet newSaveSet = new SaveSet(secondBranch, Optional.of(secondBase), new String[] { "created", "set2.bms" },
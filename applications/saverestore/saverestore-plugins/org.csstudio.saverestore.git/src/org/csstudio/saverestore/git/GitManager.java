@@ -33,6 +33,8 @@ import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
 import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.logging.Level;
 import java.util.regex.Pattern;
 
@@ -76,11 +78,7 @@ import org.eclipse.jgit.merge.MergeStrategy;
 import org.eclipse.jgit.revwalk.RevCommit;
 import org.eclipse.jgit.revwalk.RevTag;
 import org.eclipse.jgit.revwalk.RevWalk;
-import org.eclipse.jgit.revwalk.filter.AndRevFilter;
 import org.eclipse.jgit.revwalk.filter.CommitTimeRevFilter;
-import org.eclipse.jgit.revwalk.filter.CommitterRevFilter;
-import org.eclipse.jgit.revwalk.filter.MessageRevFilter;
-import org.eclipse.jgit.revwalk.filter.OrRevFilter;
 import org.eclipse.jgit.revwalk.filter.RevFilter;
 import org.eclipse.jgit.transport.FetchResult;
 import org.eclipse.jgit.transport.RefSpec;
@@ -112,6 +110,9 @@ public class GitManager {
     private static final String PARAM_TAG_NAME = "tagName";
     private static final String PARAM_TAG_MESSAGE = "tagMessage";
     private static final String UNKNOWN = "UNKNOWN";
+    // location of the snapshot index files inside the git directory
+    private static final String INDEX_DIRECTORY = "saverestore";
+    private static final String INDEX_SUFFIX = ".idx";
 
     // the pattern describing all forbidden characters in git tag
     private static final Pattern TAG_PATTERN = Pattern
@@ -122,6 +123,10 @@ public class GitManager {
     private File repositoryPath;
     private boolean automatic = true;
     private boolean localOnly = false;
+    // read operations on the checked out branch may run concurrently, branch switching and writing is exclusive
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // snapshot indices for the branches (key is the branch short name)
+    private final Map<String, SnapshotIndex> snapshotIndices = new ConcurrentHashMap<>();
 
     @SuppressWarnings("unchecked")
     private static final List<String> EMPTY_LIST = Collections.EMPTY_LIST;
@@ -173,11 +178,16 @@ public class GitManager {
      *
      * @return true if only local or false for remote only
      */
-    synchronized boolean isLocalOnly() {
-        return localOnly;
+    boolean isLocalOnly() {
+        lock.readLock().lock();
+        try {
+            return localOnly;
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 
-    private synchronized void checkInitialised() throws IllegalStateException {
+    private void checkInitialised() throws IllegalStateException {
         if (git == null) {
             throw new IllegalStateException("Git has not been initialised.");
         }
@@ -186,8 +196,10 @@ public class GitManager {
     /**
      * Dispose of all resources allocated by this manager.
      */
-    public synchronized void dispose() {
+    public void dispose() {
+        lock.writeLock().lock();
         try {
+            snapshotIndices.clear();
             if (repository != null) {
                 repository.close();
                 repository = null;
@@ -198,6 +210,8 @@ public class GitManager {
             }
         } catch (Exception e) {
             SaveRestoreService.LOGGER.log(Level.SEVERE, "Git cleanup error.", e);
+        } finally {
+            lock.writeLock().unlock();
         }
     }
 
@@ -207,11 +221,16 @@ public class GitManager {
      *
      * @param automatic true if automatic synchronisation should be enabled
      */
-    public synchronized void setAutomaticSynchronisation(boolean automatic) {
-        if (localOnly && automatic) {
-            return;
+    public void setAutomaticSynchronisation(boolean automatic) {
+        lock.writeLock().lock();
+        try {
+            if (localOnly && automatic) {
+                return;
+            }
+            this.automatic = automatic;
+        } finally {
+            lock.writeLock().unlock();
         }
-        this.automatic = automatic;
     }
 
     /**
@@ -224,15 +243,20 @@ public class GitManager {
      * @return true if initialisation was successful or false otherwise (cancelled due to lack of permissions)
      * @throws GitAPIException in case of an error
      */
-    public synchronized boolean initialise(URI remoteRepository, File destinationDirectory) throws GitAPIException {
-        if (!internalInitialise(remoteRepository, destinationDirectory)) {
-            deleteFolder(destinationDirectory);
-            return internalInitialise(remoteRepository, destinationDirectory);
+    public boolean initialise(URI remoteRepository, File destinationDirectory) throws GitAPIException {
+        lock.writeLock().lock();
+        try {
+            if (!internalInitialise(remoteRepository, destinationDirectory)) {
+                deleteFolder(destinationDirectory);
+                return internalInitialise(remoteRepository, destinationDirectory);
+            }
+            return true;
+        } finally {
+            lock.writeLock().unlock();
         }
-        return true;
     }
 
-    private synchronized boolean internalInitialise(URI remoteRepository, File destinationDirectory)
+    private boolean internalInitialise(URI remoteRepository, File destinationDirectory)
         throws GitAPIException {
         if (!remoteRepository.toString().contains("://")) {
             // it is not git:// or http:// or https:// or ssh://
@@ -331,7 +355,7 @@ public class GitManager {
      * @throws GitAPIException if there was an exception during the checkout
      * @throws IOException if the current branch cannot be determined
      */
-    private synchronized void setBranch(Branch branch) throws GitAPIException, IOException {
+    private void setBranch(Branch branch) throws GitAPIException, IOException {
         checkInitialised();
         if (!branch.getShortName().equals(repository.getBranch())) {
             Ref ref = null;
@@ -348,33 +372,89 @@ public class GitManager {
         }
     }
 
+    /**
+     * Acquire the read lock with the repository checked out on the given branch. If the repository is checked out on a
+     * different branch, the write lock is acquired to switch the branch and then downgraded to the read lock. Reading
+     * from the same branch can therefore be done by several threads at the same time. The caller has to release the
+     * read lock when done.
+     *
+     * @param branch the branch to read from
+     * @throws GitAPIException if there was an exception during the checkout
+     * @throws IOException if the current branch cannot be determined
+     */
+    private void readLock(Branch branch) throws GitAPIException, IOException {
+        lock.readLock().lock();
+        boolean onBranch = false;
+        try {
+            if (lock.isWriteLockedByCurrentThread()) {
+                // called from a write operation, which may switch the branch itself
+                setBranch(branch);
+                onBranch = true;
+            } else {
+                checkInitialised();
+                onBranch = branch.getShortName().equals(repository.getBranch());
+            }
+        } finally {
+            if (!onBranch) {
+                lock.readLock().unlock();
+            }
+        }
+        if (onBranch) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            setBranch(branch);
+            lock.readLock().lock();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the snapshot index of the currently checked out branch. The index is not updated by this method.
+     *
+     * @return the snapshot index
+     * @throws IOException if the current branch cannot be determined
+     */
+    private SnapshotIndex getSnapshotIndex() throws IOException {
+        String branch = repository.getBranch();
+        return snapshotIndices.computeIfAbsent(branch, b -> new SnapshotIndex(
+            new File(new File(repository.getDirectory(), INDEX_DIRECTORY), b + INDEX_SUFFIX)));
+    }
+
     /**
      * Returns the list of all branches in the repository.
      *
      * @return the list of branches
      * @throws GitAPIException if the branches could not be read
      */
-    public synchronized List<Branch> getBranches() throws GitAPIException {
-        checkInitialised();
-        List<Ref> branchesRef = git.branchList().setListMode(ListMode.ALL).call();
-        List<Branch> branches = new ArrayList<>(branchesRef.size());
-        for (Ref b : branchesRef) {
-            String name = b.getName();
-            if ("HEAD".equals(name)) {
-                continue;
-            }
-            Branch branch;
-            if (name.indexOf('/') > 0) {
-                branch = new Branch(name, name.substring(name.lastIndexOf('/') + 1));
-            } else {
-                branch = new Branch(name, name);
-            }
-            if (!branches.contains(branch)) {
-                branches.add(branch);
+    public List<Branch> getBranches() throws GitAPIException {
+        lock.readLock().lock();
+        try {
+            checkInitialised();
+            List<Ref> branchesRef = git.branchList().setListMode(ListMode.ALL).call();
+            List<Branch> branches = new ArrayList<>(branchesRef.size());
+            for (Ref b : branchesRef) {
+                String name = b.getName();
+                if ("HEAD".equals(name)) {
+                    continue;
+                }
+                Branch branch;
+                if (name.indexOf('/') > 0) {
+                    branch = new Branch(name, name.substring(name.lastIndexOf('/') + 1));
+                } else {
+                    branch = new Branch(name, name);
+                }
+                if (!branches.contains(branch)) {
+                    branches.add(branch);
+                }
             }
+            Collections.sort(branches);
+            return branches;
+        } finally {
+            lock.readLock().unlock();
         }
-        Collections.sort(branches);
-        return branches;
     }
 
     /**
@@ -384,15 +464,20 @@ public class GitManager {
      * @return true if changes in the local repository were made
      * @throws GitAPIException if there is an error during push or pull
      */
-    public synchronized boolean synchronise(Optional<Credentials> cp) throws GitAPIException {
-        checkInitialised();
-        Credentials c = cp.isPresent() ? cp.get() : getCredentials(Optional.empty());
-        if (c != null) {
-            Object[] obj = pull(c);
-            push((Credentials) obj[0], true);
-            return (Boolean) obj[1];
+    public boolean synchronise(Optional<Credentials> cp) throws GitAPIException {
+        lock.writeLock().lock();
+        try {
+            checkInitialised();
+            Credentials c = cp.isPresent() ? cp.get() : getCredentials(Optional.empty());
+            if (c != null) {
+                Object[] obj = pull(c);
+                push((Credentials) obj[0], true);
+                return (Boolean) obj[1];
+            }
+            return false;
+        } finally {
+            lock.writeLock().unlock();
         }
-        return false;
     }
 
     /**
@@ -410,32 +495,37 @@ public class GitManager {
      * @throws IOException in case of an IO error
      * @throws ParseException if the snapshot content could not be parsed
      */
-    public synchronized Result<Boolean> importData(SaveSet source, Branch toBranch, Optional<BaseLevel> toBaseLevel,
+    public Result<Boolean> importData(SaveSet source, Branch toBranch, Optional<BaseLevel> toBaseLevel,
         ImportType type) throws GitAPIException, IOException, ParseException {
-        checkInitialised();
-        boolean oldAutomatic = this.automatic;
-        setAutomaticSynchronisation(false);
-        Credentials cred = getCredentials(Optional.empty());
-        Object[] obj = pull(cred);
-        ChangeType change = (Boolean) obj[1] ? ChangeType.PULL : ChangeType.SAVE;
-        cred = (Credentials) obj[0];
+        lock.writeLock().lock();
         try {
-            if (source.getName().isEmpty()) {
-                // it is a folder
-                List<SaveSet> sets = getSaveSets(source.getBaseLevel(), source.getBranch(),
-                    Optional.of(source.getPathAsString()));
-                for (SaveSet s : sets) {
-                    importSaveSet(s, toBaseLevel, toBranch, type, cred);
+            checkInitialised();
+            boolean oldAutomatic = this.automatic;
+            setAutomaticSynchronisation(false);
+            Credentials cred = getCredentials(Optional.empty());
+            Object[] obj = pull(cred);
+            ChangeType change = (Boolean) obj[1] ? ChangeType.PULL : ChangeType.SAVE;
+            cred = (Credentials) obj[0];
+            try {
+                if (source.getName().isEmpty()) {
+                    // it is a folder
+                    List<SaveSet> sets = getSaveSets(source.getBaseLevel(), source.getBranch(),
+                        Optional.of(source.getPathAsString()));
+                    for (SaveSet s : sets) {
+                        importSaveSet(s, toBaseLevel, toBranch, type, cred);
+                    }
+                } else {
+                    // single save set
+                    importSaveSet(source, toBaseLevel, toBranch, type, cred);
                 }
-            } else {
-                // single save set
-                importSaveSet(source, toBaseLevel, toBranch, type, cred);
+            } finally {
+                setAutomaticSynchronisation(oldAutomatic);
             }
+            push(cred, true);
+            return new Result<>(true, change);
         } finally {
-            setAutomaticSynchronisation(oldAutomatic);
+            lock.writeLock().unlock();
         }
-        push(cred, true);
-        return new Result<>(true, change);
     }
 
     private void importSaveSet(SaveSet source, Optional<BaseLevel> toBaseLevel, Branch toBranch, ImportType type,
@@ -472,18 +562,22 @@ public class GitManager {
      * @param branch the branch from which to retrieve base levels
      * @return the list of base levels
      */
-    public synchronized List<BaseLevel> getBaseLevels(Branch branch) throws GitAPIException, IOException {
-        setBranch(branch);
-        File[] files = repositoryPath.listFiles();
-        List<BaseLevel> baseLevels = new ArrayList<>();
-        if (files != null) {
-            for (File f : files) {
-                if (f.isDirectory() && f.getName().charAt(0) != '.') {
-                    baseLevels.add(new BaseLevel(branch, f.getName(), f.getName()));
+    public List<BaseLevel> getBaseLevels(Branch branch) throws GitAPIException, IOException {
+        readLock(branch);
+        try {
+            File[] files = repositoryPath.listFiles();
+            List<BaseLevel> baseLevels = new ArrayList<>();
+            if (files != null) {
+                for (File f : files) {
+                    if (f.isDirectory() && f.getName().charAt(0) != '.') {
+                        baseLevels.add(new BaseLevel(branch, f.getName(), f.getName()));
+                    }
                 }
             }
+            return baseLevels;
+        } finally {
+            lock.readLock().unlock();
         }
-        return baseLevels;
     }
 
     /**
@@ -495,9 +589,14 @@ public class GitManager {
      * @return the list of save sets
      * @throws IOException if the current branch could not be retrieved
      */
-    public synchronized List<SaveSet> getSaveSets(Optional<BaseLevel> baseLevel, Branch branch)
+    public List<SaveSet> getSaveSets(Optional<BaseLevel> baseLevel, Branch branch)
         throws IOException, GitAPIException {
-        return getSaveSets(baseLevel, branch, Optional.empty());
+        readLock(branch);
+        try {
+            return getSaveSets(baseLevel, branch, Optional.empty());
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 
     /**
@@ -562,16 +661,20 @@ public class GitManager {
      * @throws IOException if there was an error reading the contents of the file
      * @throws GitAPIException if setting the branch failed
      */
-    public synchronized SaveSetData loadSaveSetData(SaveSet descriptor, Optional<String> revision)
+    public SaveSetData loadSaveSetData(SaveSet descriptor, Optional<String> revision)
         throws IOException, GitAPIException {
-        setBranch(descriptor.getBranch());
-        String path = convertPathToString(descriptor, FileType.SAVE_SET);
+        readLock(descriptor.getBranch());
         try {
-            return loadFile(revision, path, FileType.SAVE_SET, SaveSetData.class, descriptor);
-        } catch (ParseException e) {
-            // cannot happen, but just in case, make a log
-            SaveRestoreService.LOGGER.log(Level.SEVERE, "Unexpected error when loading save set content", e);
-            return null;
+            String path = convertPathToString(descriptor, FileType.SAVE_SET);
+            try {
+                return loadFile(revision, path, FileType.SAVE_SET, SaveSetData.class, descriptor);
+            } catch (ParseException e) {
+                // cannot happen, but just in case, make a log
+                SaveRestoreService.LOGGER.log(Level.SEVERE, "Unexpected error when loading save set content", e);
+                return null;
+            }
+        } finally {
+            lock.readLock().unlock();
         }
     }
 
@@ -585,34 +688,39 @@ public class GitManager {
      * @throws IOException if the commits could not be read
      * @throws GitAPIException if the commits could not be read
      */
-    public synchronized List<Snapshot> getSnapshots(SaveSet saveSet, int numberOfRevisions,
+    public List<Snapshot> getSnapshots(SaveSet saveSet, int numberOfRevisions,
         Optional<Snapshot> fromThisOneBack) throws IOException, GitAPIException {
-        setBranch(saveSet.getBranch());
-        List<Snapshot> snapshots = new ArrayList<>();
-
-        String path = convertPathToString(saveSet, FileType.SNAPSHOT);
-        path = path.replace(FileType.SAVE_SET.directory, FileType.SNAPSHOT.directory);
-        path = path.replace(FileType.SAVE_SET.suffix, FileType.SNAPSHOT.suffix);
-
-        String rev = fromThisOneBack.isPresent() ? fromThisOneBack.get().getParameters().get(PARAM_GIT_REVISION) : null;
-        List<RevCommit> fileRevisions = findCommitsFor(path, numberOfRevisions, Optional.ofNullable(rev));
-        Map<String, RevTag> tags = loadTagsForRevisions(fileRevisions);
-        String branch = saveSet.getBranch().getShortName();
-        for (RevCommit commit : fileRevisions) {
-            String revision = commit.getName();
-            if (rev != null && rev.equals(revision)) {
-                // do not return the revision that the client already knows
-                continue;
+        readLock(saveSet.getBranch());
+        try {
+            List<Snapshot> snapshots = new ArrayList<>();
+
+            String path = convertPathToString(saveSet, FileType.SNAPSHOT);
+            path = path.replace(FileType.SAVE_SET.directory, FileType.SNAPSHOT.directory);
+            path = path.replace(FileType.SAVE_SET.suffix, FileType.SNAPSHOT.suffix);
+
+            String rev = fromThisOneBack.isPresent() ? fromThisOneBack.get().getParameters().get(PARAM_GIT_REVISION)
+                : null;
+            List<RevCommit> fileRevisions = findCommitsFor(path, numberOfRevisions, Optional.ofNullable(rev));
+            Map<String, RevTag> tags = loadTagsForRevisions(fileRevisions);
+            String branch = saveSet.getBranch().getShortName();
+            for (RevCommit commit : fileRevisions) {
+                String revision = commit.getName();
+                if (rev != null && rev.equals(revision)) {
+                    // do not return the revision that the client already knows
+                    continue;
+                }
+                MetaInfo meta = getMetaInfoFromCommit(commit);
+                Map<String, String> parameters = new HashMap<>();
+                parameters.put(PARAM_GIT_REVISION, revision);
+                insertTagData(tags.get(revision), parameters, revision, branch);
+                Snapshot snapshot = new Snapshot(saveSet, meta.timestamp.toInstant(), meta.comment, meta.creator,
+                    parameters.remove(PARAM_TAG_NAME), parameters.remove(PARAM_TAG_MESSAGE), parameters, EMPTY_LIST);
+                snapshots.add(snapshot);
             }
-            MetaInfo meta = getMetaInfoFromCommit(commit);
-            Map<String, String> parameters = new HashMap<>();
-            parameters.put(PARAM_GIT_REVISION, revision);
-            insertTagData(tags.get(revision), parameters, revision, branch);
-            Snapshot snapshot = new Snapshot(saveSet, meta.timestamp.toInstant(), meta.comment, meta.creator,
-                parameters.remove(PARAM_TAG_NAME), parameters.remove(PARAM_TAG_MESSAGE), parameters, EMPTY_LIST);
-            snapshots.add(snapshot);
+            return snapshots;
+        } finally {
+            lock.readLock().unlock();
         }
-        return snapshots;
     }
 
     /**
@@ -623,12 +731,16 @@ public class GitManager {
      * @throws ParseException if
      * @throws IOException
      */
-    public synchronized VSnapshot loadSnapshotData(Snapshot snapshot)
+    public VSnapshot loadSnapshotData(Snapshot snapshot)
         throws ParseException, IOException, GitAPIException {
-        setBranch(snapshot.getSaveSet().getBranch());
-        String path = convertPathToString(snapshot.getSaveSet(), FileType.SNAPSHOT);
-        return loadFile(Optional.ofNullable(snapshot.getParameters().get(PARAM_GIT_REVISION)), path, FileType.SNAPSHOT,
-            VSnapshot.class, snapshot);
+        readLock(snapshot.getSaveSet().getBranch());
+        try {
+            String path = convertPathToString(snapshot.getSaveSet(), FileType.SNAPSHOT);
+            return loadFile(Optional.ofNullable(snapshot.getParameters().get(PARAM_GIT_REVISION)), path,
+                FileType.SNAPSHOT, VSnapshot.class, snapshot);
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 
     /**
@@ -640,9 +752,14 @@ public class GitManager {
      * @throws IOException if writing to the file failed
      * @throws GitAPIException if committing the file failed
      */
-    public synchronized Result<SaveSetData> saveSaveSet(SaveSetData data, String comment)
+    public Result<SaveSetData> saveSaveSet(SaveSetData data, String comment)
         throws IOException, GitAPIException {
-        return saveSaveSet(data, comment, null);
+        lock.writeLock().lock();
+        try {
+            return saveSaveSet(data, comment, null);
+        } finally {
+            lock.writeLock().unlock();
+        }
     }
 
     /**
@@ -696,38 +813,43 @@ public class GitManager {
      * @throws IOException in case of an error
      * @throws GitAPIException in case of an error
      */
-    public synchronized Result<SaveSet> deleteSaveSet(SaveSet set, String comment) throws IOException, GitAPIException {
-        checkInitialised();
-        SaveSet deleted = null;
-        ChangeType change = ChangeType.NONE;
-        delete: {
-            Credentials cp = getCredentials(Optional.empty());
-            if (cp != null) {
-                setBranch(set.getBranch());
-                change = ChangeType.SAVE;
-                if (automatic) {
-                    Object[] obj = pull(cp);
-                    cp = (Credentials) obj[0];
-                    change = (Boolean) obj[1] ? ChangeType.PULL : change;
-                    if (cp == null) {
-                        break delete;
-                    }
-                }
-                String relativePath = convertPathToString(set, FileType.SAVE_SET);
-                if (deleteFile(relativePath, repositoryPath)) {
-                    deleted = set;
-                    commit(relativePath, new MetaInfo(comment, cp.getUsername(), UNKNOWN, null, null), true);
-                    // delete also the snapshot file
-                    relativePath = convertPathToString(set, FileType.SNAPSHOT);
-                    deleteFile(relativePath, repositoryPath);
-                    commit(relativePath, new MetaInfo(comment, cp.getUsername(), null, null, null), true);
+    public Result<SaveSet> deleteSaveSet(SaveSet set, String comment) throws IOException, GitAPIException {
+        lock.writeLock().lock();
+        try {
+            checkInitialised();
+            SaveSet deleted = null;
+            ChangeType change = ChangeType.NONE;
+            delete: {
+                Credentials cp = getCredentials(Optional.empty());
+                if (cp != null) {
+                    setBranch(set.getBranch());
+                    change = ChangeType.SAVE;
                     if (automatic) {
-                        push(cp, false);
+                        Object[] obj = pull(cp);
+                        cp = (Credentials) obj[0];
+                        change = (Boolean) obj[1] ? ChangeType.PULL : change;
+                        if (cp == null) {
+                            break delete;
+                        }
+                    }
+                    String relativePath = convertPathToString(set, FileType.SAVE_SET);
+                    if (deleteFile(relativePath, repositoryPath)) {
+                        deleted = set;
+                        commit(relativePath, new MetaInfo(comment, cp.getUsername(), UNKNOWN, null, null), true);
+                        // delete also the snapshot file
+                        relativePath = convertPathToString(set, FileType.SNAPSHOT);
+                        deleteFile(relativePath, repositoryPath);
+                        commit(relativePath, new MetaInfo(comment, cp.getUsername(), null, null, null), true);
+                        if (automatic) {
+                            push(cp, false);
+                        }
                     }
                 }
             }
+            return new Result<>(deleted, change);
+        } finally {
+            lock.writeLock().unlock();
         }
-        return new Result<>(deleted, change);
     }
 
     /**
@@ -739,9 +861,14 @@ public class GitManager {
      * @throws IOException if writing the file failed
      * @throws GitAPIException if committing the file failed
      */
-    public synchronized Result<VSnapshot> saveSnapshot(VSnapshot snapshot, String comment)
+    public Result<VSnapshot> saveSnapshot(VSnapshot snapshot, String comment)
         throws IOException, GitAPIException {
-        return saveSnapshot(snapshot, comment, snapshot.getTimestamp(), null);
+        lock.writeLock().lock();
+        try {
+            return saveSnapshot(snapshot, comment, snapshot.getTimestamp(), null);
+        } finally {
+            lock.writeLock().unlock();
+        }
     }
 
     /**
@@ -799,10 +926,15 @@ public class GitManager {
      * @throws GitAPIException in case of an error
      * @throws IOException in case of an error
      */
-    public synchronized Branch createBranch(Branch oldBranch, String branch) throws GitAPIException, IOException {
-        setBranch(oldBranch);
-        git.branchCreate().setName(branch).call();
-        return new Branch(branch, branch);
+    public Branch createBranch(Branch oldBranch, String branch) throws GitAPIException, IOException {
+        lock.writeLock().lock();
+        try {
+            setBranch(oldBranch);
+            git.branchCreate().setName(branch).call();
+            return new Branch(branch, branch);
+        } finally {
+            lock.writeLock().unlock();
+        }
     }
 
     /**
@@ -815,62 +947,67 @@ public class GitManager {
      * @throws IOException if writing the file failed
      * @throws GitAPIException if committing the file failed
      */
-    public synchronized Result<Snapshot> tagSnapshot(Snapshot snapshot, String name, String message)
+    public Result<Snapshot> tagSnapshot(Snapshot snapshot, String name, String message)
         throws IOException, GitAPIException, DataProviderException {
-        if (name != null && TAG_PATTERN.matcher(name).replaceAll("").length() != name.length()) {
-            throw new DataProviderException("Tag name contains invalid characters.");
-        }
-        checkInitialised();
-        Snapshot snp = null;
-        ChangeType change = ChangeType.NONE;
-        tag: {
-            Credentials cp = getCredentials(Optional.empty());
-            if (cp != null) {
-                setBranch(snapshot.getSaveSet().getBranch());
-                change = ChangeType.SAVE;
-                if (automatic) {
-                    Object[] obj = pull(cp);
-                    cp = (Credentials) obj[0];
-                    change = (Boolean) obj[1] ? ChangeType.PULL : change;
-                    if (cp == null) {
-                        break tag;
+        lock.writeLock().lock();
+        try {
+            if (name != null && TAG_PATTERN.matcher(name).replaceAll("").length() != name.length()) {
+                throw new DataProviderException("Tag name contains invalid characters.");
+            }
+            checkInitialised();
+            Snapshot snp = null;
+            ChangeType change = ChangeType.NONE;
+            tag: {
+                Credentials cp = getCredentials(Optional.empty());
+                if (cp != null) {
+                    setBranch(snapshot.getSaveSet().getBranch());
+                    change = ChangeType.SAVE;
+                    if (automatic) {
+                        Object[] obj = pull(cp);
+                        cp = (Credentials) obj[0];
+                        change = (Boolean) obj[1] ? ChangeType.PULL : change;
+                        if (cp == null) {
+                            break tag;
+                        }
                     }
-                }
-                // remove the existing tag
-                String revision = snapshot.getParameters().get(PARAM_GIT_REVISION);
-                RevCommit commit = getCommitFromRevision(revision);
-                RevTag existingTag = loadTagsForRevisions(Arrays.asList(commit)).get(revision);
-                if (existingTag != null) {
-                    git.tagDelete().setTags(existingTag.getTagName()).call();
-                    if (!localOnly) {
-                        RefSpec refSpec = new RefSpec().setSource(null)
-                            .setDestination("refs/tags/" + existingTag.getTagName());
-                        git.push().setCredentialsProvider(toCredentialsProvider(cp)).setRefSpecs(refSpec).call();
+                    // remove the existing tag
+                    String revision = snapshot.getParameters().get(PARAM_GIT_REVISION);
+                    RevCommit commit = getCommitFromRevision(revision);
+                    RevTag existingTag = loadTagsForRevisions(Arrays.asList(commit)).get(revision);
+                    if (existingTag != null) {
+                        git.tagDelete().setTags(existingTag.getTagName()).call();
+                        if (!localOnly) {
+                            RefSpec refSpec = new RefSpec().setSource(null)
+                                .setDestination("refs/tags/" + existingTag.getTagName());
+                            git.push().setCredentialsProvider(toCredentialsProvider(cp)).setRefSpecs(refSpec).call();
+                        }
                     }
-                }
 
-                Map<String, String> parameters = new HashMap<>();
-                parameters.put(PARAM_GIT_REVISION, revision);
-                String tagName = null;
-                String tagMessage = null;
-                if (name != null && !name.isEmpty()) {
-                    String gitTagName = composeTagName(snapshot.getSaveSet().getBranch(),
-                        snapshot.getSaveSet().getBaseLevel(), snapshot.getSaveSet().getPath(), name);
-                    PersonIdent tagger = new PersonIdent(cp.getUsername(), UNKNOWN);
-                    git.tag().setName(gitTagName).setMessage(message).setTagger(tagger).setObjectId(commit).call();
-                    if (automatic) {
-                        push(cp, true);
+                    Map<String, String> parameters = new HashMap<>();
+                    parameters.put(PARAM_GIT_REVISION, revision);
+                    String tagName = null;
+                    String tagMessage = null;
+                    if (name != null && !name.isEmpty()) {
+                        String gitTagName = composeTagName(snapshot.getSaveSet().getBranch(),
+                            snapshot.getSaveSet().getBaseLevel(), snapshot.getSaveSet().getPath(), name);
+                        PersonIdent tagger = new PersonIdent(cp.getUsername(), UNKNOWN);
+                        git.tag().setName(gitTagName).setMessage(message).setTagger(tagger).setObjectId(commit).call();
+                        if (automatic) {
+                            push(cp, true);
+                        }
+                        parameters.put(PARAM_GIT_TAG_NAME, gitTagName);
+                        parameters.put(PARAM_TAG_CREATOR, cp.getUsername());
+                        tagName = name;
+                        tagMessage = message;
                     }
-                    parameters.put(PARAM_GIT_TAG_NAME, gitTagName);
-                    parameters.put(PARAM_TAG_CREATOR, cp.getUsername());
-                    tagName = name;
-                    tagMessage = message;
+                    snp = new Snapshot(snapshot.getSaveSet(), snapshot.getDate(), snapshot.getComment(),
+                        snapshot.getOwner(), tagName, tagMessage, parameters, EMPTY_LIST);
                 }
-                snp = new Snapshot(snapshot.getSaveSet(), snapshot.getDate(), snapshot.getComment(),
-                    snapshot.getOwner(), tagName, tagMessage, parameters, EMPTY_LIST);
             }
+            return new Result<>(snp, change);
+        } finally {
+            lock.writeLock().unlock();
         }
-        return new Result<>(snp, change);
     }
 
     /**
@@ -1108,19 +1245,24 @@ public class GitManager {
      * @throws GitAPIException in case of a git error
      * @throws IOException in case of an IO error
      */
-    public synchronized List<Snapshot> findSnapshotsByTag(String partialTagNameOrMessage, Branch branch,
+    public List<Snapshot> findSnapshotsByTag(String partialTagNameOrMessage, Branch branch,
         Optional<Date> start, Optional<Date> end) throws GitAPIException, IOException {
         final Pattern pattern = Pattern.compile(".*" + partialTagNameOrMessage.toLowerCase(Locale.UK) + ".*");
-        return findSnapshotsByTag(branch, start, end, (w, r, n) -> {
-            String tagName = n.substring(n.indexOf('(') + 1, n.length() - 1).toLowerCase(Locale.UK);
-            if (pattern.matcher(tagName).matches()) {
-                return w.parseTag(r.getObjectId());
-            } else {
-                RevTag tag = w.parseTag(r.getObjectId());
-                String message = tag.getFullMessage().toLowerCase(Locale.UK).replace("\n", " ");
-                return pattern.matcher(message).matches() ? tag : null;
-            }
-        });
+        readLock(branch);
+        try {
+            return findSnapshotsByTag(branch, start, end, (w, r, n) -> {
+                String tagName = n.substring(n.indexOf('(') + 1, n.length() - 1).toLowerCase(Locale.UK);
+                if (pattern.matcher(tagName).matches()) {
+                    return w.parseTag(r.getObjectId());
+                } else {
+                    RevTag tag = w.parseTag(r.getObjectId());
+                    String message = tag.getFullMessage().toLowerCase(Locale.UK).replace("\n", " ");
+                    return pattern.matcher(message).matches() ? tag : null;
+                }
+            });
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 
     /**
@@ -1135,14 +1277,19 @@ public class GitManager {
      * @throws GitAPIException in case of a git error
      * @throws IOException in case of an IO error
      */
-    public synchronized List<Snapshot> findSnapshotsByTagMessage(String partialMessage, Branch branch,
+    public List<Snapshot> findSnapshotsByTagMessage(String partialMessage, Branch branch,
         Optional<Date> start, Optional<Date> end) throws GitAPIException, IOException {
         final Pattern pattern = Pattern.compile(".*" + partialMessage.toLowerCase(Locale.UK) + ".*");
-        return findSnapshotsByTag(branch, start, end, (w, r, n) -> {
-            RevTag tag = w.parseTag(r.getObjectId());
-            String message = tag.getFullMessage().toLowerCase().replace("\n", " ");
-            return pattern.matcher(message).matches() ? tag : null;
-        });
+        readLock(branch);
+        try {
+            return findSnapshotsByTag(branch, start, end, (w, r, n) -> {
+                RevTag tag = w.parseTag(r.getObjectId());
+                String message = tag.getFullMessage().toLowerCase().replace("\n", " ");
+                return pattern.matcher(message).matches() ? tag : null;
+            });
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 
     /**
@@ -1157,13 +1304,18 @@ public class GitManager {
      * @throws GitAPIException in case of a git error
      * @throws IOException in case of an IO error
      */
-    public synchronized List<Snapshot> findSnapshotsByTagName(String partialTagName, Branch branch,
+    public List<Snapshot> findSnapshotsByTagName(String partialTagName, Branch branch,
         Optional<Date> start, Optional<Date> end) throws GitAPIException, IOException {
         final Pattern pattern = Pattern.compile(".*" + partialTagName.toLowerCase(Locale.UK) + ".*");
-        return findSnapshotsByTag(branch, start, end, (w, r, n) -> {
-            String tagName = n.substring(n.indexOf('(') + 1, n.length() - 1).toLowerCase();
-            return pattern.matcher(tagName).matches() ? w.parseTag(r.getObjectId()) : null;
-        });
+        readLock(branch);
+        try {
+            return findSnapshotsByTag(branch, start, end, (w, r, n) -> {
+                String tagName = n.substring(n.indexOf('(') + 1, n.length() - 1).toLowerCase();
+                return pattern.matcher(tagName).matches() ? w.parseTag(r.getObjectId()) : null;
+            });
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 
     /**
@@ -1180,7 +1332,6 @@ public class GitManager {
      */
     private List<Snapshot> findSnapshotsByTag(Branch branch, Optional<Date> start, Optional<Date> end,
         TriFunction<RevWalk, Ref, String, RevTag> f) throws GitAPIException, IOException {
-        setBranch(branch);
         List<Snapshot> snapshots = new ArrayList<>();
         Map<String, Ref> tags = repository.getTags();
         String branchName = new StringBuilder(branch.getShortName().length() + 2).append('(')
@@ -1264,9 +1415,10 @@ public class GitManager {
      * Find all snapshot that are stored with the comment that contains the partial text or were created by the user
      * whose username contains the partial text and were created during the given time period. If time range is
      * provided, only commits that belong to that time range are search and any snapshot with a comment or user that
-     * contain the partial text and is located on the given branch matches the criteria. This method is faster than
-     * making separate search for user and comment and combining the results, because this method only traverses the
-     * revision tree once.
+     * contain the partial text and is located on the given branch matches the criteria. The search is made in the
+     * {@link SnapshotIndex} of the branch, which is first brought up to date with the head of the branch, so the
+     * revision tree does not need to be traversed. The new commits are added to the index without holding the lock, so
+     * that a long update, e.g. the first one, does not block commits or other readers.
      *
      * @param partialText the partial comment or username that we search for
      * @param branch the branch on which to search
@@ -1278,84 +1430,73 @@ public class GitManager {
      * @throws IOException in case of an error
      * @throws GitAPIException in case of branch checkout or tags loading error
      */
-    public synchronized List<Snapshot> findSnapshotsByCommentOrUser(String partialText, final Branch branch,
-        boolean byComment, boolean byUser, Optional<Date> start, Optional<Date> end)
-            throws IOException, GitAPIException {
-        setBranch(branch);
-        List<Snapshot> snapshots = new ArrayList<>();
-        List<RevCommit> revisions = new ArrayList<>();
-        try (RevWalk revWalk = new RevWalk(repository); ObjectReader objectReader = repository.newObjectReader()) {
-            revWalk.markStart(getHeadCommit());
-            RevFilter userCommentFilter = null;
-            if (byComment && byUser) {
-                userCommentFilter = OrRevFilter.create(MessageRevFilter.create(partialText),
-                    CommitterRevFilter.create(partialText));
-            } else if (byComment) {
-                userCommentFilter = MessageRevFilter.create(partialText);
-            } else if (byUser) {
-                userCommentFilter = CommitterRevFilter.create(partialText);
-            }
-            RevFilter timeFilter = null;
-            if (start.isPresent() && end.isPresent()) {
-                timeFilter = CommitTimeRevFilter.between(start.get(), end.get());
-            } else if (start.isPresent()) {
-                timeFilter = CommitTimeRevFilter.after(start.get());
-            } else if (end.isPresent()) {
-                timeFilter = CommitTimeRevFilter.before(end.get());
-            }
-            if (userCommentFilter == null && timeFilter == null) {
-                throw new IllegalArgumentException("No search parameters provided.");
-            } else if (userCommentFilter != null && timeFilter != null) {
-                revWalk.setRevFilter(AndRevFilter.create(userCommentFilter, timeFilter));
-            } else if (userCommentFilter != null) {
-                revWalk.setRevFilter(userCommentFilter);
-            } else {
-                revWalk.setRevFilter(timeFilter);
-            }
-            for (RevCommit commit : revWalk) {
-                AbstractTreeIterator oldTreeIterator = new EmptyTreeIterator();
-                if (commit.getParents().length != 0) {
-                    oldTreeIterator = new CanonicalTreeParser(null, objectReader, commit.getParents()[0].getTree());
+    public List<Snapshot> findSnapshotsByCommentOrUser(String partialText, final Branch branch, boolean byComment,
+        boolean byUser, Optional<Date> start, Optional<Date> end) throws IOException, GitAPIException {
+        if (!byComment && !byUser && !start.isPresent() && !end.isPresent()) {
+            throw new IllegalArgumentException("No search parameters provided.");
+        }
+        // same semantics as the message and committer rev filters: case insensitive search for the pattern
+        final Pattern pattern = Pattern.compile(partialText, Pattern.CASE_INSENSITIVE);
+        // commit times are compared with the resolution of seconds, same as the commit time rev filter
+        final long from = start.isPresent() ? start.get().getTime() / 1000L : Long.MIN_VALUE;
+        final long to = end.isPresent() ? end.get().getTime() / 1000L : Long.MAX_VALUE;
+        SnapshotIndex index;
+        ObjectId head;
+        readLock(branch);
+        try {
+            index = getSnapshotIndex();
+            head = repository.resolve(Constants.HEAD);
+        } finally {
+            lock.readLock().unlock();
+        }
+        index.update(repository, head);
+        readLock(branch);
+        try {
+            List<SnapshotIndex.Entry> entries = index.find(e -> {
+                long time = e.time / 1000L;
+                if (time < from || time > to) {
+                    return false;
+                } else if (byComment && pattern.matcher(e.message).find()) {
+                    return true;
+                } else if (byUser && pattern.matcher(e.creator + " <" + e.email + ">").find()) {
+                    return true;
                 }
-                AbstractTreeIterator newTreeIterator = new CanonicalTreeParser(null, objectReader, commit.getTree());
-                try (DiffFormatter diffFormatter = new DiffFormatter(DisabledOutputStream.INSTANCE)) {
-                    diffFormatter.setRepository(repository);
-                    diffFormatter.setDiffComparator(RawTextComparator.DEFAULT);
-                    diffFormatter.setDetectRenames(true);
-                    List<DiffEntry> diffs = diffFormatter.scan(oldTreeIterator, newTreeIterator);
-                    for (DiffEntry diff : diffs) {
-                        if (diff.getChangeType() == org.eclipse.jgit.diff.DiffEntry.ChangeType.DELETE
-                            || diff.getChangeType() == org.eclipse.jgit.diff.DiffEntry.ChangeType.RENAME
-                            || !diff.getNewPath().endsWith(FileType.SNAPSHOT.suffix)) {
-                            continue;
-                        }
-                        pathToSaveSet(diff.getNewPath(), repositoryPath, branch, FileType.SNAPSHOT).ifPresent(e -> {
-                            MetaInfo mi = getMetaInfoFromCommit(commit);
-                            Map<String, String> parameters = new HashMap<>();
-                            parameters.put(PARAM_GIT_REVISION, mi.revision);
-                            revisions.add(commit);
-                            snapshots.add(new Snapshot(e, mi.timestamp.toInstant(), mi.comment, mi.creator, parameters,
-                                new ArrayList<>(0)));
-                        });
+                return !byComment && !byUser;
+            });
+            List<Snapshot> snapshots = new ArrayList<>();
+            List<RevCommit> revisions = new ArrayList<>();
+            try (RevWalk revWalk = new RevWalk(repository)) {
+                for (SnapshotIndex.Entry entry : entries) {
+                    Optional<SaveSet> saveSet = pathToSaveSet(entry.path, repositoryPath, branch, FileType.SNAPSHOT);
+                    if (saveSet.isPresent()) {
+                        MetaInfo mi = entry.toMetaInfo();
+                        Map<String, String> parameters = new HashMap<>();
+                        parameters.put(PARAM_GIT_REVISION, mi.revision);
+                        revisions.add(revWalk.parseCommit(ObjectId.fromString(entry.revision)));
+                        snapshots.add(new Snapshot(saveSet.get(), mi.timestamp.toInstant(), mi.comment, mi.creator,
+                            parameters, new ArrayList<>(0)));
                     }
                 }
             }
+            final Map<String, RevTag> tags = loadTagsForRevisions(revisions);
+            final List<Snapshot> ret = new ArrayList<>();
+            final String branchName = branch.getShortName();
+            snapshots.forEach(s -> {
+                String revision = s.getParameters().get(PARAM_GIT_REVISION);
+                if (tags.get(revision) == null) {
+                    ret.add(s);
+                } else {
+                    Map<String, String> parameters = new HashMap<>(s.getParameters());
+                    insertTagData(tags.get(revision), parameters, revision, branchName);
+                    ret.add(new Snapshot(s.getSaveSet(), s.getDate(), s.getComment(), s.getOwner(),
+                        parameters.remove(PARAM_TAG_NAME), parameters.remove(PARAM_TAG_MESSAGE), parameters,
+                        EMPTY_LIST));
+                }
+            });
+            return ret;
+        } finally {
+            lock.readLock().unlock();
         }
-        final Map<String, RevTag> tags = loadTagsForRevisions(revisions);
-        final List<Snapshot> ret = new ArrayList<>();
-        final String branchName = branch.getShortName();
-        snapshots.forEach(s -> {
-            String revision = s.getParameters().get(PARAM_GIT_REVISION);
-            if (tags.get(revision) == null) {
-                ret.add(s);
-            } else {
-                Map<String, String> parameters = new HashMap<>(s.getParameters());
-                insertTagData(tags.get(revision), parameters, revision, branchName);
-                ret.add(new Snapshot(s.getSaveSet(), s.getDate(), s.getComment(), s.getOwner(),
-                    parameters.remove(PARAM_TAG_NAME), parameters.remove(PARAM_TAG_MESSAGE), parameters, EMPTY_LIST));
-            }
-        });
-        return ret;
     }
 
     /**
@@ -0,0 +1,278 @@
+/*
+ * This software is Copyright by the Board of Trustees of Michigan
+ * State University (c) Copyright 2016.
+ *
+ * Contact Information:
+ *   Facility for Rare Isotope Beam
+ *   Michigan State University
+ *   East Lansing, MI 48824-1321
+ *   http://frib.msu.edu
+ */
+package org.csstudio.saverestore.git;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.logging.Level;
+
+import org.csstudio.saverestore.SaveRestoreService;
+import org.eclipse.jgit.diff.DiffEntry;
+import org.eclipse.jgit.diff.DiffFormatter;
+import org.eclipse.jgit.diff.RawTextComparator;
+import org.eclipse.jgit.errors.MissingObjectException;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectReader;
+import org.eclipse.jgit.lib.PersonIdent;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.eclipse.jgit.treewalk.AbstractTreeIterator;
+import org.eclipse.jgit.treewalk.CanonicalTreeParser;
+import org.eclipse.jgit.treewalk.EmptyTreeIterator;
+import org.eclipse.jgit.util.io.DisabledOutputStream;
+
+/**
+ * <code>SnapshotIndex</code> is a local index of all commits on one branch that added or modified a snapshot file. For
+ * each such commit the index holds the revision, the path to the snapshot file, the committer and the commit message,
+ * so that snapshots can be searched without walking and diffing the complete history of the repository.
+ * <p>
+ * The index is stored in a file inside the git directory and updated incrementally: only the commits between the last
+ * indexed commit and the given head of the branch are examined. If the last indexed commit is no longer part of the
+ * branch history (e.g. the branch was reset or recreated), the index is rebuilt from scratch.
+ * <p>
+ * Updates are serialised, while searches work on an immutable list of entries and do not block each other. An update
+ * only reads commit objects, which never change, so it does not need to hold the lock of the {@link GitManager}.
+ */
+class SnapshotIndex {
+
+    /**
+     * <code>Entry</code> describes a single change of a snapshot file.
+     */
+    static final class Entry {
+        final String revision;
+        final String path;
+        final String creator;
+        final String email;
+        final String message;
+        final long time;
+
+        Entry(String revision, String path, String creator, String email, String message, long time) {
+            this.revision = revision;
+            this.path = path;
+            this.creator = creator;
+            this.email = email;
+            this.message = message;
+            this.time = time;
+        }
+
+        /**
+         * @return the meta info of the commit that this entry was created from
+         */
+        MetaInfo toMetaInfo() {
+            return new MetaInfo(message, creator, email, new Date(time), revision);
+        }
+    }
+
+    // identifies the file format; when the format changes, old index files are discarded and rebuilt
+    private static final int FORMAT_VERSION = 1;
+
+    private final File file;
+    private boolean loaded = false;
+    private String lastIndexed;
+    private volatile List<Entry> entries = Collections.emptyList();
+
+    /**
+     * Constructs a new index, which is stored in the given file. The file is not read until the index is updated for
+     * the first time.
+     *
+     * @param file the file in which the index is stored
+     */
+    SnapshotIndex(File file) {
+        this.file = file;
+    }
+
+    /**
+     * Returns all entries accepted by the filter, ordered from the most recent commit to the oldest.
+     *
+     * @param filter the filter that accepts or rejects the entries
+     * @return the list of accepted entries
+     */
+    List<Entry> find(Predicate<Entry> filter) {
+        List<Entry> current = entries;
+        List<Entry> ret = new ArrayList<>();
+        for (int i = current.size() - 1; i > -1; i--) {
+            Entry e = current.get(i);
+            if (filter.test(e)) {
+                ret.add(e);
+            }
+        }
+        ret.sort((a, b) -> Long.compare(b.time, a.time));
+        return ret;
+    }
+
+    /**
+     * Brings the index up to date with the given head of the branch that this index belongs to. Only commits that were
+     * not indexed yet are examined. If there were any new commits the index is also written to the file.
+     *
+     * @param repository the repository that contains the branch
+     * @param head the head commit of the branch, may be null if the branch has no commits
+     * @throws IOException in case the commits could not be read
+     */
+    synchronized void update(Repository repository, ObjectId head) throws IOException {
+        if (!loaded) {
+            load();
+            loaded = true;
+        }
+        if (head == null || head.getName().equals(lastIndexed)) {
+            return;
+        }
+        List<Entry> newEntries = new ArrayList<>(entries);
+        RevCommit start = null;
+        if (lastIndexed != null) {
+            try (RevWalk walk = new RevWalk(repository)) {
+                RevCommit last = walk.parseCommit(ObjectId.fromString(lastIndexed));
+                RevCommit headCommit = walk.parseCommit(head);
+                if (walk.isMergedInto(last, headCommit)) {
+                    start = last;
+                } else if (walk.isMergedInto(headCommit, last)) {
+                    // an older head than the one indexed by a concurrent search
+                    return;
+                }
+            } catch (MissingObjectException | IllegalArgumentException e) {
+                // the last indexed commit is unknown, rebuild the index
+            }
+            if (start == null) {
+                newEntries.clear();
+            }
+        }
+        List<Entry> added = new ArrayList<>();
+        try (RevWalk walk = new RevWalk(repository); ObjectReader objectReader = repository.newObjectReader();
+            DiffFormatter diffFormatter = new DiffFormatter(DisabledOutputStream.INSTANCE)) {
+            diffFormatter.setRepository(repository);
+            diffFormatter.setDiffComparator(RawTextComparator.DEFAULT);
+            diffFormatter.setDetectRenames(true);
+            walk.markStart(walk.parseCommit(head));
+            if (start != null) {
+                walk.markUninteresting(walk.parseCommit(start));
+            }
+            for (RevCommit commit : walk) {
+                AbstractTreeIterator oldTreeIterator = new EmptyTreeIterator();
+                if (commit.getParents().length != 0) {
+                    RevCommit parentCommit = walk.parseCommit(commit.getParents()[0].getId());
+                    oldTreeIterator = new CanonicalTreeParser(null, objectReader, parentCommit.getTree());
+                }
+                AbstractTreeIterator newTreeIterator = new CanonicalTreeParser(null, objectReader, commit.getTree());
+                List<DiffEntry> diffs = diffFormatter.scan(oldTreeIterator, newTreeIterator);
+                for (DiffEntry diff : diffs) {
+                    if (diff.getChangeType() == DiffEntry.ChangeType.DELETE
+                        || diff.getChangeType() == DiffEntry.ChangeType.RENAME
+                        || !diff.getNewPath().endsWith(FileType.SNAPSHOT.suffix)) {
+                        continue;
+                    }
+                    PersonIdent committer = commit.getCommitterIdent();
+                    added.add(new Entry(commit.getName(), diff.getNewPath(), committer.getName(),
+                        committer.getEmailAddress(), commit.getFullMessage(), committer.getWhen().getTime()));
+                }
+            }
+        }
+        // the walk goes from the newest to the oldest commit, the index is stored in the opposite order
+        Collections.reverse(added);
+        newEntries.addAll(added);
+        entries = Collections.unmodifiableList(newEntries);
+        lastIndexed = head.getName();
+        try {
+            store();
+        } catch (IOException e) {
+            SaveRestoreService.LOGGER.log(Level.WARNING, e,
+                () -> String.format("Snapshot index %s could not be written.", file));
+        }
+    }
+
+    /**
+     * Reads the index from the file. If the file does not exist or cannot be read, the index remains empty and will
+     * be rebuilt on the next update.
+     */
+    private void load() {
+        if (!file.exists()) {
+            return;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file.toPath())))) {
+            if (in.readInt() != FORMAT_VERSION) {
+                return;
+            }
+            String last = readString(in);
+            int size = in.readInt();
+            List<Entry> list = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                list.add(new Entry(readString(in), readString(in), readString(in), readString(in), readString(in),
+                    in.readLong()));
+            }
+            entries = Collections.unmodifiableList(list);
+            lastIndexed = last;
+        } catch (IOException e) {
+            SaveRestoreService.LOGGER.log(Level.WARNING, e,
+                () -> String.format("Snapshot index %s could not be read and will be rebuilt.", file));
+        }
+    }
+
+    /**
+     * Writes the index to a temporary file, which then replaces the index file.
+     *
+     * @throws IOException if the file could not be written
+     */
+    private void store() throws IOException {
+        File parent = file.getParentFile();
+        if (parent != null) {
+            Files.createDirectories(parent.toPath());
+        }
+        File tmp = new File(file.getPath() + ".tmp");
+        List<Entry> list = entries;
+        try (DataOutputStream out = new DataOutputStream(
+            new BufferedOutputStream(Files.newOutputStream(tmp.toPath())))) {
+            out.writeInt(FORMAT_VERSION);
+            writeString(out, lastIndexed);
+            out.writeInt(list.size());
+            for (Entry e : list) {
+                writeString(out, e.revision);
+                writeString(out, e.path);
+                writeString(out, e.creator);
+                writeString(out, e.email);
+                writeString(out, e.message);
+                out.writeLong(e.time);
+            }
+        }
+        Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    // DataOutput.writeUTF is limited to 64k, which is not enough for arbitrary commit messages
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+        } else {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -12,6 +12,7 @@ package org.csstudio.saverestore;
 
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
@@ -70,6 +71,13 @@ public class FileUtilitiesTest {
         str = "\"foo,test\",\"bar something\",blabla,,test,";
         result = FileUtilities.split(str);
         assertArrayEquals(result, new String[] { "foo,test", "bar something", "blabla", "", "test", "" });
+
+        str = "foo, \"[1;2;3]\" ,\"bar\"";
+        result = FileUtilities.split(str);
+        assertArrayEquals(result, new String[] { "foo", "[1;2;3]", "bar" });
+
+        assertNull(FileUtilities.split("foo,\"bar,test"));
+        assertNull(FileUtilities.split("foo,\"bar\"test,blabla"));
     }
 
     /**
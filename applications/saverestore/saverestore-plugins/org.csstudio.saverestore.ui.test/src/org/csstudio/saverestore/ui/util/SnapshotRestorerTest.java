@@ -0,0 +1,92 @@
+/*
+ * This software is Copyright by the Board of Trustees of Michigan
+ * State University (c) Copyright 2016.
+ *
+ * Contact Information:
+ *   Facility for Rare Isotope Beam
+ *   Michigan State University
+ *   East Lansing, MI 48824-1321
+ *   http://frib.msu.edu
+ */
+package org.csstudio.saverestore.ui.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.junit.Test;
+
+/**
+ *
+ * <code>SnapshotRestorerTest</code> tests the {@link SnapshotRestorer}.
+ *
+ */
+public class SnapshotRestorerTest {
+
+    /**
+     * Tests that the number of writes in progress never exceeds the concurrency and that all writes are reported.
+     *
+     * @throws InterruptedException
+     */
+    @Test
+    public void testConcurrency() throws InterruptedException {
+        AtomicInteger inProgress = new AtomicInteger(0);
+        AtomicInteger maxInProgress = new AtomicInteger(0);
+        Map<String, Supplier<CompletableFuture<?>>> writes = new LinkedHashMap<>();
+        for (int i = 0; i < 20; i++) {
+            writes.put("pv" + i, () -> {
+                maxInProgress.accumulateAndGet(inProgress.incrementAndGet(), Math::max);
+                return CompletableFuture.runAsync(() -> {
+                    try {
+                        Thread.sleep(10);
+                    } catch (InterruptedException e) {
+                        // ignore
+                    }
+                    inProgress.decrementAndGet();
+                });
+            });
+        }
+        List<String> completed = new ArrayList<>();
+        List<String> messages = new SnapshotRestorer(3, 5000, () -> false).restore(writes, (pv, c, total) -> {
+            synchronized (completed) {
+                completed.add(pv);
+            }
+            assertEquals(20, total);
+        });
+        assertTrue(messages.isEmpty());
+        assertEquals(20, completed.size());
+        assertTrue("At most 3 writes should be in progress at once", maxInProgress.get() <= 3);
+    }
+
+    /**
+     * Tests that failed writes, writes that time out and writes that could not be started are reported.
+     *
+     * @throws InterruptedException
+     */
+    @Test
+    public void testFailures() throws InterruptedException {
+        Map<String, Supplier<CompletableFuture<?>>> writes = new LinkedHashMap<>();
+        writes.put("ok", () -> CompletableFuture.completedFuture(null));
+        writes.put("failed", () -> {
+            CompletableFuture<?> f = new CompletableFuture<>();
+            f.completeExceptionally(new IllegalStateException("Write not allowed"));
+            return f;
+        });
+        writes.put("thrown", () -> {
+            throw new IllegalArgumentException("No writer");
+        });
+        writes.put("pending", () -> new CompletableFuture<>());
+        writes.put("blocked", () -> CompletableFuture.completedFuture(null));
+        List<String> messages = new SnapshotRestorer(1, 300, () -> false).restore(writes, null);
+        assertEquals(Arrays.asList("failed: Write not allowed", "thrown: No writer", "pending: Timeout",
+            "blocked: Not restored"), messages);
+    }
+}
@@ -33,6 +33,7 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executor;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
@@ -58,13 +59,13 @@ import org.csstudio.saverestore.data.VDisconnectedData;
 import org.csstudio.saverestore.data.VNoData;
 import org.csstudio.saverestore.data.VSnapshot;
 import org.csstudio.saverestore.ui.util.GUIUpdateThrottle;
+import org.csstudio.saverestore.ui.util.SnapshotRestorer;
 import org.csstudio.saverestore.ui.util.VTypePair;
 import org.csstudio.ui.fx.util.FXDetailsDialog;
 import org.csstudio.ui.fx.util.FXMessageDialog;
 import org.diirt.datasource.PVManager;
 import org.diirt.datasource.PVReader;
 import org.diirt.datasource.PVWriter;
-import org.diirt.datasource.PVWriterEvent;
 import org.diirt.datasource.PVWriterListener;
 import org.diirt.vtype.Alarm;
 import org.diirt.vtype.AlarmSeverity;
@@ -99,6 +100,8 @@ public class SnapshotViewerController {
     /** Multiple snapshots (what you see) file extension */
     public static final String FEXT_CSV = ".csv";
 
+    // the time in which all PVs have to be written when a snapshot is restored
+    private static final long RESTORE_TIMEOUT = 30000;
     // for testing purposes this should not be final
     private static Executor UI_EXECUTOR = Platform::runLater;
 
@@ -856,70 +859,33 @@ public class SnapshotViewerController {
      * @param s the snapshot
      */
     public void restoreSnapshot(VSnapshot s) {
-        Map<PV, PVWriterListener<?>> restorablePVs = new HashMap<>();
         try {
             suspend();
             List<SnapshotEntry> entries = s.getEntries();
-            final Map<PV, PVWriterEvent<?>> restoredPVs = new HashMap<>();
+            Map<String, Supplier<CompletableFuture<?>>> writes = new LinkedHashMap<>();
             for (SnapshotEntry entry : entries) {
                 final TableEntry e = items.get(entry.getPVName());
                 // only restore the value if the entry is in the filtered list as well
                 if (filteredList.contains(e) && e.selectedProperty().get() && !e.readOnlyProperty().get()) {
                     final PV pv = pvs.get(e);
-                    if (pv.writer != null) {
-                        PVWriterListener<?> l = w -> {
-                            restoredPVs.put(pv, w);
-                            synchronized (restoredPVs) {
-                                restoredPVs.notifyAll();
-                            }
-                        };
-                        restorablePVs.put(pv, l);
-                        pv.writer.addPVWriterListener(l);
-                        Object val = Utilities.toRawValue(entry.getValue());
-                        if (val != null) {
-                            pv.writer.write(val);
-                        }
+                    final Object val = Utilities.toRawValue(entry.getValue());
+                    if (pv.writer != null && val != null) {
+                        writes.put(pv.pvName, () -> write(pv.writer, val));
                     }
                 }
             }
+            SaveRestoreService service = SaveRestoreService.getInstance();
+            SnapshotRestorer restorer = new SnapshotRestorer(service.getRestoreConcurrency(), RESTORE_TIMEOUT,
+                service::isCurrentJobCancelled);
+            List<String> messages;
             try {
-                long time = System.currentTimeMillis();
-                while (System.currentTimeMillis() - time < 30000
-                    && !SaveRestoreService.getInstance().isCurrentJobCancelled()) {
-                    synchronized (restoredPVs) {
-                        if (restoredPVs.size() == restorablePVs.size()) {
-                            break;
-                        } else {
-                            restoredPVs.wait(100);
-                        }
-                    }
-                }
+                messages = restorer.restore(writes,
+                    (pv, completed, total) -> service.reportProgress(completed + "/" + total + ": " + pv));
             } catch (InterruptedException e) {
-                // ignore
-            }
-
-            List<String> messages = new ArrayList<>();
-            for (Map.Entry<PV, PVWriterEvent<?>> pv : restoredPVs.entrySet()) {
-                if (pv.getValue().isWriteFailed()) {
-                    StringBuilder sb = new StringBuilder(200);
-                    sb.append(pv.getKey().pvName).append(':').append(' ');
-                    Exception e = pv.getValue().getPvWriter().lastWriteException();
-                    if (e == null || e.getMessage() == null || e.getMessage().isEmpty()) {
-                        sb.append("Unknown error");
-                    } else {
-                        sb.append(e.getMessage());
-                    }
-                    messages.add(sb.toString());
-                }
-            }
-
-            if (restoredPVs.size() != restorablePVs.size()) {
-                // not all PVs responded in time
-                for (PV pv : restorablePVs.keySet()) {
-                    if (restoredPVs.containsKey(pv)) {
-                        messages.add(pv.pvName + ": Timeout");
-                    }
-                }
+                Thread.currentThread().interrupt();
+                SaveRestoreService.LOGGER.log(Level.WARNING, "Restore of snapshot {0}: {1} was aborted.",
+                    new Object[] { s.getSaveSet().getFullyQualifiedName(), s.getSnapshot().get() });
+                return;
             }
             if (messages.isEmpty()) {
                 SaveRestoreService.LOGGER.log(Level.FINE, "Restored snapshot {0}: {1}.",
@@ -936,13 +902,33 @@ public class SnapshotViewerController {
                     "There were some errors restoring the snapshot\n " + s.getSnapshot().get(), sb.toString());
             }
         } finally {
-            for (Map.Entry<PV, PVWriterListener<?>> e : restorablePVs.entrySet()) {
-                e.getKey().writer.removePVWriterListener(e.getValue());
-            }
             resume();
         }
     }
 
+    /**
+     * Writes the value to the PV and returns the future, which completes when the write succeeds or fails.
+     *
+     * @param writer the writer to write the value with
+     * @param value the value to write
+     * @return the future that completes when the write is done
+     */
+    private static CompletableFuture<?> write(PVWriter<Object> writer, Object value) {
+        final CompletableFuture<Void> done = new CompletableFuture<>();
+        PVWriterListener<?> listener = w -> {
+            if (w.isWriteSucceeded()) {
+                done.complete(null);
+            } else if (w.isWriteFailed()) {
+                Exception e = w.getPvWriter().lastWriteException();
+                done.completeExceptionally(e == null ? new IllegalStateException("Unknown error") : e);
+            }
+        };
+        writer.addPVWriterListener(listener);
+        done.whenComplete((r, e) -> writer.removePVWriterListener(listener));
+        writer.write(value);
+        return done;
+    }
+
     /**
      * Returns all snapshots.
      *
@@ -0,0 +1,151 @@
+/*
+ * This software is Copyright by the Board of Trustees of Michigan
+ * State University (c) Copyright 2016.
+ *
+ * Contact Information:
+ *   Facility for Rare Isotope Beam
+ *   Michigan State University
+ *   East Lansing, MI 48824-1321
+ *   http://frib.msu.edu
+ */
+package org.csstudio.saverestore.ui.util;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+/**
+ * <code>SnapshotRestorer</code> writes the values of a snapshot to the PVs. Writes are started without waiting for the
+ * previous writes to complete, however the number of writes that are in progress at the same time is limited by the
+ * concurrency of the restorer. Each completed write is reported to the progress listener and the writes that failed or
+ * did not complete in time are collected and returned when the restore is finished.
+ */
+public class SnapshotRestorer {
+
+    /**
+     * <code>ProgressListener</code> receives a notification every time a write completed, either successfully or with
+     * a failure.
+     */
+    @FunctionalInterface
+    public interface ProgressListener {
+        /**
+         * Called when the write to the named PV completed. This method might be called from any thread.
+         *
+         * @param pvName the name of the PV which was written
+         * @param completed the number of writes that have completed so far
+         * @param total the total number of writes
+         */
+        void writeCompleted(String pvName, int completed, int total);
+    }
+
+    private static final long WAIT_PERIOD = 100;
+
+    private final int concurrency;
+    private final long timeout;
+    private final BooleanSupplier cancelled;
+
+    /**
+     * Constructs a new restorer.
+     *
+     * @param concurrency the maximum number of writes in progress at the same time (0 or less for no limit)
+     * @param timeout the time in milliseconds in which all writes have to complete
+     * @param cancelled returns true if the restore should be stopped; writes that were not started yet are then
+     *            skipped
+     */
+    public SnapshotRestorer(int concurrency, long timeout, BooleanSupplier cancelled) {
+        this.concurrency = concurrency <= 0 ? Integer.MAX_VALUE : concurrency;
+        this.timeout = timeout;
+        this.cancelled = cancelled;
+    }
+
+    /**
+     * Executes the writes and waits until all of them complete, the timeout expires or the restore is cancelled. The
+     * writes are started in the iteration order of the map. Each write is provided as a supplier, which starts the
+     * write when called and returns the future that completes when the write is done.
+     *
+     * @param writes the PV names and the writes that set the value of each PV
+     * @param listener the listener notified about each completed write (can be null)
+     * @return the list of messages (one per PV) describing the writes that failed, timed out or were not executed
+     * @throws InterruptedException if the thread was interrupted while waiting for the writes to complete
+     */
+    public List<String> restore(Map<String, Supplier<CompletableFuture<?>>> writes, ProgressListener listener)
+        throws InterruptedException {
+        final int total = writes.size();
+        final Semaphore permits = new Semaphore(concurrency);
+        final AtomicInteger completed = new AtomicInteger(0);
+        final Map<String, CompletableFuture<?>> started = new LinkedHashMap<>(total);
+        final long deadline = System.currentTimeMillis() + timeout;
+        boolean stopped = false;
+        for (Map.Entry<String, Supplier<CompletableFuture<?>>> write : writes.entrySet()) {
+            String name = write.getKey();
+            while (!stopped && !permits.tryAcquire(WAIT_PERIOD, TimeUnit.MILLISECONDS)) {
+                stopped = cancelled.getAsBoolean() || System.currentTimeMillis() > deadline;
+            }
+            if (stopped || cancelled.getAsBoolean()) {
+                stopped = true;
+                break;
+            }
+            CompletableFuture<?> future;
+            try {
+                future = write.getValue().get();
+            } catch (RuntimeException e) {
+                future = new CompletableFuture<>();
+                future.completeExceptionally(e);
+            }
+            // the returned future completes after the listener was notified and has the same outcome as the write
+            started.put(name, future.whenComplete((r, e) -> {
+                permits.release();
+                if (listener != null) {
+                    listener.writeCompleted(name, completed.incrementAndGet(), total);
+                }
+            }));
+        }
+        CompletableFuture<?> all = CompletableFuture.allOf(started.values().toArray(new CompletableFuture<?>[0]));
+        while (!all.isDone() && !cancelled.getAsBoolean()) {
+            long remaining = deadline - System.currentTimeMillis();
+            if (remaining <= 0) {
+                break;
+            }
+            try {
+                all.get(Math.min(remaining, WAIT_PERIOD), TimeUnit.MILLISECONDS);
+            } catch (TimeoutException | ExecutionException e) {
+                // failures are collected from each individual write below
+            }
+        }
+
+        List<String> messages = new ArrayList<>();
+        for (String name : writes.keySet()) {
+            CompletableFuture<?> future = started.get(name);
+            if (future == null) {
+                messages.add(name + ": Not restored");
+            } else if (!future.isDone()) {
+                messages.add(name + ": Timeout");
+            } else if (future.isCompletedExceptionally()) {
+                try {
+                    future.join();
+                } catch (RuntimeException e) {
+                    messages.add(name + ": " + getMessage(e));
+                }
+            }
+        }
+        return messages;
+    }
+
+    private static String getMessage(Throwable t) {
+        Throwable e = t;
+        while (e instanceof CompletionException && e.getCause() != null) {
+            e = e.getCause();
+        }
+        return e.getMessage() == null || e.getMessage().isEmpty() ? "Unknown error" : e.getMessage();
+    }
+}
@@ -22,10 +22,9 @@ import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Date;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
-import java.util.Map;
+import java.util.function.Consumer;
 import java.util.regex.Pattern;
 
 import org.csstudio.saverestore.data.SaveSetData;
@@ -86,9 +85,9 @@ public final class FileUtilities {
         + H_DELTA + "," + H_READ_ONLY;
     public static final String SAVE_SET_HEADER = H_PV_NAME + "," + H_READBACK + "," + H_DELTA + "," + H_READ_ONLY;
     // delimiter of array values
-    private static final String ARRAY_SPLITTER = "\\;";
+    private static final char ARRAY_SPLITTER = ';';
     // delimiter of enum value and enum constants
-    private static final String ENUM_VALUE_SPLITTER = "\\~";
+    private static final char ENUM_VALUE_SPLITTER = '~';
     // proposed length of snapshot file data line entry (pv name only)
     private static final int SNP_ENTRY_LENGTH = 700;
     // proposed length of save set data line entry (pv name only)
@@ -113,58 +112,102 @@ public final class FileUtilities {
      * @throws IOException if reading the file failed
      */
     public static SnapshotContent readFromSnapshot(InputStream stream) throws IOException, ParseException {
+        List<SnapshotEntry> entries = new ArrayList<>();
+        Instant date = readFromSnapshot(stream, entries::add);
+        return new SnapshotContent(date, entries);
+    }
+
+    /**
+     * Read the contents of the snapshot file from the given input stream and pass every entry to the consumer as soon
+     * as it has been parsed. The stream is read line by line and each line is tokenised in a single pass, so that large
+     * snapshots can be processed without holding the file content in memory.
+     *
+     * @param stream the source of data
+     * @param consumer the consumer that receives the entries in the same order as they are stored in the file
+     * @return the timestamp of the snapshot
+     * @throws IOException if reading the file failed
+     * @throws ParseException if the snapshot date is missing or invalid
+     */
+    public static Instant readFromSnapshot(InputStream stream, Consumer<SnapshotEntry> consumer)
+        throws IOException, ParseException {
         BufferedReader reader = new BufferedReader(new InputStreamReader(stream, StandardCharsets.UTF_8));
         String date = null;
-        List<SnapshotEntry> entries = new ArrayList<>();
         String line;
-        String[] header = null;
-        Map<String, Integer> headerMap = new HashMap<>();
+        // the column indices of individual fields, -1 if the column does not exist
+        int nameIdx = -1, selectedIdx = -1, timestampIdx = -1, statusIdx = -1, severityIdx = -1, valueTypeIdx = -1,
+            valueIdx = -1, readbackIdx = -1, readbackValueIdx = -1, deltaIdx = -1, readOnlyIdx = -1;
+        boolean hasHeader = false;
+        List<String> split = new ArrayList<>(11);
         while ((line = reader.readLine()) != null) {
             line = line.trim();
             if (line.isEmpty()) {
                 continue;
-            } else if (header == null && line.charAt(0) == '#') {
+            } else if (!hasHeader && line.charAt(0) == '#') {
                 int idx = line.indexOf(DATE_TAG);
                 if (idx > -1) {
                     date = line.substring(idx + DATE_TAG.length()).trim();
                 }
-            } else if (header == null) {
-                header = line.split("\\,");
+            } else if (!hasHeader) {
+                hasHeader = true;
+                String[] header = split(line);
+                if (header == null) {
+                    throw new IOException(String.format("Invalid header: %s.", line));
+                }
                 for (int i = 0; i < header.length; i++) {
-                    headerMap.put(header[i].toUpperCase(Locale.UK), Integer.valueOf(i));
+                    switch (header[i].trim().toUpperCase(Locale.UK)) {
+                        case H_PV_NAME:
+                            nameIdx = i;
+                            break;
+                        case H_SELECTED:
+                            selectedIdx = i;
+                            break;
+                        case H_TIMESTAMP:
+                            timestampIdx = i;
+                            break;
+                        case H_STATUS:
+                            statusIdx = i;
+                            break;
+                        case H_SEVERITY:
+                            severityIdx = i;
+                            break;
+                        case H_VALUE_TYPE:
+                            valueTypeIdx = i;
+                            break;
+                        case H_VALUE:
+                            valueIdx = i;
+                            break;
+                        case H_READBACK:
+                            readbackIdx = i;
+                            break;
+                        case H_READBACK_VALUE:
+                            readbackValueIdx = i;
+                            break;
+                        case H_DELTA:
+                            deltaIdx = i;
+                            break;
+                        case H_READ_ONLY:
+                            readOnlyIdx = i;
+                            break;
+                        default:
+                            break;
+                    }
                 }
             } else {
-                if (headerMap.isEmpty()) {
-                    throw new IOException("The Snapshot content is invalid. No CSV header is defined.");
-                }
-                // there are no fields in here that may contain a comma
-                String[] split = split(line);
-                if (split == null) {
+                if (!split(line, split)) {
                     throw new IOException(String.format("Invalid content: %s.", line));
                 }
-                int length = split.length - 1;
-                Integer idx = headerMap.get(H_PV_NAME);
-                String name = idx == null || idx > length ? null : trim(split[idx]);
-                idx = headerMap.get(H_SELECTED);
-                String sel = idx == null || idx > length ? null : trim(split[idx]);
-                idx = headerMap.get(H_TIMESTAMP);
-                String timestamp = idx == null || idx > length ? null : trim(split[idx]);
-                idx = headerMap.get(H_STATUS);
-                String status = idx == null || idx > length ? "" : trim(split[idx]);
-                idx = headerMap.get(H_SEVERITY);
-                String severity = idx == null || idx > length ? "" : trim(split[idx]);
-                idx = headerMap.get(H_VALUE_TYPE);
-                String valueType = idx == null || idx > length ? null : trim(split[idx]);
-                idx = headerMap.get(H_VALUE);
-                String value = idx == null || idx > length ? null : trim(split[idx]);
-                idx = headerMap.get(H_READBACK);
-                String readback = idx == null || idx > length ? "" : trim(split[idx]);
-                idx = headerMap.get(H_READBACK_VALUE);
-                String readbackValue = idx == null || idx > length ? null : trim(split[idx]);
-                idx = headerMap.get(H_DELTA);
-                String delta = idx == null || idx > length ? "" : trim(split[idx]);
-                idx = headerMap.get(H_READ_ONLY);
-                Boolean readOnly = idx == null || idx > length ? Boolean.FALSE : Boolean.valueOf(trim(split[idx]));
+                String name = field(split, nameIdx, null);
+                String sel = field(split, selectedIdx, null);
+                String timestamp = field(split, timestampIdx, null);
+                String status = field(split, statusIdx, "");
+                String severity = field(split, severityIdx, "");
+                String valueType = field(split, valueTypeIdx, null);
+                String value = field(split, valueIdx, null);
+                String readback = field(split, readbackIdx, "");
+                String readbackValue = field(split, readbackValueIdx, null);
+                String delta = field(split, deltaIdx, "");
+                String ro = field(split, readOnlyIdx, null);
+                Boolean readOnly = ro == null ? Boolean.FALSE : Boolean.valueOf(ro);
 
                 VType data = null, readbackData = null;
                 try {
@@ -186,15 +229,25 @@ public final class FileUtilities {
                 } catch (NumberFormatException e) {
                     // ignore
                 }
-                entries.add(
-                    new SnapshotEntry(name, data, selected, readback, readbackData, delta, readOnly));
+                consumer.accept(new SnapshotEntry(name, data, selected, readback, readbackData, delta, readOnly));
             }
         }
         if (date == null || date.isEmpty()) {
             throw new ParseException("Snapshot does not have a date set.", 0);
         }
-        Instant d = TIMESTAMP_FORMATTER.get().parse(date).toInstant();
-        return new SnapshotContent(d, entries);
+        return TIMESTAMP_FORMATTER.get().parse(date).toInstant();
+    }
+
+    /**
+     * Returns the trimmed field at the given index or the default value if the field does not exist.
+     *
+     * @param fields the fields of a single line
+     * @param idx the index of the field (-1 if the column does not exist)
+     * @param defaultValue the value returned if the field does not exist
+     * @return the trimmed field or default value
+     */
+    private static String field(List<String> fields, int idx, String defaultValue) {
+        return idx < 0 || idx >= fields.size() ? defaultValue : trim(fields.get(idx));
     }
 
     /**
@@ -227,15 +280,15 @@ public final class FileUtilities {
             || VDisconnectedData.INSTANCE.toString().equals(value)) {
             return VDisconnectedData.INSTANCE;
         }
-        String[] t = timestamp != null && timestamp.indexOf('.') > 0 ? timestamp.split("\\.")
-            : new String[] { "0", "0" };
-        Time time = ValueFactory.newTime(Instant.ofEpochSecond(Long.parseLong(t[0]), Integer.parseInt(t[1])));
+        int dot = timestamp == null ? -1 : timestamp.indexOf('.');
+        Time time = dot > 0 ? ValueFactory.newTime(Instant.ofEpochSecond(Long.parseLong(timestamp.substring(0, dot)),
+            Integer.parseInt(timestamp.substring(dot + 1)))) : ValueFactory.newTime(Instant.ofEpochSecond(0, 0));
         Alarm alarm = ValueFactory.newAlarm(
             severity.isEmpty() ? AlarmSeverity.NONE : AlarmSeverity.valueOf(severity.toUpperCase(Locale.UK)), status);
         Display display = ValueFactory.newDisplay(0d, 0d, 0d, null, null, 0d, 0d, 0d, 0d, 0d);
         ValueType vtype = ValueType.forName(valueType);
 
-        String[] valueAndLabels = value.split(ENUM_VALUE_SPLITTER);
+        String[] valueAndLabels = splitArray(value, ENUM_VALUE_SPLITTER, false);
         if (valueAndLabels.length > 0) {
             if (valueAndLabels[0].charAt(0) == '[') {
                 valueAndLabels[0] = valueAndLabels[0].substring(1, valueAndLabels[0].length() - 1);
@@ -247,7 +300,7 @@ public final class FileUtilities {
         String theValue = valueAndLabels[0];
         switch (vtype) {
             case DOUBLE_ARRAY:
-                String[] sd = theValue.split(ARRAY_SPLITTER, -1);
+                String[] sd = splitArray(theValue, ARRAY_SPLITTER, true);
                 double[] dd = new double[sd.length];
                 for (int i = 0; i < sd.length; i++) {
                     if (sd[i].isEmpty()) {
@@ -259,7 +312,7 @@ public final class FileUtilities {
                 ListDouble datad = new ArrayDouble(dd);
                 return ValueFactory.newVDoubleArray(datad, alarm, time, display);
             case FLOAT_ARRAY:
-                String[] sf = theValue.split(ARRAY_SPLITTER, -1);
+                String[] sf = splitArray(theValue, ARRAY_SPLITTER, true);
                 float[] df = new float[sf.length];
                 for (int i = 0; i < sf.length; i++) {
                     if (sf[i].isEmpty()) {
@@ -271,7 +324,7 @@ public final class FileUtilities {
                 ListFloat dataf = new ArrayFloat(df);
                 return ValueFactory.newVFloatArray(dataf, alarm, time, display);
             case LONG_ARRAY:
-                String[] sl = theValue.split(ARRAY_SPLITTER, -1);
+                String[] sl = splitArray(theValue, ARRAY_SPLITTER, true);
                 long[] dl = new long[sl.length];
                 for (int i = 0; i < sl.length; i++) {
                     if (sl[i].isEmpty()) {
@@ -283,7 +336,7 @@ public final class FileUtilities {
                 ListLong datal = new ArrayLong(dl);
                 return ValueFactory.newVLongArray(datal, alarm, time, display);
             case INT_ARRAY:
-                String[] si = theValue.split(ARRAY_SPLITTER, -1);
+                String[] si = splitArray(theValue, ARRAY_SPLITTER, true);
                 int[] di = new int[si.length];
                 for (int i = 0; i < si.length; i++) {
                     if (si[i].isEmpty()) {
@@ -295,7 +348,7 @@ public final class FileUtilities {
                 ListInt datai = new ArrayInt(di);
                 return ValueFactory.newVIntArray(datai, alarm, time, display);
             case SHORT_ARRAY:
-                String[] ss = theValue.split(ARRAY_SPLITTER, -1);
+                String[] ss = splitArray(theValue, ARRAY_SPLITTER, true);
                 short[] ds = new short[ss.length];
                 for (int i = 0; i < ss.length; i++) {
                     if (ss[i].isEmpty()) {
@@ -307,7 +360,7 @@ public final class FileUtilities {
                 ListShort datas = new ArrayShort(ds);
                 return ValueFactory.newVShortArray(datas, alarm, time, display);
             case BYTE_ARRAY:
-                String[] sb = theValue.split(ARRAY_SPLITTER, -1);
+                String[] sb = splitArray(theValue, ARRAY_SPLITTER, true);
                 byte[] db = new byte[sb.length];
                 for (int i = 0; i < sb.length; i++) {
                     if (sb[i].isEmpty()) {
@@ -319,8 +372,8 @@ public final class FileUtilities {
                 ListByte datab = new ArrayByte(db);
                 return ValueFactory.newVNumberArray(datab, alarm, time, display);
             case ENUM_ARRAY:
-                String[] se = theValue.split(ARRAY_SPLITTER, -1);
-                List<String> labels = Arrays.asList(valueAndLabels[1].split(ARRAY_SPLITTER));
+                String[] se = splitArray(theValue, ARRAY_SPLITTER, true);
+                List<String> labels = Arrays.asList(splitArray(valueAndLabels[1], ARRAY_SPLITTER, false));
                 int[] de = new int[se.length];
                 for (int i = 0; i < se.length; i++) {
                     de[i] = labels.indexOf(se[i]);
@@ -328,10 +381,10 @@ public final class FileUtilities {
                 ListInt datae = new ArrayInt(de);
                 return ValueFactory.newVEnumArray(datae, labels, alarm, time);
             case STRING_ARRAY:
-                String[] str = theValue.split(ARRAY_SPLITTER, -1);
+                String[] str = splitArray(theValue, ARRAY_SPLITTER, true);
                 return ValueFactory.newVStringArray(Arrays.asList(str), alarm, time);
             case BOOLEAN_ARRAY:
-                String[] sbo = theValue.split(ARRAY_SPLITTER, -1);
+                String[] sbo = splitArray(theValue, ARRAY_SPLITTER, true);
                 boolean[] dbo = new boolean[sbo.length];
                 for (int i = 0; i < sbo.length; i++) {
                     dbo[i] = Boolean.parseBoolean(sbo[i]);
@@ -339,7 +392,7 @@ public final class FileUtilities {
                 ListBoolean databo = new ArrayBoolean(dbo);
                 return ValueFactory.newVBooleanArray(databo, alarm, time);
             case NUMBER_ARRAY:
-                String[] nd = theValue.split(ARRAY_SPLITTER, -1);
+                String[] nd = splitArray(theValue, ARRAY_SPLITTER, true);
                 double[] ndd = new double[nd.length];
                 for (int i = 0; i < nd.length; i++) {
                     if (nd[i].isEmpty()) {
@@ -368,7 +421,7 @@ public final class FileUtilities {
             case STRING:
                 return ValueFactory.newVString(theValue, alarm, time);
             case ENUM:
-                List<String> lbls = new ArrayList<>(Arrays.asList(valueAndLabels[1].split("\\;", -1)));
+                List<String> lbls = new ArrayList<>(Arrays.asList(splitArray(valueAndLabels[1], ARRAY_SPLITTER, true)));
                 int idx = lbls.indexOf(theValue);
                 if (idx < 0) {
                     try {
@@ -569,52 +622,90 @@ public final class FileUtilities {
      * as an array of 1.
      *
      * @param content the content to split
-     * @return the array containing individual parts of the content
+     * @return the array containing individual parts of the content or null if the content is not valid
      */
     public static String[] split(String content) {
-        content = content.trim();
-        int idx = content.indexOf(',');
-        if (idx < 0) {
-            return new String[] { content };
-        } else if (content.indexOf('"') < 0) {
-            return content.split("\\,", -1);
-        } else {
-            List<String> parts = new ArrayList<>();
+        List<String> parts = new ArrayList<>();
+        return split(content, parts) ? parts.toArray(new String[parts.size()]) : null;
+    }
 
-            while (true) {
-                idx = content.indexOf(',');
-                int quote = content.indexOf('"');
-                int quote2 = content.indexOf('"', quote + 1);
-                if (quote > -1 && quote2 < 0) {
+    /**
+     * Split the given content by comma into the given list (see {@link #split(String)}). The content is scanned only
+     * once without the use of regular expressions. Quoted parts are returned without the quotes and trimmed.
+     *
+     * @param content the content to split
+     * @param parts the list into which the parts are stored (the list is cleared first)
+     * @return true if the content was valid or false if a quote is not closed or followed by something other than a
+     *         comma
+     */
+    private static boolean split(String content, List<String> parts) {
+        parts.clear();
+        String line = content.trim();
+        int length = line.length();
+        int i = 0;
+        while (true) {
+            int start = i;
+            while (i < length && Character.isWhitespace(line.charAt(i))) {
+                i++;
+            }
+            if (i < length && line.charAt(i) == '"') {
+                int quote2 = line.indexOf('"', i + 1);
+                if (quote2 < 0) {
                     // something is wrong - only one quote
-                    return null;
-                } else if (quote < 0) {
-                    parts.addAll(Arrays.asList(content.split("\\,", -1)));
-                    break;
+                    return false;
                 }
-
-                if (quote < idx) {
-                    // started with a quote
-                    parts.add(content.substring(1, quote2).trim());
-                } else if (quote > idx) {
-                    // quoted part is in between
-                    String firstPart = content.substring(0, quote - 1).trim();
-                    parts.addAll(Arrays.asList(firstPart.split("\\,", -1)));
-                    String secondPart = content.substring(quote + 1, quote2).trim();
-                    parts.add(secondPart);
+                parts.add(line.substring(i + 1, quote2).trim());
+                i = quote2 + 1;
+                while (i < length && Character.isWhitespace(line.charAt(i))) {
+                    i++;
                 }
-                if (content.length() > quote2 + 1) {
-                    content = content.substring(quote2 + 1).trim();
-                    if (content.charAt(0) == ',') {
-                        content = content.substring(1);
-                    } else {
-                        return null;
-                    }
-                } else {
-                    break;
+                if (i == length) {
+                    return true;
+                } else if (line.charAt(i) != ',') {
+                    return false;
                 }
+                i++;
+            } else {
+                int comma = line.indexOf(',', start);
+                if (comma < 0) {
+                    parts.add(line.substring(start));
+                    return true;
+                }
+                parts.add(line.substring(start, comma));
+                i = comma + 1;
+            }
+        }
+    }
+
+    /**
+     * Split the array value by the given delimiter. If <code>keepTrailingEmpty</code> is true the result is the same as
+     * of <code>String.split(delimiter, -1)</code>, otherwise the same as of <code>String.split(delimiter)</code>, but
+     * without the use of regular expressions.
+     *
+     * @param value the value to split
+     * @param delimiter the delimiter
+     * @param keepTrailingEmpty true to keep the trailing empty parts
+     * @return the parts
+     */
+    private static String[] splitArray(String value, char delimiter, boolean keepTrailingEmpty) {
+        int idx = value.indexOf(delimiter);
+        if (idx < 0) {
+            return new String[] { value };
+        }
+        List<String> parts = new ArrayList<>();
+        int start = 0;
+        while (idx > -1) {
+            parts.add(value.substring(start, idx));
+            start = idx + 1;
+            idx = value.indexOf(delimiter, start);
+        }
+        parts.add(value.substring(start));
+        int size = parts.size();
+        if (!keepTrailingEmpty) {
+            while (size > 0 && parts.get(size - 1).isEmpty()) {
+                size--;
             }
-            return parts.toArray(new String[parts.size()]);
         }
+        return parts.subList(0, size).toArray(new String[size]);
     }
 }
@@ -68,7 +68,13 @@ public class PreferencesPage extends FieldEditorPreferencePage implements IWorkb
                           + "they can be opened in a new editor or added as\n"
                           + "compared snapshots to the current editor");
         addField(newSnapshots);
-
+        IntegerFieldEditor restoreConcurrency = new IntegerFieldEditor(SaveRestoreService.PREF_RESTORE_CONCURRENCY,
+            "Number of PVs written at once during restore (0 = all)", parent);
+        restoreConcurrency.getLabelControl(parent)
+            .setToolTipText("Set the maximum number of PVs that are written at the same time\n"
+                          + "when a snapshot is restored. Setting this value to 0 means that\n"
+                          + "all PVs are written at once.");
+        addField(restoreConcurrency);
     }
 
 }
@@ -59,6 +59,8 @@ public class SaveRestoreService {
     public static final String PREF_NUMBER_OF_SNAPSHOTS = "maxNumberOfSnapshotsInBatch";
     /** Property that defines if new snapshots should be open in compare mode or in a separate editor */
     public static final String PREF_OPEN_NEW_SNAPSHOTS_IN_COMPARE_VIEW = "openNewSnapshotsInCompareView";
+    /** Property that defines the maximum number of PVs that are being written at the same time during restore */
+    public static final String PREF_RESTORE_CONCURRENCY = "restoreConcurrency";
     /** Plug-in ID */
     public static final String PLUGIN_ID = "org.csstudio.saverestore";
     /** The common logger */
@@ -126,6 +128,7 @@ public class SaveRestoreService {
         private final String taskName;
         private final Runnable task;
         private volatile boolean cancelled = false;
+        private volatile IProgressMonitor monitor;
 
         SaveRestoreJob(String taskName, Runnable task) {
             super("Save and Restore: " + taskName);
@@ -137,6 +140,7 @@ public class SaveRestoreService {
         @Override
         protected IStatus run(IProgressMonitor monitor) {
             monitor.beginTask(taskName, 1);
+            this.monitor = monitor;
             setCurrentJob(this);
             setBusy(true);
             try {
@@ -172,6 +176,13 @@ public class SaveRestoreService {
         boolean isCancelled() {
             return cancelled;
         }
+
+        void subTask(String name) {
+            IProgressMonitor m = monitor;
+            if (m != null) {
+                m.subTask(name);
+            }
+        }
     }
 
     private static final SaveRestoreService INSTANCE = new SaveRestoreService();
@@ -423,6 +434,20 @@ public class SaveRestoreService {
         }
     }
 
+    /**
+     * Returns the maximum number of PVs that are written at the same time when a snapshot is restored. If the number is
+     * 0 or less, all PVs are written at once.
+     *
+     * @return the maximum number of concurrent writes during restore
+     */
+    public int getRestoreConcurrency() {
+        try {
+            return getPreferences().getInt(PREF_RESTORE_CONCURRENCY);
+        } catch (RuntimeException e) {
+            return 0;
+        }
+    }
+
     /**
      * Returns the preference store for this plugin.
      *
@@ -473,4 +498,20 @@ public class SaveRestoreService {
             return this.currentJob == null ? true : this.currentJob.isCancelled();
         }
     }
+
+    /**
+     * Reports the progress of the job that is currently being executed. The message is displayed as the sub task of
+     * the job's progress monitor. If there is no job currently running, the call has no effect.
+     *
+     * @param message the message describing the current step of the job
+     */
+    public void reportProgress(String message) {
+        SaveRestoreJob job;
+        synchronized (this) {
+            job = this.currentJob;
+        }
+        if (job != null) {
+            job.subTask(message);
+        }
+    }
 }
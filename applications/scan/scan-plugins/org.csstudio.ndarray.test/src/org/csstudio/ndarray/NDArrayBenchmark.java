@@ -0,0 +1,72 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.csstudio.ndarray;
+
+/** Timing of element-wise operations and matrix multiplication
+ *
+ *  <p>Prints the time per operation for typical 'image' sizes,
+ *  comparing the matrix multiplication with a plain triple loop
+ *  over the array elements.
+ */
+@SuppressWarnings("nls")
+public class NDArrayBenchmark
+{
+    private static final int RUNS = 10;
+
+    public static void main(String[] args)
+    {
+        final int size = 1000;
+        for (NDType type : new NDType[] { NDType.FLOAT64, NDType.FLOAT32, NDType.INT32 })
+        {
+            final NDArray image = NDMatrix.ones(type, new NDShape(size, size));
+            final NDArray row = NDMatrix.ones(type, new NDShape(size));
+            final NDArray transposed = NDMatrix.transpose(image);
+            System.out.format("%s %dx%d:\n", type, size, size);
+            System.out.format("  add            %8.3f ms\n", time(() -> NDMath.add(image, image)));
+            System.out.format("  add broadcast  %8.3f ms\n", time(() -> NDMath.add(image, row)));
+            System.out.format("  add transposed %8.3f ms\n", time(() -> NDMath.add(image, transposed)));
+            System.out.format("  scale in-place %8.3f ms\n", time(() -> NDMath.scale(image, 1.0)));
+            System.out.format("  sqrt           %8.3f ms\n", time(() -> NDMath.sqrt(image)));
+        }
+
+        System.out.println("N\tdot [ms]\ttriple loop [ms]");
+        for (int n : new int[] { 64, 128, 256, 512 })
+        {
+            final NDArray a = NDMatrix.arange(0, n*n, 1);
+            final NDArray m = NDMatrix.reshape(a, n, n);
+            final double dot = time(() -> NDMatrix.dot(m, m));
+            final double loop = time(() -> tripleLoop(m, m));
+            System.out.format("%d\t%.3f\t%.3f\n", n, dot, loop);
+        }
+    }
+
+    private static NDArray tripleLoop(final NDArray a, final NDArray b)
+    {
+        final int n = a.getShape().getSize(0);
+        final NDArray result = NDMatrix.zeros(NDType.FLOAT64, new NDShape(n, n));
+        for (int i=0; i<n; ++i)
+            for (int j=0; j<n; ++j)
+            {
+                double sum = 0.0;
+                for (int k=0; k<n; ++k)
+                    sum += a.getDouble(i, k) * b.getDouble(k, j);
+                result.setDouble(sum, i, j);
+            }
+        return result;
+    }
+
+    private static double time(final Runnable operation)
+    {
+        // Warm up
+        operation.run();
+        final long start = System.nanoTime();
+        for (int i = 0; i < RUNS; ++i)
+            operation.run();
+        return (System.nanoTime() - start) / 1e6 / RUNS;
+    }
+}
@@ -244,6 +244,37 @@ public class NDMathUnitTest
                     assertEquals((100*(row+1) + 10*(col+1)) / (i+1), r.getDouble(row, col, i), 0.001);
     }
 
+    @Test
+    public void testViews()
+    {
+        // Transposed view, which is not contiguous
+        final NDArray a = NDMatrix.reshape(NDMatrix.arange(0, 12, 1), 3, 4);
+        final NDArray t = NDMatrix.transpose(a);
+        NDArray r = NDMath.add(t, NDArray.create(new float[] { 100, 200, 300 }));
+        assertSame(NDType.FLOAT64, r.getType());
+        for (int row=0; row<4; ++row)
+            for (int col=0; col<3; ++col)
+                assertEquals(a.getDouble(col, row) + 100*(col+1), r.getDouble(row, col), 0.001);
+
+        // Slice with steps, updated in-place
+        final NDArray slice = a.getSlice(new int[] { 0, 1 }, new int[] { 3, 4 }, new int[] { 2, 2 });
+        assertEquals(new NDShape(2, 2), slice.getShape());
+        NDMath.scale(slice, 10.0);
+        assertEquals(NDArray.create(new double[][] { { 0, 10, 2, 30 }, { 4, 5, 6, 7 }, { 8, 90, 10, 110 } }), a);
+
+        // Unary operation reads the view
+        r = NDMath.abs(NDMath.sqrt(t));
+        for (int row=0; row<4; ++row)
+            for (int col=0; col<3; ++col)
+                assertEquals(Math.sqrt(t.getDouble(row, col)), r.getDouble(row, col), 0.001);
+
+        // Integer result
+        r = NDMath.multiply(NDArray.create(new int[][] { { 1, 2 }, { 3, 4 } }),
+                            NDArray.create(new int[][] { { 5 }, { 6 } }));
+        assertSame(NDType.INT64, r.getType());
+        assertEquals(NDArray.create(new int[][] { { 5, 10 }, { 18, 24 } }), r);
+    }
+
     @Test
     public void testDivision()
     {
@@ -0,0 +1,77 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.csstudio.ndarray;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+
+/** JUnit tests of the {@link NDMatrix} multiplication
+ */
+public class NDMatrixUnitTest
+{
+    /** @return Result of plain triple loop */
+    private static double[][] multiply(final NDArray a, final NDArray b)
+    {
+        final int rows = a.getShape().getSize(0), inner = a.getShape().getSize(1), cols = b.getShape().getSize(1);
+        final double[][] result = new double[rows][cols];
+        for (int i=0; i<rows; ++i)
+            for (int j=0; j<cols; ++j)
+            {
+                double sum = 0.0;
+                for (int k=0; k<inner; ++k)
+                    sum += a.getDouble(i, k) * b.getDouble(k, j);
+                result[i][j] = sum;
+            }
+        return result;
+    }
+
+    private static NDArray random(final NDType type, final int rows, final int cols)
+    {
+        final NDArray result = NDMatrix.zeros(type, new NDShape(rows, cols));
+        for (int i=0; i<result.getSize(); ++i)
+            result.setFlatDouble(i, Math.round(Math.random() * 200) - 100);
+        return result;
+    }
+
+    @Test
+    public void testDot()
+    {
+        NDArray a = NDArray.create(new double[][] { { 1, 2, 3 }, { 4, 5, 6 } });
+        NDArray b = NDArray.create(new double[][] { { 1, 0 }, { 0, 1 }, { 1, 1 } });
+        assertEquals(NDArray.create(new double[][] { { 4, 5 }, { 10, 11 } }), NDMatrix.dot(a, b));
+
+        // Matrix times vector, using rows of the matrix
+        NDArray r = NDMatrix.dot(a, NDArray.create(new double[] { 1, 1, 1 }));
+        assertEquals(NDArray.create(new double[] { 6, 15 }), r);
+
+        // Vector inner product
+        r = NDMatrix.dot(NDArray.create(new double[] { 1, 2, 3 }), NDArray.create(new double[] { 4, 5, 6 }));
+        assertEquals(32.0, r.getDouble(0), 0.0);
+
+        // Transposed view
+        r = NDMatrix.dot(NDMatrix.transpose(b), NDMatrix.transpose(a));
+        assertEquals(NDArray.create(new double[][] { { 4, 10 }, { 5, 11 } }), r);
+    }
+
+    @Test
+    public void testLargeDot()
+    {
+        // Not a multiple of the tile size, large enough for parallel computation
+        final NDArray a = random(NDType.FLOAT64, 150, 300);
+        final NDArray b = NDMatrix.transpose(random(NDType.INT32, 170, 300));
+        final NDArray r = NDMatrix.dot(a, b);
+        assertSame(NDType.FLOAT64, r.getType());
+        assertEquals(NDArray.create(multiply(a, b)), r);
+
+        final NDArray f = NDMatrix.dot(random(NDType.FLOAT32, 70, 90), random(NDType.FLOAT32, 90, 80));
+        assertSame(NDType.FLOAT32, f.getType());
+        assertEquals(new NDShape(70, 80), f.getShape());
+    }
+}
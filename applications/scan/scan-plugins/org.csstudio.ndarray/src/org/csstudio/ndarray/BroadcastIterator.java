@@ -76,7 +76,7 @@ public class BroadcastIterator
      *  @return Broadcast shape
      *  @throws IllegalArgumentException if other shape is not compatible
      */
-    private NDShape computeBroadcastShape(final NDShape a, final NDShape b)
+    static NDShape computeBroadcastShape(final NDShape a, final NDShape b)
     {
         // Compare sizes from the 'end'
         int dim_a = a.getDimensions();
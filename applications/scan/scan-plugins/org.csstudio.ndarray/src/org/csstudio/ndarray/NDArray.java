@@ -19,6 +19,7 @@ import org.diirt.util.array.ArrayFloat;
 import org.diirt.util.array.ArrayInt;
 import org.diirt.util.array.ArrayLong;
 import org.diirt.util.array.ArrayShort;
+import org.diirt.util.array.CollectionNumbers;
 import org.diirt.util.array.IteratorNumber;
 import org.diirt.util.array.ListNumber;
 
@@ -63,6 +64,12 @@ public class NDArray
     /** Flat array */
     final private ListNumber data;
 
+    /** Plain Java array that holds the <code>data</code>,
+     *  for example <code>double[]</code>,
+     *  or <code>null</code> if it cannot be accessed
+     */
+    final private transient Object raw;
+
     /** Is byte array data used as boolean?
      *
      *  <p>For most data types there's a corresponding
@@ -92,6 +99,7 @@ public class NDArray
     {
         this.base = null;
         this.data = data;
+        this.raw = CollectionNumbers.wrappedArray(data);
         this.shape = shape;
         this.offset = 0;
         this.stride = new NDStrides(shape);
@@ -128,6 +136,7 @@ public class NDArray
                     " not compatible with array shape " + base.getShape());
         this.base = base;
         this.data = base.data;
+        this.raw = base.raw;
         this.shape = shape;
         this.offset = offset;
         this.stride = stride;
@@ -381,6 +390,26 @@ public class NDArray
         return stride;
     }
 
+    /** @return Offset of the first element in the flat data */
+    int getOffset()
+    {
+        return offset;
+    }
+
+    /** @return Flat data, including elements outside of a view */
+    ListNumber getData()
+    {
+        return data;
+    }
+
+    /** @return Plain Java array for the flat data, for example <code>double[]</code>,
+     *          or <code>null</code>
+     */
+    Object getRawData()
+    {
+        return raw;
+    }
+
     /** @return Iterator for the flat data */
     public IteratorNumber getIterator()
     {   // Can iterate over the raw data?
@@ -436,27 +465,14 @@ public class NDArray
         switch (NDCompatibility.forArrays(this, other))
         {
         case FLAT_ITERATION:
-            for (int i=getSize()-1; i>=0; --i)
-                setFlatDouble(i, other.getFlatDouble(i));
-            break;
         case SHAPE_ITERATION:
-            final ShapeIterator iter = new ShapeIterator(shape);
-            while (iter.hasNext())
-            {
-                final int[] position = iter.getPosition();
-                setDouble(other.getDouble(position), position);
-            }
+            NDKernel.copy(this, other);
             break;
         case BROADCAST_ITERATION:
-            final BroadcastIterator i = new BroadcastIterator(shape, other.getShape());
-            if (! shape.equals(i.getBroadcastShape()))
+            if (! shape.equals(BroadcastIterator.computeBroadcastShape(shape, other.getShape())))
                 throw new IllegalArgumentException("Cannot assign to array with shape " +
                         shape + " from incompatible shape " + other.getShape());
-            while (i.hasNext())
-            {
-                final double value = other.getDouble(i.getPosB());
-                setDouble(value, i.getPosition());
-            }
+            NDKernel.copy(this, other);
             break;
         default:
             throw new IllegalArgumentException("Cannot assign to array with shape " +
@@ -0,0 +1,414 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.ndarray;
+
+import java.util.Arrays;
+import java.util.function.DoubleUnaryOperator;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+import org.diirt.util.array.ListNumber;
+
+/** Loops over the raw data of {@link NDArray}s
+ *
+ *  <p>Element-wise operations walk the arrays row by row along
+ *  their last axis, using the strides of each array,
+ *  with a stride of 0 for a dimension that is broadcast.
+ *  Arrays that are not views cover all their elements in one row.
+ *
+ *  <p>A block of each input row is copied into a <code>double[]</code>
+ *  with a loop for the type of the underlying Java array,
+ *  the operation is performed on the blocks,
+ *  and the result is written back the same way.
+ *  This avoids accessing each element via its position
+ *  and {@link ListNumber}.
+ *
+ *  <p>Values are computed as <code>double</code>
+ *  and then cast to the type of the result,
+ *  same as {@link NDArray#setDouble(double, int...)}.
+ */
+final class NDKernel
+{
+    /** Number of elements processed as one block */
+    final private static int BLOCK = 1024;
+
+    /** Rows and inner length of a tile in the matrix multiplication.
+     *  A tile of the second matrix spans 4*TILE columns.
+     */
+    final private static int TILE = 64;
+
+    /** Minimum number of multiply-adds to multiply matrices in parallel */
+    final private static long PARALLEL_THRESHOLD = 1L << 20;
+
+    /** Iterate over the rows along the last axis of a shape,
+     *  tracking the offset of each row in several arrays
+     */
+    private static class RowIterator
+    {
+        final private NDShape shape;
+        final private int[][] strides;
+        final private int[] position;
+        /** Offsets of current row in each array */
+        final int[] offsets;
+        /** Step between elements of a row in each array */
+        final int[] steps;
+        /** Length of a row */
+        final int length;
+        private int rows;
+
+        /** Initialize
+         *  @param shape Shape over which to iterate
+         *  @param arrays Arrays that have the shape or can be broadcast into it
+         */
+        RowIterator(final NDShape shape, final NDArray... arrays)
+        {
+            this.shape = shape;
+            final int rank = shape.getDimensions();
+            final int[] contiguous = new NDStrides(shape).getStrides();
+            boolean flat = true;
+            strides = new int[arrays.length][];
+            offsets = new int[arrays.length];
+            steps = new int[arrays.length];
+            for (int i=0; i<arrays.length; ++i)
+            {
+                strides[i] = broadcastStrides(arrays[i], shape);
+                offsets[i] = arrays[i].getOffset();
+                steps[i] = strides[i][rank-1];
+                flat &= Arrays.equals(strides[i], contiguous) || isZero(strides[i]);
+            }
+            position = new int[rank];
+            if (flat)
+            {   // Handle all elements as one row
+                length = shape.getSize();
+                rows = length > 0 ? 1 : 0;
+            }
+            else
+            {
+                length = shape.getSize(rank-1);
+                rows = length > 0 ? shape.getSize() / length : 0;
+            }
+        }
+
+        /** @return <code>true</code> while there are rows left */
+        boolean hasRows()
+        {
+            return rows > 0;
+        }
+
+        /** Advance offsets to the next row */
+        void nextRow()
+        {
+            if (--rows <= 0)
+                return;
+            // Increment position elements, skipping the last dimension
+            for (int dim=position.length-2; dim>=0; --dim)
+            {
+                ++position[dim];
+                for (int i=0; i<offsets.length; ++i)
+                    offsets[i] += strides[i][dim];
+                if (position[dim] < shape.getSize(dim))
+                    return;
+                // Carry over into previous dimension
+                for (int i=0; i<offsets.length; ++i)
+                    offsets[i] -= position[dim] * strides[i][dim];
+                position[dim] = 0;
+            }
+        }
+    }
+
+    /** @param array Array
+     *  @param shape Shape into which array is broadcast
+     *  @return Strides of array for each dimension of the shape, 0 where broadcast
+     */
+    private static int[] broadcastStrides(final NDArray array, final NDShape shape)
+    {
+        final NDShape own = array.getShape();
+        final NDStrides stride = array.getStrides();
+        final int[] result = new int[shape.getDimensions()];
+        for (int i=result.length-1, dim=own.getDimensions()-1;  i>=0 && dim>=0;  --i, --dim)
+            if (own.getSize(dim) > 1)
+                result[i] = stride.getStride(dim);
+        return result;
+    }
+
+    private static boolean isZero(final int[] values)
+    {
+        for (int value : values)
+            if (value != 0)
+                return false;
+        return true;
+    }
+
+    /** Perform operation element-by-element
+     *  @param result Array for the result. May be the same as <code>a</code>
+     *  @param a Array with the shape of the result or one that can be broadcast into it
+     *  @param b Array with the shape of the result or one that can be broadcast into it
+     *  @param operation Operation to perform on the elements
+     */
+    static void apply(final NDArray result, final NDArray a, final NDArray b,
+            final NDMath.BinaryOperation operation)
+    {
+        final RowIterator rows = new RowIterator(result.getShape(), result, a, b);
+        final int block = Math.min(rows.length, BLOCK);
+        final double[] buf_a = new double[block], buf_b = new double[block];
+        while (rows.hasRows())
+        {
+            for (int start=0; start<rows.length; start+=block)
+            {
+                final int n = Math.min(block, rows.length - start);
+                read(a, rows.offsets[1] + start*rows.steps[1], rows.steps[1], buf_a, 0, n);
+                read(b, rows.offsets[2] + start*rows.steps[2], rows.steps[2], buf_b, 0, n);
+                calc(operation, buf_a, buf_b, n);
+                write(result, rows.offsets[0] + start*rows.steps[0], rows.steps[0], buf_a, 0, n);
+            }
+            rows.nextRow();
+        }
+    }
+
+    /** Perform function on each element
+     *  @param result Array for the result. May be the same as <code>array</code>
+     *  @param array Array with the shape of the result or one that can be broadcast into it
+     *  @param function Function to perform on the elements, <code>null</code> to copy them
+     */
+    static void apply(final NDArray result, final NDArray array, final DoubleUnaryOperator function)
+    {
+        final RowIterator rows = new RowIterator(result.getShape(), result, array);
+        final int block = Math.min(rows.length, BLOCK);
+        final double[] buf = new double[block];
+        while (rows.hasRows())
+        {
+            for (int start=0; start<rows.length; start+=block)
+            {
+                final int n = Math.min(block, rows.length - start);
+                read(array, rows.offsets[1] + start*rows.steps[1], rows.steps[1], buf, 0, n);
+                if (function != null)
+                    for (int i=0; i<n; ++i)
+                        buf[i] = function.applyAsDouble(buf[i]);
+                write(result, rows.offsets[0] + start*rows.steps[0], rows.steps[0], buf, 0, n);
+            }
+            rows.nextRow();
+        }
+    }
+
+    /** Copy elements
+     *  @param result Array to update
+     *  @param array Array with the shape of the result or one that can be broadcast into it
+     */
+    static void copy(final NDArray result, final NDArray array)
+    {
+        apply(result, array, null);
+    }
+
+    /** @param array Array
+     *  @return Elements of the array, in the order of its shape
+     */
+    static double[] toDoubleArray(final NDArray array)
+    {
+        final double[] result = new double[array.getSize()];
+        final RowIterator rows = new RowIterator(array.getShape(), array);
+        int pos = 0;
+        while (rows.hasRows())
+        {
+            read(array, rows.offsets[0], rows.steps[0], result, pos, rows.length);
+            pos += rows.length;
+            rows.nextRow();
+        }
+        return result;
+    }
+
+    /** @param result Array to update
+     *  @param values Values for all elements, in the order of the array's shape
+     */
+    static void set(final NDArray result, final double[] values)
+    {
+        final RowIterator rows = new RowIterator(result.getShape(), result);
+        int pos = 0;
+        while (rows.hasRows())
+        {
+            write(result, rows.offsets[0], rows.steps[0], values, pos, rows.length);
+            pos += rows.length;
+            rows.nextRow();
+        }
+    }
+
+    /** Multiply matrices held in row-major order
+     *
+     *  <p>Multiplies tiles of the matrices that fit into the CPU cache.
+     *  For larger matrices, blocks of result rows are computed in parallel.
+     *  Each result element still sums the products in the order of the
+     *  inner dimension, so the result is the same as for a plain triple loop.
+     *
+     *  @param a First matrix, <code>rows</code> x <code>inner</code>
+     *  @param b Second matrix, <code>inner</code> x <code>cols</code>
+     *  @param rows Rows of first matrix
+     *  @param inner Columns of first matrix, rows of second matrix
+     *  @param cols Columns of second matrix
+     *  @return Result matrix, <code>rows</code> x <code>cols</code>
+     */
+    static double[] multiply(final double[] a, final double[] b,
+            final int rows, final int inner, final int cols)
+    {
+        final double[] c = new double[rows * cols];
+        final int blocks = (rows + TILE - 1) / TILE;
+        final IntConsumer block = i -> multiplyTiles(a, b, c, i*TILE, Math.min(rows, (i+1)*TILE), inner, cols);
+        if (blocks > 1  &&  (long)rows * inner * cols >= PARALLEL_THRESHOLD)
+            IntStream.range(0, blocks).parallel().forEach(block);
+        else
+            for (int i=0; i<blocks; ++i)
+                block.accept(i);
+        return c;
+    }
+
+    /** Multiply tiles for a block of result rows
+     *  @param a First matrix
+     *  @param b Second matrix
+     *  @param c Result matrix
+     *  @param row_start First result row
+     *  @param row_end Next-to-end result row
+     *  @param inner Columns of first matrix, rows of second matrix
+     *  @param cols Columns of second matrix
+     */
+    private static void multiplyTiles(final double[] a, final double[] b, final double[] c,
+            final int row_start, final int row_end, final int inner, final int cols)
+    {
+        for (int k_start=0; k_start<inner; k_start+=TILE)
+        {
+            final int k_end = Math.min(inner, k_start + TILE);
+            for (int j_start=0; j_start<cols; j_start+=4*TILE)
+            {
+                final int j_end = Math.min(cols, j_start + 4*TILE);
+                for (int i=row_start; i<row_end; ++i)
+                {
+                    final int row_a = i*inner, row_c = i*cols;
+                    for (int k=k_start; k<k_end; ++k)
+                    {
+                        final double a_ik = a[row_a + k];
+                        final int row_b = k*cols;
+                        for (int j=j_start; j<j_end; ++j)
+                            c[row_c + j] += a_ik * b[row_b + j];
+                    }
+                }
+            }
+        }
+    }
+
+    /** @param operation Operation to perform on elements of <code>a</code> and <code>b</code>,
+     *                   updating <code>a</code>
+     *  @param a First operand, receives result
+     *  @param b Second operand
+     *  @param n Number of elements
+     */
+    private static void calc(final NDMath.BinaryOperation operation,
+            final double[] a, final double[] b, final int n)
+    {
+        switch (operation)
+        {
+        case ADD:
+            for (int i=0; i<n; ++i)
+                a[i] += b[i];
+            break;
+        case SUBTRACT:
+            for (int i=0; i<n; ++i)
+                a[i] -= b[i];
+            break;
+        case MULTIPLY:
+            for (int i=0; i<n; ++i)
+                a[i] *= b[i];
+            break;
+        case DIVIDE:
+            for (int i=0; i<n; ++i)
+                a[i] /= b[i];
+            break;
+        default:
+            for (int i=0; i<n; ++i)
+                a[i] = operation.calc(a[i], b[i]);
+        }
+    }
+
+    /** Read elements of an array
+     *  @param array Array
+     *  @param offset Offset of first element in the flat data
+     *  @param step Step between elements
+     *  @param buf Buffer for elements
+     *  @param pos Position of first element in buffer
+     *  @param n Number of elements
+     */
+    private static void read(final NDArray array, final int offset, final int step,
+            final double[] buf, final int pos, final int n)
+    {
+        final Object raw = array.getRawData();
+        if (raw instanceof double[])
+        {
+            final double[] data = (double[]) raw;
+            if (step == 1)
+                System.arraycopy(data, offset, buf, pos, n);
+            else
+                for (int i=0; i<n; ++i)
+                    buf[pos+i] = data[offset + i*step];
+        }
+        else if (raw instanceof float[])
+        {
+            final float[] data = (float[]) raw;
+            for (int i=0; i<n; ++i)
+                buf[pos+i] = data[offset + i*step];
+        }
+        else if (raw instanceof int[])
+        {
+            final int[] data = (int[]) raw;
+            for (int i=0; i<n; ++i)
+                buf[pos+i] = data[offset + i*step];
+        }
+        else
+        {
+            final ListNumber data = array.getData();
+            for (int i=0; i<n; ++i)
+                buf[pos+i] = data.getDouble(offset + i*step);
+        }
+    }
+
+    /** Write elements of an array
+     *  @param array Array
+     *  @param offset Offset of first element in the flat data
+     *  @param step Step between elements
+     *  @param buf Buffer with elements
+     *  @param pos Position of first element in buffer
+     *  @param n Number of elements
+     */
+    private static void write(final NDArray array, final int offset, final int step,
+            final double[] buf, final int pos, final int n)
+    {
+        final Object raw = array.getRawData();
+        if (raw instanceof double[])
+        {
+            final double[] data = (double[]) raw;
+            if (step == 1)
+                System.arraycopy(buf, pos, data, offset, n);
+            else
+                for (int i=0; i<n; ++i)
+                    data[offset + i*step] = buf[pos+i];
+        }
+        else if (raw instanceof float[])
+        {
+            final float[] data = (float[]) raw;
+            for (int i=0; i<n; ++i)
+                data[offset + i*step] = (float) buf[pos+i];
+        }
+        else if (raw instanceof int[])
+        {
+            final int[] data = (int[]) raw;
+            for (int i=0; i<n; ++i)
+                data[offset + i*step] = (int) buf[pos+i];
+        }
+        else
+        {
+            final ListNumber data = array.getData();
+            for (int i=0; i<n; ++i)
+                data.setDouble(offset + i*step, buf[pos+i]);
+        }
+    }
+}
@@ -65,9 +65,7 @@ public class NDMath
     /** @param array N-dim array where each element is to be turned into its negative */
     public static void negative(final NDArray array)
     {
-        final int size = array.getSize();
-        for (int i=0; i<size; ++i)
-            array.setFlatDouble(i, -array.getFlatDouble(i));
+        NDKernel.apply(array, array, scalar(-1.0), BinaryOperation.MULTIPLY);
     }
 
     /** @param array N-dim array
@@ -75,9 +73,7 @@ public class NDMath
      */
     public static void increment(final NDArray array, final double value)
     {
-        final int size = array.getSize();
-        for (int i=0; i<size; ++i)
-            array.setFlatDouble(i, array.getFlatDouble(i) + value);
+        NDKernel.apply(array, array, scalar(value), BinaryOperation.ADD);
     }
 
     /** @param array N-dim array
@@ -85,9 +81,7 @@ public class NDMath
      */
     public static void scale(final NDArray array, final double value)
     {
-        final int size = array.getSize();
-        for (int i=0; i<size; ++i)
-            array.setFlatDouble(i, array.getFlatDouble(i) * value);
+        NDKernel.apply(array, array, scalar(value), BinaryOperation.MULTIPLY);
     }
 
     /** @param array N-dim array
@@ -95,9 +89,7 @@ public class NDMath
      */
     public static void divide_elements(final NDArray array, final double value)
     {
-        final int size = array.getSize();
-        for (int i=0; i<size; ++i)
-            array.setFlatDouble(i, array.getFlatDouble(i) / value);
+        NDKernel.apply(array, array, scalar(value), BinaryOperation.DIVIDE);
     }
 
     /** @param array N-dim array
@@ -106,9 +98,7 @@ public class NDMath
     public static NDArray abs(final NDArray array)
     {
         final NDArray result = new NDArray(array.getType(), array.getShape());
-        final int size = array.getSize();
-        for (int i=0; i<size; ++i)
-            result.setFlatDouble(i, Math.abs(array.getFlatDouble(i)));
+        NDKernel.apply(result, array, Math::abs);
         return result;
     }
 
@@ -118,15 +108,7 @@ public class NDMath
     public static NDArray sqrt(final NDArray array)
     {
         final NDArray result = new NDArray(NDType.FLOAT64, array.getShape());
-        final int size = array.getSize();
-        for (int i=0; i<size; ++i)
-        {
-            final double val = array.getFlatDouble(i);
-            if (val >= 0.0)
-                result.setFlatDouble(i, Math.sqrt(val));
-            else
-                result.setFlatDouble(i, Double.NaN);
-        }
+        NDKernel.apply(result, array, val -> val >= 0.0 ? Math.sqrt(val) : Double.NaN);
         return result;
     }
 
@@ -136,9 +118,7 @@ public class NDMath
     public static NDArray exp(final NDArray array)
     {
         final NDArray result = new NDArray(NDType.FLOAT64, array.getShape());
-        final int size = array.getSize();
-        for (int i=0; i<size; ++i)
-            result.setFlatDouble(i, Math.exp(array.getFlatDouble(i)));
+        NDKernel.apply(result, array, Math::exp);
         return result;
     }
 
@@ -148,9 +128,7 @@ public class NDMath
     public static NDArray log(final NDArray array)
     {
         final NDArray result = new NDArray(NDType.FLOAT64, array.getShape());
-        final int size = array.getSize();
-        for (int i=0; i<size; ++i)
-            result.setFlatDouble(i, Math.log(array.getFlatDouble(i)));
+        NDKernel.apply(result, array, Math::log);
         return result;
     }
 
@@ -160,54 +138,35 @@ public class NDMath
     public static NDArray log10(final NDArray array)
     {
         final NDArray result = new NDArray(NDType.FLOAT64, array.getShape());
-        final int size = array.getSize();
-        for (int i=0; i<size; ++i)
-            result.setFlatDouble(i, Math.log10(array.getFlatDouble(i)));
+        NDKernel.apply(result, array, Math::log10);
         return result;
     }
 
     /** Binary operation */
-    private interface BinaryOperation
+    enum BinaryOperation
     {
+        ADD       { @Override double calc(final double a, final double b) { return a + b; } },
+        SUBTRACT  { @Override double calc(final double a, final double b) { return a - b; } },
+        MULTIPLY  { @Override double calc(final double a, final double b) { return a * b; } },
+        DIVIDE    { @Override double calc(final double a, final double b) { return a / b; } },
+        POWER     { @Override double calc(final double a, final double b) { return Math.pow(a, b); } };
+
         /** @param a First input
          *  @param b Second input
          *  @return Result of operation
          */
-        double calc(double a, double b);
+        abstract double calc(double a, double b);
     }
 
-    final private static BinaryOperation op_add = new BinaryOperation()
-    {
-        @Override
-        public double calc(final double a, final double b)     { return a + b;    }
-    };
-
-    final private static BinaryOperation op_sub = new BinaryOperation()
-    {
-        @Override
-        public double calc(final double a, final double b)    { return a - b;    }
-    };
-
-    final private static BinaryOperation op_mul = new BinaryOperation()
-    {
-        @Override
-        public double calc(final double a, final double b)    { return a * b; }
-    };
-
-    final private static BinaryOperation op_div = new BinaryOperation()
-    {
-        @Override
-        public double calc(final double a, final double b)    { return a / b;    }
-    };
-
-    final private static BinaryOperation op_pwr = new BinaryOperation()
+    /** @param value Number
+     *  @return Array with single element that can be broadcast into any shape
+     */
+    private static NDArray scalar(final double value)
     {
-        @Override
-        public double calc(final double a, final double b)    { return Math.pow(a, b); }
-    };
+        return NDArray.create(new double[] { value });
+    }
 
     /** Perform in-place operation on array.
-     *  Use element-by-element when possible.
      *  @param array N-dim array on which to operate
      *  @param other N-dim array that provides values for operation
      *  @param operation Operation to perform on the elements
@@ -218,35 +177,14 @@ public class NDMath
         switch (NDCompatibility.forArrays(array, other))
         {
         case FLAT_ITERATION:
-            final int size = array.getSize();
-            for (int i=0; i<size; ++i)
-            {
-                final double value = operation.calc(array.getFlatDouble(i),
-                        other.getFlatDouble(i));
-                array.setFlatDouble(i, value);
-            }
-            break;
         case SHAPE_ITERATION:
-            final ShapeIterator shape = new ShapeIterator(array.getShape());
-            while (shape.hasNext())
-            {
-                final int[] pos = shape.getPosition();
-                final double value = operation.calc(array.getDouble(pos),
-                        other.getDouble(pos));
-                array.setDouble(value, pos);
-            }
+            NDKernel.apply(array, array, other, operation);
             break;
         case BROADCAST_ITERATION:
-            final BroadcastIterator i = new BroadcastIterator(array.getShape(), other.getShape());
-            if (! i.getBroadcastShape().equals(array.getShape()))
+            if (! BroadcastIterator.computeBroadcastShape(array.getShape(), other.getShape()).equals(array.getShape()))
                 throw new IllegalArgumentException("Cannot operate on array of shape  " + array.getShape() +
                         " in-place with (broadcast) argument of shape " + other.getShape());
-            while (i.hasNext())
-            {
-                final double value = operation.calc(array.getDouble(i.getPosA()),
-                        other.getDouble(i.getPosB()));
-                array.setDouble(value, i.getPosition());
-            }
+            NDKernel.apply(array, array, other, operation);
             break;
         default:
             throw new IllegalArgumentException("Cannot operate on array of shape  " + array.getShape() +
@@ -262,7 +200,7 @@ public class NDMath
      */
     public static void increment(final NDArray array, final NDArray other)
     {
-        inplace_operation(array, other, op_add);
+        inplace_operation(array, other, BinaryOperation.ADD);
     }
 
 
@@ -274,7 +212,7 @@ public class NDMath
      */
     public static void scale(final NDArray array, final NDArray other)
     {
-        inplace_operation(array, other, op_mul);
+        inplace_operation(array, other, BinaryOperation.MULTIPLY);
     }
 
     /** Divide arrays element-by-element
@@ -285,12 +223,11 @@ public class NDMath
      */
     public static void divide_elements(final NDArray array, final NDArray other)
     {
-        inplace_operation(array, other, op_div);
+        inplace_operation(array, other, BinaryOperation.DIVIDE);
     }
 
     /** Perform operation on arrays element-by-element,
-     *  using the NumPy broadcast idea but switching
-     *  to linear interation if possible
+     *  using the NumPy broadcast idea
      *  @param a N-dim array
      *  @param b N-dim array
      *  @param operation Operation to perform on the elements
@@ -305,41 +242,17 @@ public class NDMath
         switch (NDCompatibility.forArrays(a, b))
         {
         case FLAT_ITERATION:
-            result = new NDArray(type, a.getShape());
-            final int size = result.getSize();
-            for (int i=0; i<size; ++i)
-            {
-                final double value = operation.calc(a.getFlatDouble(i),
-                        b.getFlatDouble(i));
-                result.setFlatDouble(i, value);
-            }
-            break;
         case SHAPE_ITERATION:
             result = new NDArray(type, a.getShape());
-            final ShapeIterator shape = new ShapeIterator(result.getShape());
-            while (shape.hasNext())
-            {
-                final int[] pos = shape.getPosition();
-                final double value = operation.calc(a.getDouble(pos),
-                        b.getDouble(pos));
-                result.setDouble(value, pos);
-            }
             break;
         case BROADCAST_ITERATION:
-            final BroadcastIterator i = new BroadcastIterator(a.getShape(), b.getShape());
-            result = new NDArray(type, i.getBroadcastShape());
-            while (i.hasNext())
-            {
-                final double value = operation.calc(a.getDouble(i.getPosA()),
-                        b.getDouble(i.getPosB()));
-                result.setDouble(value, i.getPosition());
-            }
+            result = new NDArray(type, BroadcastIterator.computeBroadcastShape(a.getShape(), b.getShape()));
             break;
         default:
             throw new IllegalArgumentException("Cannot operate on arrays of incompatible shapes " + a +
                     " and " + b);
         }
-
+        NDKernel.apply(result, a, b, operation);
         return result;
     }
 
@@ -349,7 +262,7 @@ public class NDMath
      */
     public static NDArray add(final NDArray a, final NDArray b)
     {
-        return binary_operation(a, b, op_add);
+        return binary_operation(a, b, BinaryOperation.ADD);
     }
 
     /** @param a N-dim array
@@ -358,7 +271,7 @@ public class NDMath
      */
     public static NDArray subtract(final NDArray a, final NDArray b)
     {
-        return binary_operation(a, b, op_sub);
+        return binary_operation(a, b, BinaryOperation.SUBTRACT);
     }
 
     /** @param a N-dim array
@@ -367,7 +280,7 @@ public class NDMath
      */
     public static NDArray multiply(final NDArray a, final NDArray b)
     {
-        return binary_operation(a, b, op_mul);
+        return binary_operation(a, b, BinaryOperation.MULTIPLY);
     }
 
     /** @param a N-dim array
@@ -376,7 +289,7 @@ public class NDMath
      */
     public static NDArray divide(final NDArray a, final NDArray b)
     {
-        return binary_operation(a, b, op_div);
+        return binary_operation(a, b, BinaryOperation.DIVIDE);
     }
 
     /** @param a N-dim array
@@ -385,6 +298,6 @@ public class NDMath
      */
     public static NDArray power(final NDArray a, final NDArray b)
     {
-        return binary_operation(a, b, op_pwr);
+        return binary_operation(a, b, BinaryOperation.POWER);
     }
 }
@@ -208,6 +208,11 @@ public class NDMatrix
     }
 
     /** Perform matrix multiplication of arrays 2x2 arrays
+     *
+     *  <p>The arrays are copied into plain arrays,
+     *  which are then multiplied in cache-sized tiles,
+     *  in parallel for larger arrays.
+     *
      *  @param a 2-dim array
      *  @param b 2-dim array
      *  @param shape_a Shape of a
@@ -230,14 +235,8 @@ public class NDMatrix
         final int b_cols = shape_b.getSize(1);
         final NDShape shape_r = new NDShape(a_rows, b_cols);
         final NDArray result = zeros(type, shape_r);
-        for (int i=0; i<a_rows; ++i)
-            for (int j=0; j<b_cols; ++j)
-            {
-                double sum = 0.0;
-                for (int k=0; k<a_cols; ++k)
-                    sum += a.getDouble(i, k) * b.getDouble(k, j);
-                result.setDouble(sum, i, j);
-            }
+        NDKernel.set(result, NDKernel.multiply(NDKernel.toDoubleArray(a), NDKernel.toDoubleArray(b),
+                                               a_rows, a_cols, b_cols));
         return result;
     }
 
@@ -260,14 +259,9 @@ public class NDMatrix
                 "For matrix multiplication, number of columns in first array must match number of rows in second array," +
                 " but got shapes " + shape + " and " + b.getShape());
 
-        final NDArray result = zeros(type, new NDShape(a_cols));
-        for (int i=0; i<a_rows; ++i)
-        {
-            double sum = 0.0;
-            for (int k=0; k<a_cols; ++k)
-                sum += a.getDouble(i, k) * b.getFlatDouble(k);
-            result.setDouble(sum, i);
-        }
+        final NDArray result = zeros(type, new NDShape(a_rows));
+        NDKernel.set(result, NDKernel.multiply(NDKernel.toDoubleArray(a), NDKernel.toDoubleArray(b),
+                                               a_rows, a_cols, 1));
         return result;
     }
 
@@ -297,10 +291,8 @@ public class NDMatrix
 
         final NDType type = NDType.determineSuperType(a.getType(), b.getType());
         final NDArray result = zeros(type, new NDShape(1));
-        double sum = 0.0;
-        for (int i=0; i<len; ++i)
-            sum += a.getDouble(i) * b.getDouble(i);
-        result.setDouble(sum, 0);
+        NDKernel.set(result, NDKernel.multiply(NDKernel.toDoubleArray(a), NDKernel.toDoubleArray(b),
+                                               1, len, 1));
         return result;
     }
 }
@@ -92,15 +92,18 @@ public class ScanClient
     }
 
     /** Connect to "http://server:port/path"
-     *  @param path Path to use in scan server REST interface
+     *  @param path Path to use in scan server REST interface, may include "?query"
      *  @param timeout_seconds Timeout to use for operations
      *  @return {@link HttpURLConnection}
      *  @throws Exception on error
      */
     private HttpURLConnection connect(final String path, final int timeout_seconds) throws Exception
     {
-        // URI will properly escape content of path
-        final URI uri = new URI("http", null, host, port, path, null, null);
+        // URI will properly escape content of path and query
+        final int query = path.indexOf('?');
+        final URI uri = query < 0
+            ? new URI("http", null, host, port, path, null, null)
+            : new URI("http", null, host, port, path.substring(0, query), path.substring(query+1), null);
         final URL url = uri.toURL();
         final HttpURLConnection connection = (HttpURLConnection) url.openConnection();
         connection.setRequestProperty("Content-Type", "text/xml");
@@ -282,6 +285,35 @@ public class ScanClient
         }
     }
 
+    /** Wait for changes to the scans on the server
+     *
+     *  <p>Returns when a scan was added, removed or changed its state or progress,
+     *  or when the timeout expires.
+     *
+     *  @param last_change Number of changes returned by previous call, -1 to return right away
+     *  @param timeout_seconds Time to wait on the server
+     *  @return Current number of changes, same as <code>last_change</code> on timeout
+     *  @throws Exception on error, for example when the server does not support this call
+     *  @see #getScanInfos()
+     */
+    public long waitForScanChanges(final long last_change, final int timeout_seconds) throws Exception
+    {
+        final HttpURLConnection connection = connect("/scans/changes?last=" + last_change + "&timeout=" + timeout_seconds,
+                                                     default_timeout + timeout_seconds);
+        try
+        {
+            checkResponse(connection);
+            final Element root_node = parseXML(connection.getInputStream());
+            if (! "changes".equals(root_node.getNodeName()))
+                throw new Exception("Expected <changes/>");
+            return Long.parseLong(root_node.getFirstChild().getNodeValue());
+        }
+        finally
+        {
+            connection.disconnect();
+        }
+    }
+
     /** Obtain information for a scan
      *  @param id ID that uniquely identifies a scan (within JVM of the scan engine)
      *  @return {@link ScanInfo}
@@ -330,7 +362,32 @@ public class ScanClient
      */
     public ScanData getScanData(final long id) throws Exception
     {
-        final HttpURLConnection connection = connect("/scan/" + id + "/data");
+        return readScanData("/scan/" + id + "/data");
+    }
+
+    /** Obtain data logged by a scan after a given serial
+     *
+     *  <p>Allows polling for new samples without
+     *  reading all samples each time.
+     *
+     *  @param id ID that uniquely identifies a scan
+     *  @param last_serial Serial of last sample that caller already has, -1 for all samples
+     *  @return {@link ScanData}, omitting devices without new samples
+     *  @throws Exception on error
+     *  @see #getLastScanDataSerial(long)
+     */
+    public ScanData getScanData(final long id, final long last_serial) throws Exception
+    {
+        return readScanData("/scan/" + id + "/data?after=" + last_serial);
+    }
+
+    /** @param path Path of data request
+     *  @return {@link ScanData}
+     *  @throws Exception on error
+     */
+    private ScanData readScanData(final String path) throws Exception
+    {
+        final HttpURLConnection connection = connect(path);
         try
         {
             checkResponse(connection);
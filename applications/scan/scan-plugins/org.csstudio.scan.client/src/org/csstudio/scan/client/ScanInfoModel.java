@@ -21,8 +21,10 @@ import org.csstudio.scan.server.ScanServerInfo;
 /** Model of scan information on scan server
  *
  *  <p>Based on the {@link ScanClient},
- *  this model periodically polls the scan server for its
- *  state and sends updates to a (GUI) listener.
+ *  this model waits for changes on the scan server
+ *  and sends updates to a (GUI) listener.
+ *  Falls back to periodic polling
+ *  for servers that do not report changes.
  *
  *  <p>Singleton to allow multiple views to monitor
  *  the scan server by using a single underlying
@@ -36,6 +38,14 @@ public class ScanInfoModel
     /** Singleton instance */
     private static ScanInfoModel instance;
 
+    /** Time in seconds to wait for changes on the server.
+     *  Server info is updated at least this often.
+     */
+    final private static int CHANGE_WAIT_SECONDS = 10;
+
+    /** Minimum time between updates while scans change [millisecs] */
+    final private static long MIN_UPDATE_PERIOD = 100;
+
     /** Reference count */
     private int references = 0;
 
@@ -135,12 +145,30 @@ public class ScanInfoModel
             @Override
             public void run()
             {
+                long changes = -1;
                 while (poller != null)
                 {
                     try
                     {
                         poll();
-                        Thread.sleep(poll_period);
+                        // Wait for changes on server, or poll periodically
+                        // if the server does not support it
+                        Thread.sleep(MIN_UPDATE_PERIOD);
+                        try
+                        {
+                            changes = client.waitForScanChanges(changes, CHANGE_WAIT_SECONDS);
+                        }
+                        catch (InterruptedException ex)
+                        {
+                            throw ex;
+                        }
+                        catch (Exception ex)
+                        {
+                            Logger.getLogger(ScanInfoModel.class.getName()).
+                                log(Level.FINE, "Cannot wait for ScanServer changes", ex);
+                            changes = -1;
+                            Thread.sleep(poll_period);
+                        }
                     }
                     catch (InterruptedException ex)
                     {
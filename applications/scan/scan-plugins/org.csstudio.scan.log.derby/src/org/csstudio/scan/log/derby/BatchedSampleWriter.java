@@ -0,0 +1,232 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.scan.log.derby;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.csstudio.scan.data.ScanSample;
+
+/** Writes samples of a scan in a background thread
+ *
+ *  <p>The scan queues samples, which are written
+ *  by a writer thread using an {@link RDBDataLogger}.
+ *  The writer collects samples for a period, then writes
+ *  them as a JDBC batch in one transaction.
+ *
+ *  <p>When the queue is full, adding samples blocks
+ *  until the writer caught up.
+ *  Errors of the writer are reported to the next call
+ *  that adds or flushes samples.
+ */
+@SuppressWarnings("nls")
+class BatchedSampleWriter
+{
+    /** Maximum number of samples in one batch */
+    final private static int MAX_BATCH = 1000;
+
+    /** Queued sample */
+    private static class QueuedSample
+    {
+        final String device;
+        final ScanSample sample;
+
+        QueuedSample(final String device, final ScanSample sample)
+        {
+            this.device = device;
+            this.sample = sample;
+        }
+    }
+
+    /** Queue entry that requests writing all samples queued before it */
+    final private static QueuedSample FLUSH = new QueuedSample(null, null);
+
+    final private long scan_id;
+
+    final private RDBDataLogger logger;
+
+    final private long period_ms;
+
+    final private BlockingQueue<QueuedSample> queue;
+
+    final private Thread thread;
+
+    /** Number of queued and written samples. Written also counts failed samples */
+    private long queued = 0, written = 0;
+
+    /** Error of the last write that was not reported */
+    private Exception error = null;
+
+    private volatile boolean running = true;
+
+    /** Initialize
+     *  @param scan_id ID of scan for which to write samples
+     *  @param logger Logger used (and closed) by the writer thread
+     *  @param max_queued Maximum number of queued samples
+     *  @param period Period in seconds for writing queued samples
+     */
+    BatchedSampleWriter(final long scan_id, final RDBDataLogger logger,
+            final int max_queued, final double period)
+    {
+        this.scan_id = scan_id;
+        this.logger = logger;
+        this.period_ms = Math.round(period * 1000);
+        queue = new ArrayBlockingQueue<>(max_queued);
+        thread = new Thread(this::run, "Scan Data Log " + scan_id);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /** Queue a sample
+     *  @param device Device name
+     *  @param sample Sample to write
+     *  @throws Exception on error in writing previous samples
+     */
+    void add(final String device, final ScanSample sample) throws Exception
+    {
+        checkError();
+        synchronized (this)
+        {
+            ++queued;
+        }
+        queue.put(new QueuedSample(device, sample));
+    }
+
+    /** Request writing all queued samples, don't wait */
+    void requestFlush()
+    {
+        queue.offer(FLUSH);
+    }
+
+    /** Write all queued samples, waiting until they have been written
+     *  @throws Exception on error
+     */
+    void flush() throws Exception
+    {
+        final long target;
+        synchronized (this)
+        {
+            target = queued;
+            if (written >= target)
+            {
+                checkError();
+                return;
+            }
+        }
+        queue.put(FLUSH);
+        synchronized (this)
+        {
+            while (written < target  &&  thread.isAlive())
+                wait();
+        }
+        checkError();
+    }
+
+    /** Write all queued samples, stop the writer thread and close the logger
+     *  @throws Exception on error
+     */
+    void close() throws Exception
+    {
+        try
+        {
+            flush();
+        }
+        finally
+        {
+            running = false;
+            queue.offer(FLUSH);
+            thread.join();
+        }
+    }
+
+    private synchronized void checkError() throws Exception
+    {
+        final Exception ex = error;
+        if (ex == null)
+            return;
+        error = null;
+        throw new Exception("Cannot write samples for scan " + scan_id, ex);
+    }
+
+    private void run()
+    {
+        final List<QueuedSample> batch = new ArrayList<>(MAX_BATCH);
+        try
+        {
+            while (running  ||  ! queue.isEmpty())
+            {
+                final QueuedSample first = queue.poll(period_ms, TimeUnit.MILLISECONDS);
+                if (first == null  ||  first == FLUSH)
+                    continue;
+                batch.add(first);
+                collect(batch);
+                write(batch);
+                batch.clear();
+            }
+        }
+        catch (InterruptedException ex)
+        {
+            // Stop
+        }
+        finally
+        {
+            logger.close();
+            synchronized (this)
+            {
+                notifyAll();
+            }
+        }
+    }
+
+    /** Collect queued samples for one period or until a flush is requested
+     *  @param batch Batch to which samples are added
+     *  @throws InterruptedException when interrupted
+     */
+    private void collect(final List<QueuedSample> batch) throws InterruptedException
+    {
+        final long end = System.currentTimeMillis() + period_ms;
+        while (batch.size() < MAX_BATCH)
+        {
+            final long wait = end - System.currentTimeMillis();
+            final QueuedSample sample = wait > 0 ? queue.poll(wait, TimeUnit.MILLISECONDS) : queue.poll();
+            if (sample == null  ||  sample == FLUSH)
+                return;
+            batch.add(sample);
+        }
+    }
+
+    /** @param batch Samples to write */
+    private void write(final List<QueuedSample> batch)
+    {
+        Exception failure = null;
+        try
+        {
+            for (QueuedSample queued : batch)
+                logger.log(scan_id, queued.device, queued.sample);
+            logger.flush();
+        }
+        catch (Exception ex)
+        {
+            Logger.getLogger(getClass().getName()).log(Level.WARNING,
+                    "Cannot write " + batch.size() + " samples for scan " + scan_id, ex);
+            failure = ex;
+        }
+        synchronized (this)
+        {
+            if (failure != null)
+                error = failure;
+            written += batch.size();
+            notifyAll();
+        }
+    }
+}
@@ -7,6 +7,9 @@
  ******************************************************************************/
 package org.csstudio.scan.log.derby;
 
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
 import org.csstudio.scan.data.ScanData;
 import org.csstudio.scan.data.ScanSample;
 import org.csstudio.scan.log.DataLog;
@@ -14,16 +17,19 @@ import org.csstudio.scan.log.DataLog;
 /** Data log for Derby
  *
  *  <p>Uses the {@link DerbyDataLogger} for a specific scan ID.
- *  Creates a logger on <code>doLog()</code> and keeps that open
- *  until <code>close()</code>
+ *  Creates a {@link BatchedSampleWriter} on <code>doLog()</code>
+ *  and keeps that open until <code>close()</code>.
+ *  Samples are thus written in the background,
+ *  <code>getScanData()</code> waits for queued samples to be written.
  *
  *  @author Kay Kasemir
  */
+@SuppressWarnings("nls")
 public class DerbyDataLog extends DataLog
 {
     final private long scan_id;
 
-    private RDBDataLogger logger = null;
+    private BatchedSampleWriter writer = null;
 
     /** Initialize
      *  @param scan_id ID of scan for which this logger should operate
@@ -47,20 +53,57 @@ public class DerbyDataLog extends DataLog
     @Override
     public void doLog(final String device, final ScanSample sample) throws Exception
     {
-        if (logger == null)
-            logger = new DerbyDataLogger();
-        logger.log(scan_id, device, sample);
+        getWriter().add(device, sample);
+    }
+
+    /** @return Writer, created on first call
+     *  @throws Exception on error
+     */
+    private synchronized BatchedSampleWriter getWriter() throws Exception
+    {
+        if (writer == null)
+            writer = new BatchedSampleWriter(scan_id, new DerbyDataLogger(),
+                    Preferences.getMaxQueuedSamples(), Preferences.getWritePeriod());
+        return writer;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void flush()
+    {
+        final BatchedSampleWriter writer;
+        synchronized (this)
+        {
+            writer = this.writer;
+        }
+        if (writer != null)
+            writer.requestFlush();
+        super.flush();
     }
 
     /** {@inheritDoc} */
     @Override
     public ScanData getScanData() throws Exception
     {
+        return getScanData(-1);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public ScanData getScanData(final long last_serial) throws Exception
+    {
+        final BatchedSampleWriter writer;
+        synchronized (this)
+        {
+            writer = this.writer;
+        }
+        if (writer != null)
+            writer.flush();
         // Can be called without doLog(), so use separate logger just for this call
         final RDBDataLogger logger = new DerbyDataLogger();
         try
         {
-            return logger.getScanData(scan_id);
+            return logger.getScanData(scan_id, last_serial);
         }
         finally
         {
@@ -72,10 +115,18 @@ public class DerbyDataLog extends DataLog
     @Override
     public synchronized void close()
     {
-        if (logger != null)
+        if (writer != null)
         {
-            logger.close();
-            logger = null;
+            try
+            {
+                writer.close();
+            }
+            catch (Exception ex)
+            {
+                Logger.getLogger(getClass().getName()).log(Level.WARNING,
+                        "Error writing samples for scan " + scan_id, ex);
+            }
+            writer = null;
         }
         super.close();
     }
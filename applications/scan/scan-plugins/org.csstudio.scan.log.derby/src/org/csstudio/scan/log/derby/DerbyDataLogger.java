@@ -13,6 +13,7 @@ import java.io.PrintWriter;
 import java.net.InetAddress;
 import java.sql.Connection;
 import java.sql.DriverManager;
+import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.logging.Level;
@@ -66,6 +67,8 @@ public class DerbyDataLogger extends RDBDataLogger
         {
             if (! database.haveTables())
                 database.createTables();
+            else
+                database.updateTables();
         }
         finally
         {
@@ -124,6 +127,31 @@ public class DerbyDataLogger extends RDBDataLogger
         }
     }
 
+    /** Update tables created by an older version
+     *  @throws Exception on error
+     */
+    private void updateTables() throws Exception
+    {
+        final boolean have_data;
+        try
+        (
+            final ResultSet rs = connection.getMetaData().getColumns(null, null, "SAMPLES", "DATA");
+        )
+        {
+            have_data = rs.next();
+        }
+        if (have_data)
+            return;
+        Logger.getLogger(getClass().getName()).info("Adding binary sample data column");
+        try
+        (
+            final Statement statement = connection.createStatement();
+        )
+        {
+            statement.execute("ALTER TABLE samples ADD COLUMN data BLOB");
+        }
+    }
+
     /** Create database tables
      *  @throws Exception on error
      */
@@ -35,4 +35,24 @@ public class Preferences
             port = prefs.getInt(Activator.ID, "server_port", port, null);
         return port;
     }
+
+    /** @return Maximum number of samples queued for writing */
+    public static int getMaxQueuedSamples()
+    {
+        int count = 10000;
+        final IPreferencesService prefs = Platform.getPreferencesService();
+        if (prefs != null)
+            count = prefs.getInt(Activator.ID, "max_queued_samples", count, null);
+        return Math.max(1, count);
+    }
+
+    /** @return Period in seconds for writing queued samples */
+    public static double getWritePeriod()
+    {
+        double period = 0.5;
+        final IPreferencesService prefs = Platform.getPreferencesService();
+        if (prefs != null)
+            period = prefs.getDouble(Activator.ID, "write_period", period, null);
+        return period;
+    }
 }
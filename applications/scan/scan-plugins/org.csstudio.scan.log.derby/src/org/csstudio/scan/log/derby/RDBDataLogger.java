@@ -13,6 +13,7 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.sql.Timestamp;
+import java.sql.Types;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -47,6 +48,9 @@ abstract public class RDBDataLogger
     /** Re-used statement */
     private PreparedStatement insert_sample_statement = null;
 
+    /** Number of samples added to the batch of the insert_sample_statement */
+    private int batched_samples = 0;
+
     /** Initialize
       *  @throws Exception on error
      */
@@ -248,10 +252,18 @@ abstract public class RDBDataLogger
     }
 
     /** Log a sample
+     *
+     *  <p>Sample is added to a batch,
+     *  it is only written by <code>flush()</code>.
+     *
+     *  <p>Numeric samples are written in a binary encoding,
+     *  other samples as {@link SampleValue}.
+     *
      *  @param scan_id ID of associated scan
      *  @param device Device name
      *  @param sample Sample to log
      *  @throws Exception on error
+     *  @see #flush()
      */
     public void log(final long scan_id, final String device, final ScanSample sample) throws Exception
     {
@@ -259,16 +271,56 @@ abstract public class RDBDataLogger
 
         if (insert_sample_statement == null)
             insert_sample_statement = connection.prepareStatement(
-                    "INSERT INTO samples(scan_id, device_id, serial, timestamp, value)" +
-                    " VALUES (?,?,?,?,?)");
+                    "INSERT INTO samples(scan_id, device_id, serial, timestamp, value, data)" +
+                    " VALUES (?,?,?,?,?,?)");
         insert_sample_statement.setLong(1, scan_id);
         insert_sample_statement.setInt(2, device_id);
         insert_sample_statement.setLong(3, sample.getSerial());
         insert_sample_statement.setTimestamp(4, Timestamp.from(sample.getTimestamp()));
-        insert_sample_statement.setObject(5, new SampleValue(sample.getValues()));
-        final int rows = insert_sample_statement.executeUpdate();
-        if (rows != 1)
-            throw new Exception("Sample insert affected " + rows + " rows");
+        final byte[] data = SampleEncoding.encode(sample.getValues());
+        if (data == null)
+        {
+            insert_sample_statement.setObject(5, new SampleValue(sample.getValues()));
+            insert_sample_statement.setNull(6, Types.BLOB);
+        }
+        else
+        {
+            insert_sample_statement.setNull(5, Types.JAVA_OBJECT);
+            insert_sample_statement.setBytes(6, data);
+        }
+        insert_sample_statement.addBatch();
+        ++batched_samples;
+    }
+
+    /** Write logged samples
+     *
+     *  <p>Samples are written in one transaction.
+     *  @throws Exception on error
+     */
+    public void flush() throws Exception
+    {
+        if (batched_samples <= 0)
+            return;
+        batched_samples = 0;
+        connection.setAutoCommit(false);
+        try
+        {
+            final int[] rows = insert_sample_statement.executeBatch();
+            for (int count : rows)
+                if (count != 1  &&  count != Statement.SUCCESS_NO_INFO)
+                    throw new Exception("Sample insert affected " + count + " rows");
+            connection.commit();
+        }
+        catch (Exception ex)
+        {
+            insert_sample_statement.clearBatch();
+            connection.rollback();
+            throw ex;
+        }
+        finally
+        {
+            connection.setAutoCommit(true);
+        }
     }
 
     /** Get serial of last logged sample.
@@ -312,6 +364,17 @@ abstract public class RDBDataLogger
      *  @throws Exception on error
      */
     public ScanData getScanData(final long scan_id) throws Exception
+    {
+        return getScanData(scan_id, -1);
+    }
+
+    /** Obtain data for a scan that was logged after a given serial
+     *  @param scan_id ID of the scan
+     *  @param last_serial Serial of last sample that caller already has, -1 for all samples
+     *  @return {@link ScanData}, omitting devices without new samples
+     *  @throws Exception on error
+     */
+    public ScanData getScanData(final long scan_id, final long last_serial) throws Exception
     {
         final Map<String, List<ScanSample>> device_logs = new HashMap<String, List<ScanSample>>();
 
@@ -321,8 +384,9 @@ abstract public class RDBDataLogger
         final String[] devices = getScanDevices(scan_id);
         for (String device : devices)
         {
-            final List<ScanSample> samples = getScanSamples(scan_id, device);
-            device_logs.put(device, samples);
+            final List<ScanSample> samples = getScanSamples(scan_id, device, last_serial);
+            if (last_serial < 0  ||  ! samples.isEmpty())
+                device_logs.put(device, samples);
         }
 
         return new ScanData(device_logs);
@@ -331,27 +395,36 @@ abstract public class RDBDataLogger
     /** Get samples
      *  @param scan_id ID of the scan
      *  @param device_name Name of the device
+     *  @param last_serial Only get samples with larger serial
      *  @return Samples for that scan
      *  @throws Exception on error
      */
-    private List<ScanSample> getScanSamples(final long scan_id, final String device_name) throws Exception
+    private List<ScanSample> getScanSamples(final long scan_id, final String device_name,
+                                            final long last_serial) throws Exception
     {
         final List<ScanSample> samples = new ArrayList<ScanSample>();
         try
         (
             final PreparedStatement statement = connection.prepareStatement(
-                    "SELECT serial, timestamp, value FROM samples WHERE scan_id=? AND device_id=? ORDER BY serial");
+                    "SELECT serial, timestamp, value, data FROM samples WHERE scan_id=? AND device_id=? AND serial>? ORDER BY serial");
         )
         {
             statement.setLong(1, scan_id);
             statement.setInt(2, getDevice(device_name));
+            statement.setLong(3, last_serial);
             final ResultSet result = statement.executeQuery();
             while (result.next())
             {
                 final long serial = result.getLong(1);
                 final Instant timestamp = result.getTimestamp(2).toInstant();
-                final SampleValue value = (SampleValue) result.getObject(3);
-                samples.add(ScanSampleFactory.createSample(timestamp, serial, value.getValues()));
+                final byte[] data = result.getBytes(4);
+                if (data != null)
+                    samples.add(ScanSampleFactory.createSample(timestamp, serial, SampleEncoding.decode(data)));
+                else
+                {
+                    final SampleValue value = (SampleValue) result.getObject(3);
+                    samples.add(ScanSampleFactory.createSample(timestamp, serial, value.getValues()));
+                }
             }
             result.close();
         }
@@ -429,9 +502,18 @@ abstract public class RDBDataLogger
 
     /** Close database.
      *  Must be called to release resources.
+     *  Writes samples that have not been flushed.
      */
     public void close()
     {
+        try
+        {
+            flush();
+        }
+        catch (Exception ex)
+        {
+            Logger.getLogger(getClass().getName()).log(Level.WARNING, "Error writing samples to log RDB", ex);
+        }
         try
         {
             if (insert_sample_statement != null)
@@ -0,0 +1,146 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.scan.log.derby;
+
+import java.nio.ByteBuffer;
+
+/** Binary encoding of numeric sample values
+ *
+ *  <p>Serializing a {@link SampleValue} writes the class descriptions
+ *  of the array and its elements for every sample.
+ *  Numbers of the same type are instead written as a type code,
+ *  the number of values and then the raw values:
+ *  <pre>
+ *  byte type ('D', 'F', 'L', 'I', 'S', 'B'), int count, values...
+ *  </pre>
+ *  A single double thus takes 13 bytes.
+ */
+@SuppressWarnings("nls")
+class SampleEncoding
+{
+    /** @param values Sample values
+     *  @return Encoded values or <code>null</code> if they cannot be encoded,
+     *          because they are not numbers or have mixed types
+     */
+    static byte[] encode(final Object[] values)
+    {
+        if (! (values instanceof Number[])  ||  values.length <= 0  ||  values[0] == null)
+            return null;
+        final Class<?> type = values[0].getClass();
+        for (Object value : values)
+            if (value == null  ||  value.getClass() != type)
+                return null;
+
+        final ByteBuffer buffer;
+        if (type == Double.class)
+        {
+            buffer = allocate('D', values.length, Double.BYTES);
+            for (Object value : values)
+                buffer.putDouble((Double) value);
+        }
+        else if (type == Float.class)
+        {
+            buffer = allocate('F', values.length, Float.BYTES);
+            for (Object value : values)
+                buffer.putFloat((Float) value);
+        }
+        else if (type == Long.class)
+        {
+            buffer = allocate('L', values.length, Long.BYTES);
+            for (Object value : values)
+                buffer.putLong((Long) value);
+        }
+        else if (type == Integer.class)
+        {
+            buffer = allocate('I', values.length, Integer.BYTES);
+            for (Object value : values)
+                buffer.putInt((Integer) value);
+        }
+        else if (type == Short.class)
+        {
+            buffer = allocate('S', values.length, Short.BYTES);
+            for (Object value : values)
+                buffer.putShort((Short) value);
+        }
+        else if (type == Byte.class)
+        {
+            buffer = allocate('B', values.length, Byte.BYTES);
+            for (Object value : values)
+                buffer.put((Byte) value);
+        }
+        else
+            return null;
+        return buffer.array();
+    }
+
+    private static ByteBuffer allocate(final char type, final int count, final int size)
+    {
+        final ByteBuffer buffer = ByteBuffer.allocate(1 + Integer.BYTES + count * size);
+        buffer.put((byte) type);
+        buffer.putInt(count);
+        return buffer;
+    }
+
+    /** @param data Encoded values
+     *  @return Sample values
+     *  @throws Exception on error
+     */
+    static Number[] decode(final byte[] data) throws Exception
+    {
+        final ByteBuffer buffer = ByteBuffer.wrap(data);
+        final char type = (char) buffer.get();
+        final int count = buffer.getInt();
+        switch (type)
+        {
+        case 'D':
+        {
+            final Double[] values = new Double[count];
+            for (int i=0; i<count; ++i)
+                values[i] = buffer.getDouble();
+            return values;
+        }
+        case 'F':
+        {
+            final Float[] values = new Float[count];
+            for (int i=0; i<count; ++i)
+                values[i] = buffer.getFloat();
+            return values;
+        }
+        case 'L':
+        {
+            final Long[] values = new Long[count];
+            for (int i=0; i<count; ++i)
+                values[i] = buffer.getLong();
+            return values;
+        }
+        case 'I':
+        {
+            final Integer[] values = new Integer[count];
+            for (int i=0; i<count; ++i)
+                values[i] = buffer.getInt();
+            return values;
+        }
+        case 'S':
+        {
+            final Short[] values = new Short[count];
+            for (int i=0; i<count; ++i)
+                values[i] = buffer.getShort();
+            return values;
+        }
+        case 'B':
+        {
+            final Byte[] values = new Byte[count];
+            for (int i=0; i<count; ++i)
+                values[i] = buffer.get();
+            return values;
+        }
+        default:
+            throw new Exception("Unknown sample encoding '" + type + "'");
+        }
+    }
+}
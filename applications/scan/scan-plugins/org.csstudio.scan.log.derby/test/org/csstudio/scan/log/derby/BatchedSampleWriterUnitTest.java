@@ -0,0 +1,223 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.scan.log.derby;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import org.csstudio.scan.data.ScanSample;
+import org.csstudio.scan.data.ScanSampleFactory;
+import org.junit.Test;
+
+/** JUnit test of the {@link BatchedSampleWriter}
+ *
+ *  <p>Uses a logger that keeps samples in memory.
+ */
+@SuppressWarnings("nls")
+public class BatchedSampleWriterUnitTest
+{
+    /** Logger that records the batches it writes */
+    private static class TestLogger extends RDBDataLogger
+    {
+        /** Samples logged since last flush */
+        private final List<ScanSample> batch = new ArrayList<>();
+
+        /** Written batches */
+        final List<List<ScanSample>> batches = new ArrayList<>();
+
+        /** Error to throw on flush, or <code>null</code> */
+        volatile Exception error = null;
+
+        /** Latch that log() awaits */
+        volatile CountDownLatch blocked = new CountDownLatch(0);
+
+        volatile boolean closed = false;
+
+        TestLogger() throws Exception
+        {
+            super();
+        }
+
+        @Override
+        protected Connection connect() throws Exception
+        {
+            // Only used to query meta data, which fails
+            return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(),
+                    new Class<?>[] { Connection.class }, (proxy, method, args) ->
+            {
+                throw new SQLException("No database");
+            });
+        }
+
+        @Override
+        public void log(final long scan_id, final String device, final ScanSample sample) throws Exception
+        {
+            blocked.await();
+            batch.add(sample);
+        }
+
+        @Override
+        public void flush() throws Exception
+        {
+            final List<ScanSample> written = new ArrayList<>(batch);
+            batch.clear();
+            if (error != null)
+                throw error;
+            synchronized (batches)
+            {
+                batches.add(written);
+            }
+        }
+
+        @Override
+        public void close()
+        {
+            closed = true;
+        }
+
+        int getWrittenSamples()
+        {
+            int count = 0;
+            synchronized (batches)
+            {
+                for (List<ScanSample> written : batches)
+                    count += written.size();
+            }
+            return count;
+        }
+    }
+
+    private static ScanSample createSample(final long serial)
+    {
+        return ScanSampleFactory.createSample(Instant.now(), serial, Double.valueOf(serial));
+    }
+
+    @Test(timeout=10000)
+    public void testFlushOnClose() throws Exception
+    {
+        final TestLogger logger = new TestLogger();
+        // Period is longer than the test
+        final BatchedSampleWriter writer = new BatchedSampleWriter(1, logger, 100, 60.0);
+        for (int i=0; i<5; ++i)
+            writer.add("x", createSample(i));
+        assertEquals(0, logger.getWrittenSamples());
+
+        writer.close();
+        assertEquals(1, logger.batches.size());
+        assertEquals(5, logger.batches.get(0).size());
+        assertEquals(0, logger.batches.get(0).get(0).getSerial());
+        assertEquals(4, logger.batches.get(0).get(4).getSerial());
+        assertTrue(logger.closed);
+    }
+
+    @Test(timeout=10000)
+    public void testError() throws Exception
+    {
+        final TestLogger logger = new TestLogger();
+        final BatchedSampleWriter writer = new BatchedSampleWriter(2, logger, 100, 60.0);
+        final Exception error = new Exception("Test error");
+        logger.error = error;
+        writer.add("x", createSample(1));
+        try
+        {
+            writer.flush();
+            fail("Error was not reported");
+        }
+        catch (Exception ex)
+        {
+            assertSame(error, ex.getCause());
+        }
+
+        // Error is reported once, then writer continues
+        logger.error = null;
+        writer.add("x", createSample(2));
+        writer.flush();
+        assertEquals(1, logger.getWrittenSamples());
+
+        // Error of the writer thread is reported to the next add()
+        logger.error = error;
+        writer.add("x", createSample(3));
+        writer.requestFlush();
+        Exception reported = null;
+        for (int i=0; i<100  &&  reported == null; ++i)
+        {
+            Thread.sleep(50);
+            try
+            {
+                writer.add("x", createSample(4));
+            }
+            catch (Exception ex)
+            {
+                reported = ex;
+            }
+        }
+        assertNotNull(reported);
+        assertSame(error, reported.getCause());
+
+        logger.error = null;
+        writer.close();
+        assertTrue(logger.closed);
+    }
+
+    @Test(timeout=10000)
+    public void testFullQueue() throws Exception
+    {
+        final TestLogger logger = new TestLogger();
+        logger.blocked = new CountDownLatch(1);
+        final BatchedSampleWriter writer = new BatchedSampleWriter(3, logger, 2, 0.01);
+
+        // Writer thread takes the first sample, then blocks in log()
+        writer.add("x", createSample(1));
+        Thread.sleep(200);
+        // Fill the queue
+        writer.add("x", createSample(2));
+        writer.add("x", createSample(3));
+
+        // Next sample has to wait for the writer
+        final CountDownLatch added = new CountDownLatch(1);
+        final Thread producer = new Thread(() ->
+        {
+            try
+            {
+                writer.add("x", createSample(4));
+                added.countDown();
+            }
+            catch (Exception ex)
+            {
+                ex.printStackTrace();
+            }
+        });
+        producer.start();
+        Thread.sleep(200);
+        assertEquals(1, added.getCount());
+        assertFalse(logger.closed);
+
+        // Once the writer continues, the sample is queued and all are written in order
+        logger.blocked.countDown();
+        added.await();
+        producer.join();
+        writer.close();
+        assertEquals(4, logger.getWrittenSamples());
+        long serial = 1;
+        for (List<ScanSample> batch : logger.batches)
+            for (ScanSample sample : batch)
+                assertEquals(serial++, sample.getSerial());
+    }
+}
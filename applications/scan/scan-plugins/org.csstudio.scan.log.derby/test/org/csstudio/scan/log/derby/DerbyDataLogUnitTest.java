@@ -11,7 +11,7 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 
-import java.util.Date;
+import java.time.Instant;
 
 import org.csstudio.scan.data.ScanData;
 import org.csstudio.scan.data.ScanDataIterator;
@@ -85,6 +85,7 @@ public class DerbyDataLogUnitTest
     public void testSampleLogging() throws Exception
     {
         final DerbyDataLogger log = new DerbyDataLogger();
+        // Before writing batches with binary encoded samples:
         // Allows about 1900 samples/second
         // JProfiler shows all time spent in PreparedStatement.executeUpdate()
         // When value was just a DOUBLE number, no SampleValue:
@@ -92,7 +93,12 @@ public class DerbyDataLogUnitTest
         final long scan_id = scan.getId();
         final long start = System.nanoTime();
         for (long serial = 1; serial < 50000; ++serial)
-            log.log(scan_id, "setpoint", ScanSampleFactory.createSample(new Date(), serial, 3.14 + serial * 0.01));
+        {
+            log.log(scan_id, "setpoint", ScanSampleFactory.createSample(Instant.now(), serial, 3.14 + serial * 0.01));
+            // Write in batches of 1000 samples
+            if (serial % 1000 == 0)
+                log.flush();
+        }
         final long nanos = System.nanoTime() - start;
         log.close();
         final long vals_per_sec = 50000L * 1000000000L / nanos;
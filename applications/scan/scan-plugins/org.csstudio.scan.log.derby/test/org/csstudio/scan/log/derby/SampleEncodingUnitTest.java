@@ -0,0 +1,49 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.scan.log.derby;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+/** JUnit test of the {@link SampleEncoding}
+ */
+@SuppressWarnings("nls")
+public class SampleEncodingUnitTest
+{
+    @Test
+    public void testNumbers() throws Exception
+    {
+        final Number[][] samples = new Number[][]
+        {
+            { 3.14 },
+            { 1.0, Double.NaN, -2.5 },
+            { 1.5f, 2.5f },
+            { Long.MAX_VALUE, -1L },
+            { 42 },
+            { (short) 7 },
+            { (byte) -1, (byte) 2 },
+        };
+        for (Number[] values : samples)
+            assertArrayEquals(values, SampleEncoding.decode(SampleEncoding.encode(values)));
+
+        assertEquals(13, SampleEncoding.encode(new Double[] { 3.14 }).length);
+    }
+
+    @Test
+    public void testUnsupported() throws Exception
+    {
+        // Strings, mixed types and empty samples use SampleValue
+        assertNull(SampleEncoding.encode(new String[] { "Text" }));
+        assertNull(SampleEncoding.encode(new Number[] { 1.0, 2 }));
+        assertNull(SampleEncoding.encode(new Object[] { 1.0 }));
+        assertNull(SampleEncoding.encode(new Number[0]));
+    }
+}
@@ -16,7 +16,10 @@
 package org.csstudio.scan.log;
 
 import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CopyOnWriteArrayList;
 
 import org.csstudio.scan.data.ScanData;
@@ -115,6 +118,36 @@ abstract public class DataLog implements Closeable
      */
     abstract public ScanData getScanData() throws Exception;
 
+    /** Get samples that were logged after a given serial
+     *
+     *  <p>Allows clients that poll the data to only fetch new samples.
+     *  Default implementation filters the result of <code>getScanData()</code>,
+     *  derived classes may provide a more efficient implementation.
+     *
+     *  @param last_serial Serial of last sample that caller already has, -1 for all samples
+     *  @return {@link ScanData} with samples that have a larger serial,
+     *          omitting devices without new samples
+     *  @throws Exception on error
+     *  @see #getLastScanDataSerial()
+     */
+    public ScanData getScanData(final long last_serial) throws Exception
+    {
+        final ScanData data = getScanData();
+        if (data == null  ||  last_serial < 0)
+            return data;
+        final Map<String, List<ScanSample>> device_logs = new HashMap<>();
+        for (String device : data.getDevices())
+        {
+            final List<ScanSample> samples = new ArrayList<>();
+            for (ScanSample sample : data.getSamples(device))
+                if (sample.getSerial() > last_serial)
+                    samples.add(sample);
+            if (! samples.isEmpty())
+                device_logs.put(device, samples);
+        }
+        return new ScanData(device_logs);
+    }
+
     /** Should be called when done logging samples
      *  to allow logging mechanism to release resources.
      */
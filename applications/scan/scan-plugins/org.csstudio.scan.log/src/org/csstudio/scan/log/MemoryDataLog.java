@@ -15,7 +15,7 @@
  ******************************************************************************/
 package org.csstudio.scan.log;
 
-import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -29,38 +29,80 @@ import org.csstudio.scan.server.MemoryInfo;
  *
  *  <p>Stops logging when memory threshold is reached.
  *
+ *  <p>Samples of each device are kept in a {@link SegmentedSampleList}.
+ *  Logging does not block readers,
+ *  and <code>getScanData()</code> returns views of the logged samples
+ *  instead of copying them.
+ *
  *  @author Kay Kasemir
  */
 public class MemoryDataLog extends DataLog
 {
-    /** Map from device name to list of samples for that device */
-    final private Map<String, List<ScanSample>> device_logs =
-            new HashMap<String, List<ScanSample>>();
+    /** Map from device name to samples for that device.
+     *  Replaced with an updated copy when a device is added,
+     *  so readers can use it without locking.
+     */
+    private volatile Map<String, SegmentedSampleList> device_logs = Collections.emptyMap();
 
     final private double threshold = ScanSystemPreferences.getOldScanRemovalMemoryThreshold();
 
     /** {@inheritDoc} */
     @Override
-    public synchronized void doLog(final String device, final ScanSample sample) throws Exception
+    public void doLog(final String device, final ScanSample sample) throws Exception
     {
         // Check Memory usage
         final MemoryInfo mem = new MemoryInfo();
         if (mem.getMemoryPercentage() > threshold)
             return;
 
-        List<ScanSample> samples = device_logs.get(device);
-        if (samples == null)
+        getSamples(device).add(sample);
+    }
+
+    /** @param device Device name
+     *  @return Samples for that device, created if necessary
+     */
+    private SegmentedSampleList getSamples(final String device)
+    {
+        SegmentedSampleList samples = device_logs.get(device);
+        if (samples != null)
+            return samples;
+        synchronized (this)
         {
-            samples = new ArrayList<ScanSample>();
-            device_logs.put(device, samples);
+            samples = device_logs.get(device);
+            if (samples == null)
+            {
+                samples = new SegmentedSampleList();
+                final Map<String, SegmentedSampleList> update = new HashMap<>(device_logs);
+                update.put(device, samples);
+                device_logs = update;
+            }
+            return samples;
         }
-        samples.add(sample);
     }
 
     /** {@inheritDoc} */
     @Override
-    public synchronized ScanData getScanData()  throws Exception
+    public ScanData getScanData()  throws Exception
     {
-        return new ScanData(new HashMap<String, List<ScanSample>>(device_logs));
+        final Map<String, SegmentedSampleList> logs = device_logs;
+        final Map<String, List<ScanSample>> snapshot = new HashMap<>(logs.size());
+        for (Map.Entry<String, SegmentedSampleList> entry : logs.entrySet())
+            snapshot.put(entry.getKey(), entry.getValue().snapshot());
+        return new ScanData(snapshot);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public ScanData getScanData(final long last_serial) throws Exception
+    {
+        final Map<String, SegmentedSampleList> logs = device_logs;
+        final Map<String, List<ScanSample>> update = new HashMap<>();
+        for (Map.Entry<String, SegmentedSampleList> entry : logs.entrySet())
+        {
+            final List<ScanSample> samples = entry.getValue().getSamplesAfter(last_serial);
+            if (! samples.isEmpty())
+                update.put(entry.getKey(), samples);
+        }
+        return new ScanData(update);
     }
 }
@@ -0,0 +1,122 @@
+/*******************************************************************************
+ * Copyright (c) 2011 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.scan.log;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+import org.csstudio.scan.data.ScanSample;
+
+/** Append-only list of samples for one device
+ *
+ *  <p>Samples are kept in fixed-size segments
+ *  which are never moved or modified once a sample has been added,
+ *  so readers can access them without locking while
+ *  a writer adds more samples.
+ *
+ *  <p>The writer publishes a sample by updating the volatile
+ *  <code>size</code> after placing it in its segment.
+ *  Readers fetch the <code>size</code> first,
+ *  so all samples up to that size are visible to them.
+ *  A snapshot is a view of the first <code>size</code> samples,
+ *  created without copying samples.
+ */
+class SegmentedSampleList
+{
+    final private static int SEGMENT_BITS = 10;
+    final private static int SEGMENT_SIZE = 1 << SEGMENT_BITS;
+    final private static int SEGMENT_MASK = SEGMENT_SIZE - 1;
+
+    /** Segments. Array is replaced when more segments are needed */
+    private volatile ScanSample[][] segments = new ScanSample[4][];
+
+    /** Number of published samples */
+    private volatile int size = 0;
+
+    /** Read-only view of a range of samples */
+    private static class View extends AbstractList<ScanSample> implements RandomAccess
+    {
+        final private ScanSample[][] segments;
+        final private int start, end;
+
+        View(final ScanSample[][] segments, final int start, final int end)
+        {
+            this.segments = segments;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        public ScanSample get(final int index)
+        {
+            if (index < 0  ||  index >= end - start)
+                throw new IndexOutOfBoundsException(Integer.toString(index));
+            final int i = start + index;
+            return segments[i >>> SEGMENT_BITS][i & SEGMENT_MASK];
+        }
+
+        @Override
+        public int size()
+        {
+            return end - start;
+        }
+    }
+
+    /** Add a sample
+     *
+     *  <p>Writers are serialized, readers are not blocked.
+     *  @param sample Sample to add
+     */
+    public synchronized void add(final ScanSample sample)
+    {
+        final int index = size;
+        final int segment = index >>> SEGMENT_BITS;
+        ScanSample[][] current = segments;
+        if (segment >= current.length)
+            current = Arrays.copyOf(current, current.length * 2);
+        if (current[segment] == null)
+            current[segment] = new ScanSample[SEGMENT_SIZE];
+        current[segment][index & SEGMENT_MASK] = sample;
+        segments = current;
+        size = index + 1;
+    }
+
+    /** @return Number of samples */
+    public int size()
+    {
+        return size;
+    }
+
+    /** @return Read-only snapshot of all samples added so far */
+    public List<ScanSample> snapshot()
+    {
+        final int end = size;
+        return new View(segments, 0, end);
+    }
+
+    /** Get samples added after a given serial
+     *
+     *  <p>Searches back from the most recent sample,
+     *  since samples are added with increasing serials.
+     *
+     *  @param serial Serial of last sample that the caller already has
+     *  @return Read-only list of samples with larger serial, may be empty
+     */
+    public List<ScanSample> getSamplesAfter(final long serial)
+    {
+        final int end = size;
+        final ScanSample[][] current = segments;
+        int start = end;
+        while (start > 0  &&
+               current[(start-1) >>> SEGMENT_BITS][(start-1) & SEGMENT_MASK].getSerial() > serial)
+            --start;
+        return new View(current, start, end);
+    }
+}
@@ -21,8 +21,10 @@ import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.assertThat;
 import static org.hamcrest.CoreMatchers.equalTo;
 
-import java.util.Date;
+import java.time.Instant;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.csstudio.scan.data.ScanData;
 import org.csstudio.scan.data.ScanDataIterator;
@@ -40,7 +42,7 @@ public class DataLogUnitTest
     {
         for (int x=0; x<5; ++x)
         {
-            final Date now = new Date();
+            final Instant now = Instant.now();
             final long serial = logger.getNextScanDataSerial();
             logger.log("x", ScanSampleFactory.createSample(now, serial, Double.valueOf(x)));
             for (int y=0; y<5; ++y)
@@ -98,4 +100,64 @@ public class DataLogUnitTest
             new ScanDataIterator(logger.getScanData());
         sheet.printTable(System.out);
     }
+
+    @Test
+    public void testSamplesAfter() throws Exception
+    {
+        final DataLog logger = new MemoryDataLog();
+        logData(logger);
+        final long last_serial = logger.getLastScanDataSerial();
+
+        // Nothing new
+        assertEquals(0, logger.getScanData(last_serial).getDevices().length);
+
+        logData(logger);
+        final ScanData data = logger.getScanData(last_serial);
+        assertEquals(5, data.getSamples("x").size());
+        assertEquals(5*5, data.getSamples("y").size());
+        for (ScanSample sample : data.getSamples("y"))
+            assertTrue(sample.getSerial() > last_serial);
+
+        // -1 returns all samples
+        assertEquals(2*5*5, logger.getScanData(-1).getSamples("y").size());
+    }
+
+    @Test(timeout=20000)
+    public void testConcurrentReaders() throws Exception
+    {
+        final DataLog logger = new MemoryDataLog();
+        final int count = 10000;
+        final AtomicReference<Exception> error = new AtomicReference<>();
+        final Thread writer = new Thread(() ->
+        {
+            try
+            {
+                for (int i=0; i<count; ++i)
+                    logger.log("x", ScanSampleFactory.createSample(Instant.now(), logger.getNextScanDataSerial(), Double.valueOf(i)));
+            }
+            catch (Exception ex)
+            {
+                error.set(ex);
+            }
+        });
+        writer.start();
+
+        // Snapshots must stay the same while writer adds samples
+        int size = 0;
+        while (size < count  &&  error.get() == null)
+        {
+            final List<ScanSample> samples = logger.getScanData().getSamples("x");
+            if (samples == null)
+                continue;
+            final int snapshot = samples.size();
+            assertTrue(snapshot >= size);
+            for (int i=0; i<snapshot; ++i)
+                assertEquals(i, ((Number) samples.get(i).getValues()[0]).intValue());
+            assertEquals(snapshot, samples.size());
+            size = snapshot;
+        }
+        writer.join();
+        if (error.get() != null)
+            throw error.get();
+    }
 }
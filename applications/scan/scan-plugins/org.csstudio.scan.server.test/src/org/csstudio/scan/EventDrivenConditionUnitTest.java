@@ -0,0 +1,141 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.scan;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeoutException;
+
+import org.csstudio.scan.condition.EventDrivenCondition;
+import org.csstudio.scan.device.Device;
+import org.csstudio.scan.device.DeviceInfo;
+import org.junit.Test;
+
+/** JUnit test of the {@link EventDrivenCondition}
+ *
+ *  <p>Uses a device that is updated by the test,
+ *  no PVs.
+ */
+@SuppressWarnings("nls")
+public class EventDrivenConditionUnitTest
+{
+    /** Device with a value that the test updates */
+    private static class TestDevice extends Device
+    {
+        volatile int value = 0;
+
+        TestDevice()
+        {
+            super(new DeviceInfo("test"));
+        }
+
+        void update(final int value)
+        {
+            this.value = value;
+            fireDeviceUpdate();
+        }
+    }
+
+    /** Condition that waits for device to reach a value */
+    private static class ValueCondition extends EventDrivenCondition
+    {
+        final TestDevice device;
+        final int desired;
+
+        ValueCondition(final TestDevice device, final int desired, final Duration timeout)
+        {
+            super(timeout, device);
+            this.device = device;
+            this.desired = desired;
+        }
+
+        @Override
+        public boolean isConditionMet()
+        {
+            return device.value == desired;
+        }
+    }
+
+    @Test(timeout=5000)
+    public void testContinuation() throws Exception
+    {
+        final TestDevice device = new TestDevice();
+        final ValueCondition condition = new ValueCondition(device, 3, null);
+
+        // Many waits without a thread per wait
+        final CompletableFuture<?>[] waits = new CompletableFuture<?>[100];
+        for (int i=0; i<waits.length; ++i)
+            waits[i] = new ValueCondition(device, 3, null).whenMet();
+        final CompletableFuture<Void> done = condition.whenMet();
+        assertThat(done.isDone(), equalTo(false));
+
+        device.update(2);
+        assertThat(done.isDone(), equalTo(false));
+
+        device.update(3);
+        assertThat(done.isDone(), equalTo(true));
+        CompletableFuture.allOf(waits).get();
+
+        // Condition already met
+        condition.await();
+    }
+
+    @Test(timeout=5000)
+    public void testTimeout() throws Exception
+    {
+        final TestDevice device = new TestDevice();
+        final ValueCondition condition = new ValueCondition(device, 3, Duration.ofMillis(500));
+        try
+        {
+            condition.await();
+            fail("Did not time out");
+        }
+        catch (TimeoutException ex)
+        {
+            assertThat(ex.getMessage().startsWith("Timeout"), equalTo(true));
+        }
+
+        try
+        {
+            condition.whenMet().get();
+            fail("Did not time out");
+        }
+        catch (ExecutionException ex)
+        {
+            assertThat(ex.getCause(), instanceOf(TimeoutException.class));
+        }
+    }
+
+    @Test(timeout=5000)
+    public void testComplete() throws Exception
+    {
+        final TestDevice device = new TestDevice();
+        final ValueCondition condition = new ValueCondition(device, 3, null);
+        final Thread thread = new Thread(() ->
+        {
+            try
+            {
+                Thread.sleep(500);
+            }
+            catch (InterruptedException ex)
+            {
+                // Ignore
+            }
+            condition.complete();
+        });
+        thread.start();
+        condition.await();
+        thread.join();
+    }
+}
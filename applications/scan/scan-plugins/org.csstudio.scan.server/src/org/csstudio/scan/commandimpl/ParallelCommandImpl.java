@@ -106,15 +106,20 @@ public class ParallelCommandImpl extends ScanCommandImpl<ParallelCommand>
         final long end = command.getTimeout() > 0.0
                 ? Math.round(System.currentTimeMillis() + command.getTimeout()*1000)
                 : -1;
-        final List<Future<Object>> results = new ArrayList<>();
-        // Start commands in parallel
+        final List<Future<?>> results = new ArrayList<>();
+        // Start commands in parallel.
+        // Commands that only wait are started without a thread,
+        // others are launched on the thread pool
         for (ScanCommandImpl<?> body_command : implementation)
-            results.add(launch(context, body_command));
+        {
+            final Future<?> started = context.start(body_command);
+            results.add(started != null ? started : launch(context, body_command));
+        }
 
         // Wait for commands to finish
         try
         {
-            for (Future<Object> result : results)
+            for (Future<?> result : results)
             {
                 if (end > 0)
                 {
@@ -135,7 +140,7 @@ public class ParallelCommandImpl extends ScanCommandImpl<ParallelCommand>
         finally
         {   // In case of interruption or timeout, cancel (interrupt) all body commands.
             // NOP if commands completed gracefully.
-            for (Future<Object> result : results)
+            for (Future<?> result : results)
                 result.cancel(true);
         }
         context.workPerformed(1);
@@ -16,10 +16,11 @@
 package org.csstudio.scan.commandimpl;
 
 import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
 
 import org.csstudio.scan.command.Comparison;
 import org.csstudio.scan.command.WaitCommand;
-import org.csstudio.scan.condition.DeviceCondition;
+import org.csstudio.scan.condition.EventDrivenCondition;
 import org.csstudio.scan.condition.NumericValueCondition;
 import org.csstudio.scan.condition.TextValueCondition;
 import org.csstudio.scan.device.Device;
@@ -39,7 +40,7 @@ import org.diirt.util.time.TimeDuration;
 public class WaitCommandImpl extends ScanCommandImpl<WaitCommand>
 {
     /** Currently 'await'-ed condition or null when nobody's waiting*/
-    private volatile DeviceCondition condition = null;
+    private volatile EventDrivenCondition condition = null;
 
     /** {@inheritDoc} */
     public WaitCommandImpl(final WaitCommand command, final JythonSupport jython) throws Exception
@@ -112,35 +113,44 @@ public class WaitCommandImpl extends ScanCommandImpl<WaitCommand>
     /** {@inheritDoc} */
     @Override
     public void execute(final ScanContext context) throws Exception
+    {
+        EventDrivenCondition.await(start(context));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public CompletableFuture<Void> start(final ScanContext context) throws Exception
     {
         final Device device = context.getDevice(context.getMacros().resolveMacros(command.getDeviceName()));
 
         final Duration timeout = TimeDuration.ofSeconds(command.getTimeout());
         final Object desired = command.getDesiredValue();
+        final EventDrivenCondition active;
         if (desired instanceof Number)
         {
             final double number = ((Number)desired).doubleValue();
-            condition = new NumericValueCondition(device, command.getComparison(),
+            active = new NumericValueCondition(device, command.getComparison(),
                     number, command.getTolerance(), timeout);
         }
         else
-            condition = new TextValueCondition(device, Comparison.EQUALS, desired.toString(), timeout);
-        try
-        {
-            condition.await();
-        }
-        finally
+            active = new TextValueCondition(device, Comparison.EQUALS, desired.toString(), timeout);
+        condition = active;
+        final CompletableFuture<Void> met = active.whenMet();
+        final CompletableFuture<Void> done = met.thenRun(() -> context.workPerformed(1));
+        // Cancelling the command stops waiting for the condition
+        done.whenComplete((result, error) ->
         {
             condition = null;
-        }
-        context.workPerformed(1);
+            met.cancel(false);
+        });
+        return done;
     }
 
     /** {@inheritDoc} */
     @Override
     public void next()
     {
-        final DeviceCondition safe_copy = condition;
+        final EventDrivenCondition safe_copy = condition;
         if (safe_copy != null)
             safe_copy.complete();
     }
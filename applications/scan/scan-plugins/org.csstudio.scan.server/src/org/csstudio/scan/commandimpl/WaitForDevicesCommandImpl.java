@@ -15,7 +15,9 @@
  ******************************************************************************/
 package org.csstudio.scan.commandimpl;
 
-import org.csstudio.scan.condition.DeviceCondition;
+import java.util.concurrent.CompletableFuture;
+
+import org.csstudio.scan.condition.EventDrivenCondition;
 import org.csstudio.scan.condition.WaitForDevicesCondition;
 import org.csstudio.scan.server.JythonSupport;
 import org.csstudio.scan.server.ScanCommandImpl;
@@ -26,7 +28,7 @@ import org.csstudio.scan.server.ScanContext;
  */
 public class WaitForDevicesCommandImpl extends ScanCommandImpl<WaitForDevicesCommand>
 {
-    private volatile DeviceCondition condition = null;
+    private volatile EventDrivenCondition condition = null;
 
     /** {@inheritDoc} */
     public WaitForDevicesCommandImpl(final WaitForDevicesCommand command, final JythonSupport jython) throws Exception
@@ -38,17 +40,30 @@ public class WaitForDevicesCommandImpl extends ScanCommandImpl<WaitForDevicesCom
     @Override
     public void execute(final ScanContext context) throws Exception
     {
-        condition = new WaitForDevicesCondition(command.getDevices());
-        condition.await();
-        condition = null;
-        context.workPerformed(1);
+        EventDrivenCondition.await(start(context));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public CompletableFuture<Void> start(final ScanContext context) throws Exception
+    {
+        final EventDrivenCondition active = new WaitForDevicesCondition(command.getDevices());
+        condition = active;
+        final CompletableFuture<Void> met = active.whenMet();
+        final CompletableFuture<Void> done = met.thenRun(() -> context.workPerformed(1));
+        done.whenComplete((result, error) ->
+        {
+            condition = null;
+            met.cancel(false);
+        });
+        return done;
     }
 
     /** {@inheritDoc} */
     @Override
     public String toString()
     {
-        final DeviceCondition active = condition;
+        final EventDrivenCondition active = condition;
         if (active != null)
             return active.toString();
         return super.toString();
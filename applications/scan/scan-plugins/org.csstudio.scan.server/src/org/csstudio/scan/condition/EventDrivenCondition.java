@@ -0,0 +1,204 @@
+/*******************************************************************************
+ * Copyright (c) 2011-2015 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.scan.condition;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.csstudio.scan.device.Device;
+import org.csstudio.scan.device.DeviceListener;
+
+/** {@link DeviceCondition} that is checked on device updates
+ *
+ *  <p><code>whenMet()</code> registers the condition
+ *  as a listener to its devices and returns a future.
+ *  Device updates check the condition and complete that future,
+ *  so no thread needs to wait while the condition is pending.
+ *  Timeouts of all conditions are handled by one shared timer.
+ *
+ *  <p>Commands that only wait, like the wait command inside a parallel
+ *  command, use <code>whenMet()</code>.
+ *  <code>await()</code> is based on <code>whenMet()</code>
+ *  for commands that need to block until the condition is met
+ *  before they can continue, like a loop that waits for each step.
+ */
+@SuppressWarnings("nls")
+abstract public class EventDrivenCondition implements DeviceCondition, DeviceListener
+{
+    /** Timer for timeouts of all pending conditions */
+    final private static ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(runnable ->
+    {
+        final Thread thread = new Thread(runnable, "Scan Condition Timeout");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /** Devices to monitor */
+    final private Device[] devices;
+
+    /** Timeout, <code>null</code> to "wait forever" */
+    final protected Duration timeout;
+
+    /** Pending wait, <code>null</code> when condition is not awaited */
+    final private AtomicReference<CompletableFuture<Void>> pending = new AtomicReference<>();
+
+    /** Initialize
+     *  @param timeout Timeout, <code>null</code> to "wait forever"
+     *  @param devices Devices to monitor
+     */
+    protected EventDrivenCondition(final Duration timeout, final Device... devices)
+    {
+        this.timeout = timeout;
+        this.devices = devices;
+    }
+
+    /** Called before the condition is first checked,
+     *  for example to read initial values
+     *  @throws Exception on error
+     */
+    protected void initialize() throws Exception
+    {
+        // NOP
+    }
+
+    /** Determine if the condition is currently met
+     *  @return <code>true</code> if condition is met
+     *  @throws Exception on error reading from a device
+     */
+    abstract public boolean isConditionMet() throws Exception;
+
+    /** @return Exception for a timeout */
+    protected TimeoutException createTimeoutException()
+    {
+        return new TimeoutException("Timeout: " + this);
+    }
+
+    /** Start waiting for the condition
+     *
+     *  <p>Returned future is completed when the condition is met,
+     *  <code>complete()</code> is called,
+     *  or exceptionally on error or timeout.
+     *  Cancelling the future stops waiting.
+     *
+     *  @return {@link CompletableFuture} for the condition
+     */
+    public CompletableFuture<Void> whenMet()
+    {
+        final CompletableFuture<Void> done = new CompletableFuture<>();
+        try
+        {
+            initialize();
+        }
+        catch (Exception ex)
+        {
+            done.completeExceptionally(ex);
+            return done;
+        }
+
+        pending.set(done);
+        for (Device device : devices)
+            device.addListener(this);
+        done.whenComplete((result, error) ->
+        {
+            for (Device device : devices)
+                device.removeListener(this);
+            pending.compareAndSet(done, null);
+        });
+
+        // Check after adding listeners so that no update is missed
+        check(done);
+
+        if (! done.isDone()  &&  timeout != null  &&  timeout.toMillis() > 0)
+        {
+            final ScheduledFuture<?> timer_task = timer.schedule(() ->
+            {
+                done.completeExceptionally(createTimeoutException());
+            }, timeout.toMillis(), TimeUnit.MILLISECONDS);
+            done.whenComplete((result, error) -> timer_task.cancel(false));
+        }
+        return done;
+    }
+
+    /** Wait for the condition to be met
+     *  @throws TimeoutException on timeout
+     *  @throws Exception on interruption or device read error
+     */
+    @Override
+    public void await() throws TimeoutException, Exception
+    {
+        await(whenMet());
+    }
+
+    /** Wait for a future, for example the one from <code>whenMet()</code>
+     *
+     *  <p>Interruption cancels the future.
+     *
+     *  @param done Future to await
+     *  @throws Exception Error of the future, or interruption
+     */
+    public static void await(final CompletableFuture<?> done) throws Exception
+    {
+        try
+        {
+            done.get();
+        }
+        catch (InterruptedException ex)
+        {
+            done.cancel(false);
+            throw ex;
+        }
+        catch (ExecutionException ex)
+        {
+            final Throwable cause = ex.getCause();
+            if (cause instanceof Exception)
+                throw (Exception) cause;
+            throw ex;
+        }
+    }
+
+    /** @param done Future to complete if the condition is met */
+    private void check(final CompletableFuture<Void> done)
+    {
+        try
+        {
+            if (isConditionMet())
+                done.complete(null);
+        }
+        catch (Exception ex)
+        {
+            done.completeExceptionally(ex);
+        }
+    }
+
+    /** Trigger another check of the condition
+     *  {@inheritDoc}
+     */
+    @Override
+    public void deviceChanged(final Device device)
+    {
+        final CompletableFuture<Void> done = pending.get();
+        if (done != null)
+            check(done);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void complete()
+    {
+        final CompletableFuture<Void> done = pending.get();
+        if (done != null)
+            done.complete(null);
+    }
+}
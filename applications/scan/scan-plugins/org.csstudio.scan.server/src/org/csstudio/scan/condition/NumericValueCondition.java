@@ -21,7 +21,6 @@ import java.util.concurrent.TimeoutException;
 import org.csstudio.scan.ScanSystemPreferences;
 import org.csstudio.scan.command.Comparison;
 import org.csstudio.scan.device.Device;
-import org.csstudio.scan.device.DeviceListener;
 import org.csstudio.scan.device.VTypeHelper;
 import org.diirt.util.time.TimeDuration;
 
@@ -35,10 +34,12 @@ import org.diirt.util.time.TimeDuration;
  *  resetting in case the desired value is changed while await() is
  *  pending.
  *
+ *  <p>Device updates are handled as described for the {@link EventDrivenCondition}.
+ *
  *  @author Kay Kasemir
  */
 @SuppressWarnings("nls")
-public class NumericValueCondition implements DeviceCondition, DeviceListener
+public class NumericValueCondition extends EventDrivenCondition
 {
     protected final static Duration value_check_timeout = TimeDuration.ofSeconds(ScanSystemPreferences.getValueCheckTimeout());
 
@@ -49,23 +50,14 @@ public class NumericValueCondition implements DeviceCondition, DeviceListener
     final private Comparison comparison;
 
     /** Desired value of device */
-    private double desired_value;
+    private volatile double desired_value;
 
     /** Tolerance to use for Comparison.EQUALS */
     final private double tolerance;
 
-    /** Timeout in seconds, <code>null</code> to "wait forever" */
-    final private Duration timeout;
-
     /** Initial value to await Comparison.INCREASE_BY/DECREASE_BY */
     private volatile double initial_value = Double.NaN;
 
-    /** Updated by device listener or forced for early completion */
-    private boolean is_condition_met;
-
-    /** Updated by device listener */
-    private Exception error = null;
-
     /** Initialize
      *  @param device {@link Device} where values should be read
      *  @param comparison Comparison to use
@@ -77,10 +69,10 @@ public class NumericValueCondition implements DeviceCondition, DeviceListener
             final double desired_value, final double tolerance,
             final Duration timeout)
     {
+        super(timeout, device);
         this.device = device;
         this.comparison = comparison;
         this.tolerance = Math.abs(tolerance);
-        this.timeout = timeout;
         setDesiredValue(desired_value);
     }
 
@@ -91,48 +83,25 @@ public class NumericValueCondition implements DeviceCondition, DeviceListener
         this.desired_value = desired_value;
     }
 
-    /** Wait for value of device to reach the desired value (within tolerance)
-     *  @throws TimeoutException on timeout
-     *  @throws Exception on interruption or device read error
+    /** Fetch initial value with get-callback
+     *  {@inheritDoc}
      */
     @Override
-    public void await() throws TimeoutException, Exception
+    protected void initialize() throws Exception
     {
-        final WaitWithTimeout timeout = new WaitWithTimeout(this.timeout);
-
-        // Fetch initial value with get-callback
         initial_value = VTypeHelper.toDouble(device.read(value_check_timeout));
+    }
 
-        device.addListener(this);
-        try
-        {
-            // Synchronize to avoid the following situation:
-            // 1. not at desired value
-            // 2. device changes and we would be notified
-            // 3. ... but that's before we call wait, so we wait forever
-            synchronized (this)
-            {
-                is_condition_met = isConditionMet();
-                while (! is_condition_met)
-                {   // Wait for update from device
-                    if (timeout.waitUntilTimeout(this))
-                        throw new TimeoutException("Timeout while waiting for " + device +
-                                                   " " + comparison + " " + desired_value);
-                    if (error != null)
-                        throw error;
-                }
-            }
-        }
-        finally
-        {
-            device.removeListener(this);
-        }
+    /** {@inheritDoc} */
+    @Override
+    protected TimeoutException createTimeoutException()
+    {
+        return new TimeoutException("Timeout while waiting for " + device +
+                                    " " + comparison + " " + desired_value);
     }
 
-    /** Determine if the condition is currently met
-     *  @return <code>true</code> if condition is met
-     *  @throws Exception on error reading from the device
-     */
+    /** {@inheritDoc} */
+    @Override
     public boolean isConditionMet() throws Exception
     {
         final double value = VTypeHelper.toDouble(device.read());
@@ -164,34 +133,20 @@ public class NumericValueCondition implements DeviceCondition, DeviceListener
     @Override
     public void deviceChanged(final Device device)
     {
-        synchronized (this)
+        // Desired value may have been changed while waiting:
+        // Use current value as new reference point
+        if (Double.isNaN(initial_value))
         {
             try
             {
-                if (Double.isNaN(initial_value))
-                    initial_value = VTypeHelper.toDouble(device.read());
-                if (isConditionMet())
-                    is_condition_met = true;
+                initial_value = VTypeHelper.toDouble(device.read());
             }
             catch (Exception ex)
             {
-                error = ex;
+                // Reported by the check in super.deviceChanged
             }
-            // Notify await() so it can check again.
-            notifyAll();
-        }
-    }
-
-    /** {@inheritDoc} */
-    @Override
-    public void complete()
-    {
-        synchronized (this)
-        {
-            is_condition_met = true;
-            // Notify await() so it can check again.
-            notifyAll();
         }
+        super.deviceChanged(device);
     }
 
     /** @return Debug representation */
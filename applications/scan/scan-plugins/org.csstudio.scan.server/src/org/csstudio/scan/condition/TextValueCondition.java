@@ -21,7 +21,6 @@ import java.util.concurrent.TimeoutException;
 import org.csstudio.scan.ScanSystemPreferences;
 import org.csstudio.scan.command.Comparison;
 import org.csstudio.scan.device.Device;
-import org.csstudio.scan.device.DeviceListener;
 import org.csstudio.scan.device.VTypeHelper;
 import org.diirt.util.time.TimeDuration;
 
@@ -33,7 +32,7 @@ import org.diirt.util.time.TimeDuration;
  *  @author Kay Kasemir
  */
 @SuppressWarnings("nls")
-public class TextValueCondition implements DeviceCondition, DeviceListener
+public class TextValueCondition extends EventDrivenCondition
 {
     protected final static Duration value_check_timeout = TimeDuration.ofSeconds(ScanSystemPreferences.getValueCheckTimeout());
 
@@ -44,16 +43,7 @@ public class TextValueCondition implements DeviceCondition, DeviceListener
     final private Comparison comparison;
 
     /** Desired value of device */
-    private String desired_value;
-
-    /** Timeout in seconds, <code>null</code> to "wait forever" */
-    final private Duration timeout;
-
-    /** Updated by device listener or forced for early completion */
-    private boolean is_condition_met;
-
-    /** Updated by device listener */
-    private Exception error = null;
+    private volatile String desired_value;
 
     /** Initialize
      *  @param device {@link Device} where values should be read
@@ -65,9 +55,9 @@ public class TextValueCondition implements DeviceCondition, DeviceListener
             final String desired_value,
             final Duration timeout)
     {
+        super(timeout, device);
         this.device = device;
         this.comparison = comparison;
-        this.timeout = timeout;
         setDesiredValue(desired_value);
     }
 
@@ -77,49 +67,26 @@ public class TextValueCondition implements DeviceCondition, DeviceListener
         this.desired_value = desired_value;
     }
 
-    /** Wait for value of device to reach the desired value (within tolerance)
-     *  @throws TimeoutException on timeout
-     *  @throws Exception on interruption or device read error
+    /** Fetch initial value with get-callback
+     *  (will be obtained by device.read() in isConditionMet)
+     *  {@inheritDoc}
      */
     @Override
-    public void await() throws TimeoutException, Exception
+    protected void initialize() throws Exception
     {
-        final WaitWithTimeout timeout = new WaitWithTimeout(this.timeout);
-
-        // Fetch initial value with get-callback
-        // (will be obtained by device.read() in listener)
         device.read(value_check_timeout);
+    }
 
-        device.addListener(this);
-        try
-        {
-            // Synchronize to avoid the following situation:
-            // 1. not at desired value
-            // 2. device changes and we would be notified
-            // 3. ... but that's before we call wait, so we wait forever
-            synchronized (this)
-            {
-                is_condition_met = isConditionMet();
-                while (! is_condition_met)
-                {   // Wait for update from device
-                    if (timeout.waitUntilTimeout(this))
-                        throw new TimeoutException("Timeout while waiting for " + device
-                                    + " " + comparison + " " + desired_value);
-                    if (error != null)
-                        throw error;
-                }
-            }
-        }
-        finally
-        {
-            device.removeListener(this);
-        }
+    /** {@inheritDoc} */
+    @Override
+    protected TimeoutException createTimeoutException()
+    {
+        return new TimeoutException("Timeout while waiting for " + device
+                    + " " + comparison + " " + desired_value);
     }
 
-    /** Determine if the condition is currently met
-     *  @return <code>true</code> if condition is met
-     *  @throws Exception on error reading from the device
-     */
+    /** {@inheritDoc} */
+    @Override
     public boolean isConditionMet() throws Exception
     {
         final String value = VTypeHelper.toString(device.read());
@@ -140,40 +107,6 @@ public class TextValueCondition implements DeviceCondition, DeviceListener
         }
     }
 
-    /** Trigger another check of device's value
-     *  {@inheritDoc}
-     */
-    @Override
-    public void deviceChanged(final Device device)
-    {
-        synchronized (this)
-        {
-            try
-            {
-                if (isConditionMet())
-                    is_condition_met = true;
-            }
-            catch (Exception ex)
-            {
-                error = ex;
-            }
-            // Notify await() so it can check again.
-            notifyAll();
-        }
-    }
-
-    /** {@inheritDoc} */
-    @Override
-    public void complete()
-    {
-        synchronized (this)
-        {
-            is_condition_met = true;
-            // Notify await() so it can check again.
-            notifyAll();
-        }
-    }
-
     /** @return Debug representation */
     @Override
     public String toString()
@@ -16,61 +16,27 @@
 package org.csstudio.scan.condition;
 
 import org.csstudio.scan.device.Device;
-import org.csstudio.scan.device.DeviceListener;
 
 /** {@link DeviceCondition} that delays the scan until all {@link Device}s are 'ready'
  *  @author Kay Kasemir
  */
 @SuppressWarnings("nls")
-public class WaitForDevicesCondition implements DeviceCondition, DeviceListener
+public class WaitForDevicesCondition extends EventDrivenCondition
 {
     final private Device[] devices;
-    private boolean all_ready;
 
     /** Initialize
      *  @param devices Devices that all need to be 'ready'
      */
     public WaitForDevicesCondition(final Device... devices)
     {
+        super(null, devices);
         this.devices = devices;
     }
 
-    /** {@inheritDoc} */
+    /** @return <code>true</code> if all devices are 'ready' */
     @Override
-    public void await() throws Exception
-    {
-        for (Device device : devices)
-            device.addListener(this);
-
-        synchronized (this)
-        {
-            all_ready = allReady(devices);
-            while (! all_ready)
-            {   // Wait for update from device or early completion
-                wait();
-            }
-        }
-
-        for (Device device : devices)
-            device.removeListener(this);
-    }
-
-    @Override
-    public void deviceChanged(final Device device)
-    {
-        synchronized (this)
-        {
-            if (allReady(devices))
-                all_ready = true;
-            // Notify execute() to check all devices again
-            notifyAll();
-        }
-    }
-
-    /** @param devices Devices to check
-     *  @return <code>true</code> if all devices are 'ready'
-     */
-    private boolean allReady(final Device[] devices)
+    public boolean isConditionMet()
     {
         for (Device device : devices)
             if (! device.isReady())
@@ -78,18 +44,6 @@ public class WaitForDevicesCondition implements DeviceCondition, DeviceListener
         return true;
     }
 
-    /** {@inheritDoc} */
-    @Override
-    public void complete()
-    {
-        synchronized (this)
-        {
-            all_ready = true;
-            // Notify await() so it can check again.
-            notifyAll();
-        }
-    }
-
     /** @return Debug representation */
     @Override
     public String toString()
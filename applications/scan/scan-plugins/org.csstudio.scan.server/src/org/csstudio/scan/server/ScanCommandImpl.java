@@ -17,6 +17,7 @@ package org.csstudio.scan.server;
 
 import static org.csstudio.scan.server.app.Application.logger;
 
+import java.util.concurrent.CompletableFuture;
 import java.util.logging.Level;
 
 import org.csstudio.scan.command.ScanCommand;
@@ -150,6 +151,25 @@ abstract public class ScanCommandImpl<C extends ScanCommand>
      */
     abstract public void execute(ScanContext context) throws Exception;
 
+    /** Start the command without blocking the calling thread
+     *
+     *  <p>Commands that only await a condition can return the
+     *  future of that condition, so a parallel command does not need
+     *  a thread for each waiting command.
+     *  Cancelling the future stops the command.
+     *
+     *  <p>Default implementation returns <code>null</code>,
+     *  the command then needs to be executed via <code>execute()</code>.
+     *
+     *  @param context {@link ScanContext}
+     *  @return {@link CompletableFuture} for completion of the command, or <code>null</code>
+     *  @throws Exception on error
+     */
+    public CompletableFuture<Void> start(final ScanContext context) throws Exception
+    {
+        return null;
+    }
+
     /** Short-cut execution of the current command
      *
      *  <p>When a command is inside <code>execute()</code> awaiting some condition,
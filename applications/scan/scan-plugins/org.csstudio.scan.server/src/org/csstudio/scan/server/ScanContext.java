@@ -17,6 +17,7 @@ package org.csstudio.scan.server;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 import org.csstudio.scan.data.ScanSample;
 import org.csstudio.scan.device.Device;
@@ -79,6 +80,14 @@ public interface ScanContext
      */
     abstract public void execute(final ScanCommandImpl<?> command) throws Exception;
 
+    /** Start a single command without blocking
+     *  @param command {@link ScanCommandImpl} to start
+     *  @return {@link CompletableFuture} for completion of the command,
+     *          <code>null</code> if the command needs to be executed via <code>execute()</code>
+     *  @throws Exception on error in starting the command
+     */
+    abstract public CompletableFuture<Void> start(final ScanCommandImpl<?> command) throws Exception;
+
     /** Inform scan context that work has been performed.
      *  Meant to be called by {@link ScanCommandImpl}s
      *  @param work_units Number of performed work units
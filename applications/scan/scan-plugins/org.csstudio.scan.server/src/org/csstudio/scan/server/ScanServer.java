@@ -63,6 +63,20 @@ public interface ScanServer
      */
     public List<ScanInfo> getScanInfos() throws Exception;
 
+    /** Wait for changes to the scans
+     *
+     *  <p>Returns when a scan was added, removed,
+     *  or changed its state or progress,
+     *  allowing clients to fetch <code>getScanInfos()</code> when there are changes
+     *  instead of polling periodically.
+     *
+     *  @param last_change Number of changes returned by previous call, -1 to return right away
+     *  @param timeout_ms Time to wait in milliseconds
+     *  @return Current number of changes, same as <code>last_change</code> on timeout
+     *  @throws Exception on error
+     */
+    public long awaitScanChanges(long last_change, long timeout_ms) throws Exception;
+
     /** Query server for scan info
      *  @param id ID that uniquely identifies a scan
      *  @return Info for that scan on the server or <code>null</code>
@@ -96,6 +110,19 @@ public interface ScanServer
      */
     public ScanData getScanData(long id) throws Exception;
 
+    /** Query server for scan data that was logged after a given serial
+     *
+     *  <p>Allows clients that poll the data
+     *  to only fetch new samples.
+     *
+     *  @param id ID that uniquely identifies a scan
+     *  @param last_serial Serial of last sample that client already has, -1 for all samples
+     *  @return Data for that scan on the server, omitting devices without new samples
+     *  @throws Exception on error
+     *  @see #getLastScanDataSerial(long)
+     */
+    public ScanData getScanData(long id, long last_serial) throws Exception;
+
     /** Ask server to update a command parameter to a new value
      *  @param id ID that uniquely identifies a scan
      *  @param address Address of the command
@@ -204,6 +204,7 @@ public class ScanServlet extends HttpServlet
      *  <p>GET scan/{id} - get scan info
      *  <p>GET scan/{id}/commands - get scan commands
      *  <p>GET scan/{id}/data - get scan data
+     *  <p>GET scan/{id}/data?after={serial} - get scan data logged after a serial
      *  <p>GET scan/{id}/last_serial - get scan data's last serial
      *  <p>GET scan/{id}/devices - get devices used by a scan
      */
@@ -249,8 +250,11 @@ public class ScanServlet extends HttpServlet
                 out.flush();
             }
             else if ("data".equalsIgnoreCase(object))
-            {   // Get data
-                final ScanData data = scan_server.getScanData(id);
+            {   // Get data, all or "?after=serial"
+                final String after = request.getParameter("after");
+                final ScanData data = after == null
+                    ? scan_server.getScanData(id)
+                    : scan_server.getScanData(id, Long.parseLong(after));
                 final Document doc = DocumentBuilderFactory.newInstance().newDocumentBuilder().newDocument();
                 doc.appendChild(ServletHelper.createXMLElement(doc, data));
                 ServletHelper.submitXML(doc, response);
@@ -14,6 +14,7 @@ import java.util.List;
 import java.util.logging.Level;
 
 import javax.servlet.ServletException;
+import javax.servlet.ServletOutputStream;
 import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
@@ -38,14 +39,23 @@ public class ScansServlet extends HttpServlet
         this.scan_server = scan_server;
     }
 
+    /** Maximum time that a client may wait for changes */
+    final private static long MAX_CHANGE_WAIT_MS = 30000;
+
     /** Get scan information
      *  <p>GET scans - get all scan infos
+     *  <p>GET scans/changes?last={changes}&amp;timeout={seconds} - wait for changes to scans
      */
     @Override
     protected void doGet(final HttpServletRequest request,
             final HttpServletResponse response)
             throws ServletException, IOException
     {
+        if ("/changes".equals(request.getPathInfo()))
+        {
+            getChanges(request, response);
+            return;
+        }
         final Document doc;
         try
         {
@@ -76,6 +86,35 @@ public class ScansServlet extends HttpServlet
         }
     }
 
+    /** GET scans/changes: Wait for changes, return number of changes
+     *  @param request Request with optional "last" and "timeout" parameters
+     *  @param response Response
+     *  @throws IOException on error
+     */
+    private void getChanges(final HttpServletRequest request,
+            final HttpServletResponse response) throws IOException
+    {
+        final long changes;
+        try
+        {
+            final String last = request.getParameter("last");
+            final String timeout = request.getParameter("timeout");
+            final long last_change = last == null ? -1 : Long.parseLong(last);
+            final long timeout_ms = timeout == null ? 0 : Math.round(Double.parseDouble(timeout) * 1000);
+            changes = scan_server.awaitScanChanges(last_change, Math.min(timeout_ms, MAX_CHANGE_WAIT_MS));
+        }
+        catch (Exception ex)
+        {
+            logger.log(Level.WARNING, "GET /scans/changes error", ex);
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, ex.getMessage());
+            return;
+        }
+        response.setContentType("text/xml");
+        final ServletOutputStream out = response.getOutputStream();
+        out.print("<changes>" + changes + "</changes>");
+        out.flush();
+    }
+
     /** DELETE scans/completed: Remove completed scans
      *  Returns basic HTTP OK (200) on success, otherwise error
      */
@@ -24,6 +24,7 @@ import java.util.Deque;
 import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentLinkedDeque;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
@@ -367,6 +368,16 @@ public class ExecutableScan extends LoggedScan implements ScanContext, Callable<
         return logger.getScanData();
     }
 
+    /** {@inheritDoc} */
+    @Override
+    public ScanData getScanData(final long last_serial) throws Exception
+    {
+        final DataLog logger = data_logger.orElse(null);
+        if (logger == null)
+            return super.getScanData(last_serial);
+        return logger.getScanData(last_serial);
+    }
+
     /** Callable for executing all commands on the scan,
      *  turning exceptions into a 'Failed' scan state.
      */
@@ -402,6 +413,7 @@ public class ExecutableScan extends LoggedScan implements ScanContext, Callable<
         end_ms = System.currentTimeMillis();
         // Un-set data logger
         data_logger = Optional.empty();
+        engine.scanChanged();
         logger.log(Level.CONFIG, "Completed ID {0}: {1}", new Object[] { getId(), state.get().name() });
         return null;
     }
@@ -420,6 +432,7 @@ public class ExecutableScan extends LoggedScan implements ScanContext, Callable<
             throw new IllegalStateException("Cannot run Scan that is " + state.get());
 
         start_ms = System.currentTimeMillis();
+        engine.scanChanged();
 
         // Locate devices for status PVs
         final String prefix = ScanSystemPreferences.getStatusPvPrefix();
@@ -574,6 +587,7 @@ public class ExecutableScan extends LoggedScan implements ScanContext, Callable<
     public void execute(final ScanCommandImpl<?> command) throws Exception
     {
         active_commands.addLast(command);
+        engine.scanChanged();
         try
         {
             while (state.get() == ScanState.Paused)
@@ -604,9 +618,37 @@ public class ExecutableScan extends LoggedScan implements ScanContext, Callable<
         finally
         {
             active_commands.remove(command);
+            engine.scanChanged();
         }
     }
 
+    /** {@inheritDoc} */
+    @Override
+    public CompletableFuture<Void> start(final ScanCommandImpl<?> command) throws Exception
+    {
+        // Paused scan and custom error handler with retries
+        // require blocking execution
+        if (state.get() != ScanState.Running  ||
+            ! command.getCommand().getErrorHandler().isEmpty())
+            return null;
+
+        logger.log(Level.INFO, "@{0}: {1}", new Object[] { command.getCommand().getAddress(), command });
+        final CompletableFuture<Void> done = command.start(this);
+        if (done == null)
+            return null;
+
+        active_commands.addLast(command);
+        engine.scanChanged();
+        done.whenComplete((result, error) ->
+        {
+            if (error != null  &&  state.get() != ScanState.Aborted)
+                logger.log(Level.WARNING, "Command failed: " + command.toString(), error);
+            active_commands.remove(command);
+            engine.scanChanged();
+        });
+        return done;
+    }
+
     /** @param command Command to execute, allowing for error handling and retries
      *  @throws Exception on error
      */
@@ -670,6 +712,7 @@ public class ExecutableScan extends LoggedScan implements ScanContext, Callable<
     {
         if (! state.compareAndSet(ScanState.Running, ScanState.Paused))
             return;
+        engine.scanChanged();
 
         if (device_state.isPresent())
         {
@@ -689,6 +732,7 @@ public class ExecutableScan extends LoggedScan implements ScanContext, Callable<
     {
         if (! state.compareAndSet(ScanState.Paused, ScanState.Running))
             return;
+        engine.scanChanged();
 
         if (device_state.isPresent())
         {
@@ -713,6 +757,7 @@ public class ExecutableScan extends LoggedScan implements ScanContext, Callable<
     {
         // Set state to aborted unless it is already 'done'
         state.getAndUpdate((current_state)  ->  current_state.isDone() ? current_state : ScanState.Aborted);
+        engine.scanChanged();
 
         if (future.isPresent())
             future.get().cancel(true);
@@ -727,6 +772,7 @@ public class ExecutableScan extends LoggedScan implements ScanContext, Callable<
     public void workPerformed(final int work_units)
     {
         work_performed.addAndGet(work_units);
+        engine.scanChanged();
     }
 
     /** Release resources */
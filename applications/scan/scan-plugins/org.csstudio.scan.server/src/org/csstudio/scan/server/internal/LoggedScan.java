@@ -77,6 +77,23 @@ public class LoggedScan extends Scan
         }
     }
 
+    /** Get samples logged after a given serial.
+     *  @param last_serial Serial of last sample that caller already has, -1 for all samples
+     *  @return {@link ScanData}
+     *  @throws Exception on error
+     *  @see #getLastScanDataSerial()
+     */
+    public ScanData getScanData(final long last_serial) throws Exception
+    {
+        try
+        (
+            final DataLog logger = DataLogFactory.getDataLog(this);
+        )
+        {
+            return logger.getScanData(last_serial);
+        }
+    }
+
     // Compare by ID
     @Override
     public boolean equals(final Object obj)
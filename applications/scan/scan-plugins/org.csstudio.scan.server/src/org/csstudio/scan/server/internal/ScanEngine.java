@@ -49,6 +49,14 @@ public class ScanEngine
      */
     final private List<LoggedScan> scan_queue = new CopyOnWriteArrayList<>();
 
+    /** Number of changes to the scans, incremented when a scan
+     *  is added, removed, or changes its state or progress.
+     *  Synchronized on <code>changes_lock</code>
+     */
+    private long changes = 0;
+
+    final private Object changes_lock = new Object();
+
     /** Start the scan engine, i.e. create thread that will process
      *  scans
      *  @param load_existing_scans Load info about existing scans?
@@ -126,6 +134,54 @@ public class ScanEngine
         else
             scan.submit(parallel_executor);
         scan_queue.add(scan);
+        scanChanged();
+    }
+
+    /** Notify clients waiting in <code>awaitChanges</code>
+     *  that scans have been added, removed, or changed
+     */
+    public void scanChanged()
+    {
+        synchronized (changes_lock)
+        {
+            ++changes;
+            changes_lock.notifyAll();
+        }
+    }
+
+    /** @return Number of changes to the scans */
+    public long getChanges()
+    {
+        synchronized (changes_lock)
+        {
+            return changes;
+        }
+    }
+
+    /** Wait for changes to the scans
+     *
+     *  <p>Allows clients to receive updates when scans change
+     *  instead of periodically polling the scan infos.
+     *
+     *  @param last_change Number of changes that caller already knows
+     *  @param timeout_ms Time to wait in milliseconds
+     *  @return Current number of changes, same as <code>last_change</code> on timeout
+     *  @throws InterruptedException if interrupted
+     */
+    public long awaitChanges(final long last_change, final long timeout_ms) throws InterruptedException
+    {
+        final long end = System.currentTimeMillis() + timeout_ms;
+        synchronized (changes_lock)
+        {
+            while (changes == last_change)
+            {
+                final long wait = end - System.currentTimeMillis();
+                if (wait <= 0)
+                    break;
+                changes_lock.wait(wait);
+            }
+            return changes;
+        }
     }
 
     /** Check if there are any scans executing or waiting to be executed
@@ -198,6 +254,7 @@ public class ScanEngine
             DataLogFactory.deleteDataLog(scan);
             scan_queue.remove(scan);
             closeExecutableScan(scan);
+            scanChanged();
         }
     }
 
@@ -220,6 +277,7 @@ public class ScanEngine
             {
                 scan_queue.remove(scan);
                 closeExecutableScan(scan);
+                scanChanged();
                 return scan;
             }
         return null;
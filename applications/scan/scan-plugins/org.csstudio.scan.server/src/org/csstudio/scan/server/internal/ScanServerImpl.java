@@ -271,6 +271,13 @@ public class ScanServerImpl implements ScanServer
         return infos;
     }
 
+    /** {@inheritDoc} */
+    @Override
+    public long awaitScanChanges(final long last_change, final long timeout_ms) throws Exception
+    {
+        return scan_engine.awaitChanges(last_change, timeout_ms);
+    }
+
     /** {@inheritDoc} */
     @Override
     public ScanInfo getScanInfo(final long id) throws Exception
@@ -337,6 +344,21 @@ public class ScanServerImpl implements ScanServer
         }
     }
 
+    /** {@inheritDoc} */
+    @Override
+    public ScanData getScanData(final long id, final long last_serial) throws Exception
+    {
+        try
+        {
+            final LoggedScan scan = scan_engine.getScan(id);
+            return scan.getScanData(last_serial);
+        }
+        catch (Exception ex)
+        {
+            throw new Exception("Error retrieving log data", ex);
+        }
+    }
+
     /** {@inheritDoc} */
     @Override
     public void updateScanProperty(final long id, final long address,
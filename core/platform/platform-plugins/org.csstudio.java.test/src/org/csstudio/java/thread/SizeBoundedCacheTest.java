@@ -0,0 +1,75 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.java.thread;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+/** JUnit test of the {@link SizeBoundedCache} */
+@SuppressWarnings("nls")
+public class SizeBoundedCacheTest
+{
+    @Test
+    public void testEviction() throws Exception
+    {
+        final SizeBoundedCache<Integer, String> cache = new SizeBoundedCache<>(10, String::length);
+        cache.put(1, "aaaa");
+        cache.put(2, "bbbb");
+        assertEquals(8, cache.getSize());
+
+        // Using 1 makes 2 the least recently used entry
+        assertEquals("aaaa", cache.get(1));
+        cache.put(3, "cc");
+        assertEquals(10, cache.getSize());
+        cache.put(4, "d");
+        assertNull(cache.peek(2));
+        assertEquals("aaaa", cache.peek(1));
+        assertEquals(3, cache.getEntries());
+        assertEquals(7, cache.getSize());
+        assertEquals(1, cache.getEvictions());
+
+        // Replacing a value updates the size
+        cache.put(4, "ddd");
+        assertEquals(9, cache.getSize());
+
+        // Values larger than the budget are not cached
+        cache.put(5, "eeeeeeeeeee");
+        assertNull(cache.get(5));
+        assertEquals(3, cache.getEntries());
+
+        // Only get() counts hits and misses
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    public void testRemove() throws Exception
+    {
+        final SizeBoundedCache<String, String> cache = new SizeBoundedCache<>(100, String::length);
+        cache.put("a/1", "x");
+        cache.put("a/2", "yy");
+        cache.put("b/1", "zzz");
+        cache.removeIf(key -> key.startsWith("a/"));
+        assertEquals(1, cache.getEntries());
+        assertEquals(3, cache.getSize());
+        cache.clear();
+        assertEquals(0, cache.getEntries());
+        assertEquals(0, cache.getSize());
+    }
+
+    @Test
+    public void testDisabled() throws Exception
+    {
+        final SizeBoundedCache<Integer, String> cache = new SizeBoundedCache<>(0, String::length);
+        cache.put(1, "a");
+        assertNull(cache.get(1));
+        assertEquals(0, cache.getEntries());
+    }
+}
@@ -0,0 +1,159 @@
+package org.csstudio.java.thread;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Predicate;
+import java.util.function.ToLongFunction;
+
+/** Thread-safe cache limited by the total size of its values.
+ *
+ *  <p>When adding a value exceeds the size budget,
+ *  the least recently used entries are evicted.
+ *
+ *  @param <KEYTYPE>
+ *  @param <VALUETYPE>
+ */
+public class SizeBoundedCache<KEYTYPE, VALUETYPE>
+{
+    /** Entries in access order, least recently used first */
+    final private Map<KEYTYPE, VALUETYPE> map = new LinkedHashMap<KEYTYPE, VALUETYPE>(16, 0.75f, true);
+
+    /** Determines the size of a value */
+    final private ToLongFunction<VALUETYPE> sizer;
+
+    /** Size budget */
+    final private long max_size;
+
+    /** Total size of the cached values */
+    private long size = 0;
+
+    private long hits = 0, misses = 0, evictions = 0;
+
+    /** Initialize cache
+     *  @param max_size Size budget, 0 to cache nothing
+     *  @param sizer Determines the size of a value
+     */
+    public SizeBoundedCache(final long max_size, final ToLongFunction<VALUETYPE> sizer)
+    {
+        this.max_size = max_size;
+        this.sizer = sizer;
+    }
+
+    /** Get value from cache, counting a hit or miss
+     *  @param key
+     *  @return Cached value or <code>null</code>
+     */
+    public synchronized VALUETYPE get(final KEYTYPE key)
+    {
+        final VALUETYPE value = map.get(key);
+        if (value == null)
+            ++misses;
+        else
+            ++hits;
+        return value;
+    }
+
+    /** Get value from cache without counting a hit or miss
+     *  @param key
+     *  @return Cached value or <code>null</code>
+     */
+    public synchronized VALUETYPE peek(final KEYTYPE key)
+    {
+        return map.get(key);
+    }
+
+    /** Add value to cache.
+     *  Values larger than the complete budget are not cached.
+     *  @param key
+     *  @param value
+     */
+    public synchronized void put(final KEYTYPE key, final VALUETYPE value)
+    {
+        if (value == null)
+            return;
+        final long value_size = sizer.applyAsLong(value);
+        if (value_size > max_size)
+            return;
+        final VALUETYPE previous = map.put(key, value);
+        if (previous != null)
+            size -= sizer.applyAsLong(previous);
+        size += value_size;
+        final Iterator<VALUETYPE> values = map.values().iterator();
+        while (size > max_size  &&  values.hasNext())
+        {
+            size -= sizer.applyAsLong(values.next());
+            values.remove();
+            ++evictions;
+        }
+    }
+
+    /** Remove entries
+     *  @param filter Selects the keys of the entries to remove
+     */
+    public synchronized void removeIf(final Predicate<KEYTYPE> filter)
+    {
+        final Iterator<Map.Entry<KEYTYPE, VALUETYPE>> entries = map.entrySet().iterator();
+        while (entries.hasNext())
+        {
+            final Map.Entry<KEYTYPE, VALUETYPE> entry = entries.next();
+            if (filter.test(entry.getKey()))
+            {
+                size -= sizer.applyAsLong(entry.getValue());
+                entries.remove();
+            }
+        }
+    }
+
+    /** Remove all entries */
+    public synchronized void clear()
+    {
+        map.clear();
+        size = 0;
+    }
+
+    /** @return Number of cached entries */
+    public synchronized int getEntries()
+    {
+        return map.size();
+    }
+
+    /** @return Total size of the cached values */
+    public synchronized long getSize()
+    {
+        return size;
+    }
+
+    /** @return Size budget */
+    public long getMaxSize()
+    {
+        return max_size;
+    }
+
+    /** @return Number of successful lookups */
+    public synchronized long getHits()
+    {
+        return hits;
+    }
+
+    /** @return Number of failed lookups */
+    public synchronized long getMisses()
+    {
+        return misses;
+    }
+
+    /** @return Number of entries removed to stay within the budget */
+    public synchronized long getEvictions()
+    {
+        return evictions;
+    }
+
+    /** @return Debug representation */
+    @SuppressWarnings("nls")
+    @Override
+    public synchronized String toString()
+    {
+        return map.size() + " entries, " + size + " of " + max_size + ", " +
+               hits + " hits, " + misses + " misses, " + evictions + " evictions";
+    }
+}
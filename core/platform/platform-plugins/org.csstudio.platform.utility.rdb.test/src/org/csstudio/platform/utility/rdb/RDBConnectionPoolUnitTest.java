@@ -0,0 +1,260 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.platform.utility.rdb;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+
+/** JUnit test of the {@link RDBConnectionPool}
+ *
+ *  <p>Uses connections that only track their state,
+ *  no database.
+ */
+@SuppressWarnings("nls")
+public class RDBConnectionPoolUnitTest
+{
+    /** Number of connections that were opened */
+    final private AtomicInteger connects = new AtomicInteger();
+
+    /** Number of executed test queries */
+    final private AtomicInteger tests = new AtomicInteger();
+
+    /** Number of prepared statements */
+    final private AtomicInteger prepares = new AtomicInteger();
+
+    /** @return Connection that tracks 'closed' and statements */
+    private Connection createConnection()
+    {
+        connects.incrementAndGet();
+        final boolean[] closed = new boolean[] { false };
+        return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { Connection.class },
+            (proxy, method, args) ->
+        {
+            switch (method.getName())
+            {
+            case "close":
+                closed[0] = true;
+                return null;
+            case "isClosed":
+                return closed[0];
+            case "getAutoCommit":
+                return true;
+            case "prepareStatement":
+                prepares.incrementAndGet();
+                return createStatement((String) args[0], closed);
+            default:
+                return null;
+            }
+        });
+    }
+
+    /** @return Statement that counts executions of the test query */
+    private PreparedStatement createStatement(final String sql, final boolean[] connection_closed)
+    {
+        final boolean[] closed = new boolean[] { false };
+        return (PreparedStatement) Proxy.newProxyInstance(getClass().getClassLoader(),
+            new Class<?>[] { PreparedStatement.class }, (proxy, method, args) ->
+        {
+            switch (method.getName())
+            {
+            case "close":
+                closed[0] = true;
+                return null;
+            case "isClosed":
+                return closed[0];
+            case "execute":
+                if (connection_closed[0])
+                    throw new SQLException("Closed");
+                if (sql.equals("TEST"))
+                    tests.incrementAndGet();
+                return true;
+            default:
+                return null;
+            }
+        });
+    }
+
+    @Test(timeout=10000)
+    public void testReuseAndLimit() throws Exception
+    {
+        try
+        (
+            final RDBConnectionPool pool = new RDBConnectionPool("Test", this::createConnection, "TEST", 0, 2);
+        )
+        {
+            final Connection c1 = pool.getConnection();
+            final Connection c2 = pool.getConnection();
+            assertThat(c1, not(sameInstance(c2)));
+            assertThat(connects.get(), equalTo(2));
+
+            // Pool is exhausted, next request waits until a connection is released
+            pool.setMaxWait(200, TimeUnit.MILLISECONDS);
+            try
+            {
+                pool.getConnection();
+                fail("Pool exceeded max. size");
+            }
+            catch (TimeoutException ex)
+            {
+                // Expected
+            }
+            final CountDownLatch got_it = new CountDownLatch(1);
+            final AtomicReference<Exception> error = new AtomicReference<>();
+            pool.setMaxWait(5, TimeUnit.SECONDS);
+            final Thread thread = new Thread(() ->
+            {
+                try
+                {
+                    pool.releaseConnection(pool.getConnection());
+                    got_it.countDown();
+                }
+                catch (Exception ex)
+                {
+                    error.set(ex);
+                }
+            });
+            thread.start();
+            assertThat(got_it.await(100, TimeUnit.MILLISECONDS), equalTo(false));
+            pool.releaseConnection(c1);
+            thread.join();
+            if (error.get() != null)
+                throw error.get();
+            assertThat(got_it.getCount(), equalTo(0L));
+
+            // Released connection is re-used, no test query since it was just used
+            final Connection c3 = pool.getConnection();
+            assertThat(c3, sameInstance(c1));
+            assertThat(connects.get(), equalTo(2));
+            assertThat(tests.get(), equalTo(0));
+            pool.releaseConnection(c3);
+            pool.releaseConnection(c2);
+
+            final RDBConnectionPool.Statistics stats = pool.getStatistics();
+            assertThat(stats.size, equalTo(2));
+            assertThat(stats.busy, equalTo(0));
+            assertThat(stats.waiting, equalTo(0));
+            assertThat(stats.peak_busy, equalTo(2));
+            assertThat(stats.timeouts, equalTo(1L));
+            assertThat(stats.checkouts, equalTo(4L));
+            assertTrue(stats.max_wait_ms >= 100.0);
+        }
+    }
+
+    @Test(timeout=10000)
+    public void testValidation() throws Exception
+    {
+        try
+        (
+            final RDBConnectionPool pool = new RDBConnectionPool("Test", this::createConnection, "TEST", 0, 1);
+        )
+        {
+            pool.setValidationIdleTime(100, TimeUnit.MILLISECONDS);
+            Connection c = pool.getConnection();
+            pool.releaseConnection(c);
+
+            // Idle for longer than validation period -> test query
+            Thread.sleep(200);
+            assertThat(pool.getConnection(), sameInstance(c));
+            assertThat(tests.get(), equalTo(1));
+
+            // Connection closed while in use is not returned to the pool
+            c.close();
+            pool.releaseConnection(c);
+            final Connection c2 = pool.getConnection();
+            assertThat(c2, not(sameInstance(c)));
+            pool.releaseConnection(c2);
+
+            // Broken idle connection fails validation and is replaced
+            c2.close();
+            Thread.sleep(200);
+            final Connection c3 = pool.getConnection();
+            assertThat(c3, not(sameInstance(c2)));
+            assertThat(connects.get(), equalTo(3));
+            assertThat(pool.getStatistics().validation_failures, equalTo(1L));
+            pool.releaseConnection(c3);
+        }
+    }
+
+    @Test(timeout=10000)
+    public void testStatementCache() throws Exception
+    {
+        try
+        (
+            final RDBConnectionPool pool = new RDBConnectionPool("Test", this::createConnection, "TEST", 0, 1);
+        )
+        {
+            pool.setStatementCacheSize(1);
+            final Connection c = pool.getConnection();
+            final PreparedStatement s1 = pool.prepareStatement(c, "SELECT 1");
+            assertThat(pool.prepareStatement(c, "SELECT 1"), sameInstance(s1));
+            assertThat(prepares.get(), equalTo(1));
+
+            // Cache holds only one statement, so the first one is evicted,
+            // but remains open because it may still be in use
+            pool.prepareStatement(c, "SELECT 2");
+            assertThat(s1.isClosed(), equalTo(false));
+            assertThat(pool.prepareStatement(c, "SELECT 1"), not(sameInstance(s1)));
+            assertThat(prepares.get(), equalTo(3));
+
+            // Evicted statements are closed when the connection is released
+            pool.releaseConnection(c);
+            assertThat(s1.isClosed(), equalTo(true));
+        }
+    }
+
+    @Test(timeout=10000)
+    public void testHousekeeping() throws Exception
+    {
+        try
+        (
+            final RDBConnectionPool pool = new RDBConnectionPool("Test", this::createConnection, "TEST", 1, 3);
+        )
+        {
+            pool.setIdleTimeout(100, TimeUnit.MILLISECONDS);
+            pool.setLeakThreshold(100, TimeUnit.MILLISECONDS);
+
+            final Connection c1 = pool.getConnection();
+            final Connection c2 = pool.getConnection();
+            final Connection c3 = pool.getConnection();
+            pool.releaseConnection(c1);
+            pool.releaseConnection(c2);
+            Thread.sleep(200);
+
+            // c3 was never released, idle connections beyond minimum size are closed
+            pool.performHousekeeping();
+            final RDBConnectionPool.Statistics stats = pool.getStatistics();
+            assertThat(stats.leaks, equalTo(1L));
+            assertThat(stats.size, equalTo(1));
+            assertThat(stats.busy, equalTo(1));
+            assertThat(stats.peak_busy, equalTo(3));
+            assertThat(stats.checkouts, equalTo(3L));
+            assertThat(stats.timeouts, equalTo(0L));
+
+            pool.releaseConnection(c3);
+            Thread.sleep(200);
+            pool.performHousekeeping();
+            assertThat(pool.getStatistics().size, equalTo(1));
+        }
+    }
+}
@@ -0,0 +1,50 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.platform.utility.rdb;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+/** Test of the StringIDCache */
+@SuppressWarnings("nls")
+public class StringIDCacheIT
+{
+    @Test
+    public void test() throws Exception
+    {
+        final RDBUtil rdb = RDBUtil.connect(TestSetup.URL, true);
+
+        final StringIDCache cache =
+            new StringIDCache(rdb, "RETENT", "RETENT_ID", "DESCR");
+
+        assertNull(cache.find("forever"));
+        assertNull(cache.find(9999));
+
+        final List<StringID> added = cache.add(Arrays.asList("1 Month", "2 Months", "1 Month"));
+        assertEquals(3, added.size());
+        assertEquals("1 Month", added.get(0).getName());
+        assertEquals("2 Months", added.get(1).getName());
+        assertSame(added.get(0), added.get(2));
+        assertTrue(added.get(0).getId() != added.get(1).getId());
+
+        // Known entries are returned from the cache
+        assertSame(added.get(1), cache.add("2 Months"));
+        assertSame(added.get(1), cache.find(added.get(1).getId()));
+
+        // After clearing the cache, entries are read from the RDB
+        cache.dispose();
+        assertEquals(added.get(0).getId(), cache.find("1 Month").getId());
+
+        cache.dispose();
+        rdb.close();
+    }
+}
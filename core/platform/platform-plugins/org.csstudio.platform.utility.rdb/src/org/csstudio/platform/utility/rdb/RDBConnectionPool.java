@@ -0,0 +1,692 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.platform.utility.rdb;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.logging.Level;
+
+import org.csstudio.platform.utility.rdb.RDBUtil.Dialect;
+import org.csstudio.platform.utility.rdb.internal.RDBImpl;
+
+/** Pool of database (RDB) connections
+ *
+ *  <p>Hands out connections to concurrent users,
+ *  creating up to a maximum number of connections.
+ *  When all connections are in use, callers wait
+ *  until a connection is released.
+ *  At least the minimum number of connections is kept open,
+ *  additional connections are closed after they were idle
+ *  for some time.
+ *
+ *  <p>Each connection obtained via <code>getConnection()</code>
+ *  must be returned via <code>releaseConnection()</code>.
+ *  A connection that is not returned within the leak threshold
+ *  is logged together with the stack trace of its checkout.
+ *
+ *  <p>Connections are validated with the dialect's test query
+ *  only when they were idle for longer than the validation period,
+ *  not each time they are handed out.
+ *
+ *  <p>Prepared statements obtained via <code>prepareStatement()</code>
+ *  are cached per connection and should not be closed by the caller.
+ *  Statements that are evicted from a full cache may still be in use,
+ *  for example by the result set of an outer query,
+ *  so they are closed when the connection is released.
+ */
+@SuppressWarnings("nls")
+public class RDBConnectionPool implements AutoCloseable
+{
+    /** Factory for new connections */
+    @FunctionalInterface
+    public static interface ConnectionFactory
+    {
+        /** @return New JDBC connection
+         *  @throws Exception on error
+         */
+        public Connection connect() throws Exception;
+    }
+
+    /** Pool statistics */
+    public static class Statistics
+    {
+        /** Number of open connections */
+        final public int size;
+        /** Number of connections in use */
+        final public int busy;
+        /** Maximum number of connections in use at the same time */
+        final public int peak_busy;
+        /** Number of threads waiting for a connection */
+        final public int waiting;
+        /** Number of connections handed out */
+        final public long checkouts;
+        /** Number of requests that timed out waiting for a connection */
+        final public long timeouts;
+        /** Number of connections that failed validation */
+        final public long validation_failures;
+        /** Number of connections reported as leaked */
+        final public long leaks;
+        /** Average time waiting for a connection in milliseconds */
+        final public double average_wait_ms;
+        /** Maximum time waiting for a connection in milliseconds */
+        final public double max_wait_ms;
+        /** Fraction of the available connection time (max. size) that connections were in use, 0..1 */
+        final public double utilization;
+
+        Statistics(final int size, final int busy, final int peak_busy, final int waiting,
+                   final long checkouts, final long timeouts, final long validation_failures, final long leaks,
+                   final double average_wait_ms, final double max_wait_ms, final double utilization)
+        {
+            this.size = size;
+            this.busy = busy;
+            this.peak_busy = peak_busy;
+            this.waiting = waiting;
+            this.checkouts = checkouts;
+            this.timeouts = timeouts;
+            this.validation_failures = validation_failures;
+            this.leaks = leaks;
+            this.average_wait_ms = average_wait_ms;
+            this.max_wait_ms = max_wait_ms;
+            this.utilization = utilization;
+        }
+
+        @Override
+        public String toString()
+        {
+            return String.format("%d connections, %d busy (peak %d), %d waiting, %d checkouts, " +
+                                 "wait avg. %.1f ms, max. %.1f ms, utilization %.1f %%, " +
+                                 "%d timeouts, %d validation failures, %d leaks",
+                                 size, busy, peak_busy, waiting, checkouts,
+                                 average_wait_ms, max_wait_ms, utilization * 100.0,
+                                 timeouts, validation_failures, leaks);
+        }
+    }
+
+    /** Connection in the pool */
+    private class PooledConnection
+    {
+        final Connection connection;
+
+        /** Cached statements, least recently used first */
+        final Map<String, PreparedStatement> statements = new LinkedHashMap<String, PreparedStatement>(16, 0.75f, true)
+        {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<String, PreparedStatement> eldest)
+            {
+                if (size() <= statement_cache_size)
+                    return false;
+                evicted.add(eldest.getValue());
+                return true;
+            }
+        };
+
+        /** Statements removed from the cache, to be closed when the connection is released */
+        final List<PreparedStatement> evicted = new ArrayList<>();
+
+        /** Statement used to check the connection */
+        PreparedStatement test_statement = null;
+
+        /** Time in millisec when the connection was last released or validated */
+        long last_used = System.currentTimeMillis();
+
+        /** Time in nanosec when the connection was handed out */
+        long checkout_nanos;
+
+        /** Stack trace of the checkout, used to report leaks */
+        Exception checkout_trace;
+
+        /** Has the connection been reported as leaked? */
+        boolean leak_reported;
+
+        PooledConnection(final Connection connection)
+        {
+            this.connection = connection;
+        }
+
+        PreparedStatement prepare(final String sql) throws SQLException
+        {
+            PreparedStatement statement = statements.get(sql);
+            if (statement != null  &&  !statement.isClosed())
+            {
+                statement.clearParameters();
+                return statement;
+            }
+            statement = connection.prepareStatement(sql);
+            if (statement_cache_size > 0)
+                statements.put(sql, statement);
+            return statement;
+        }
+
+        /** Close statements that were removed from the cache */
+        void closeEvicted()
+        {
+            for (PreparedStatement statement : evicted)
+                close(statement);
+            evicted.clear();
+        }
+    }
+
+    /** Period of checks for leaked and idle connections */
+    final private static long HOUSEKEEPING_PERIOD_MS = 5000;
+
+    /** Name of this pool (used for logging and timer thread) */
+    final private String name;
+
+    /** RDB Implementation (Oracle, MySQL, PostgreSQL), <code>null</code> when using custom factory */
+    final private RDBImpl impl;
+
+    final private ConnectionFactory factory;
+
+    /** Statement used to check the connection */
+    final private String test_query;
+
+    final private int min_size, max_size;
+
+    private volatile long max_wait_ms = 30000;
+
+    private volatile long validation_idle_ms = 10000;
+
+    private volatile long idle_timeout_ms = 60000;
+
+    private volatile long leak_threshold_ms = 60000;
+
+    private volatile int statement_cache_size = 20;
+
+    /** Idle connections, most recently used first */
+    final private Deque<PooledConnection> idle = new ArrayDeque<>();
+
+    /** Connections in use */
+    final private Map<Connection, PooledConnection> busy = new IdentityHashMap<>();
+
+    /** Number of open connections, including those that are being created */
+    private int size = 0;
+
+    private boolean closed = false;
+
+    /** Timer for housekeeping */
+    final private ScheduledExecutorService timer;
+
+    // Statistics, guarded by 'this'
+    final private long created_nanos = System.nanoTime();
+    private int waiting = 0;
+    private int peak_busy = 0;
+    private long checkouts = 0;
+    private long timeouts = 0;
+    private long validation_failures = 0;
+    private long leaks = 0;
+    private long total_wait_nanos = 0;
+    private long max_wait_nanos = 0;
+    private long busy_nanos = 0;
+
+    /** Initialize
+     *
+     *  <p>URL format depends on the database dialect,
+     *  see {@link RDBUtil#connect(String, String, String, boolean)}.
+     *
+     *  @param name Name of this pool (used for logging and timer thread)
+     *  @param url Database URL
+     *  @param user User name or <code>null</code> if part of URL
+     *  @param password Password or <code>null</code> if part of URL
+     *  @param min_size Number of connections to keep open
+     *  @param max_size Maximum number of connections
+     *  @throws Exception on error
+     */
+    public RDBConnectionPool(final String name,
+            final String url,
+            final String user,
+            final String password,
+            final int min_size,
+            final int max_size) throws Exception
+    {
+        this(name, RDBUtil.getRDBImpl(url), url, user, password, min_size, max_size);
+    }
+
+    private RDBConnectionPool(final String name, final RDBImpl impl,
+            final String url, final String user, final String password,
+            final int min_size, final int max_size) throws Exception
+    {
+        this(name, impl, () -> impl.connect(url, user, password), impl.getConnectionTestQuery(), min_size, max_size);
+    }
+
+    /** Initialize with custom connection factory,
+     *  for example to use an embedded database.
+     *
+     *  @param name Name of this pool (used for logging and timer thread)
+     *  @param factory Factory for new connections
+     *  @param test_query SQL for cheap statement that tests the connection
+     *  @param min_size Number of connections to keep open
+     *  @param max_size Maximum number of connections
+     */
+    public RDBConnectionPool(final String name, final ConnectionFactory factory, final String test_query,
+                             final int min_size, final int max_size)
+    {
+        this(name, null, factory, test_query, min_size, max_size);
+    }
+
+    private RDBConnectionPool(final String name, final RDBImpl impl, final ConnectionFactory factory,
+                              final String test_query, final int min_size, final int max_size)
+    {
+        if (min_size < 0  ||  max_size < 1  ||  min_size > max_size)
+            throw new IllegalArgumentException("Invalid pool size " + min_size + " .. " + max_size);
+        this.name = name;
+        this.impl = impl;
+        this.factory = factory;
+        this.test_query = test_query;
+        this.min_size = min_size;
+        this.max_size = max_size;
+        timer = Executors.newSingleThreadScheduledExecutor(runnable ->
+        {
+            final Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        });
+        timer.scheduleWithFixedDelay(this::performHousekeeping, 0, HOUSEKEEPING_PERIOD_MS, TimeUnit.MILLISECONDS);
+    }
+
+    /** @return Dialect info, <code>null</code> when using custom factory */
+    public Dialect getDialect()
+    {
+        return impl == null ? null : impl.getDialect();
+    }
+
+    /** @param timeout Time to wait for a connection when all connections are in use
+     *  @param units Units of the timeout
+     */
+    public void setMaxWait(final long timeout, final TimeUnit units)
+    {
+        max_wait_ms = units.toMillis(timeout);
+    }
+
+    /** @param idle Idle time after which a connection is validated before it's handed out
+     *  @param units Units of the idle time
+     */
+    public void setValidationIdleTime(final long idle, final TimeUnit units)
+    {
+        validation_idle_ms = units.toMillis(idle);
+    }
+
+    /** @param timeout Idle time after which connections beyond the minimum pool size are closed
+     *  @param units Units of the timeout
+     */
+    public void setIdleTimeout(final long timeout, final TimeUnit units)
+    {
+        idle_timeout_ms = units.toMillis(timeout);
+    }
+
+    /** @param threshold Time after which a connection that has not been released is reported, 0 to disable
+     *  @param units Units of the threshold
+     */
+    public void setLeakThreshold(final long threshold, final TimeUnit units)
+    {
+        leak_threshold_ms = units.toMillis(threshold);
+    }
+
+    /** @param size Number of prepared statements cached per connection, 0 to disable */
+    public void setStatementCacheSize(final int size)
+    {
+        statement_cache_size = size;
+    }
+
+    /** Obtain database connection.
+     *
+     *  <p>Returns an idle connection or creates a new one.
+     *  When the maximum number of connections is in use,
+     *  waits for a connection to be released.
+     *
+     *  @return JDBC {@link Connection}, must be released via <code>releaseConnection()</code>
+     *  @throws TimeoutException when no connection became available within the max. wait time
+     *  @throws Exception on error connecting to the RDB
+     */
+    public Connection getConnection() throws Exception
+    {
+        final long start = System.nanoTime();
+        final long deadline = start + TimeUnit.MILLISECONDS.toNanos(max_wait_ms);
+        while (true)
+        {
+            PooledConnection pooled;
+            synchronized (this)
+            {
+                while (true)
+                {
+                    if (closed)
+                        throw new IllegalStateException(this + " is closed");
+                    pooled = idle.pollFirst();
+                    if (pooled != null  ||  size < max_size)
+                        break;
+                    final long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0)
+                    {
+                        ++timeouts;
+                        throw new TimeoutException(this + ": No connection available within " + max_wait_ms + " ms");
+                    }
+                    ++waiting;
+                    try
+                    {
+                        TimeUnit.NANOSECONDS.timedWait(this, remaining);
+                    }
+                    finally
+                    {
+                        --waiting;
+                    }
+                }
+                if (pooled == null)
+                    ++size;
+            }
+            if (pooled == null)
+                pooled = createConnection();
+            else if (! validate(pooled))
+            {
+                discard(pooled);
+                continue;
+            }
+            return checkout(pooled, start);
+        }
+    }
+
+    /** Obtain prepared statement for a connection of this pool.
+     *
+     *  <p>Statements are cached per connection.
+     *  Caller should not close the statement,
+     *  it remains valid until the connection is released,
+     *  even if it has meanwhile been evicted from the cache.
+     *  When the statement cache has been disabled,
+     *  the caller needs to close the statement.
+     *
+     *  @param connection Connection obtained from <code>getConnection()</code>
+     *  @param sql SQL for the statement
+     *  @return {@link PreparedStatement}
+     *  @throws Exception on error
+     */
+    public PreparedStatement prepareStatement(final Connection connection, final String sql) throws Exception
+    {
+        final PooledConnection pooled;
+        synchronized (this)
+        {
+            pooled = busy.get(connection);
+        }
+        if (pooled == null)
+            throw new IllegalStateException("Connection is not in use from " + this);
+        return pooled.prepare(sql);
+    }
+
+    /** Release a connection.
+     *
+     *  <p>The connection is returned to the pool.
+     *  If auto-commit had been disabled, any pending transaction
+     *  is rolled back and auto-commit is enabled.
+     *
+     *  @param connection Connection obtained from <code>getConnection()</code>
+     */
+    public void releaseConnection(final Connection connection)
+    {
+        final PooledConnection pooled;
+        synchronized (this)
+        {
+            pooled = busy.remove(connection);
+            if (pooled == null)
+            {
+                Activator.getLogger().log(Level.WARNING, this + " cannot release unknown connection");
+                return;
+            }
+            busy_nanos += System.nanoTime() - pooled.checkout_nanos;
+            pooled.checkout_trace = null;
+        }
+        pooled.closeEvicted();
+        boolean usable;
+        try
+        {
+            usable = ! connection.isClosed();
+            if (usable  &&  ! connection.getAutoCommit())
+            {
+                connection.rollback();
+                connection.setAutoCommit(true);
+            }
+        }
+        catch (SQLException ex)
+        {
+            usable = false;
+        }
+        synchronized (this)
+        {
+            if (usable  &&  ! closed)
+            {
+                pooled.last_used = System.currentTimeMillis();
+                idle.addFirst(pooled);
+                notifyAll();
+                return;
+            }
+        }
+        discard(pooled);
+    }
+
+    /** @return Current pool statistics */
+    public synchronized Statistics getStatistics()
+    {
+        final long elapsed = System.nanoTime() - created_nanos;
+        // Include time of connections that are still in use
+        long used = busy_nanos;
+        final long now = System.nanoTime();
+        for (PooledConnection pooled : busy.values())
+            used += now - pooled.checkout_nanos;
+        return new Statistics(size, busy.size(), peak_busy, waiting,
+                              checkouts, timeouts, validation_failures, leaks,
+                              checkouts > 0 ? total_wait_nanos / 1e6 / checkouts : 0.0,
+                              max_wait_nanos / 1e6,
+                              elapsed > 0 ? Math.min(1.0, used / ((double) elapsed * max_size)) : 0.0);
+    }
+
+    /** Close the pool
+     *
+     *  <p>Idle connections are closed right away,
+     *  connections in use are closed when they are released.
+     */
+    @Override
+    public void close()
+    {
+        final List<PooledConnection> to_close;
+        synchronized (this)
+        {
+            if (closed)
+                return;
+            closed = true;
+            to_close = new ArrayList<>(idle);
+            idle.clear();
+            size -= to_close.size();
+            notifyAll();
+        }
+        timer.shutdown();
+        for (PooledConnection pooled : to_close)
+            close(pooled.connection);
+        Activator.getLogger().log(Level.FINE, "{0} closed: {1}", new Object[] { this, getStatistics() });
+    }
+
+    /** Create new connection. Caller must already have counted it in the pool size.
+     *  @return {@link PooledConnection}
+     *  @throws Exception on error
+     */
+    private PooledConnection createConnection() throws Exception
+    {
+        try
+        {
+            Activator.getLogger().log(Level.FINE, "{0} connecting", this);
+            final Connection connection = factory.connect();
+            connection.setAutoCommit(true);
+            return new PooledConnection(connection);
+        }
+        catch (Exception ex)
+        {
+            synchronized (this)
+            {
+                --size;
+                notifyAll();
+            }
+            throw ex;
+        }
+    }
+
+    /** @param pooled Connection to validate if it was idle for a while
+     *  @return <code>true</code> if connection may be used
+     */
+    private boolean validate(final PooledConnection pooled)
+    {
+        final long now = System.currentTimeMillis();
+        if (now - pooled.last_used < validation_idle_ms)
+            return true;
+        try
+        {
+            if (pooled.test_statement == null)
+                pooled.test_statement = pooled.connection.prepareStatement(test_query);
+            pooled.test_statement.execute();
+            pooled.last_used = now;
+            return true;
+        }
+        catch (Exception ex)
+        {
+            Activator.getLogger().log(Level.FINE, this + " connection failed validation", ex);
+            synchronized (this)
+            {
+                ++validation_failures;
+            }
+            return false;
+        }
+    }
+
+    /** @param pooled Connection to hand out
+     *  @param start Time in nanosec when caller started to wait for the connection
+     *  @return JDBC connection
+     */
+    private Connection checkout(final PooledConnection pooled, final long start)
+    {
+        final long now = System.nanoTime();
+        final boolean trace = leak_threshold_ms > 0;
+        synchronized (this)
+        {
+            pooled.checkout_nanos = now;
+            pooled.checkout_trace = trace ? new Exception("Connection obtained from " + this) : null;
+            pooled.leak_reported = false;
+            busy.put(pooled.connection, pooled);
+            peak_busy = Math.max(peak_busy, busy.size());
+            ++checkouts;
+            final long wait = now - start;
+            total_wait_nanos += wait;
+            max_wait_nanos = Math.max(max_wait_nanos, wait);
+        }
+        return pooled.connection;
+    }
+
+    /** Close connection and remove it from the pool
+     *  @param pooled Connection that is no longer idle nor in use
+     */
+    private void discard(final PooledConnection pooled)
+    {
+        close(pooled.connection);
+        synchronized (this)
+        {
+            --size;
+            notifyAll();
+        }
+    }
+
+    /** Report leaked connections, close expired idle connections, open minimum number of connections */
+    void performHousekeeping()
+    {
+        final List<PooledConnection> expired = new ArrayList<>();
+        final int missing;
+        synchronized (this)
+        {
+            if (closed)
+                return;
+            final long now = System.nanoTime();
+            final long threshold = TimeUnit.MILLISECONDS.toNanos(leak_threshold_ms);
+            if (threshold > 0)
+                for (PooledConnection pooled : busy.values())
+                    if (! pooled.leak_reported  &&  now - pooled.checkout_nanos > threshold)
+                    {
+                        pooled.leak_reported = true;
+                        ++leaks;
+                        Activator.getLogger().log(Level.WARNING,
+                            this + " connection in use for " + TimeUnit.NANOSECONDS.toMillis(now - pooled.checkout_nanos) +
+                            " ms, not released?", pooled.checkout_trace);
+                    }
+            // Least recently used idle connections are at the end
+            final long millis = System.currentTimeMillis();
+            while (size > min_size  &&  ! idle.isEmpty()  &&
+                   millis - idle.peekLast().last_used > idle_timeout_ms)
+            {
+                expired.add(idle.pollLast());
+                --size;
+            }
+            missing = Math.max(0, min_size - size);
+            size += missing;
+        }
+        for (PooledConnection pooled : expired)
+            close(pooled.connection);
+        for (int i=0; i<missing; ++i)
+        {
+            final PooledConnection pooled;
+            try
+            {
+                pooled = createConnection();
+            }
+            catch (Exception ex)
+            {
+                Activator.getLogger().log(Level.WARNING, this + " cannot open connection", ex);
+                synchronized (this)
+                {   // Release remaining reserved slots, try again on next run
+                    size -= missing - i - 1;
+                    notifyAll();
+                }
+                return;
+            }
+            synchronized (this)
+            {
+                if (! closed)
+                {
+                    idle.addLast(pooled);
+                    notifyAll();
+                    continue;
+                }
+            }
+            discard(pooled);
+        }
+    }
+
+    /** @param resource Resource to close, ignoring errors */
+    private static void close(final AutoCloseable resource)
+    {
+        try
+        {
+            resource.close();
+        }
+        catch (Throwable ex)
+        {
+            // Ignore, closing anyway
+        }
+    }
+
+    /** @return String representation for debugging */
+    @Override
+    public String toString()
+    {
+        return "RDB Pool '" + name + "'";
+    }
+}
@@ -23,10 +23,12 @@ import org.csstudio.platform.utility.rdb.internal.RDBImpl;
  *  timeouts: <code>getConnection()</code> will test if the connection
  *  is still active. If not, it automatically re-connects.
  *  <p>
- *  While this simplifies the code for clients that need to perform transactions
- *  every once in a while over a long run time, the connection test can be
- *  expensive for a short flurry of transactions.
- *  It can therefore be suppressed via <code>setAutoReconnect()</code>.
+ *  The connection test query is only executed when the connection
+ *  has not been used for a while, so a short flurry of transactions
+ *  does not pay for a test query per transaction.
+ *  The test can still be suppressed via <code>setAutoReconnect()</code>.
+ *  <p>
+ *  For concurrent access to the database, see {@link RDBConnectionPool}.
  *  <p>
  *  Note that versions 1.6.0 and earlier of this plugin defaulted
  *  to turning auto-commit <u>off</u>.
@@ -90,6 +92,12 @@ public class RDBUtil
     /** Statement used to check the connection */
     private PreparedStatement test_query;
 
+    /** Idle time after which the connection is tested */
+    private static final long VALIDATION_IDLE_MS = 10000;
+
+    /** Time in millisec when the connection was last handed out or tested */
+    private long last_use = 0;
+
     /** Connect with only a url.
      */
     public static RDBUtil connect(final String url) throws Exception
@@ -220,14 +228,20 @@ public class RDBUtil
     {
         if (autoReconnect)
         {
-            if ((connection != null) && isConnected())
+            final long now = System.currentTimeMillis();
+            if ((connection != null) && !connection.isClosed() &&
+                (now - last_use < VALIDATION_IDLE_MS  ||  isConnected()))
+            {
+                last_use = now;
                 return connection; // All OK
+            }
             Activator.getLogger().log(Level.FINE, "Connection Lost! Reconnect to {0}", url);
             if (connection != null)
                 close();
             connection = impl.connect(url, user, password);
             connection.setAutoCommit(false);
             test_query = connection.prepareStatement(impl.getConnectionTestQuery());
+            last_use = System.currentTimeMillis();
         }
         return connection;
     }
@@ -0,0 +1,455 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.platform.utility.rdb;
+
+import java.sql.BatchUpdateException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+
+import org.csstudio.platform.utility.rdb.RDBUtil.Dialect;
+
+/** Interning service for <code>StringID</code> entries in RDB.
+ *
+ *  <p>All entries of the table are loaded on first use
+ *  and cached by name and by ID, so lookups of known entries
+ *  do not access the RDB.
+ *  Names that are not cached are looked up in the RDB
+ *  in case they were added by another writer.
+ *  New names are added in one batch.
+ *
+ *  <p>IDs for new names are obtained from the {@link IDSource}.
+ *
+ *  <p>Thread-safe: Cached lookups do not lock,
+ *  access to the RDB is serialized.
+ */
+@SuppressWarnings("nls")
+public class StringIDCache
+{
+    /** Source of IDs for new entries */
+    public enum IDSource
+    {
+        /** ID column is an identity (auto-increment) column, RDB assigns IDs on insert */
+        IDENTITY,
+
+        /** IDs are obtained from a sequence (Oracle, PostgreSQL) */
+        SEQUENCE,
+
+        /** IDs are assigned by this cache, counting up from the largest ID in the table.
+         *  Insert conflicts with other writers are resolved by re-loading
+         *  the largest ID and trying again.
+         */
+        MAX_ID
+    }
+
+    /** Max. number of names in one 'IN (...)' query */
+    final private static int QUERY_CHUNK = 100;
+
+    final private RDBUtil rdb;
+    final private String table;
+    final private String id_column;
+    final private String name_column;
+    final private IDSource source;
+    final private String sequence;
+
+    final private Map<String, StringID> by_name = new ConcurrentHashMap<>();
+    final private Map<Integer, StringID> by_id = new ConcurrentHashMap<>();
+
+    /** Has the table been loaded? Guarded by 'this' */
+    private boolean loaded = false;
+
+    /** Next ID to use for {@link IDSource#MAX_ID}. Guarded by 'this' */
+    private int next_id = 1;
+
+    /** Construct cache that assigns IDs after the largest ID in the table
+     *  @param rdb RDBUtil
+     *  @param table Name of RDB table
+     *  @param id_column Name of the ID column
+     *  @param name_column Name of the Name column
+     */
+    public StringIDCache(final RDBUtil rdb,
+            final String table, final String id_column,
+            final String name_column)
+    {
+        this(rdb, table, id_column, name_column, IDSource.MAX_ID, null);
+    }
+
+    /** Construct cache
+     *  @param rdb RDBUtil
+     *  @param table Name of RDB table
+     *  @param id_column Name of the ID column
+     *  @param name_column Name of the Name column
+     *  @param source Source of IDs for new entries
+     *  @param sequence Name of the sequence for {@link IDSource#SEQUENCE}, otherwise ignored
+     */
+    public StringIDCache(final RDBUtil rdb,
+            final String table, final String id_column,
+            final String name_column, final IDSource source,
+            final String sequence)
+    {
+        if (source == IDSource.SEQUENCE)
+        {
+            if (sequence == null  ||  sequence.isEmpty())
+                throw new IllegalArgumentException("Missing sequence name for " + table);
+            if (rdb.getDialect() == Dialect.MySQL)
+                throw new IllegalArgumentException("MySQL does not support sequences, use identity column for " + table);
+        }
+        this.rdb = rdb;
+        this.table = table;
+        this.id_column = id_column;
+        this.name_column = name_column;
+        this.source = source;
+        this.sequence = sequence;
+    }
+
+    /** Clear the cache. Entries will be re-loaded on next access. */
+    public synchronized void dispose()
+    {
+        by_name.clear();
+        by_id.clear();
+        loaded = false;
+    }
+
+    /** Locate StringID by name
+     *  @param name Name to locate
+     *  @return StringID or <code>null</code> if nothing found
+     *  @throws Exception on error
+     */
+    public StringID find(final String name) throws Exception
+    {
+        final StringID entry = by_name.get(name);
+        if (entry != null)
+            return entry;
+        synchronized (this)
+        {
+            if (! loaded)
+            {
+                load();
+                return by_name.get(name);
+            }
+            lookup(Collections.singleton(name));
+            return by_name.get(name);
+        }
+    }
+
+    /** Locate StringID by ID
+     *  @param id ID to locate
+     *  @return StringID or <code>null</code> if nothing found
+     *  @throws Exception on error
+     */
+    public StringID find(final int id) throws Exception
+    {
+        final StringID entry = by_id.get(id);
+        if (entry != null)
+            return entry;
+        synchronized (this)
+        {
+            // Loading all entries includes the one for this ID if it exists
+            if (! loaded)
+            {
+                load();
+                return by_id.get(id);
+            }
+            // Check for an entry that another writer added since
+            try
+            (
+                final PreparedStatement statement = rdb.getConnection().prepareStatement(
+                    "SELECT " + name_column + " FROM " + table + " WHERE " + id_column + "=?");
+            )
+            {
+                statement.setInt(1, id);
+                try (final ResultSet result = statement.executeQuery())
+                {
+                    if (result.next())
+                        memorize(new StringID(id, result.getString(1)));
+                }
+            }
+            return by_id.get(id);
+        }
+    }
+
+    /** Add new name, unless it's already in the RDB.
+     *  @param name Name to add
+     *  @return StringID found or generated
+     *  @throws Exception on error
+     */
+    public StringID add(final String name) throws Exception
+    {
+        return add(Collections.singletonList(name)).get(0);
+    }
+
+    /** Add new names, unless they're already in the RDB.
+     *
+     *  <p>All names that are not yet in the RDB are added
+     *  in one batch.
+     *
+     *  @param names Names to add
+     *  @return StringIDs found or generated, in the order of the names
+     *  @throws Exception on error
+     */
+    public List<StringID> add(final List<String> names) throws Exception
+    {
+        final List<StringID> result = new ArrayList<>(names.size());
+        Set<String> missing = null;
+        for (String name : names)
+            if (! by_name.containsKey(name))
+            {
+                if (missing == null)
+                    missing = new LinkedHashSet<>();
+                missing.add(name);
+            }
+        if (missing != null)
+            synchronized (this)
+            {
+                if (! loaded)
+                    load();
+                missing.removeAll(by_name.keySet());
+                if (! missing.isEmpty())
+                    insert(missing);
+            }
+        for (String name : names)
+            result.add(by_name.get(name));
+        return result;
+    }
+
+    /** Load all entries. Caller must hold lock.
+     *  @throws Exception on error
+     */
+    private void load() throws Exception
+    {
+        int max = 0;
+        try
+        (
+            final Statement statement = rdb.getConnection().createStatement();
+            final ResultSet result = statement.executeQuery(
+                "SELECT " + id_column + "," + name_column + " FROM " + table);
+        )
+        {
+            while (result.next())
+            {
+                final int id = result.getInt(1);
+                memorize(new StringID(id, result.getString(2)));
+                max = Math.max(max, id);
+            }
+        }
+        next_id = max + 1;
+        loaded = true;
+        Activator.getLogger().log(Level.FINE, "Loaded {0} entries from {1}", new Object[] { by_id.size(), table });
+    }
+
+    /** Look up names in RDB, memorizing the ones found. Caller must hold lock.
+     *  @param names Names to look up
+     *  @throws Exception on error
+     */
+    private void lookup(final Collection<String> names) throws Exception
+    {
+        final List<String> list = new ArrayList<>(names);
+        final Connection connection = rdb.getConnection();
+        for (int start=0; start<list.size(); start += QUERY_CHUNK)
+        {
+            final List<String> chunk = list.subList(start, Math.min(list.size(), start + QUERY_CHUNK));
+            final StringBuilder sql = new StringBuilder("SELECT ").append(id_column).append(',').append(name_column)
+                .append(" FROM ").append(table).append(" WHERE ").append(name_column).append(" IN (");
+            for (int i=0; i<chunk.size(); ++i)
+                sql.append(i > 0 ? ",?" : "?");
+            sql.append(')');
+            try (final PreparedStatement statement = connection.prepareStatement(sql.toString()))
+            {
+                for (int i=0; i<chunk.size(); ++i)
+                    statement.setString(i+1, chunk.get(i));
+                try (final ResultSet result = statement.executeQuery())
+                {
+                    while (result.next())
+                    {
+                        final int id = result.getInt(1);
+                        memorize(new StringID(id, result.getString(2)));
+                        if (id >= next_id)
+                            next_id = id + 1;
+                    }
+                }
+            }
+        }
+    }
+
+    /** Insert names that are not in the RDB. Caller must hold lock.
+     *  @param names Names to add
+     *  @throws Exception on error
+     */
+    private void insert(final Set<String> names) throws Exception
+    {
+        // Another writer might have added some of the names
+        lookup(names);
+        names.removeAll(by_name.keySet());
+        if (names.isEmpty())
+            return;
+        try
+        {
+            insertBatch(names);
+        }
+        catch (SQLException ex)
+        {
+            if (source != IDSource.MAX_ID)
+                throw ex;
+            // Assume conflict with IDs or names added by another writer.
+            // Fetch what's now in the RDB and try once more
+            Activator.getLogger().log(Level.FINE, "Retrying insert into " + table, ex);
+            lookup(names);
+            names.removeAll(by_name.keySet());
+            if (names.isEmpty())
+                return;
+            updateNextID();
+            insertBatch(names);
+        }
+        if (source == IDSource.IDENTITY)
+            lookup(names);
+    }
+
+    /** Insert names in one batch
+     *  @param names Names to add
+     *  @throws Exception on error
+     */
+    private void insertBatch(final Set<String> names) throws Exception
+    {
+        final Connection connection = rdb.getConnection();
+        final List<StringID> entries = new ArrayList<>(names.size());
+        if (source == IDSource.SEQUENCE)
+        {
+            final int[] ids = getSequenceIDs(connection, names.size());
+            int i = 0;
+            for (String name : names)
+                entries.add(new StringID(ids[i++], name));
+        }
+        else if (source == IDSource.MAX_ID)
+        {
+            int id = next_id;
+            for (String name : names)
+                entries.add(new StringID(id++, name));
+        }
+        final boolean autocommit = connection.getAutoCommit();
+        if (autocommit)
+            connection.setAutoCommit(false);
+        try
+        {
+            try
+            (
+                final PreparedStatement insert = connection.prepareStatement(source == IDSource.IDENTITY
+                    ? "INSERT INTO " + table + "(" + name_column + ") VALUES (?)"
+                    : "INSERT INTO " + table + "(" + id_column + "," + name_column + ") VALUES (?,?)");
+            )
+            {
+                if (source == IDSource.IDENTITY)
+                    for (String name : names)
+                    {
+                        insert.setString(1, name);
+                        insert.addBatch();
+                    }
+                else
+                    for (StringID entry : entries)
+                    {
+                        insert.setInt(1, entry.getId());
+                        insert.setString(2, entry.getName());
+                        insert.addBatch();
+                    }
+                insert.executeBatch();
+            }
+            connection.commit();
+        }
+        catch (BatchUpdateException ex)
+        {
+            connection.rollback();
+            // Report the underlying error
+            throw ex.getNextException() != null ? ex.getNextException() : ex;
+        }
+        catch (Exception ex)
+        {
+            connection.rollback();
+            throw ex;
+        }
+        finally
+        {
+            if (autocommit)
+                connection.setAutoCommit(true);
+        }
+        for (StringID entry : entries)
+        {
+            memorize(entry);
+            if (entry.getId() >= next_id)
+                next_id = entry.getId() + 1;
+        }
+    }
+
+    /** @param connection Connection
+     *  @param count Number of IDs to get
+     *  @return IDs obtained from the sequence
+     *  @throws Exception on error
+     */
+    private int[] getSequenceIDs(final Connection connection, final int count) throws Exception
+    {
+        final String sql;
+        if (rdb.getDialect() == Dialect.Oracle)
+            sql = "SELECT " + sequence + ".NEXTVAL FROM DUAL CONNECT BY LEVEL <= " + count;
+        else
+            sql = "SELECT nextval('" + sequence + "') FROM generate_series(1," + count + ")";
+        final int[] ids = new int[count];
+        try
+        (
+            final Statement statement = connection.createStatement();
+            final ResultSet result = statement.executeQuery(sql);
+        )
+        {
+            for (int i=0; i<count; ++i)
+            {
+                if (! result.next())
+                    throw new Exception("Sequence " + sequence + " returned only " + i + " of " + count + " IDs");
+                ids[i] = result.getInt(1);
+            }
+        }
+        return ids;
+    }
+
+    /** Determine next ID from RDB
+     *  @throws Exception on error
+     */
+    private void updateNextID() throws Exception
+    {
+        try
+        (
+            final Statement statement = rdb.getConnection().createStatement();
+            final ResultSet result = statement.executeQuery("SELECT MAX(" + id_column + ") FROM " + table);
+        )
+        {
+            if (result.next())
+                next_id = Math.max(next_id, result.getInt(1) + 1);
+        }
+    }
+
+    /** @param entry Entry to add to cache */
+    private void memorize(final StringID entry)
+    {
+        by_name.put(entry.getName(), entry);
+        by_id.put(entry.getId(), entry);
+    }
+
+    /** @return String representation for debugging */
+    @Override
+    public String toString()
+    {
+        return "StringIDCache for " + table + ", " + by_id.size() + " entries";
+    }
+}
@@ -3,5 +3,8 @@
  *  <p>The key class is the {@link org.csstudio.platform.utility.rdb.RDBUtil},
  *  providing an RDB connection for Oracle, Postgres or MySQL without
  *  tying to calling code to a specific RDB.
+ *
+ *  <p>{@link org.csstudio.platform.utility.rdb.RDBConnectionPool}
+ *  provides connections for concurrent database access.
  */
 package org.csstudio.platform.utility.rdb;
\ No newline at end of file
@@ -0,0 +1,71 @@
+/*******************************************************************************
+ * Copyright (c) 2010-2016 ITER Organization.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.autocomplete;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class NameIndexTest {
+
+    @Test
+    public void testFind() {
+        NameIndex index = new NameIndex(Arrays.asList("CWS-PTU:PV1",
+                "CWS-PTV:PV2", "ABC-CWS:PV3", "CW"));
+
+        Assert.assertEquals(Arrays.asList("CWS-PTU:PV1", "CWS-PTV:PV2",
+                "ABC-CWS:PV3"), index.find("CWS", false));
+        Assert.assertEquals(Arrays.asList("CWS-PTU:PV1", "CWS-PTV:PV2"),
+                index.find("CWS", true));
+        Assert.assertEquals(Arrays.asList("CWS-PTU:PV1", "CWS-PTV:PV2"),
+                index.find("PT?:PV", false));
+        Assert.assertEquals(Arrays.asList("ABC-CWS:PV3"),
+                index.find("A*PV3", true));
+        Assert.assertEquals(4, index.find("C", false).size());
+        Assert.assertTrue(index.find("XYZ", false).isEmpty());
+    }
+
+    @Test
+    public void testRanking() {
+        NameIndex index = new NameIndex(Arrays.asList("PV:A", "PV:B", "PV:C"));
+        index.add("PV:C");
+        index.add("PV:D");
+        index.remove("PV:A");
+        Assert.assertEquals(3, index.size());
+        Assert.assertEquals(Arrays.asList("PV:D", "PV:C", "PV:B"),
+                index.find("PV:", true));
+    }
+
+    @Test
+    public void testSameResultAsRegex() {
+        List<String> names = new ArrayList<String>();
+        for (int i = 0; i < 5000; ++i)
+            names.add("SYS" + (i % 7) + "-DEV" + (i % 13) + ":PV" + i);
+        NameIndex index = new NameIndex(names);
+        // Remove enough names to compact the index
+        for (int i = 0; i < 3000; ++i)
+            index.remove(names.get(i));
+        List<String> remaining = names.subList(3000, names.size());
+
+        for (String query : new String[] { "DEV1", "SYS3-*:PV4", "?EV12", "PV49", "S*5" }) {
+            Pattern pattern = AutoCompleteHelper.convertToPattern(query);
+            List<String> expected = new ArrayList<String>();
+            for (String name : remaining)
+                if (pattern.matcher(name).find())
+                    expected.add(name);
+            List<String> found = index.find(query, false);
+            Assert.assertEquals(expected.size(), found.size());
+            Assert.assertTrue(found.containsAll(expected));
+        }
+    }
+
+}
@@ -85,7 +85,7 @@ public class AutoCompleteProposalProvider implements
                             // System.out.println("PROCESSED: " + uniqueId + ", " + index);
                         }
                     }
-                });
+                }, this);
         currentList.setExpected(expected);
     }
 
@@ -13,6 +13,7 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.logging.Logger;
 
+import org.csstudio.autocomplete.NameIndex;
 import org.csstudio.autocomplete.ui.util.UIHelper;
 import org.eclipse.core.runtime.IConfigurationElement;
 import org.eclipse.core.runtime.IExtensionRegistry;
@@ -47,6 +48,7 @@ public class AutoCompleteUIPlugin extends AbstractUIPlugin {
     private static final Logger logger = Logger.getLogger(PLUGIN_ID);
 
     private static Map<String, LinkedList<String>> fifos = null;
+    private static Map<String, NameIndex> indexes = null;
     private static IDialogSettings settings;
 
     private ImageRegistry imageRegistry;
@@ -58,6 +60,7 @@ public class AutoCompleteUIPlugin extends AbstractUIPlugin {
         super.start(context);
         plugin = this;
         fifos = new HashMap<String, LinkedList<String>>();
+        indexes = new HashMap<String, NameIndex>();
         readExtensionRegistry();
         loadSettings();
     }
@@ -67,6 +70,8 @@ public class AutoCompleteUIPlugin extends AbstractUIPlugin {
         saveSettings();
         fifos.clear();
         fifos = null;
+        indexes.clear();
+        indexes = null;
         plugin = null;
         super.stop(context);
     }
@@ -131,6 +136,7 @@ public class AutoCompleteUIPlugin extends AbstractUIPlugin {
         if (ds != null)
             settings = ds.addNewSection(HISTORY_TAG);
         fifos.clear();
+        indexes.clear();
     }
 
     public synchronized LinkedList<String> getHistory(final String type) {
@@ -148,6 +154,20 @@ public class AutoCompleteUIPlugin extends AbstractUIPlugin {
         return fifos.get(type);
     }
 
+    /**
+     * @return Index of the history entries, most recent entry first. Must be
+     *         updated together with the history.
+     * @see #getHistory(String)
+     */
+    public synchronized NameIndex getHistoryIndex(final String type) {
+        NameIndex index = indexes.get(type);
+        if (index == null) {
+            index = new NameIndex(getHistory(type));
+            indexes.put(type, index);
+        }
+        return index;
+    }
+
     /**
      * Load the <code>Image</code> from the given path in the given plugin.
      *
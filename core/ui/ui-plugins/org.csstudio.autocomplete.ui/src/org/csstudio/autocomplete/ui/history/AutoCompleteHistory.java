@@ -14,6 +14,7 @@ import java.util.Map.Entry;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+import org.csstudio.autocomplete.NameIndex;
 import org.csstudio.autocomplete.ui.AutoCompleteTypes;
 import org.csstudio.autocomplete.ui.AutoCompleteUIPlugin;
 import org.csstudio.autocomplete.ui.preferences.Preferences;
@@ -116,8 +117,10 @@ public class AutoCompleteHistory {
         LinkedList<String> fifo = AutoCompleteUIPlugin.getDefault().getHistory(entryType);
         if (fifo == null)
             return;
+        NameIndex nameIndex = AutoCompleteUIPlugin.getDefault().getHistoryIndex(entryType);
         if (Preferences.getHistorySize() == 0) {
             fifo.clear();
+            nameIndex.clear();
             return;
         }
         // Remove if present, so that is re-added on top
@@ -127,10 +130,11 @@ public class AutoCompleteHistory {
 
         // Maybe remove oldest, i.e. bottom-most, entry
         while (fifo.size() >= Preferences.getHistorySize())
-            fifo.removeLast();
+            nameIndex.remove(fifo.removeLast());
 
         // Add at the top
         fifo.addFirst(newEntry);
+        nameIndex.add(newEntry);
     }
 
 }
@@ -7,7 +7,7 @@
  ******************************************************************************/
 package org.csstudio.autocomplete.ui.history;
 
-import java.util.LinkedList;
+import java.util.List;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -58,28 +58,25 @@ public class AutoCompleteHistoryProvider implements IAutoCompleteProvider {
         if (content.startsWith("="))
             entryType = AutoCompleteTypes.Formula;
 
-        LinkedList<String> fifo = new LinkedList<String>();
-        fifo.addAll(AutoCompleteUIPlugin.getDefault().getHistory(entryType));
-        if (fifo.isEmpty())
+        // Index only returns matching entries, most recent first
+        List<String> matches = AutoCompleteUIPlugin.getDefault()
+                .getHistoryIndex(entryType).find(cleanedName, false);
+        if (matches.isEmpty())
             return result; // Empty result
 
-        int count = 0;
-        for (String entry : fifo) {
+        for (String entry : matches.subList(0, Math.min(limit, matches.size()))) {
             Matcher m = namePattern.matcher(entry);
             if (m.find()) {
-                if (count < limit) {
-                    Proposal proposal = new Proposal(entry, false);
-                    proposal.addStyle(ProposalStyle.getDefault(m.start(), m.end() - 1));
-                    proposal.setInsertionPos(startIndex);
-                    result.addProposal(proposal);
-                }
-                count++;
+                Proposal proposal = new Proposal(entry, false);
+                proposal.addStyle(ProposalStyle.getDefault(m.start(), m.end() - 1));
+                proposal.setInsertionPos(startIndex);
+                result.addProposal(proposal);
             }
         }
-        result.setCount(count);
+        result.setCount(matches.size());
 
         TopProposalFinder trf = new TopProposalFinder(Preferences.getSeparators());
-        for (Proposal p : trf.getTopProposals(Pattern.quote(cleanedName), fifo))
+        for (Proposal p : trf.getTopProposals(Pattern.quote(cleanedName), matches))
             result.addTopProposal(p);
 
         return result;
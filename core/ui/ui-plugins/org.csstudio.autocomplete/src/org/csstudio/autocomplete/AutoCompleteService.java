@@ -10,11 +10,18 @@ package org.csstudio.autocomplete;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.StringTokenizer;
 import java.util.TreeMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 
 import org.csstudio.autocomplete.impl.DataSourceProvider;
@@ -50,35 +57,51 @@ public class AutoCompleteService {
         private final ContentDescriptor desc;
         private final ProviderSettings settings;
         private final IAutoCompleteResultListener listener;
-        private boolean canceled = false;
+        private final Object requester;
+        private volatile boolean canceled = false;
+        private volatile boolean started = false;
+        private Future<?> future;
 
         public ProviderTask(final Long uniqueId, final Integer index,
                 final ContentDescriptor desc, final ProviderSettings settings,
-                final IAutoCompleteResultListener listener) {
+                final IAutoCompleteResultListener listener, final Object requester) {
             this.index = index;
             this.uniqueId = uniqueId;
             this.desc = desc;
             this.settings = settings;
             this.listener = listener;
+            this.requester = requester;
         }
 
         @Override
         public void run() {
-            AutoCompleteResult result = settings.getProvider().listResult(desc, settings.getMaxResults());
-            if (result != null
-                    && !settings.getName().equals(DataSourceProvider.NAME))
-                // TODO: find a better solution to hide DataSourceProvider...
-                result.setProvider(settings.getName());
-            if (!canceled)
-                listener.handleResult(uniqueId, index, result);
-            synchronized (workQueue) {
-                workQueue.remove(this);
+            try {
+                started = true;
+                if (canceled)
+                    return;
+                AutoCompleteResult result = settings.getProvider().listResult(desc, settings.getMaxResults());
+                if (result != null
+                        && !settings.getName().equals(DataSourceProvider.NAME))
+                    // TODO: find a better solution to hide DataSourceProvider...
+                    result.setProvider(settings.getName());
+                if (!canceled)
+                    listener.handleResult(uniqueId, index, result);
+            } catch (Throwable ex) {
+                AutoCompletePlugin.getLogger().log(Level.WARNING,
+                        "Provider " + settings.getName() + " failed", ex);
+            } finally {
+                removeTask(this);
             }
         }
 
         public void cancel() {
-            settings.getProvider().cancel();
             canceled = true;
+            // Only interrupt the provider if it's working on this task
+            if (started)
+                settings.getProvider().cancel();
+            // Task that did not start yet is simply dropped from the queue
+            if (future != null)
+                future.cancel(false);
         }
 
         @Override
@@ -144,10 +167,30 @@ public class AutoCompleteService {
     }
 
     private static AutoCompleteService instance;
+
+    /** Shared pool of threads that execute the providers */
+    private static final ThreadPoolExecutor executor;
+
+    static {
+        final int threads = Preferences.getMaxProviderThreads();
+        final AtomicInteger count = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 10, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+                    @Override
+                    public Thread newThread(Runnable runnable) {
+                        Thread thread = new Thread(runnable, "AutoComplete Provider " + count.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                });
+        executor.allowCoreThreadTimeOut(true);
+    }
     private Map<String, ProviderSettings> providerByName;
     private Map<String, List<ProviderSettings>> providersByType;
     private ProviderSettings defaultProvider;
     private List<ProviderTask> workQueue;
+    /** Tasks of the most recent request, by requester */
+    private Map<Object, List<ProviderTask>> tasksByRequester;
     private List<IContentParser> parsers;
 
     private AutoCompleteService() {
@@ -164,6 +207,7 @@ public class AutoCompleteService {
         }
         providersByType = new TreeMap<String, List<ProviderSettings>>();
         workQueue = new ArrayList<ProviderTask>();
+        tasksByRequester = new HashMap<Object, List<ProviderTask>>();
     }
 
     public static AutoCompleteService getInstance() {
@@ -175,6 +219,23 @@ public class AutoCompleteService {
 
     public int get(final Long uniqueId, final AutoCompleteType acType,
             final String content, final IAutoCompleteResultListener listener) {
+        return get(uniqueId, acType, content, listener, null);
+    }
+
+    /**
+     * Request proposals from the providers. Providers are executed in parallel
+     * by a shared pool of threads.
+     *
+     * @param requester Tasks of the previous request by the same requester,
+     *            for example the previous keystroke in the same field, are
+     *            canceled. May be <code>null</code>.
+     * @return Number of expected results
+     */
+    public int get(final Long uniqueId, final AutoCompleteType acType,
+            final String content, final IAutoCompleteResultListener listener,
+            final Object requester) {
+        if (requester != null)
+            cancelRequest(requester);
         AutoCompletePlugin.getLogger().log(Level.FINE,
                 ">> ChannelNameService get: " + content + " for type: " + acType.value() + " <<");
 
@@ -214,11 +275,19 @@ public class AutoCompleteService {
                 System.out.println(sc.settings + " => " + sc.desc);
             }
             final ProviderTask task = new ProviderTask(uniqueId, index,
-                    sc.desc, sc.settings, listener);
+                    sc.desc, sc.settings, listener, requester);
             synchronized (workQueue) {
                 workQueue.add(task);
+                if (requester != null) {
+                    List<ProviderTask> tasks = tasksByRequester.get(requester);
+                    if (tasks == null) {
+                        tasks = new ArrayList<ProviderTask>();
+                        tasksByRequester.put(requester, tasks);
+                    }
+                    tasks.add(task);
+                }
+                task.future = executor.submit(task);
             }
-            new Thread(task).start();
             index++;
         }
         return index;
@@ -233,6 +302,33 @@ public class AutoCompleteService {
         }
     }
 
+    /* Cancel the tasks of an earlier request that was superseded */
+    private void cancelRequest(final Object requester) {
+        synchronized (workQueue) {
+            final List<ProviderTask> tasks = tasksByRequester.remove(requester);
+            if (tasks == null)
+                return;
+            for (ProviderTask task : tasks) {
+                task.cancel();
+                workQueue.remove(task);
+            }
+        }
+    }
+
+    private void removeTask(final ProviderTask task) {
+        synchronized (workQueue) {
+            workQueue.remove(task);
+            if (task.requester == null)
+                return;
+            final List<ProviderTask> tasks = tasksByRequester.get(task.requester);
+            if (tasks == null)
+                return;
+            tasks.remove(task);
+            if (tasks.isEmpty())
+                tasksByRequester.remove(task.requester);
+        }
+    }
+
     public boolean hasProviders(final String type) {
         return !providersByType.get(type).isEmpty();
     }
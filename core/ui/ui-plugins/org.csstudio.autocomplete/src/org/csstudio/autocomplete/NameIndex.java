@@ -0,0 +1,225 @@
+/*******************************************************************************
+ * Copyright (c) 2010-2016 ITER Organization.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.autocomplete;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory index of names, for example PV names from the history or names
+ * supplied by a provider, that answers wildcard queries without testing every
+ * name.
+ * <p>
+ * Each name is indexed by its trigrams, i.e. all substrings of 3 characters,
+ * including a start marker so that prefixes are indexed as well. A query
+ * intersects the trigrams of its literal parts, then only tests the remaining
+ * candidates against the wildcard pattern. Queries without any literal part of
+ * at least 3 characters (2 for prefix queries) test all names.
+ * <p>
+ * Names are ranked by the order in which they were added, the most recently
+ * added name first. Adding a name that is already in the index moves it to the
+ * top, like an entry in the history.
+ */
+public class NameIndex {
+
+    private static final int GRAM = 3;
+
+    /** Marks the start of a name in its trigrams */
+    private static final char START = '\u0002';
+
+    /** Removed ids that trigger compaction of the index */
+    private static final int COMPACT_THRESHOLD = 1000;
+
+    /** Growable, ascending list of ids */
+    private static class IdList {
+        int[] ids = new int[4];
+        int size = 0;
+
+        void add(final int id) {
+            if (size == ids.length)
+                ids = Arrays.copyOf(ids, size * 2);
+            ids[size++] = id;
+        }
+
+        boolean contains(final int id) {
+            return Arrays.binarySearch(ids, 0, size, id) >= 0;
+        }
+    }
+
+    /** Names by id, <code>null</code> for removed names */
+    private final List<String> names = new ArrayList<String>();
+    private final Map<String, Integer> ids = new HashMap<String, Integer>();
+    private final Map<String, IdList> grams = new HashMap<String, IdList>();
+    private int removed = 0;
+
+    /** Create empty index */
+    public NameIndex() {
+    }
+
+    /**
+     * Create index for names
+     *
+     * @param names Names, ranked by their order, first name on top
+     */
+    public NameIndex(final Collection<String> names) {
+        setNames(names);
+    }
+
+    /**
+     * Replace all names in the index
+     *
+     * @param names Names, ranked by their order, first name on top
+     */
+    public synchronized void setNames(final Collection<String> names) {
+        clear();
+        final List<String> reversed = new ArrayList<String>(names);
+        Collections.reverse(reversed);
+        for (String name : reversed)
+            add(name);
+    }
+
+    /**
+     * Add a name at the top of the index. A name that is already in the index
+     * moves to the top.
+     *
+     * @param name Name to add
+     */
+    public synchronized void add(final String name) {
+        if (ids.containsKey(name))
+            remove(name);
+        final int id = names.size();
+        names.add(name);
+        ids.put(name, id);
+        for (String gram : getGrams(name, true))
+            getIds(gram).add(id);
+    }
+
+    /**
+     * @param name Name to remove from the index
+     */
+    public synchronized void remove(final String name) {
+        final Integer id = ids.remove(name);
+        if (id == null)
+            return;
+        names.set(id, null);
+        ++removed;
+        if (removed > COMPACT_THRESHOLD && removed > names.size() / 2)
+            compact();
+    }
+
+    /** Remove all names */
+    public synchronized void clear() {
+        names.clear();
+        ids.clear();
+        grams.clear();
+        removed = 0;
+    }
+
+    /** @return Number of names in the index */
+    public synchronized int size() {
+        return ids.size();
+    }
+
+    /**
+     * Find names that match a pattern
+     *
+     * @param pattern Name or part of a name with wildcards '*' and '?'
+     * @param prefix <code>true</code> if names must start with the pattern,
+     *            <code>false</code> to find the pattern anywhere in the names
+     * @return Matching names, most recently added first
+     */
+    public synchronized List<String> find(final String pattern, final boolean prefix) {
+        final List<String> result = new ArrayList<String>();
+        final Pattern regex = AutoCompleteHelper.convertToPattern(pattern);
+        if (regex == null)
+            return result;
+
+        // Trigrams of the literal parts between wildcards
+        final Set<String> required = new HashSet<String>();
+        final String[] parts = pattern.split("[\\*\\?]", -1);
+        for (int i = 0; i < parts.length; ++i)
+            required.addAll(getGrams(parts[i], prefix && i == 0));
+
+        // Candidates are all names that contain every trigram,
+        // with the shortest list of ids used to enumerate them
+        final List<IdList> lists = new ArrayList<IdList>(required.size());
+        for (String gram : required) {
+            final IdList list = grams.get(gram);
+            if (list == null)
+                return result;
+            lists.add(list);
+        }
+        IdList shortest = null;
+        for (IdList list : lists)
+            if (shortest == null || list.size < shortest.size)
+                shortest = list;
+
+        final int count = shortest == null ? names.size() : shortest.size;
+        for (int i = count - 1; i >= 0; --i) {
+            final int id = shortest == null ? i : shortest.ids[i];
+            final String name = names.get(id);
+            if (name == null || !containsAll(lists, shortest, id))
+                continue;
+            final Matcher m = regex.matcher(name);
+            if (prefix ? m.lookingAt() : m.find())
+                result.add(name);
+        }
+        return result;
+    }
+
+    private static boolean containsAll(final List<IdList> lists, final IdList skip, final int id) {
+        for (IdList list : lists)
+            if (list != skip && !list.contains(id))
+                return false;
+        return true;
+    }
+
+    private IdList getIds(final String gram) {
+        IdList list = grams.get(gram);
+        if (list == null) {
+            list = new IdList();
+            grams.put(gram, list);
+        }
+        return list;
+    }
+
+    /**
+     * @param text Name or literal part of a pattern
+     * @param start Is the text at the start of the name?
+     * @return Trigrams of the text
+     */
+    private static Set<String> getGrams(String text, final boolean start) {
+        if (start)
+            text = START + text;
+        final Set<String> result = new HashSet<String>();
+        for (int i = 0; i + GRAM <= text.length(); ++i)
+            result.add(text.substring(i, i + GRAM));
+        return result;
+    }
+
+    /** Rebuild index without the removed names */
+    private void compact() {
+        final List<String> current = new ArrayList<String>(ids.size());
+        for (String name : names)
+            if (name != null)
+                current.add(name);
+        clear();
+        for (String name : current)
+            add(name);
+    }
+
+}
@@ -25,6 +25,7 @@ public class Preferences {
     final public static String PROVIDERS = "providers";
     final public static String SEPARATORS = "separators";
     final public static String MAX_TOP_RESULTS = "max_top_results";
+    final public static String MAX_PROVIDER_THREADS = "max_provider_threads";
 
     /**
      * @param setting Preference identifier
@@ -79,4 +80,13 @@ public class Preferences {
                 null);
     }
 
+    /** @return max number of threads that execute providers */
+    public static int getMaxProviderThreads() {
+        final IPreferencesService service = Platform.getPreferencesService();
+        if (service == null)
+            return 4; // default
+        return Math.max(1, service.getInt(AutoCompletePlugin.PLUGIN_ID,
+                MAX_PROVIDER_THREADS, 4, null));
+    }
+
 }
@@ -9,7 +9,7 @@ package org.csstudio.autocomplete.pvmanager.formula;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
+import java.util.SortedMap;
 import java.util.TreeMap;
 
 import org.csstudio.autocomplete.AutoCompleteResult;
@@ -32,7 +32,7 @@ import org.diirt.datasource.formula.FormulaRegistry;
  */
 public class FormulaFunctionProvider implements IAutoCompleteProvider {
 
-    private Map<String, List<FormulaFunction>> functions;
+    private TreeMap<String, List<FormulaFunction>> functions;
 
     public FormulaFunctionProvider() {
         functions = new TreeMap<String, List<FormulaFunction>>();
@@ -77,27 +77,26 @@ public class FormulaFunctionProvider implements IAutoCompleteProvider {
         if (!functionDesc.hasOpenBracket()) {
             Proposal topProposal = null;
             String closestMatchingFunction = null;
-            for (String functionName : functions.keySet()) {
-                if (functionName.startsWith(nameToFind)) {
-                    Proposal proposal = new Proposal(functionName + "(", false);
-
-                    String description = functions.get(functionName).get(0).getDescription() + "\n\n";
-                    for (FormulaFunction ff : functions.get(functionName))
-                        description += generateSignature(ff);
-                    proposal.setDescription(description);
-                    for (FormulaFunction ff : functions.get(functionName))
-                        proposal.addTooltipData(generateTooltipData(ff, 0));
-
-                    proposal.addStyle(ProposalStyle.getDefault(0, nameToFind.length() - 1));
-                    proposal.setInsertionPos(insertionPos);
-                    proposal.setFunction(true); // display function icon
-                    result.addProposal(proposal);
-                    count++;
-                    if (closestMatchingFunction == null
-                            || closestMatchingFunction.compareTo(functionName) > 0) {
-                        closestMatchingFunction = functionName;
-                        topProposal = proposal;
-                    }
+            // Sorted names starting with nameToFind form a contiguous range
+            for (String functionName : prefixRange(nameToFind).keySet()) {
+                Proposal proposal = new Proposal(functionName + "(", false);
+
+                String description = functions.get(functionName).get(0).getDescription() + "\n\n";
+                for (FormulaFunction ff : functions.get(functionName))
+                    description += generateSignature(ff);
+                proposal.setDescription(description);
+                for (FormulaFunction ff : functions.get(functionName))
+                    proposal.addTooltipData(generateTooltipData(ff, 0));
+
+                proposal.addStyle(ProposalStyle.getDefault(0, nameToFind.length() - 1));
+                proposal.setInsertionPos(insertionPos);
+                proposal.setFunction(true); // display function icon
+                result.addProposal(proposal);
+                count++;
+                if (closestMatchingFunction == null
+                        || closestMatchingFunction.compareTo(functionName) > 0) {
+                    closestMatchingFunction = functionName;
+                    topProposal = proposal;
                 }
             }
             // handle top proposals
@@ -123,6 +122,10 @@ public class FormulaFunctionProvider implements IAutoCompleteProvider {
         return result;
     }
 
+    private SortedMap<String, List<FormulaFunction>> prefixRange(final String prefix) {
+        return functions.subMap(prefix, prefix + Character.MAX_VALUE);
+    }
+
     @Override
     public void cancel() {
     }
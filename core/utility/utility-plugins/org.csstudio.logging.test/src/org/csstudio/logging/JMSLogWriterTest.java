@@ -0,0 +1,144 @@
+/*******************************************************************************
+ * Copyright (c) 2011 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.logging;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+
+import javax.jms.JMSException;
+import javax.jms.MapMessage;
+import javax.jms.MessageProducer;
+import javax.jms.Session;
+
+import org.junit.Test;
+
+/** JUnit test of the {@link JMSLogWriter} batches,
+ *  using a fake JMS session that fails on request
+ */
+@SuppressWarnings("nls")
+public class JMSLogWriterTest
+{
+    /** Number of messages sent before failing, -1 to never fail */
+    private int fail_after = -1;
+
+    private int sends = 0, commits = 0, rollbacks = 0;
+
+    private JMSLogWriter createWriter(final BlockingDeque<LogRecord> records)
+    {
+        final JMSLogWriter writer = new JMSLogWriter("JMSLogWriterTest", "none", "none",
+                records, new LogFormatter(LogFormatDetail.LOW));
+        final MapMessage message = (MapMessage) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[] { MapMessage.class }, (proxy, method, args) -> null);
+        final Session session = (Session) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[] { Session.class }, (proxy, method, args) ->
+        {
+            if (method.getName().equals("createMapMessage"))
+                return message;
+            if (method.getName().equals("commit"))
+                ++commits;
+            else if (method.getName().equals("rollback"))
+                ++rollbacks;
+            return null;
+        });
+        final MessageProducer producer = (MessageProducer) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[] { MessageProducer.class }, (proxy, method, args) ->
+        {
+            if (method.getName().equals("send"))
+            {
+                if (sends == fail_after)
+                    throw new JMSException("Test failure");
+                ++sends;
+            }
+            return null;
+        });
+        writer.setSession(session, producer);
+        return writer;
+    }
+
+    private static List<LogRecord> createRecords(final int count)
+    {
+        final List<LogRecord> records = new ArrayList<>();
+        for (int i=0; i<count; ++i)
+            records.add(new LogRecord(Level.INFO, "Test " + (i+1)));
+        return records;
+    }
+
+    @Test
+    public void testFailureMidBatch() throws Exception
+    {
+        final BlockingDeque<LogRecord> records = new LinkedBlockingDeque<>(10);
+        final LogRecord queued = new LogRecord(Level.INFO, "Queued");
+        records.add(queued);
+        final JMSLogWriter writer = createWriter(records);
+
+        // Fail on the third message of the batch
+        final List<LogRecord> batch = createRecords(5);
+        fail_after = 2;
+        try
+        {
+            writer.sendBatch(batch);
+            fail("Batch was sent");
+        }
+        catch (JMSException ex)
+        {
+            // Expected
+        }
+        assertThat(rollbacks, equalTo(1));
+        assertThat(commits, equalTo(0));
+        assertThat(writer.getSentCount(), equalTo(0L));
+
+        // Records of the batch are back in front of the queue, in original order
+        assertThat(records.size(), equalTo(6));
+        for (LogRecord record : batch)
+            assertThat(records.poll(), sameInstance(record));
+        assertThat(records.poll(), sameInstance(queued));
+
+        // Next attempt sends the whole batch
+        fail_after = -1;
+        writer.sendBatch(batch);
+        assertThat(commits, equalTo(1));
+        assertThat(writer.getSentCount(), equalTo(5L));
+        assertThat(writer.getBatchCount(), equalTo(1L));
+    }
+
+    @Test
+    public void testRequeueLimitedByCapacity() throws Exception
+    {
+        final BlockingDeque<LogRecord> records = new LinkedBlockingDeque<>(3);
+        final LogRecord queued = new LogRecord(Level.INFO, "Queued");
+        records.add(queued);
+        final JMSLogWriter writer = createWriter(records);
+
+        final List<LogRecord> batch = createRecords(4);
+        fail_after = 3;
+        try
+        {
+            writer.sendBatch(batch);
+            fail("Batch was sent");
+        }
+        catch (JMSException ex)
+        {
+            // Expected
+        }
+        assertThat(rollbacks, equalTo(1));
+
+        // Queue only had room for the last two records of the batch
+        assertThat(new ArrayList<>(records), equalTo(Arrays.asList(batch.get(2), batch.get(3), queued)));
+    }
+}
@@ -0,0 +1,87 @@
+/*******************************************************************************
+ * Copyright (c) 2011 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.logging.test;
+
+import static org.junit.Assert.*;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+
+import javax.jms.Connection;
+import javax.jms.MessageConsumer;
+import javax.jms.Session;
+
+import org.apache.activemq.ActiveMQConnectionFactory;
+import org.csstudio.logging.JMSLogHandler;
+import org.csstudio.logging.LogFormatDetail;
+import org.csstudio.logging.LogFormatter;
+import org.junit.Test;
+
+/** JUnit Demo of the {@link JMSLogHandler}
+ *
+ *  Uses an embedded, non-persistent broker
+ *  @author Kay Kasemir
+ */
+@SuppressWarnings("nls")
+public class JMSLogHandlerDemo
+{
+    final private static String URL = "vm://localhost?broker.persistent=false";
+
+    @Test
+    public void testBatchedLogging() throws Exception
+    {
+        // Keep the embedded broker alive while the handler connects
+        final Connection connection = new ActiveMQConnectionFactory(URL).createConnection();
+        connection.start();
+        final Session session = connection.createSession(false, Session.AUTO_ACKNOWLEDGE);
+        final MessageConsumer consumer = session.createConsumer(session.createTopic(DemoSetup.topic));
+        final AtomicInteger received = new AtomicInteger();
+        consumer.setMessageListener(message -> received.incrementAndGet());
+
+        final JMSLogHandler handler = new JMSLogHandler(URL, DemoSetup.topic);
+        handler.setFormatter(new LogFormatter(LogFormatDetail.HIGH));
+        handler.setSampling("chatty", 10);
+        handler.start();
+
+        // Several threads log concurrently
+        final Thread[] threads = new Thread[4];
+        for (int t=0; t<threads.length; ++t)
+        {
+            final String logger = (t == 0) ? "chatty.service" : "demo" + t;
+            threads[t] = new Thread(() ->
+            {
+                for (int i=0; i<500; ++i)
+                {
+                    final LogRecord record = new LogRecord(Level.INFO, "Test " + i);
+                    record.setLoggerName(logger);
+                    handler.publish(record);
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads)
+            thread.join();
+
+        // Wait for all published records to arrive
+        for (int i=0; i<100  &&  received.get() < handler.getPublishedCount(); ++i)
+            Thread.sleep(100);
+
+        System.out.format("Published %d, skipped %d, dropped %d, sent %d in %d batches, received %d\n",
+                handler.getPublishedCount(), handler.getSkippedCount(), handler.getDroppedCount(),
+                handler.getSentCount(), handler.getBatchCount(), received.get());
+        assertEquals(450, handler.getSkippedCount());
+        // Published count includes warnings about dropped records
+        assertTrue(handler.getPublishedCount() + handler.getDroppedCount() >= 1550);
+        assertEquals(handler.getPublishedCount(), handler.getSentCount());
+        assertTrue(handler.getBatchCount() <= handler.getSentCount());
+
+        handler.close();
+        connection.close();
+    }
+}
@@ -9,8 +9,8 @@ package org.csstudio.logging.test;
 
 import static org.junit.Assert.*;
 
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.LinkedBlockingDeque;
 import java.util.logging.Level;
 import java.util.logging.LogRecord;
 
@@ -28,7 +28,7 @@ public class JMSLogWriterDemo
     @Test
     public void testJMSWriteThread() throws Exception
     {
-        final BlockingQueue<LogRecord> records = new LinkedBlockingQueue<LogRecord>();
+        final BlockingDeque<LogRecord> records = new LinkedBlockingDeque<LogRecord>();
         final JMSLogWriter writer = new JMSLogWriter("JMSWriteThreadTest", DemoSetup.url, DemoSetup.topic, records, new LogFormatter(LogFormatDetail.HIGH));
         writer.start();
         for (int i=0; i<10; ++i)
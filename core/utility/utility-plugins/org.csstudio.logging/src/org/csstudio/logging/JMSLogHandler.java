@@ -7,8 +7,11 @@
  ******************************************************************************/
 package org.csstudio.logging;
 
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.Map;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Formatter;
 import java.util.logging.Handler;
 import java.util.logging.Level;
@@ -19,6 +22,11 @@ import java.util.logging.LogRecord;
  *  See {@link JMSLogWriter} for details on usage of {@link Formatter}.
  *  <p>
  *  Note that this handler needs an explicit <code>start()</code>.
+ *  <p>
+ *  {@link #publish(LogRecord)} may be called concurrently without locking.
+ *  Records that do not fit into the queue are dropped and counted.
+ *  For loggers that produce many messages, a sampling rate can be configured
+ *  to only send every N-th record of that logger, see {@link #setSampling(String, int)}.
  *
  *  @author Kay Kasemir
  */
@@ -27,7 +35,7 @@ public class JMSLogHandler extends Handler
     /** Maximum number of messages that are queued up
      *  to prevent the JMS handler from exhausting memory
      */
-    final private static int MAX_CAPACITY = 100;
+    final private static int MAX_CAPACITY = 1000;
 
     /** JMS server URL */
     final private String jms_url;
@@ -36,13 +44,50 @@ public class JMSLogHandler extends Handler
     final private String topic;
 
     /** Log message queue filled by handler, read by JMSWriter task */
-    final private BlockingQueue<LogRecord> records = new LinkedBlockingQueue<LogRecord>(MAX_CAPACITY);
+    final private BlockingDeque<LogRecord> records = new LinkedBlockingDeque<LogRecord>(MAX_CAPACITY);
+
+    /** Sampling configuration: Send every N-th record of a logger and its child loggers */
+    final private Map<String, Integer> sampling = new ConcurrentHashMap<>();
+
+    /** Sampling state by logger name, resolved from <code>sampling</code> */
+    final private Map<String, Sampler> samplers = new ConcurrentHashMap<>();
+
+    /** Number of records added to the queue */
+    final private AtomicLong published = new AtomicLong();
+
+    /** Number of records dropped because the queue was full */
+    final private AtomicLong dropped = new AtomicLong();
+
+    /** Number of records skipped by sampling */
+    final private AtomicLong skipped = new AtomicLong();
 
-    /** Has there been a queuing error? */
-    private boolean queuing_failed = false;
+    /** Number of dropped records that have not been reported */
+    final private AtomicLong unreported_drops = new AtomicLong();
+
+    /** Sampling state for one logger */
+    private static class Sampler
+    {
+        final int every;
+        final AtomicLong count = new AtomicLong();
+
+        Sampler(final int every)
+        {
+            this.every = every;
+        }
+
+        /** @return Should next record be sent? */
+        boolean sample()
+        {
+            if (every == 1)
+                return true;
+            if (every <= 0)
+                return false;
+            return count.getAndIncrement() % every == 0;
+        }
+    }
 
     /** Log writer thread */
-    private JMSLogWriter log_writer = null;
+    private volatile JMSLogWriter log_writer = null;
 
     /** Initialize
      *  @param jms_url JMS server URL
@@ -54,6 +99,73 @@ public class JMSLogHandler extends Handler
         this.topic = topic;
     }
 
+    /** Configure sampling for a logger and its child loggers
+     *  @param logger Name of logger, "" for the root logger
+     *  @param every Send every N-th record, 1 to send all, 0 to send none
+     */
+    public void setSampling(final String logger, final int every)
+    {
+        sampling.put(logger, every);
+        samplers.clear();
+    }
+
+    /** @param logger Logger name, may be <code>null</code>
+     *  @return Sampler for that logger
+     */
+    private Sampler getSampler(final String logger)
+    {
+        final String name = logger == null ? "" : logger;
+        Sampler sampler = samplers.get(name);
+        if (sampler == null)
+        {   // Use setting of logger or closest parent
+            String parent = name;
+            Integer every = sampling.get(parent);
+            while (every == null  &&  !parent.isEmpty())
+            {
+                final int sep = parent.lastIndexOf('.');
+                parent = sep > 0 ? parent.substring(0, sep) : "";
+                every = sampling.get(parent);
+            }
+            sampler = new Sampler(every == null ? 1 : every.intValue());
+            final Sampler other = samplers.putIfAbsent(name, sampler);
+            if (other != null)
+                sampler = other;
+        }
+        return sampler;
+    }
+
+    /** @return Number of records that were queued for JMS */
+    public long getPublishedCount()
+    {
+        return published.get();
+    }
+
+    /** @return Number of records dropped because the queue was full */
+    public long getDroppedCount()
+    {
+        return dropped.get();
+    }
+
+    /** @return Number of records skipped by sampling */
+    public long getSkippedCount()
+    {
+        return skipped.get();
+    }
+
+    /** @return Number of records sent to JMS */
+    public long getSentCount()
+    {
+        final JMSLogWriter writer = log_writer;
+        return writer == null ? 0 : writer.getSentCount();
+    }
+
+    /** @return Number of batches sent to JMS */
+    public long getBatchCount()
+    {
+        final JMSLogWriter writer = log_writer;
+        return writer == null ? 0 : writer.getBatchCount();
+    }
+
     /** Start background thread that handles the JMS communication.
      *  @throws IllegalStateException when already started
      */
@@ -68,7 +180,7 @@ public class JMSLogHandler extends Handler
     /** {@inheritDoc} */
     @SuppressWarnings("nls")
     @Override
-    public synchronized void publish(final LogRecord record)
+    public void publish(final LogRecord record)
     {
         if (! isLoggable(record))
             return;
@@ -81,18 +193,31 @@ public class JMSLogHandler extends Handler
             class_name.startsWith("org.apache.activemq"))
             return;
 
-        boolean added = records.offer(record);
-        if (added)
+        if (! getSampler(record.getLoggerName()).sample())
+        {
+            skipped.incrementAndGet();
+            return;
+        }
+
+        if (records.offer(record))
         {   // Message was added OK.
+            published.incrementAndGet();
             // Are we recovering from a previous queuing error?
-            if (queuing_failed)
+            final long drops = unreported_drops.getAndSet(0);
+            if (drops > 0)
             {   // Try to log that there was a queuing error
-                queuing_failed =
-                    !records.offer(new LogRecord(Level.WARNING, "Recovering from JMS Queuing Error"));
+                if (records.offer(new LogRecord(Level.WARNING,
+                        "Recovering from JMS Queuing Error, dropped " + drops + " messages")))
+                    published.incrementAndGet();
+                else
+                    unreported_drops.addAndGet(drops);
             }
         }
-        else // Probably reached queue capacity.
-            queuing_failed = true;
+        else
+        {   // Reached queue capacity.
+            dropped.incrementAndGet();
+            unreported_drops.incrementAndGet();
+        }
     }
 
     /** {@inheritDoc} */
@@ -9,9 +9,13 @@ package org.csstudio.logging;
 
 import java.net.InetAddress;
 import java.net.UnknownHostException;
-import java.text.SimpleDateFormat;
-import java.util.Date;
-import java.util.concurrent.BlockingQueue;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Formatter;
 import java.util.logging.LogRecord;
 
@@ -36,6 +40,11 @@ import org.apache.activemq.ActiveMQConnectionFactory;
  *  The remaining {@link LogRecord} elements are directly placed
  *  in the JMS log message and not formatted into (possibly) one
  *  long string via a call to  <code>Formatter.format()</code>.
+ *  <p>
+ *  Records that are queued up are sent in batches of up to {@link #MAX_BATCH}
+ *  messages, each batch committed as one JMS transaction.
+ *  When a batch fails, the transaction is rolled back and the records
+ *  are returned to the front of the queue, to be sent after re-connecting.
  *
  *  @author Kay Kasemir
  */
@@ -45,6 +54,9 @@ public class JMSLogWriter implements ExceptionListener
     /** Re-connection delay in milliseconds */
     private static final int CONNECT_DELAY_MS = 5000;
 
+    /** Maximum number of log messages sent in one JMS transaction */
+    public static final int MAX_BATCH = 100;
+
     /** Application ID included in log messages */
     final private String application_id;
 
@@ -54,8 +66,8 @@ public class JMSLogWriter implements ExceptionListener
     /** JMS topic */
     final private String topic;
 
-    /** {@link BlockingQueue} log messages to be writtem to JMS */
-    final private BlockingQueue<LogRecord> records;
+    /** {@link BlockingDeque} log messages to be writtem to JMS */
+    final private BlockingDeque<LogRecord> records;
 
     /** {@link Formatter} used to partially generate the log message */
     final private Formatter formatter;
@@ -81,19 +93,29 @@ public class JMSLogWriter implements ExceptionListener
     /** <code>thread</code> will run while this flag is <code>true</code> */
     private volatile boolean run;
 
-    /** Date format for JMS message time info */
-    final private static SimpleDateFormat date_format =
-        new SimpleDateFormat(JMSLogMessage.DATE_FORMAT);
+    /** Number of log messages sent to JMS */
+    final private AtomicLong sent = new AtomicLong();
+
+    /** Number of batches sent to JMS */
+    final private AtomicLong batches = new AtomicLong();
+
+    /** Date format for JMS message time info.
+     *  Immutable, so it can be used without synchronization.
+     */
+    final private static DateTimeFormatter date_format =
+        DateTimeFormatter.ofPattern(JMSLogMessage.DATE_FORMAT).withZone(ZoneId.systemDefault());
 
     /** Initialize
      *  @param application_id Application ID to include in JMS messages
      *  @param jms_url JMS server URL
      *  @param topic JMS topic
-     *  @param records {@link BlockingQueue} from which log messages are read
+     *  @param records {@link BlockingDeque} from which log messages are read.
+     *                 Its capacity limits the number of records that are
+     *                 returned to the queue after an error.
      *  @param formatter {@link Formatter} that's partially used to format the message text
      */
     public JMSLogWriter(final String application_id, final String jms_url, final String topic,
-            final BlockingQueue<LogRecord> records, final Formatter formatter)
+            final BlockingDeque<LogRecord> records, final Formatter formatter)
     {
         this.application_id = application_id;
         this.jms_url = jms_url;
@@ -111,6 +133,18 @@ public class JMSLogWriter implements ExceptionListener
         }
     }
 
+    /** @return Number of log messages sent to JMS */
+    public long getSentCount()
+    {
+        return sent.get();
+    }
+
+    /** @return Number of batches (JMS transactions) sent to JMS */
+    public long getBatchCount()
+    {
+        return batches.get();
+    }
+
     /** Start the writer's background thread */
     public void start()
     {
@@ -180,8 +214,8 @@ public class JMSLogWriter implements ExceptionListener
 
             connection.setExceptionListener(this);
             connection.start();
-            session = connection.createSession(/* transacted */false,
-                                               Session.AUTO_ACKNOWLEDGE);
+            session = connection.createSession(/* transacted */true,
+                                               Session.SESSION_TRANSACTED);
             final Topic jms_topic = session.createTopic(topic);
             producer = session.createProducer(jms_topic);
             producer.setDeliveryMode(DeliveryMode.NON_PERSISTENT);
@@ -195,6 +229,16 @@ public class JMSLogWriter implements ExceptionListener
         return true;
     }
 
+    /** Use a session and producer without connecting to JMS, for tests
+     *  @param session JMS Session
+     *  @param producer JMS message producer
+     */
+    void setSession(final Session session, final MessageProducer producer)
+    {
+        this.session = session;
+        this.producer = producer;
+    }
+
     /** Disconnect from JMS.
      *  Safe to call even when already disconnected.
      */
@@ -221,52 +265,109 @@ public class JMSLogWriter implements ExceptionListener
      */
     private void handleRecordQueue() throws JMSException
     {
+        final List<LogRecord> batch = new ArrayList<>(MAX_BATCH);
         try
         {
-            LogRecord record;
-            while (run  &&  (record = records.take()) != null)
+            while (run)
             {
-                // Format text portion of the message
-                String message = formatter.formatMessage(record);
+                // Wait for a record, then add whatever else is already queued up
+                batch.add(records.take());
+                records.drainTo(batch, MAX_BATCH - 1);
+                sendBatch(batch);
+                batch.clear();
+            }
+        }
+        catch (InterruptedException ex)
+        {
+            // Probably interrupted on purpose; quit silently
+        }
+    }
 
-                // Add optional exception info
-                final Throwable exception = record.getThrown();
-                if (exception != null)
-                {
-                    message += " (" + exception.getClass().getName() + ": " +
-                        exception.getMessage() + ")";
-                }
+    /** Send records in one JMS transaction
+     *
+     *  <p>On error, the transaction is rolled back
+     *  and the records are returned to the front of the queue.
+     *
+     *  @param batch Log records to send
+     *  @throws JMSException on internal JMS error
+     */
+    void sendBatch(final List<LogRecord> batch) throws JMSException
+    {
+        try
+        {
+            for (LogRecord record : batch)
+                producer.send(createMapMessage(record));
+            session.commit();
+        }
+        catch (JMSException | RuntimeException ex)
+        {
+            try
+            {
+                session.rollback();
+            }
+            catch (JMSException rollback_ex)
+            {   // Ignore, session will be closed and re-connected
+                rollback_ex = null;
+            }
+            requeue(batch);
+            throw ex;
+        }
+        sent.addAndGet(batch.size());
+        batches.incrementAndGet();
+    }
+
+    /** Return records to the front of the queue, keeping their order
+     *
+     *  <p>Records that no longer fit into the queue are dropped.
+     *
+     *  @param batch Log records that were not sent
+     */
+    private void requeue(final List<LogRecord> batch)
+    {
+        int dropped = 0;
+        for (int i=batch.size()-1; i>=0; --i)
+            if (! records.offerFirst(batch.get(i)))
+                ++dropped;
+        if (dropped > 0)
+        {   // Cannot 'log' the error, because this _is_ part of the logger
+            System.out.println("JMSLogWriter dropped " + dropped + " messages, queue is full");
+        }
+    }
 
-                // Create MapMessage
-                final MapMessage map = session.createMapMessage();
-                map.setString(JMSLogMessage.TYPE, JMSLogMessage.TYPE_LOG);
-                map.setString(JMSLogMessage.TEXT, message);
-                map.setString(JMSLogMessage.SEVERITY, record.getLevel().getName());
+    /** @param record Log record
+     *  @return JMS message for the record
+     *  @throws JMSException on internal JMS error
+     */
+    private MapMessage createMapMessage(final LogRecord record) throws JMSException
+    {
+        // Format text portion of the message
+        String message = formatter.formatMessage(record);
 
-                synchronized (date_format)
-                {
-                    String time_text = date_format.format(new Date(record.getMillis()));
-                    map.setString(JMSLogMessage.CREATETIME, time_text);
-                }
+        // Add optional exception info
+        final Throwable exception = record.getThrown();
+        if (exception != null)
+        {
+            message += " (" + exception.getClass().getName() + ": " +
+                exception.getMessage() + ")";
+        }
 
-                if (record.getSourceClassName() != null)
-                    map.setString(JMSLogMessage.CLASS, record.getSourceClassName());
+        // Create MapMessage
+        final MapMessage map = session.createMapMessage();
+        map.setString(JMSLogMessage.TYPE, JMSLogMessage.TYPE_LOG);
+        map.setString(JMSLogMessage.TEXT, message);
+        map.setString(JMSLogMessage.SEVERITY, record.getLevel().getName());
+        map.setString(JMSLogMessage.CREATETIME, date_format.format(Instant.ofEpochMilli(record.getMillis())));
 
-                if (record.getSourceMethodName() != null)
-                    map.setString(JMSLogMessage.NAME, record.getSourceMethodName());
+        if (record.getSourceClassName() != null)
+            map.setString(JMSLogMessage.CLASS, record.getSourceClassName());
 
-                map.setString(JMSLogMessage.APPLICATION_ID, application_id);
-                map.setString(JMSLogMessage.HOST, host);
-                map.setString(JMSLogMessage.USER, user);
+        if (record.getSourceMethodName() != null)
+            map.setString(JMSLogMessage.NAME, record.getSourceMethodName());
 
-                // Send to JMS
-                producer.send(map);
-            }
-        }
-        catch (InterruptedException ex)
-        {
-            // Probably interrupted on purpose; quit silently
-        }
+        map.setString(JMSLogMessage.APPLICATION_ID, application_id);
+        map.setString(JMSLogMessage.HOST, host);
+        map.setString(JMSLogMessage.USER, user);
+        return map;
     }
 
     /** JMS Exception handler */
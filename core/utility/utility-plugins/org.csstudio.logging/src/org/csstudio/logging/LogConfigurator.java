@@ -7,6 +7,8 @@
  ******************************************************************************/
 package org.csstudio.logging;
 
+import java.util.Collections;
+import java.util.Map;
 import java.util.logging.FileHandler;
 import java.util.logging.Formatter;
 import java.util.logging.Handler;
@@ -59,7 +61,7 @@ public class LogConfigurator
         level = Preferences.getJMSLevel();
         final String jms_url = Preferences.getJMSURL();
         final String topic = Preferences.getJMSTopic();
-        configureJMSLogging(level, jms_url, topic, formatter);
+        configureJMSLogging(level, jms_url, topic, formatter, Preferences.getJMSSampling());
 
         // Forward Eclipse ILog messages to Logger
         if (ilog_listener == null)
@@ -127,6 +129,22 @@ public class LogConfigurator
     public static void configureJMSLogging(final Level level, final String jms_url,
             final String topic,
             final Formatter formatter) throws Exception
+    {
+        configureJMSLogging(level, jms_url, topic, formatter, Collections.emptyMap());
+    }
+
+    /** Configure a JMS logger
+     *  @param level Log level. <code>Level.OFF</code> to disable JMS logging
+     *  @param jms_url JMS server URL
+     *  @param topic JMS topic
+     *  @param formatter Formatter
+     *  @param sampling Map of logger names to sampling rate, send every N-th message
+     *  @throws Exception on error
+     */
+    public static void configureJMSLogging(final Level level, final String jms_url,
+            final String topic,
+            final Formatter formatter,
+            final Map<String, Integer> sampling) throws Exception
     {
         final JMSLogHandler copy = jms_handler;
         jms_handler = null;
@@ -141,6 +159,8 @@ public class LogConfigurator
         jms_handler = new JMSLogHandler(jms_url, topic);
         jms_handler.setLevel(level);
         jms_handler.setFormatter(formatter);
+        for (Map.Entry<String, Integer> entry : sampling.entrySet())
+            jms_handler.setSampling(entry.getKey(), entry.getValue());
         jms_handler.start();
         root.addHandler(jms_handler);
     }
@@ -7,6 +7,8 @@
  ******************************************************************************/
 package org.csstudio.logging;
 
+import java.util.HashMap;
+import java.util.Map;
 import java.util.logging.Level;
 
 import org.eclipse.core.runtime.Platform;
@@ -27,6 +29,7 @@ public class Preferences
     final public static String JMS_LEVEL = "jms_level";
     final public static String JMS_URL = "jms_url";
     final public static String JMS_TOPIC = "jms_topic";
+    final public static String JMS_SAMPLING = "jms_sampling";
 
     /** @return {@link LogFormatDetail} from preferences or a default
      *  @throws Exception when value cannot be parsed
@@ -165,4 +168,31 @@ public class Preferences
             jms_topic = prefs.getString(Activator.ID, JMS_TOPIC, jms_topic, null);
         return jms_topic.trim();
     }
+
+    /** @return Map of logger names to JMS sampling rate, send every N-th message
+     *  @throws Exception when value cannot be parsed
+     */
+    public static Map<String, Integer> getJMSSampling() throws Exception
+    {
+        final Map<String, Integer> sampling = new HashMap<>();
+        final IPreferencesService prefs = Platform.getPreferencesService();
+        if (prefs == null)
+            return sampling;
+        final String txt = prefs.getString(Activator.ID, JMS_SAMPLING, "", null);
+        for (String setting : txt.split(","))
+        {
+            if (setting.trim().isEmpty())
+                continue;
+            final String[] logger_every = setting.split("=");
+            try
+            {
+                sampling.put(logger_every[0].trim(), Integer.parseInt(logger_every[1].trim()));
+            }
+            catch (Throwable ex)
+            {
+                throw new Exception("Illegal JMS sampling '" + setting + "'");
+            }
+        }
+        return sampling;
+    }
 }
@@ -22,6 +22,8 @@ public class Preferences {
 
     final public static String USE_CACHE = "use_cache";
     final public static String CACHE_MAX_SIZE = "cache_max_size";
+    final public static String RASTER_CACHE_SIZE = "raster_cache_mb";
+    final public static String RASTER_THREADS = "raster_threads";
 
     public static boolean getUseCache() {
         final IPreferencesService service = Platform.getPreferencesService();
@@ -39,4 +41,22 @@ public class Preferences {
         return service.getInt(Activator.PLUGIN_ID, CACHE_MAX_SIZE, 100, null);
     }
 
+    /** @return Memory budget of the {@link SVGRasterCache} in MB, 0 to disable it */
+    public static int getRasterCacheSize() {
+        final IPreferencesService service = Platform.getPreferencesService();
+        if (service == null) {
+            return 32;
+        }
+        return service.getInt(Activator.PLUGIN_ID, RASTER_CACHE_SIZE, 32, null);
+    }
+
+    /** @return Number of threads used by the {@link SVGRasterCache} to render images */
+    public static int getRasterThreads() {
+        final IPreferencesService service = Platform.getPreferencesService();
+        if (service == null) {
+            return 2;
+        }
+        return service.getInt(Activator.PLUGIN_ID, RASTER_THREADS, 2, null);
+    }
+
 }
@@ -0,0 +1,311 @@
+/*******************************************************************************
+ * Copyright (c) 2010-2016 ITER Organization.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.utility.batik;
+
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+
+import org.csstudio.java.thread.SizeBoundedCache;
+import org.eclipse.swt.graphics.Color;
+import org.eclipse.swt.graphics.ImageData;
+import org.eclipse.swt.graphics.RGB;
+import org.eclipse.swt.widgets.Display;
+import org.w3c.dom.svg.SVGDocument;
+
+/**
+ * Process-wide cache of rasterized static {@link SVGDocument}s.
+ * <p>
+ * Displays often show the same SVG symbol in many widgets. Instead of each
+ * widget rendering its own copy through Batik on the UI thread, rasterized
+ * images are shared by document URI, size, color overrides and transform
+ * matrix. Missing images are rendered by a small pool of worker threads,
+ * requests for an image that is already being rendered are merged.
+ * <p>
+ * Only documents without animation should be cached, see
+ * {@link SVGHandler#isDynamicDocument()}. The cache is limited by the number
+ * of bytes of image data it holds and evicts the least recently used images.
+ * Cached {@link ImageData} must be treated as read-only.
+ */
+public class SVGRasterCache {
+
+    /** Cache key: Document and the parameters used to render it. */
+    public static final class Key {
+        private final String uri;
+        private final int width, height;
+        private final RGB colorToChange, colorToApply;
+        private final double[][] matrix;
+
+        /**
+         * @param uri Document URI
+         * @param width Canvas width, -1 for document size
+         * @param height Canvas height, -1 for document size
+         * @param colorToChange Color to replace, may be <code>null</code>
+         * @param colorToApply Replacement color, <code>null</code> to keep original colors
+         * @param matrix Transform matrix, <code>null</code> for identity
+         */
+        public Key(final String uri, final int width, final int height,
+                final RGB colorToChange, final RGB colorToApply, final double[][] matrix) {
+            this.uri = uri;
+            this.width = width;
+            this.height = height;
+            this.colorToChange = colorToApply == null ? null : colorToChange;
+            this.colorToApply = colorToApply;
+            this.matrix = matrix == null ? new double[][] { { 1, 0 }, { 0, 1 } } : copy(matrix);
+        }
+
+        private static double[][] copy(final double[][] matrix) {
+            final double[][] result = new double[matrix.length][];
+            for (int i = 0; i < matrix.length; ++i)
+                result[i] = matrix[i].clone();
+            return result;
+        }
+
+        /** @return Document URI */
+        public String getURI() {
+            return uri;
+        }
+
+        @Override
+        public int hashCode() {
+            int result = uri.hashCode();
+            result = 31 * result + width;
+            result = 31 * result + height;
+            result = 31 * result + Objects.hashCode(colorToChange);
+            result = 31 * result + Objects.hashCode(colorToApply);
+            result = 31 * result + Arrays.deepHashCode(matrix);
+            return result;
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (this == obj)
+                return true;
+            if (!(obj instanceof Key))
+                return false;
+            final Key other = (Key) obj;
+            return uri.equals(other.uri) && width == other.width && height == other.height
+                    && Objects.equals(colorToChange, other.colorToChange)
+                    && Objects.equals(colorToApply, other.colorToApply)
+                    && Arrays.deepEquals(matrix, other.matrix);
+        }
+
+        @Override
+        public String toString() {
+            return uri + " " + width + "x" + height; //$NON-NLS-1$ //$NON-NLS-2$
+        }
+    }
+
+    private static SVGRasterCache instance;
+
+    private final ExecutorService executor;
+
+    private final SizeBoundedCache<Key, ImageData> cache;
+
+    /** Listeners waiting for images that are being rendered */
+    private final Map<Key, List<Consumer<ImageData>>> pending = new HashMap<>();
+
+    private long renders = 0;
+
+    /**
+     * @param maxBytes Memory budget in bytes, 0 to disable the cache
+     * @param threads Number of render threads
+     */
+    public SVGRasterCache(final long maxBytes, final int threads) {
+        cache = new SizeBoundedCache<>(maxBytes, SVGRasterCache::getSize);
+        final AtomicInteger count = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(Math.max(1, threads), runnable -> {
+            final Thread thread = new Thread(runnable, "SVG Render " + count.incrementAndGet()); //$NON-NLS-1$
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /** @return Shared instance, configured according to the preferences */
+    public static synchronized SVGRasterCache getInstance() {
+        if (instance == null)
+            instance = new SVGRasterCache(Preferences.getRasterCacheSize() * 1024L * 1024L,
+                    Preferences.getRasterThreads());
+        return instance;
+    }
+
+    /** @return <code>true</code> if images are cached */
+    public boolean isEnabled() {
+        return cache.getMaxSize() > 0;
+    }
+
+    /**
+     * @param key Key
+     * @return Cached image data or <code>null</code>
+     */
+    public ImageData get(final Key key) {
+        return cache.get(key);
+    }
+
+    /**
+     * Add image data to the cache. Images larger than the complete budget are
+     * not cached.
+     *
+     * @param key Key
+     * @param data Image data, must not be modified afterwards
+     */
+    public void put(final Key key, final ImageData data) {
+        cache.put(key, data);
+    }
+
+    /**
+     * Render a document in the background and add the result to the cache.
+     * <p>
+     * The listener is called from a render thread, with <code>null</code> if
+     * the document could not be rendered. If the image is already being
+     * rendered, the listener is added to that request.
+     *
+     * @param key Key that describes how to render the document
+     * @param document Document to render. It is only read, and locked while
+     *            being read, so it must not be modified by its owner.
+     * @param display Display used to create the colors
+     * @param hints Rendering hints, may be <code>null</code>
+     * @param listener Called with the rendered image data
+     */
+    public void render(final Key key, final SVGDocument document, final Display display,
+            final Map<RenderingHints.Key, Object> hints, final Consumer<ImageData> listener) {
+        synchronized (this) {
+            final ImageData data = cache.peek(key);
+            if (data == null) {
+                final List<Consumer<ImageData>> listeners = pending.get(key);
+                if (listeners != null) {
+                    listeners.add(listener);
+                    return;
+                }
+                pending.put(key, new ArrayList<>(Arrays.asList(listener)));
+            } else {
+                listener.accept(data);
+                return;
+            }
+        }
+        executor.execute(() -> {
+            ImageData data = null;
+            try {
+                data = doRender(key, document, display, hints);
+            } catch (Exception ex) {
+                Activator.getLogger().log(Level.WARNING, "Error rendering SVG image " + key, ex); //$NON-NLS-1$
+            }
+            final List<Consumer<ImageData>> listeners;
+            synchronized (this) {
+                ++renders;
+                if (data != null)
+                    put(key, data);
+                listeners = pending.remove(key);
+            }
+            for (Consumer<ImageData> waiting : listeners)
+                waiting.accept(data);
+        });
+    }
+
+    private static ImageData doRender(final Key key, final SVGDocument document, final Display display,
+            final Map<RenderingHints.Key, Object> hints) {
+        final SVGHandler handler;
+        // The handler only reads the document to create its own copy
+        synchronized (document) {
+            handler = new SVGHandler(document, display);
+        }
+        final Color colorToChange = key.colorToChange == null ? null : new Color(display, key.colorToChange);
+        final Color colorToApply = key.colorToApply == null ? null : new Color(display, key.colorToApply);
+        try {
+            if (hints != null)
+                for (Map.Entry<RenderingHints.Key, Object> hint : hints.entrySet())
+                    handler.setRenderingHint(hint.getKey(), hint.getValue());
+            handler.setColorToChange(colorToChange);
+            handler.setColorToApply(colorToApply);
+            handler.setTransformMatrix(key.matrix);
+            handler.setCanvasSize(key.width, key.height);
+            final BufferedImage awtImage = handler.getOffScreen();
+            return awtImage == null ? null : SVGUtils.toSWT(display, awtImage);
+        } finally {
+            handler.dispose();
+            if (colorToChange != null)
+                colorToChange.dispose();
+            if (colorToApply != null)
+                colorToApply.dispose();
+        }
+    }
+
+    /**
+     * Remove all images of a document, for example after it was modified
+     *
+     * @param uri Document URI
+     */
+    public void invalidate(final String uri) {
+        cache.removeIf(key -> key.uri.equals(uri));
+    }
+
+    /** Remove all images */
+    public void clear() {
+        cache.clear();
+    }
+
+    /** @return Number of cached images */
+    public int getEntries() {
+        return cache.getEntries();
+    }
+
+    /** @return Bytes of image data held by the cache */
+    public long getBytes() {
+        return cache.getSize();
+    }
+
+    /** @return Number of successful lookups */
+    public long getHits() {
+        return cache.getHits();
+    }
+
+    /** @return Number of failed lookups */
+    public long getMisses() {
+        return cache.getMisses();
+    }
+
+    /** @return Number of documents rendered in the background */
+    public synchronized long getRenders() {
+        return renders;
+    }
+
+    /** @return Number of images removed to stay within the budget */
+    public long getEvictions() {
+        return cache.getEvictions();
+    }
+
+    /**
+     * @param data Image data
+     * @return Approximate memory used by the image data in bytes
+     */
+    public static long getSize(final ImageData data) {
+        if (data == null)
+            return 0;
+        long size = data.data == null ? 0 : data.data.length;
+        if (data.alphaData != null)
+            size += data.alphaData.length;
+        if (data.maskData != null)
+            size += data.maskData.length;
+        return size;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "SVGRasterCache: " + cache + ", " + renders + " renders"; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+    }
+}